@@ -0,0 +1,123 @@
+package org.teamtators.common.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Compares two sets of JMH results in JSON format, printing the change in score and normalized allocation rate for
+ * each benchmark.
+ * <p>
+ * Usage: BenchmarkComparison &lt;baseline.json&gt; &lt;results.json&gt; [report.txt]
+ */
+public class BenchmarkComparison {
+    private static final String ALLOC_RATE_NORM = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <results.json> [report.txt]");
+            System.exit(1);
+        }
+        File baselineFile = new File(args[0]);
+        if (!baselineFile.exists()) {
+            System.err.println("No baseline at " + baselineFile + ", run jmhSaveBaseline first");
+            System.exit(1);
+        }
+        Map<String, Result> baseline = readResults(baselineFile);
+        Map<String, Result> results = readResults(new File(args[1]));
+        String report = compare(baseline, results);
+        System.out.print(report);
+        if (args.length > 2) {
+            File reportFile = new File(args[2]);
+            reportFile.getParentFile().mkdirs();
+            Files.write(reportFile.toPath(), report.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    static Map<String, Result> readResults(File file) throws IOException {
+        JsonNode root = new ObjectMapper().readTree(file);
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode node : root) {
+            Result result = new Result();
+            result.unit = node.path("primaryMetric").path("scoreUnit").asText();
+            result.score = node.path("primaryMetric").path("score").asDouble();
+            result.error = node.path("primaryMetric").path("scoreError").asDouble();
+            result.allocBytes = Double.NaN;
+            // the GC profiler names its metrics with a leading middle dot, so match on the suffix
+            Iterator<Map.Entry<String, JsonNode>> secondary = node.path("secondaryMetrics").fields();
+            while (secondary.hasNext()) {
+                Map.Entry<String, JsonNode> metric = secondary.next();
+                if (metric.getKey().endsWith(ALLOC_RATE_NORM)) {
+                    result.allocBytes = metric.getValue().path("score").asDouble();
+                }
+            }
+            results.put(getName(node), result);
+        }
+        return results;
+    }
+
+    private static String getName(JsonNode node) {
+        StringBuilder name = new StringBuilder(node.path("benchmark").asText()
+                .replace("org.teamtators.common.", ""));
+        Iterator<Map.Entry<String, JsonNode>> params = node.path("params").fields();
+        while (params.hasNext()) {
+            Map.Entry<String, JsonNode> param = params.next();
+            name.append(':').append(param.getKey()).append('=').append(param.getValue().asText());
+        }
+        return name.toString();
+    }
+
+    static String compare(Map<String, Result> baseline, Map<String, Result> results) {
+        StringWriter out = new StringWriter();
+        PrintWriter writer = new PrintWriter(out);
+        writer.printf("%-60s %22s %22s %8s %12s %12s%n",
+                "Benchmark", "Baseline", "Current", "Change", "Base B/op", "Cur B/op");
+        Set<String> names = new TreeSet<>(baseline.keySet());
+        names.addAll(results.keySet());
+        for (String name : names) {
+            Result base = baseline.get(name);
+            Result current = results.get(name);
+            writer.printf("%-60s %22s %22s %8s %12s %12s%n", name,
+                    base == null ? "-" : base.formatScore(),
+                    current == null ? "-" : current.formatScore(),
+                    base == null || current == null ? "" : formatChange(base.score, current.score),
+                    base == null ? "-" : formatBytes(base.allocBytes),
+                    current == null ? "-" : formatBytes(current.allocBytes));
+        }
+        writer.flush();
+        return out.toString();
+    }
+
+    private static String formatChange(double base, double current) {
+        if (base == 0.0) {
+            return "";
+        }
+        return String.format("%+.1f%%", (current - base) / base * 100.0);
+    }
+
+    private static String formatBytes(double bytes) {
+        return Double.isNaN(bytes) ? "-" : String.format("%.1f", bytes);
+    }
+
+    static class Result {
+        double score;
+        double error;
+        String unit;
+        double allocBytes;
+
+        String formatScore() {
+            return String.format("%.2f+-%.2f %s", score, error, unit);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.teamtators.common.control;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares planning and following a trapezoidal profile with an S-curve profile over the same move, with the pivot's
+ * acceleration and jerk limits
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MotionProfileBenchmark {
+    private static final double PERIOD = 1.0 / 100.0;
+
+    @Param({"TRAPEZOIDAL", "S_CURVE"})
+    public String type;
+
+    private TrapezoidalProfile profile;
+    private TrapezoidalProfileCalculator calculator;
+    private double totalTime;
+    private double position;
+
+    @Setup
+    public void setup() {
+        if (type.equals("S_CURVE")) {
+            profile = new SCurveProfile(90.0, 0.0, 200.0, 0.0, 800.0, 8000.0);
+        } else {
+            profile = new TrapezoidalProfile(90.0, 0.0, 200.0, 0.0, 800.0);
+        }
+        calculator = profile.createCalculator();
+        totalTime = calculator.getTotalTime();
+    }
+
+    @Benchmark
+    public MotionProfilePlan createPlan() {
+        return profile.createPlan();
+    }
+
+    /**
+     * Steps through the profile one control period at a time, wrapping around at the end
+     */
+    @Benchmark
+    public void calculate(Blackhole blackhole) {
+        if (calculator.getTime() > totalTime) {
+            calculator.setTime(0.0);
+        }
+        blackhole.consume(calculator.update(PERIOD));
+        blackhole.consume(calculator.getPosition());
+        blackhole.consume(calculator.getVelocity());
+    }
+
+    /**
+     * Finds the time at positions across the whole profile
+     */
+    @Benchmark
+    public void getTimeAtPosition(Blackhole blackhole) {
+        position += 0.37;
+        if (position > 90.0) {
+            position = 0.0;
+        }
+        blackhole.consume(calculator.getPlan().getTimeAtPosition(position));
+    }
+}
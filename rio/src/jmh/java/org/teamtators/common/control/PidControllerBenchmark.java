@@ -0,0 +1,76 @@
+package org.teamtators.common.control;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PidControllerBenchmark {
+    private static final double PERIOD = 1.0 / 100.0;
+    private static final int INPUT_COUNT = 1024;
+
+    private PidController controller;
+    // a noisy ramp around the setpoint, so the error, integral and derivative terms all change every call
+    private final double[] inputs = new double[INPUT_COUNT];
+    private int inputIdx;
+    private double input;
+    private double output;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            inputs[i] = 20.0 * i / INPUT_COUNT + Math.sin(i * 0.7) * 0.5;
+        }
+        // the step stores the input before computing the output, so read the benchmark input directly instead
+        controller = new PidController("benchmark", 0.1, 0.01, 0.001) {
+            @Override
+            public double getInput() {
+                return input;
+            }
+
+            @Override
+            protected double getError() {
+                return getStepSetpoint() - input;
+            }
+        };
+        controller.setF(0.02);
+        controller.setInputProvider(() -> input);
+        controller.setOutputConsumer(output -> this.output = output);
+        controller.setSetpoint(10.0);
+        controller.start();
+        // apply the setpoint
+        controller.update(PERIOD);
+    }
+
+    @TearDown
+    public void tearDown() {
+        controller.stop();
+    }
+
+    private void nextInput() {
+        input = inputs[inputIdx];
+        inputIdx = (inputIdx + 1) & (INPUT_COUNT - 1);
+    }
+
+    @Benchmark
+    public void computeOutput(Blackhole blackhole) {
+        nextInput();
+        blackhole.consume(controller.computeOutput(PERIOD));
+    }
+
+    /**
+     * The whole controller step, including the setpoint mailbox and publishing state
+     */
+    @Benchmark
+    public void update(Blackhole blackhole) {
+        nextInput();
+        controller.update(PERIOD);
+        blackhole.consume(output);
+    }
+}
@@ -0,0 +1,65 @@
+package org.teamtators.common.control;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrapezoidalProfileCalculatorBenchmark {
+    private static final double PERIOD = 1.0 / 100.0;
+
+    private TrapezoidalProfileCalculator calculator;
+    private double totalTime;
+    private double position;
+
+    @Setup
+    public void setup() {
+        calculator = new TrapezoidalProfileCalculator(new TrapezoidalProfile(60.0, 0.0, 40.0, 0.0, 80.0));
+        totalTime = calculator.getTotalTime();
+    }
+
+    /**
+     * Steps through the profile one control period at a time, wrapping around at the end
+     */
+    @Benchmark
+    public void calculate(Blackhole blackhole) {
+        if (calculator.getTime() > totalTime) {
+            calculator.setTime(0.0);
+        }
+        blackhole.consume(calculator.update(PERIOD));
+        blackhole.consume(calculator.getPosition());
+        blackhole.consume(calculator.getVelocity());
+    }
+
+    /**
+     * Replans to the same profile, which finds its plan in the cache
+     */
+    @Benchmark
+    public void updateProfile(Blackhole blackhole) {
+        calculator.updateProfile(calculator.getProfile());
+        blackhole.consume(calculator.getTotalTime());
+    }
+
+    @Benchmark
+    public TrapezoidalProfilePlan planUncached() {
+        return new TrapezoidalProfilePlan(calculator.getProfile());
+    }
+
+    /**
+     * Finds the time at positions across the whole profile
+     */
+    @Benchmark
+    public void getTimeAtPosition(Blackhole blackhole) {
+        position += 0.37;
+        if (position > 60.0) {
+            position = 0.0;
+        }
+        blackhole.consume(calculator.getPlan().getTimeAtPosition(position));
+    }
+}
@@ -0,0 +1,172 @@
+package org.teamtators.common.drive;
+
+import org.openjdk.jmh.annotations.*;
+import org.teamtators.common.math.MutablePose2d;
+import org.teamtators.common.math.Pose2d;
+import org.teamtators.common.math.Rotation;
+import org.teamtators.common.math.Translation2d;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the pursuit report calculation over a sequence of poses along a path with straights and arcs, resetting the
+ * follower whenever it reaches the end.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DriveSegmentsFollowerBenchmark {
+    private static final double LOOKAHEAD = 12.0;
+    private static final double STEP = 0.5; // in, distance driven between each pose
+
+    private DriveSegmentsFollower follower;
+    private Pose2d[] poses;
+    private MutablePose2d[] mutablePoses;
+    private int poseIdx;
+
+    static DrivePath getPath() {
+        DrivePath path = new DrivePath();
+        DrivePath.Point point = new DrivePath.Point();
+        point.setRadius(12);
+        point.setSpeed(30);
+        point.setArcSpeed(20);
+        point.setReverse(false);
+        double[][] points = {{0, 0}, {0, 30}, {30, 30}, {30, 70}, {-30, 70}, {-30, 30}, {0, 30}, {0, 0}};
+        for (double[] xy : points) {
+            point.setTranslation(new Translation2d(xy[0], xy[1]));
+            path.addPoint(point.copy());
+        }
+        return path;
+    }
+
+    @Setup
+    public void setup() {
+        DriveSegments segments = getPath().toSegments();
+        follower = new DriveSegmentsFollower(new StationaryTankDrive());
+        follower.setSegments(segments);
+        follower.setLookAheadFunction(rate -> STEP);
+
+        List<Pose2d> poseList = new ArrayList<>();
+        Pose2d pose = new Pose2d(Translation2d.zero(), Rotation.fromDegrees(90));
+        while (true) {
+            poseList.add(pose);
+            follower.updatePursuitReport(pose, 0.0);
+            PursuitReport report = follower.getReport();
+            if (report.isFinished) {
+                break;
+            }
+            pose = report.lookaheadPoint.toPose2d();
+        }
+        poses = poseList.toArray(new Pose2d[0]);
+        mutablePoses = new MutablePose2d[poses.length];
+        for (int i = 0; i < poses.length; i++) {
+            mutablePoses[i] = new MutablePose2d(poses[i]);
+        }
+
+        follower.setLookAheadFunction(rate -> LOOKAHEAD);
+        follower.reset();
+        poseIdx = 0;
+    }
+
+    @Benchmark
+    public PursuitReport updatePursuitReport() {
+        if (poseIdx >= poses.length) {
+            follower.reset();
+            poseIdx = 0;
+        }
+        follower.updatePursuitReport(poses[poseIdx++], 30.0);
+        return follower.getReport();
+    }
+
+    @Benchmark
+    public PursuitReport updatePursuitReportMutable() {
+        if (poseIdx >= mutablePoses.length) {
+            follower.reset();
+            poseIdx = 0;
+        }
+        follower.updatePursuitReport(mutablePoses[poseIdx++], 30.0);
+        return follower.getReport();
+    }
+
+    private static class StationaryTankDrive implements TankDrive {
+        private final TankKinematics kinematics = new TankKinematics();
+
+        @Override
+        public void setLeftPower(double power) {
+        }
+
+        @Override
+        public void setRightPower(double right) {
+        }
+
+        @Override
+        public void setRightSpeed(double rightSpeed) {
+        }
+
+        @Override
+        public void setLeftSpeed(double leftSpeed) {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public double getLeftDistance() {
+            return 0;
+        }
+
+        @Override
+        public double getRightDistance() {
+            return 0;
+        }
+
+        @Override
+        public void resetDistances() {
+        }
+
+        @Override
+        public double getLeftRate() {
+            return 0;
+        }
+
+        @Override
+        public double getRightRate() {
+            return 0;
+        }
+
+        @Override
+        public double getYawAngle() {
+            return 0;
+        }
+
+        @Override
+        public void setYawAngle(double yawAngle) {
+        }
+
+        @Override
+        public double getYawRate() {
+            return 0;
+        }
+
+        @Override
+        public Pose2d getPose() {
+            return Pose2d.zero();
+        }
+
+        @Override
+        public TankKinematics getTankKinematics() {
+            return kinematics;
+        }
+
+        @Override
+        public double getMaxSpeed() {
+            return 100.0;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.teamtators.common.drive;
+
+import org.openjdk.jmh.annotations.*;
+import org.teamtators.common.math.MutablePose2d;
+import org.teamtators.common.math.MutableRotation;
+import org.teamtators.common.math.MutableTwist2d;
+import org.teamtators.common.math.Pose2d;
+import org.teamtators.common.math.Rotation;
+import org.teamtators.common.math.Translation2d;
+import org.teamtators.common.math.Twist2d;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TankKinematicsBenchmark {
+    private TankKinematics kinematics;
+    private Twist2d twist;
+    private Pose2d pose;
+    private Rotation endHeading;
+    private final MutableTwist2d mutableTwist = new MutableTwist2d();
+    private final MutablePose2d mutablePose = new MutablePose2d();
+    private final MutableRotation mutableEndHeading = new MutableRotation();
+    private final DriveOutputs outputs = new DriveOutputs();
+
+    @Setup
+    public void setup() {
+        kinematics = new TankKinematics();
+        kinematics.setEffectiveTrackWidth(27.0);
+        twist = new Twist2d(Rotation.fromDegrees(15.0), 24.0);
+        pose = new Pose2d(new Translation2d(12.0, 30.0), Rotation.fromDegrees(80.0));
+        endHeading = Rotation.fromDegrees(81.5);
+        mutableTwist.set(twist);
+        mutableEndHeading.set(endHeading);
+    }
+
+    @Benchmark
+    public DriveOutputs calculateOutputs() {
+        return kinematics.calculateOutputs(twist, 0.5);
+    }
+
+    @Benchmark
+    public Pose2d integratePoseChange() {
+        return kinematics.integratePoseChange(pose, endHeading, 0.4);
+    }
+
+    @Benchmark
+    public DriveOutputs calculateOutputsInto() {
+        return kinematics.calculateOutputs(mutableTwist, 0.5, outputs);
+    }
+
+    @Benchmark
+    public MutablePose2d integratePoseChangeInPlace() {
+        return kinematics.integratePoseChange(mutablePose.set(pose), mutableEndHeading, 0.4);
+    }
+}
@@ -0,0 +1,45 @@
+package org.teamtators.common.hw;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes the frames the gyro sends in one control loop period. The frames are generated from a noisy rate signal the
+ * same way the gyro encodes them, with an occasional bad frame so the slow path is included.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ADXRS453DecoderBenchmark {
+    @Param({"20", "2048"})
+    public int frameCount;
+
+    private final ADXRS453Decoder decoder = new ADXRS453Decoder();
+    private IntBuffer frames;
+    private short[] rates;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(453);
+        frames = ByteBuffer.allocateDirect(frameCount * Integer.BYTES).asIntBuffer();
+        rates = new short[frameCount];
+        for (int i = 0; i < frameCount; i++) {
+            // turning at up to 360 degrees per second, at 80 LSB per degree per second
+            short rate = (short) (80 * 360 * Math.sin(i / 200.0) + random.nextGaussian() * 8);
+            int status = random.nextInt(1000) == 0 ? ADXRS453Decoder.kInvalidData : ADXRS453Decoder.kValidData;
+            frames.put(i, ADXRS453Decoder.encodeSensorData(rate, status, 0));
+        }
+    }
+
+    @Benchmark
+    public int decode() {
+        return decoder.decode(frames, 0, frameCount, rates, 0);
+    }
+}
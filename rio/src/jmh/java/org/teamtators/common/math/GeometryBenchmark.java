@@ -0,0 +1,91 @@
+package org.teamtators.common.math;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The geometry operations which the path follower and pose estimator chain together every tick
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryBenchmark {
+    private Pose2d pose;
+    private Pose2d other;
+    private Rotation rotation;
+    private Translation2d point;
+    private final MutablePose2d mutablePose = new MutablePose2d();
+    private final MutableTwist2d mutableTwist = new MutableTwist2d();
+
+    @Setup
+    public void setup() {
+        pose = new Pose2d(new Translation2d(12.0, 30.0), Rotation.fromDegrees(80.0));
+        other = new Pose2d(new Translation2d(0.3, -0.1), Rotation.fromDegrees(1.5));
+        rotation = Rotation.fromDegrees(37.0);
+        point = new Translation2d(40.0, 52.0);
+    }
+
+    @Benchmark
+    public Pose2d poseChain() {
+        return pose.chain(other);
+    }
+
+    @Benchmark
+    public Pose2d poseAdd() {
+        return pose.add(other);
+    }
+
+    @Benchmark
+    public Pose2d poseRotateBy() {
+        return pose.rotateBy(rotation);
+    }
+
+    @Benchmark
+    public Pose2d poseExtend() {
+        return pose.extend(6.0);
+    }
+
+    @Benchmark
+    public Translation2d poseNearestPoint() {
+        return pose.getNearestPoint(point);
+    }
+
+    @Benchmark
+    public Rotation rotationAdd() {
+        return rotation.add(pose.getYaw());
+    }
+
+    @Benchmark
+    public Rotation rotationSub() {
+        return rotation.sub(pose.getYaw());
+    }
+
+    @Benchmark
+    public Rotation rotationFromDegrees() {
+        return Rotation.fromDegrees(37.0);
+    }
+
+    @Benchmark
+    public Translation2d translationRotateBy() {
+        return point.rotateBy(rotation);
+    }
+
+    @Benchmark
+    public Twist2d twistFromTangentArc() {
+        return Twist2d.fromTangentArc(pose, point);
+    }
+
+    @Benchmark
+    public MutablePose2d mutablePoseChain() {
+        return mutablePose.set(pose).chain(other);
+    }
+
+    @Benchmark
+    public MutableTwist2d mutableTwistFromTangentArc() {
+        return MutableTwist2d.fromTangentArc(pose, point.getX(), point.getY(), mutableTwist);
+    }
+}
@@ -0,0 +1,79 @@
+package org.teamtators.common.scheduler;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * One tick of the scheduler with triggers bound to buttons which are not pressed, a few long running commands, and one
+ * command which is restarted every tick. The buttons are either polled lambdas or bits of controller-sized bitfields.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulerBenchmark {
+    private static final int RUNNING_COMMANDS = 5;
+    private static final int BUTTONS_PER_CONTROLLER = 12;
+
+    @Param({"10", "100"})
+    public int triggerCount;
+
+    @Param({"POLLED", "BITFIELD"})
+    public String sourceType;
+
+    private Scheduler scheduler;
+
+    private static class StepCommand extends Command {
+        private final boolean finishes;
+
+        StepCommand(String name, boolean finishes) {
+            super(name);
+            this.finishes = finishes;
+        }
+
+        @Override
+        protected void initialize() {
+        }
+
+        @Override
+        public boolean step() {
+            return finishes;
+        }
+
+        @Override
+        protected void finish(boolean interrupted) {
+        }
+    }
+
+    @Setup
+    public void setup() {
+        scheduler = new Scheduler();
+        scheduler.onEnterRobotState(RobotState.TELEOP);
+        IntSupplier[] controllers = new IntSupplier[(triggerCount + BUTTONS_PER_CONTROLLER - 1) / BUTTONS_PER_CONTROLLER];
+        for (int i = 0; i < controllers.length; i++) {
+            controllers[i] = () -> 0;
+        }
+        for (int i = 0; i < triggerCount; i++) {
+            TriggerSource button = sourceType.equals("BITFIELD") ?
+                    new BitfieldTriggerSource(controllers[i / BUTTONS_PER_CONTROLLER], i % BUTTONS_PER_CONTROLLER) :
+                    () -> false;
+            Command command = new StepCommand("trigger" + i, true);
+            scheduler.onTrigger(button).start(command).whenPressed();
+            scheduler.onTrigger(button).cancel(command).whenReleased();
+        }
+        for (int i = 0; i < RUNNING_COMMANDS; i++) {
+            scheduler.startCommand(new StepCommand("running" + i, false));
+        }
+        scheduler.registerDefaultCommand(new StepCommand("default", true));
+        scheduler.execute();
+    }
+
+    @Benchmark
+    public void execute() {
+        scheduler.execute();
+    }
+}
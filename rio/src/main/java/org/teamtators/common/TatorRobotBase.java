@@ -13,13 +13,14 @@ import edu.wpi.first.wpilibj.PowerDistributionPanel;
 import edu.wpi.first.wpilibj.livewindow.LiveWindow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.slf4j.profiler.Profiler;
 import org.teamtators.common.commands.CancelCommand;
 import org.teamtators.common.commands.LogCommand;
 import org.teamtators.common.commands.WaitCommand;
 import org.teamtators.common.commands.WaitForCommand;
 import org.teamtators.common.config.ConfigCommandStore;
 import org.teamtators.common.config.ConfigLoader;
+import org.teamtators.common.control.ControlLoop;
+import org.teamtators.common.control.SectionProfiler;
 import org.teamtators.common.control.Timer;
 import org.teamtators.common.control.Updatable;
 import org.teamtators.common.control.UpdatableCollection;
@@ -30,11 +31,14 @@ import org.teamtators.common.datalogging.Dashboard;
 import org.teamtators.common.datalogging.DashboardUpdatable;
 import org.teamtators.common.datalogging.DashboardUpdater;
 import org.teamtators.common.datalogging.DataCollector;
+import org.teamtators.common.drive.CompiledPathFile;
 import org.teamtators.common.scheduler.*;
 import org.teamtators.common.tester.AutomatedTester;
 import org.teamtators.common.tester.ManualTester;
 import org.teamtators.common.util.FMSData;
 
+import java.io.File;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
@@ -48,15 +52,23 @@ public abstract class TatorRobotBase implements RobotStateListener, Updatable, F
     protected final ManualTester tester = new ManualTester();
     protected final AutomatedTester automatedTester = new AutomatedTester(getScheduler());
 
-    protected final Updater updater = new Updater(this, 1 / 100.0);
+    public static final double CONTROL_LOOP_PERIOD = 1 / 100.0;
+    public static final int DASHBOARD_DIVISOR = 10; // 10 Hz
+    public static final int DATA_COLLECTOR_DIVISOR = 1; // 100 Hz, binary logs only
+    public static final double CSV_LOG_PERIOD = 1 / 50.0;
+
     protected final UpdatableCollection controllers = new UpdatableCollection("Controllers");
     protected final UpdatableCollection motors = new UpdatableCollection("Motors");
-    protected final Updater motorUpdater = new Updater(motors, 1 / 100.0);
-    protected final Updater controllerUpdater = new Updater(controllers, 1 / 100.0);
-    protected final DashboardUpdater smartDashboardUpdater = new DashboardUpdater(this, Dashboard.Type.TATOR_DASHBOARD);
-    protected final Updater dashboardUpdater = new Updater(smartDashboardUpdater, 1 / 10.0);
+    protected final DashboardUpdater smartDashboardUpdater = new DashboardUpdater(this, Dashboard.Type.SMART_DASHBOARD);
     protected final DataCollector dataCollector = DataCollector.getDataCollector();
-    protected final Updater dataCollectorUpdater = new Updater(dataCollector, 1.0 / 50.0);
+    protected final ControlLoop controlLoop = new ControlLoop("ControlLoop");
+    protected final ControlLoop.Phase robotPhase;
+    protected final ControlLoop.Phase controllerPhase;
+    protected final ControlLoop.Phase motorPhase;
+    protected final ControlLoop.Phase dashboardPhase;
+    protected final ControlLoop.Phase dataCollectorPhase;
+    protected final Updater updater = new Updater(controlLoop, CONTROL_LOOP_PERIOD);
+    protected final Updater csvLogUpdater = new Updater(dataCollector.getCsvSampler(), CSV_LOG_PERIOD);
     protected List<Controller<?, ?>> gameControllers = Collections.emptyList();
     protected final Timer stateTimer = new Timer();
     protected double lastDelta = 0.0;
@@ -69,16 +81,30 @@ public abstract class TatorRobotBase implements RobotStateListener, Updatable, F
     private List<Subsystem> subsystemList;
 
     private FMSData fmsData = new FMSData();
+    private CompiledPathFile compiledPaths = CompiledPathFile.EMPTY;
 
     private NetworkTableEntry reinitializeEntry;
     protected int reinitializeListener;
 
-    protected Profiler profiler;
+    protected SectionProfiler profiler = SectionProfiler.NONE;
+    private final int schedulerSection = SectionProfiler.getSectionId("Scheduler");
+    private int[] subsystemSections = new int[0];
 
     public TatorRobotBase(String configDir) {
         configMapper.configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true);
         configLoader = new ConfigLoader(configDir, configMapper);
 
+        // sensors and commands, then controllers, then motors, all in the same frame
+        robotPhase = controlLoop.addPhase(this);
+        controllerPhase = controlLoop.addPhase(controllers);
+        motorPhase = controlLoop.addPhase(motors);
+        motorPhase.setEnabled(false);
+        dashboardPhase = controlLoop.addPhase(smartDashboardUpdater, DASHBOARD_DIVISOR);
+        dataCollectorPhase = controlLoop.addPhase(dataCollector, DATA_COLLECTOR_DIVISOR);
+        // CSV rows box and format every value, so they are kept off of the control loop
+        csvLogUpdater.setThreadPriority(Thread.MIN_PRIORITY);
+        addSmartDashboardUpdatable(updater.getMetrics());
+
         reinitializeEntry = NetworkTableInstance.getDefault()
                 .getTable("SmartDashboard")
                 .getEntry("reinitialize");
@@ -114,6 +140,7 @@ public abstract class TatorRobotBase implements RobotStateListener, Updatable, F
         configureSubsystems();
         configureCommands();
         configureTriggers();
+        getCommandStore().warmUp(getWarmUpCommands());
         configureTests();
         setUpDashboards();
         startThreads();
@@ -140,6 +167,10 @@ public abstract class TatorRobotBase implements RobotStateListener, Updatable, F
         this.smartDashboardUpdater.add(smartDashboardUpdatable);
     }
 
+    public void removeSmartDashboardUpdatable(DashboardUpdatable smartDashboardUpdatable) {
+        this.smartDashboardUpdater.remove(smartDashboardUpdatable);
+    }
+
 
     protected void configureSubsystems() {
         pdp = new PowerDistributionPanel();
@@ -156,9 +187,12 @@ public abstract class TatorRobotBase implements RobotStateListener, Updatable, F
         this.motors.addAll(subsystems.getMotorUpdatables());
 
         subsystemList = subsystems.getSubsystemList();
+        subsystemSections = new int[subsystemList.size()];
+        for (int i = 0; i < subsystemList.size(); i++) {
+            subsystemSections[i] = SectionProfiler.getSectionId(subsystemList.get(i).getName());
+        }
         for (Subsystem subsystem : subsystemList) {
-            getScheduler().registerStateListener(subsystem);
-            getScheduler().registerFMSDataListener(subsystem);
+            getScheduler().registerSubsystem(subsystem);
             getTester().registerTestGroup(subsystem.createManualTests());
             getAutomatedTester().addTests(subsystem.createAutomatedTests());
         }
@@ -182,6 +216,7 @@ public abstract class TatorRobotBase implements RobotStateListener, Updatable, F
     protected void configureCommands() {
         logger.debug("Creating commands");
         registerCommands(getCommandStore());
+        compiledPaths = CompiledPathFile.loadOrEmpty(new File(configLoader.getConfigDir()));
         ObjectNode commandsConfig = (ObjectNode) configLoader.load("Commands.yaml");
         getCommandStore().createCommandsFromConfig(commandsConfig);
     }
@@ -190,6 +225,7 @@ public abstract class TatorRobotBase implements RobotStateListener, Updatable, F
         logger.debug("Deconfiguring commands");
         getCommandStore().clearCommands();
         getCommandStore().clearRegistrations();
+        compiledPaths = CompiledPathFile.EMPTY;
     }
 
     protected void configureTests() {
@@ -221,22 +257,20 @@ public abstract class TatorRobotBase implements RobotStateListener, Updatable, F
     protected void startThreads() {
         logger.debug("Starting threads");
         updater.start();
-        controllerUpdater.start();
-        dataCollectorUpdater.start();
-        dashboardUpdater.start();
+        csvLogUpdater.start();
     }
 
     protected void stopThreads() {
         logger.debug("Stopping threads");
+        csvLogUpdater.stop();
         updater.stop();
-        controllerUpdater.stop();
-        dataCollectorUpdater.stop();
-        dashboardUpdater.stop();
     }
 
     @Override
     public void onEnterRobotState(RobotState state) {
         logger.info("==> Robot is in " + state + " <==");
+        logger.info("Control loop timing: {}", updater.getMetrics().getCurrent());
+        updater.getMetrics().setRobotState(state);
         stateTimer.start();
         this.getScheduler().onEnterRobotState(state);
 
@@ -248,11 +282,7 @@ public abstract class TatorRobotBase implements RobotStateListener, Updatable, F
                 this.getScheduler().startCommand(autoCommand);
             }
         }
-        if (state == RobotState.AUTONOMOUS || state == RobotState.TELEOP) {
-            motorUpdater.start();
-        } else {
-            motorUpdater.stop();
-        }
+        motorPhase.setEnabled(state == RobotState.AUTONOMOUS || state == RobotState.TELEOP);
     }
 
     @Override
@@ -265,25 +295,36 @@ public abstract class TatorRobotBase implements RobotStateListener, Updatable, F
     }
 
     public void update(double delta) {
-        profiler = new Profiler(getRobotName());
         lastDelta = delta;
-        getScheduler().setProfiler(profiler.startNested("Scheduler"));
+        profiler.start(schedulerSection);
+        getScheduler().setProfiler(profiler);
+        profiler.push();
         getScheduler().execute();
+        profiler.pop();
 
         if (getState() != RobotState.TEST) {
-            for (Subsystem subsystem : subsystemList) {
-                profiler.start(subsystem.getName());
-                subsystem.update(delta);
+            for (int i = 0; i < subsystemList.size(); i++) {
+                profiler.start(subsystemSections[i]);
+                subsystemList.get(i).update(delta);
             }
         }
-        profiler.stop();
     }
 
     @Override
-    public Profiler getProfiler() {
+    public SectionProfiler getProfiler() {
         return profiler;
     }
 
+    @Override
+    public void setProfiler(SectionProfiler profiler) {
+        this.profiler = profiler == null ? SectionProfiler.NONE : profiler;
+    }
+
+    @Override
+    public boolean hasProfiler() {
+        return true;
+    }
+
     private void setUpDashboards() {
         smartDashboardUpdater.setUpDashboards();
     }
@@ -300,6 +341,17 @@ public abstract class TatorRobotBase implements RobotStateListener, Updatable, F
         return commandStore;
     }
 
+    /**
+     * @return The paths compiled ahead of time, which are reloaded every time commands are configured
+     */
+    public CompiledPathFile getCompiledPaths() {
+        return compiledPaths;
+    }
+
+    public ControlLoop getControlLoop() {
+        return controlLoop;
+    }
+
     public Scheduler getScheduler() {
         return scheduler;
     }
@@ -361,6 +413,14 @@ public abstract class TatorRobotBase implements RobotStateListener, Updatable, F
         return null;
     }
 
+    /**
+     * @return The names of commands to create and configure at startup, such as every auto choice, so they are ready
+     * before they are started. Commands bound to triggers are created when they are bound.
+     */
+    protected Collection<String> getWarmUpCommands() {
+        return Collections.emptyList();
+    }
+
     protected void postInitialize() {
         logger.info("==> Initialized " + getRobotName());
     }
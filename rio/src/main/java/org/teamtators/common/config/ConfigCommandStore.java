@@ -6,17 +6,23 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
 import org.teamtators.common.scheduler.Command;
 import org.teamtators.common.scheduler.CommandStore;
+import org.teamtators.common.scheduler.Commands;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 
 public class ConfigCommandStore extends CommandStore {
     private Map<String, Supplier<Command>> commandSuppliers = new HashMap<String, Supplier<Command>>();
     private Map<String, JsonNode> defaultConfigs = new HashMap<>();
+    // the configs of commands which have not been created yet
+    private Map<String, JsonNode> commandConfigs = new HashMap<>();
 
     public static ObjectNode applyDefaults(ObjectNode object, ObjectNode defaults) {
         ObjectNode result = defaults.deepCopy();
@@ -77,37 +83,72 @@ public class ConfigCommandStore extends CommandStore {
         registerClass(commandClass.getSimpleName(), commandClass);
     }
 
-    public void createCommandsFromConfig(ObjectNode json) throws ConfigException {
+    /**
+     * Reads the commands from the config. Commands are not created until they are first looked up with
+     * {@link #getCommand(String)}, so only the commands which are used are created and configured. Use
+     * {@link #warmUp(java.util.Collection)} to create commands ahead of time.
+     *
+     * @param json The config of all commands
+     */
+    public synchronized void createCommandsFromConfig(ObjectNode json) throws ConfigException {
         Iterator<Map.Entry<String, JsonNode>> it = json.fields();
         while (it.hasNext()) {
             Map.Entry<String, JsonNode> field = it.next();
             String commandName = field.getKey();
             char prefix = commandName.charAt(0);
-            if (prefix == '$') { // Sequential command config
-//                logger.trace("Creating CommandGroup '" + commandName + "'");
-                putCommand(commandName, new ConfigSequentialCommand(this));
-            } else if (prefix == '^') {
+            if (prefix == '^') {
                 String defaultFor = commandName.substring(1);
 //                logger.trace("Adding default config for command '" + defaultFor + "'");
                 defaultConfigs.put(defaultFor, field.getValue());
             } else {
-//                logger.trace("Creating command '" + commandName + "'");
-                createCommandFromConfig(commandName, field.getValue());
+                commandConfigs.put(commandName, field.getValue());
             }
         }
-        HashMap<String, Command> commandsMapCopy = new HashMap<>(getCommands());
-        for (Map.Entry<String, Command> commandEntry : commandsMapCopy.entrySet()) {
-            Command command = commandEntry.getValue();
-//            logger.trace("Configuring command '" + command.getName() + "'");
-            JsonNode config = json.get(command.getName());
-            configureCommand(command, config);
+    }
+
+    @Override
+    protected Command createCommand(String commandName) {
+        JsonNode config = commandConfigs.remove(commandName);
+        if (config == null) {
+            return null;
         }
-        for (int i = 0; i < 10; i++) {
-            for (Map.Entry<String, Command> commandEntry : commandsMapCopy.entrySet()) {
-                Command command = commandEntry.getValue();
-                command.updateRequirements();
+        Command command = null;
+        try {
+            char prefix = commandName.charAt(0);
+            if (prefix == '$') { // Sequential command config
+//                logger.trace("Creating CommandGroup '" + commandName + "'");
+                command = new ConfigSequentialCommand(this);
+                putCommand(commandName, command);
+            } else if (prefix == '+') { // Parallel command config
+                command = new ConfigParallelCommand(this);
+                putCommand(commandName, command);
+            } else if (prefix == '~') { // Race command config
+                command = new ConfigRaceCommand(this);
+                putCommand(commandName, command);
+            } else if (prefix == '=') { // Deadline command config
+                command = new ConfigDeadlineCommand(this);
+                putCommand(commandName, command);
+            } else {
+//                logger.trace("Creating command '" + commandName + "'");
+                command = createCommandFromConfig(commandName, config);
             }
+//            logger.trace("Configuring command '" + command.getName() + "'");
+            // configuring may modify the config, so configure a copy in case it has to be done again
+            configureCommand(command, config.deepCopy());
+            Commands.updateRequirements(Collections.singletonList(command));
+        } catch (RuntimeException e) {
+            // don't leave a command which is not configured, and fail the same way on the next lookup
+            getCommands().remove(commandName);
+            commandConfigs.put(commandName, config);
+            throw e;
         }
+        return command;
+    }
+
+    @Override
+    public synchronized void clearCommands() {
+        super.clearCommands();
+        commandConfigs.clear();
     }
 
     public void configureCommand(Command command, JsonNode config) throws ConfigException {
@@ -148,4 +189,65 @@ public class ConfigCommandStore extends CommandStore {
         putCommand(commandName, command);
         return command;
     }
+
+    private String findNextCommandName(String className, Command group) {
+        int postfix = 1;
+        String name;
+        do {
+            name = String.format("%s<%s>%d", className, group.getName(), postfix);
+            postfix++;
+        } while (getCommands().containsKey(name) || commandConfigs.containsKey(name));
+        return name;
+    }
+
+    /**
+     * Gets a command in a command group from its config, which is either the name of a command, or an object with
+     * the name of a command or the class and config of a new one
+     *
+     * @param group     The command group
+     * @param node      The config of the command in the group
+     * @param groupType The type of the group, for errors
+     * @return The command
+     */
+    Command createChildCommand(Command group, JsonNode node, String groupType) throws ConfigException {
+        if (node.isObject()) {
+            ObjectNode commandConfig = (ObjectNode) node;
+            if (node.has("class")) {
+                String className = commandConfig.get("class").asText();
+                String commandName;
+                if (commandConfig.has("name")) {
+                    commandName = commandConfig.remove("name").asText();
+                } else {
+                    commandName = findNextCommandName(className, group);
+                }
+                Command command = constructCommandClass(commandName, className);
+                configureCommand(command, commandConfig);
+                return command;
+            } else if (node.has("name")) {
+                return getCommand(commandConfig.get("name").asText());
+            } else {
+                throw new ConfigException(groupType + " config was passed object, but didn't contain class or command name");
+            }
+        } else if (node.isTextual()) {
+            return getCommand(node.asText());
+        } else {
+            throw new ConfigException("Each node in a " + groupType + " config must be an object or a string," +
+                    " not: " + node);
+        }
+    }
+
+    /**
+     * Gets the commands in a command group from its config, which is an array of the configs of the commands
+     *
+     * @see #createChildCommand(Command, JsonNode, String)
+     */
+    List<Command> createChildCommands(Command group, JsonNode config, String groupType) throws ConfigException {
+        if (config.size() != 0 && !config.isArray())
+            throw new ConfigException(groupType + " config must be an array");
+        List<Command> commands = new ArrayList<>(config.size());
+        for (JsonNode node : config) {
+            commands.add(createChildCommand(group, node, groupType));
+        }
+        return commands;
+    }
 }
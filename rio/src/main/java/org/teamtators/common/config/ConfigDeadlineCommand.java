@@ -0,0 +1,27 @@
+package org.teamtators.common.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.teamtators.common.scheduler.DeadlineCommand;
+
+import java.util.Collections;
+
+/**
+ * A {@link DeadlineCommand} configured with an array of commands, the first of which is the deadline
+ */
+public class ConfigDeadlineCommand extends DeadlineCommand implements Configurable<JsonNode> {
+    private ConfigCommandStore commandStore;
+
+    public ConfigDeadlineCommand(ConfigCommandStore commandStore) {
+        this("ConfigDeadlineCommand", commandStore);
+    }
+
+    public ConfigDeadlineCommand(String name, ConfigCommandStore commandStore) {
+        super(name, Collections.emptyList());
+        this.commandStore = commandStore;
+    }
+
+    @Override
+    public void configure(JsonNode config) {
+        setCommands(commandStore.createChildCommands(this, config, "DeadlineCommand"));
+    }
+}
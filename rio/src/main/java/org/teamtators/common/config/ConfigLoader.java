@@ -27,6 +27,10 @@ public class ConfigLoader {
         return objectMapper;
     }
 
+    public String getConfigDir() {
+        return configDir;
+    }
+
     public JsonNode load(String fileName) {
         String filePath = configDir + File.separator + fileName;
         try (InputStream fileStream = new FileInputStream(filePath)) {
@@ -0,0 +1,24 @@
+package org.teamtators.common.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.teamtators.common.scheduler.ParallelCommand;
+
+import java.util.Collections;
+
+public class ConfigParallelCommand extends ParallelCommand implements Configurable<JsonNode> {
+    private ConfigCommandStore commandStore;
+
+    public ConfigParallelCommand(ConfigCommandStore commandStore) {
+        this("ConfigParallelCommand", commandStore);
+    }
+
+    public ConfigParallelCommand(String name, ConfigCommandStore commandStore) {
+        super(name, Collections.emptyList());
+        this.commandStore = commandStore;
+    }
+
+    @Override
+    public void configure(JsonNode config) {
+        setCommands(commandStore.createChildCommands(this, config, "ParallelCommand"));
+    }
+}
@@ -0,0 +1,24 @@
+package org.teamtators.common.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.teamtators.common.scheduler.RaceCommand;
+
+import java.util.Collections;
+
+public class ConfigRaceCommand extends RaceCommand implements Configurable<JsonNode> {
+    private ConfigCommandStore commandStore;
+
+    public ConfigRaceCommand(ConfigCommandStore commandStore) {
+        this("ConfigRaceCommand", commandStore);
+    }
+
+    public ConfigRaceCommand(String name, ConfigCommandStore commandStore) {
+        super(name, Collections.emptyList());
+        this.commandStore = commandStore;
+    }
+
+    @Override
+    public void configure(JsonNode config) {
+        setCommands(commandStore.createChildCommands(this, config, "RaceCommand"));
+    }
+}
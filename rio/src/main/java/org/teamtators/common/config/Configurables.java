@@ -12,16 +12,44 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @SuppressWarnings("unchecked")
 public class Configurables {
     private static final Logger logger = LoggerFactory.getLogger(Configurables.class);
 
+    // the config class and configure method of each class, which are found with reflection the first time
+    private static final Map<Class<?>, ConfigureMethod> configureMethods = new ConcurrentHashMap<>();
+
     public static boolean configureObject(Object toConfigure, JsonNode config) throws ConfigException {
         Preconditions.checkNotNull(toConfigure, "Cannot config null object");
         Preconditions.checkNotNull(config, "config for object must not be null");
 
         Class<?> clazz = toConfigure.getClass();
+        ConfigureMethod configureMethod = configureMethods.computeIfAbsent(clazz, Configurables::findConfigureMethod);
+        Class configClass = configureMethod.configClass;
+        if (configClass == null) {
+//            logger.trace("Attempted to configure object of " + clazz.toString() + ", which is not Configurable");
+            return false;
+        }
+        if (configureMethod.configure == null) {
+            logger.warn("Object of class " + clazz.getName() + " missing configure method");
+            return false;
+        }
+        try {
+            Object configObj = TatorRobotBase.configMapper.treeToValue(config, configClass);
+            configureMethod.configure.invoke(toConfigure, configObj);
+            return true;
+        } catch (JsonProcessingException e) {
+            throw new ConfigException("Error reading config of " + configClass.toString() +
+                    " for object of " + clazz.toString(), e);
+        } catch (InvocationTargetException | IllegalAccessException e) {
+            throw new ConfigException("Error applying config on object of " + clazz.toString(), e);
+        }
+    }
+
+    private static ConfigureMethod findConfigureMethod(Class<?> clazz) {
         Type[] interfaces = clazz.getGenericInterfaces();
         for (Type i : interfaces) {
             if (!(i instanceof ParameterizedType))
@@ -30,22 +58,22 @@ public class Configurables {
             if (type.getRawType() == Configurable.class) {
                 Class configClass = (Class) type.getActualTypeArguments()[0];
                 try {
-                    Object configObj = TatorRobotBase.configMapper.treeToValue(config, configClass);
-                    Method configure = clazz.getMethod("configure", configClass);
-                    configure.invoke(toConfigure, configObj);
-                    return true;
+                    return new ConfigureMethod(configClass, clazz.getMethod("configure", configClass));
                 } catch (NoSuchMethodException e) {
-                    logger.warn("Object of class " + clazz.getName() + " missing configure method");
-                    return false;
-                } catch (JsonProcessingException e) {
-                    throw new ConfigException("Error reading config of " + configClass.toString() +
-                            " for object of " + clazz.toString(), e);
-                } catch (InvocationTargetException | IllegalAccessException e) {
-                    throw new ConfigException("Error applying config on object of " + clazz.toString(), e);
+                    return new ConfigureMethod(configClass, null);
                 }
             }
         }
-//        logger.trace("Attempted to configure object of " + clazz.toString() + ", which is not Configurable");
-        return false;
+        return new ConfigureMethod(null, null);
+    }
+
+    private static class ConfigureMethod {
+        final Class configClass;
+        final Method configure;
+
+        ConfigureMethod(Class configClass, Method configure) {
+            this.configClass = configClass;
+            this.configure = configure;
+        }
     }
 }
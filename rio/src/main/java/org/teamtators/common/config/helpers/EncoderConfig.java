@@ -2,6 +2,7 @@ package org.teamtators.common.config.helpers;
 
 import edu.wpi.first.wpilibj.CounterBase;
 import edu.wpi.first.wpilibj.Encoder;
+import org.teamtators.common.hw.WpiEncoder;
 
 public class EncoderConfig {
     private int aChannel, bChannel;
@@ -65,4 +66,11 @@ public class EncoderConfig {
             encoder.setSamplesToAverage(samplesToAverage);
         return encoder;
     }
+
+    /**
+     * @return The encoder, as a RateEncoder
+     */
+    public WpiEncoder createRateEncoder() {
+        return new WpiEncoder(create());
+    }
 }
@@ -11,6 +11,7 @@ import org.teamtators.common.TatorRobotBase;
 import org.teamtators.common.config.ConfigException;
 import org.teamtators.common.hw.NoSpeedController;
 import org.teamtators.common.hw.SpeedControllerGroup;
+import org.teamtators.common.hw.WpiMotor;
 
 /**
  * Example Mapping:
@@ -131,6 +132,13 @@ public class SpeedControllerConfig implements ConfigHelper<SpeedController> {
         return speedController;
     }
 
+    /**
+     * @return The speed controller, as a Motor
+     */
+    public WpiMotor createMotor() {
+        return new WpiMotor(create());
+    }
+
     private SpeedController configureController() {
         if (this.config == null) {
             throw new ConfigException("Must specify config for GROUP, TALON_SRX and VICTOR_SPX SpeedControllerConfig");
@@ -2,6 +2,7 @@ package org.teamtators.common.config.helpers;
 
 import edu.wpi.first.wpilibj.SpeedController;
 import org.teamtators.common.hw.SpeedControllerGroup;
+import org.teamtators.common.hw.WpiMotor;
 
 import java.util.ArrayList;
 
@@ -14,4 +15,11 @@ public class SpeedControllerGroupConfig extends ArrayList<SpeedControllerConfig>
         }
         return new SpeedControllerGroup(controllers);
     }
+
+    /**
+     * @return The speed controller group, as a Motor
+     */
+    public WpiMotor createMotor() {
+        return new WpiMotor(create());
+    }
 }
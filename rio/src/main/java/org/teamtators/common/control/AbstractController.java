@@ -5,13 +5,24 @@ import org.teamtators.common.config.ConfigException;
 import org.teamtators.common.datalogging.DataCollector;
 import org.teamtators.common.datalogging.DataLoggable;
 import org.teamtators.common.datalogging.LogDataProvider;
+import org.teamtators.common.datalogging.LogDataWriter;
+import org.teamtators.common.datalogging.TypedLogDataProvider;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+/**
+ * Base class for controllers which compute an output from a setpoint and an input.
+ * <p>
+ * The state computed by each step (setpoint, input, output, whether it is on target) is published through a
+ * {@link SeqLock}, so other threads can read it without contending with the step. {@link #getState(State)} reads it
+ * as a consistent snapshot. Setpoint changes and resets are posted to a mailbox which is consumed at the start of
+ * each step.
+ */
 public abstract class AbstractController extends AbstractUpdatable implements DataLoggable {
 
     private DataCollector dataCollector = DataCollector.getDataCollector();
@@ -21,16 +32,22 @@ public abstract class AbstractController extends AbstractUpdatable implements Da
     private LogDataProvider logDataProvider = new ControllerLogDataProvider();
     private boolean dataLog = false;
 
-    private double minSetpoint = Double.NEGATIVE_INFINITY;
-    private double maxSetpoint = Double.POSITIVE_INFINITY;
-    private double minOutput = Double.NEGATIVE_INFINITY;
-    private double maxOutput = Double.POSITIVE_INFINITY;
+    private volatile double minSetpoint = Double.NEGATIVE_INFINITY;
+    private volatile double maxSetpoint = Double.POSITIVE_INFINITY;
+    private volatile double minOutput = Double.NEGATIVE_INFINITY;
+    private volatile double maxOutput = Double.POSITIVE_INFINITY;
+    private volatile double holdPower = Double.NaN;
+
+    // mailbox, written by anyone and consumed at the start of each step
+    private volatile double requestedSetpoint;
+    private final AtomicBoolean resetRequested = new AtomicBoolean();
 
+    // published by each step
+    private final SeqLock stateLock = new SeqLock();
     private volatile double lastDelta;
     private volatile double setpoint;
     private volatile double input;
     private volatile double output;
-    private volatile double holdPower = Double.NaN;
     private volatile boolean onTarget;
 
     public AbstractController(String name) {
@@ -44,39 +61,54 @@ public abstract class AbstractController extends AbstractUpdatable implements Da
         else return value;
     }
 
-    public synchronized void reset() {
-        lastDelta = 0.0;
-        setpoint = 0.0;
-        input = 0.0;
-        output = 0.0;
-        onTarget = false;
+    /**
+     * Resets the setpoint to 0, and posts a reset which the next step consumes before it recomputes the published
+     * state. Until then, the controller is not on target
+     */
+    public void reset() {
+        requestedSetpoint = 0.0;
+        resetRequested.set(true);
+    }
+
+    /**
+     * Resets any state a subclass keeps between steps. Called at the start of the step after {@link #reset()}
+     */
+    protected void onReset() {
     }
 
     @Override
-    protected synchronized final void doUpdate(double delta) {
+    protected final void doUpdate(double delta) {
         if (!running) {
             return;
         }
 
         checkNotNull(inputProvider, "input must be set on a Controller before using");
-        this.lastDelta = delta;
-        input = this.inputProvider.getControllerInput();
+        double computedOutput;
+        stateLock.beginWrite();
+        try {
+            if (resetRequested.getAndSet(false)) {
+                onReset();
+            }
+            this.lastDelta = delta;
+            this.setpoint = requestedSetpoint;
+            this.input = this.inputProvider.getControllerInput();
 
-        this.onTarget = this.targetPredicate.test(this);
+            this.onTarget = this.targetPredicate.test(this);
 
-        double computedOutput;
-        if (onTarget && !Double.isNaN(holdPower)) {
-            computedOutput = holdPower;
-        } else {
-            computedOutput = computeOutput(delta);
-        }
-        double minOutput = this.minOutput;
-        double maxOutput = this.maxOutput;
-        computedOutput = applyLimits(computedOutput, minOutput, maxOutput);
+            double holdPower = this.holdPower;
+            if (onTarget && !Double.isNaN(holdPower)) {
+                computedOutput = holdPower;
+            } else {
+                computedOutput = computeOutput(delta);
+            }
+            computedOutput = applyLimits(computedOutput, this.minOutput, this.maxOutput);
 
-        output = computedOutput;
+            output = computedOutput;
+        } finally {
+            stateLock.endWrite();
+        }
         if (outputConsumer != null)
-            outputConsumer.controllerWrite(output);
+            outputConsumer.controllerWrite(computedOutput);
     }
 
     protected abstract double computeOutput(double delta);
@@ -159,11 +191,11 @@ public abstract class AbstractController extends AbstractUpdatable implements Da
         this.maxOutput = maxOutput;
     }
 
-    public synchronized double getHoldPower() {
+    public double getHoldPower() {
         return holdPower;
     }
 
-    public synchronized void setHoldPower(double holdPower) {
+    public void setHoldPower(double holdPower) {
         this.holdPower = holdPower;
     }
 
@@ -171,28 +203,66 @@ public abstract class AbstractController extends AbstractUpdatable implements Da
         setHoldPower(Double.NaN);
     }
 
-    public synchronized double getLastDelta() {
+    public double getLastDelta() {
         return lastDelta;
     }
 
-    public synchronized double getSetpoint() {
+    /**
+     * @return The latest setpoint, including one which was just set and has not been used by a step yet
+     */
+    public double getSetpoint() {
+        return requestedSetpoint;
+    }
+
+    /**
+     * @return The setpoint used by the current or last step. Should be used instead of {@link #getSetpoint()} within a
+     * step, so the setpoint can't change part way through it
+     */
+    protected double getStepSetpoint() {
         return setpoint;
     }
 
-    public synchronized void setSetpoint(double setpoint) {
-        this.setpoint = applyLimits(setpoint, minSetpoint, maxSetpoint);
+    /**
+     * Sets the setpoint, which will be used starting with the next step
+     *
+     * @param setpoint The new setpoint. Limited to the min and max setpoint
+     */
+    public void setSetpoint(double setpoint) {
+        this.requestedSetpoint = applyLimits(setpoint, minSetpoint, maxSetpoint);
     }
 
-    public synchronized double getInput() {
+    public double getInput() {
         return input;
     }
 
-    protected synchronized double getError() {
+    protected double getError() {
         return setpoint - input;
     }
 
-    public synchronized boolean isOnTarget() {
-        return this.onTarget;
+    /**
+     * @return Whether the last step was on target. False if a reset has not been consumed by a step yet
+     */
+    public boolean isOnTarget() {
+        return this.onTarget && !resetRequested.get();
+    }
+
+    /**
+     * Reads the state published by the last step as a consistent snapshot. Must not be called from within a step.
+     *
+     * @param state The state to read into
+     * @return state
+     */
+    public State getState(State state) {
+        long seq;
+        do {
+            seq = stateLock.beginRead();
+            state.lastDelta = lastDelta;
+            state.setpoint = setpoint;
+            state.input = input;
+            state.output = output;
+            state.onTarget = onTarget;
+        } while (stateLock.retryRead(seq));
+        return state;
     }
 
     public synchronized void start() {
@@ -236,7 +306,7 @@ public abstract class AbstractController extends AbstractUpdatable implements Da
         configureTarget(config.target);
     }
 
-    public synchronized double getOutput() {
+    public double getOutput() {
         return output;
     }
 
@@ -250,16 +320,28 @@ public abstract class AbstractController extends AbstractUpdatable implements Da
     }
 
     @Override
-    public synchronized String toString() {
+    public String toString() {
+        State state = getState(new State());
         return "AbstractController{" +
                 "name='" + getName() + '\'' +
-                ", setpoint=" + setpoint +
-                ", input=" + input +
-                ", output=" + output +
-                ", onTarget=" + onTarget +
+                ", setpoint=" + state.setpoint +
+                ", input=" + state.input +
+                ", output=" + state.output +
+                ", onTarget=" + state.onTarget +
                 '}';
     }
 
+    /**
+     * A snapshot of the state of a controller after a step
+     */
+    public static class State {
+        public double lastDelta;
+        public double setpoint;
+        public double input;
+        public double output;
+        public boolean onTarget;
+    }
+
     protected static class Config {
         public double maxAbsoluteSetpoint = Double.NaN;
         public double maxSetpoint = Double.POSITIVE_INFINITY, minSetpoint = Double.NEGATIVE_INFINITY;
@@ -270,7 +352,9 @@ public abstract class AbstractController extends AbstractUpdatable implements Da
         public boolean logData = false;
     }
 
-    private class ControllerLogDataProvider implements LogDataProvider {
+    private class ControllerLogDataProvider implements TypedLogDataProvider {
+        private final State state = new State();
+
         @Override
         public String getName() {
             return AbstractController.this.getName();
@@ -282,10 +366,12 @@ public abstract class AbstractController extends AbstractUpdatable implements Da
         }
 
         @Override
-        public List<Object> getValues() {
-            synchronized (AbstractController.this) {
-                return Arrays.asList(getSetpoint(), getInput(), output, isOnTarget());
-            }
+        public void writeValues(LogDataWriter writer) {
+            getState(state);
+            writer.putDouble(state.setpoint);
+            writer.putDouble(state.input);
+            writer.putDouble(state.output);
+            writer.putBoolean(state.onTarget);
         }
     }
 }
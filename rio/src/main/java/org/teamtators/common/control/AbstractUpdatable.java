@@ -4,14 +4,13 @@ import edu.wpi.first.wpilibj.Sendable;
 import edu.wpi.first.wpilibj.smartdashboard.SendableBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.slf4j.profiler.Profiler;
 
 public abstract class AbstractUpdatable implements Updatable, Sendable {
     protected volatile boolean running = false;
     protected Logger logger;
     protected String name = "";
     protected String subsystem = "Ungrouped";
-    protected Profiler profiler;
+    protected SectionProfiler profiler = SectionProfiler.NONE;
     private double lastDelta;
 
     public AbstractUpdatable() {
@@ -67,10 +66,14 @@ public abstract class AbstractUpdatable implements Updatable, Sendable {
         return lastDelta;
     }
 
-    public Profiler getProfiler() {
+    public SectionProfiler getProfiler() {
         return profiler;
     }
 
+    public void setProfiler(SectionProfiler profiler) {
+        this.profiler = profiler == null ? SectionProfiler.NONE : profiler;
+    }
+
     public synchronized void start() {
         if (!running) {
             running = true;
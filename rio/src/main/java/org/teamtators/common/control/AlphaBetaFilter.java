@@ -0,0 +1,55 @@
+package org.teamtators.common.control;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Tracks the position and velocity of a signal with an alpha-beta filter, outputting the velocity. Each sample, the
+ * position is predicted from the last velocity, then both are corrected by a fraction of the error in the prediction.
+ * Follows changes in velocity with less delay than smoothing a finite difference with the same noise.
+ */
+public class AlphaBetaFilter implements SignalFilter {
+    private final double alpha;
+    private final double beta;
+    private double position = Double.NaN;
+    private double velocity;
+
+    /**
+     * @param alpha The fraction of the position error to correct the position by, between 0 and 1
+     * @param beta  The fraction of the position error to correct the velocity by, between 0 and 2
+     */
+    public AlphaBetaFilter(double alpha, double beta) {
+        checkArgument(alpha > 0 && alpha <= 1, "alpha must be between 0 and 1");
+        checkArgument(beta > 0 && beta < 2, "beta must be between 0 and 2");
+        this.alpha = alpha;
+        this.beta = beta;
+    }
+
+    @Override
+    public double calculate(double input, double delta) {
+        if (Double.isNaN(position)) {
+            position = input;
+            return velocity;
+        }
+        if (delta <= 0) {
+            return velocity;
+        }
+        position += velocity * delta;
+        double error = input - position;
+        position += alpha * error;
+        velocity += beta * error / delta;
+        return velocity;
+    }
+
+    /**
+     * @return The filtered position
+     */
+    public double getPosition() {
+        return position;
+    }
+
+    @Override
+    public void reset() {
+        position = Double.NaN;
+        velocity = 0.0;
+    }
+}
@@ -0,0 +1,18 @@
+package org.teamtators.common.control;
+
+/**
+ * A source of timestamps. Normally the FPGA clock, but can be replaced with a simulated clock which runs faster than
+ * real time.
+ */
+@FunctionalInterface
+public interface Clock {
+    /**
+     * The roboRIO FPGA clock
+     */
+    Clock FPGA = () -> edu.wpi.first.wpilibj.Timer.getFPGATimestamp();
+
+    /**
+     * @return The current timestamp, in seconds
+     */
+    double getTimestamp();
+}
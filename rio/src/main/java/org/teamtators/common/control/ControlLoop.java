@@ -0,0 +1,151 @@
+package org.teamtators.common.control;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs a number of Updatables as ordered phases of a single deterministic frame.
+ * <p>
+ * Every phase runs on the same thread, in the order it was added, so a frame is always read sensors, then run
+ * controllers, then write motors, without the phases racing each other. Lower rate phases (dashboard, data
+ * logging) can be given a divisor so that they only run every Nth frame. Driven by a single {@link Updater}.
+ */
+public class ControlLoop implements Updatable {
+    private static final Logger logger = LoggerFactory.getLogger(ControlLoop.class);
+
+    private final String name;
+    private final List<Phase> phases = new ArrayList<>();
+    private long tick = 0;
+    private final SectionProfiler profiler;
+
+    public ControlLoop(String name) {
+        this.name = name;
+        this.profiler = new SectionProfiler(name);
+    }
+
+    /**
+     * Adds a phase which runs every frame
+     *
+     * @param updatable The updatable to run
+     * @return The added phase
+     */
+    public Phase addPhase(Updatable updatable) {
+        return addPhase(updatable, 1);
+    }
+
+    /**
+     * Adds a phase which runs every {@code divisor} frames. Phases run in the order they are added.
+     *
+     * @param updatable The updatable to run
+     * @param divisor   How many frames to wait between each run of this phase. Must be at least 1
+     * @return The added phase
+     */
+    public Phase addPhase(Updatable updatable, int divisor) {
+        if (updatable == null) {
+            throw new IllegalArgumentException("Cannot add null Updatable to ControlLoop");
+        }
+        if (divisor < 1) {
+            throw new IllegalArgumentException("ControlLoop phase divisor must be at least 1, got " + divisor);
+        }
+        Phase phase = new Phase(updatable, divisor, phases.size());
+        phases.add(phase);
+        return phase;
+    }
+
+    public List<Phase> getPhases() {
+        return phases;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void update(double delta) {
+        profiler.reset();
+        for (int i = 0; i < phases.size(); i++) {
+            Phase phase = phases.get(i);
+            if (!phase.enabled) {
+                phase.accumulatedDelta = 0.0;
+                continue;
+            }
+            phase.accumulatedDelta += delta;
+            if ((tick + phase.offset) % phase.divisor != 0) {
+                continue;
+            }
+            Updatable updatable = phase.updatable;
+            profiler.start(phase.section);
+            boolean nested = updatable.hasProfiler();
+            if (nested) {
+                updatable.setProfiler(profiler);
+                profiler.push();
+            }
+            try {
+                updatable.update(phase.accumulatedDelta);
+            } catch (Throwable t) {
+                logger.error("Exception in phase " + updatable.getName() + " of " + name + ": ", t);
+            }
+            if (nested) {
+                profiler.pop();
+            }
+            phase.accumulatedDelta = 0.0;
+        }
+        profiler.stop();
+        tick++;
+    }
+
+    @Override
+    public SectionProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * A single phase of a ControlLoop
+     */
+    public static class Phase {
+        private final Updatable updatable;
+        private final int divisor;
+        // spreads out phases with the same divisor so they don't all land on the same frame
+        private final int offset;
+        private final int section;
+        private volatile boolean enabled = true;
+        private double accumulatedDelta = 0.0;
+
+        private Phase(Updatable updatable, int divisor, int offset) {
+            this.updatable = updatable;
+            this.divisor = divisor;
+            this.offset = offset;
+            this.section = SectionProfiler.getSectionId(updatable.getName());
+        }
+
+        public Updatable getUpdatable() {
+            return updatable;
+        }
+
+        public int getDivisor() {
+            return divisor;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Enables or disables this phase. A disabled phase is skipped, and the time it was disabled for is not
+         * passed on to it once it is enabled again.
+         *
+         * @param enabled Whether the phase should run
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+}
@@ -27,7 +27,7 @@ public class ControllerPredicates {
     }
 
     public static Predicate<AbstractController> withinPercentage(double percentage) {
-        return (controller -> Math.abs(controller.getError() / controller.getSetpoint()) < percentage);
+        return (controller -> Math.abs(controller.getError() / controller.getStepSetpoint()) < percentage);
     }
 
     public static Predicate<AbstractController> sampleWithinPercentage(double time, double percentage) {
@@ -0,0 +1,35 @@
+package org.teamtators.common.control;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A first order low pass filter, which moves its output towards each sample by a fraction depending on the time since
+ * the last one, so it behaves the same if the update period changes
+ */
+public class ExponentialFilter implements SignalFilter {
+    private final double timeConstant;
+    private double output = Double.NaN;
+
+    /**
+     * @param timeConstant The time it takes the output to get 63% of the way to a step in the input, in seconds
+     */
+    public ExponentialFilter(double timeConstant) {
+        checkArgument(timeConstant >= 0, "timeConstant must not be negative");
+        this.timeConstant = timeConstant;
+    }
+
+    @Override
+    public double calculate(double input, double delta) {
+        if (Double.isNaN(output)) {
+            output = input;
+        } else {
+            output += (input - output) * delta / (timeConstant + delta);
+        }
+        return output;
+    }
+
+    @Override
+    public void reset() {
+        output = Double.NaN;
+    }
+}
@@ -0,0 +1,46 @@
+package org.teamtators.common.control;
+
+/**
+ * The motion of a profile worked out in advance, so the position, velocity and acceleration at any time can be
+ * evaluated without redoing the planning.
+ * <p>
+ * Times are in seconds from the start of the profile, and positions are relative to the start of the profile. Before
+ * the start and after the end, the profile continues at its start or end velocity.
+ */
+public interface MotionProfilePlan {
+    /**
+     * Gets the plan for a profile, reusing a recently used plan for the same profile if there is one. Does not
+     * allocate if there is.
+     *
+     * @param profile The profile
+     * @return The plan
+     */
+    static MotionProfilePlan get(TrapezoidalProfile profile) {
+        return MotionProfilePlanCache.get(profile);
+    }
+
+    /**
+     * @return Whether this is the plan for a profile
+     */
+    boolean matches(TrapezoidalProfile profile);
+
+    double getDistance();
+
+    double getTotalTime();
+
+    double getPosition(double time);
+
+    double getVelocity(double time);
+
+    double getAcceleration(double time);
+
+    /**
+     * Gets the first time the profile reaches a position. Positions before the start or past the end are extrapolated
+     * with the start or end velocity, and a position the profile never reaches gets the start or end time, whichever
+     * is nearer.
+     *
+     * @param position The position, relative to the start of the profile
+     * @return The time, in seconds
+     */
+    double getTimeAtPosition(double position);
+}
@@ -0,0 +1,30 @@
+package org.teamtators.common.control;
+
+/**
+ * The most recently used motion profile plans. Mechanisms are usually moved between the same few presets from rest,
+ * which makes replanning to one of them a lookup.
+ */
+final class MotionProfilePlanCache {
+    private static final int CACHE_SIZE = 16;
+    private static final MotionProfilePlan[] cache = new MotionProfilePlan[CACHE_SIZE];
+    private static int nextCacheSlot;
+
+    private MotionProfilePlanCache() {
+    }
+
+    static MotionProfilePlan get(TrapezoidalProfile profile) {
+        synchronized (cache) {
+            for (MotionProfilePlan plan : cache) {
+                if (plan != null && plan.matches(profile)) {
+                    return plan;
+                }
+            }
+        }
+        MotionProfilePlan plan = profile.createPlan();
+        synchronized (cache) {
+            cache[nextCacheSlot] = plan;
+            nextCacheSlot = (nextCacheSlot + 1) % CACHE_SIZE;
+        }
+        return plan;
+    }
+}
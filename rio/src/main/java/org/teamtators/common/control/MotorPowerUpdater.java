@@ -2,12 +2,18 @@ package org.teamtators.common.control;
 
 import com.google.common.util.concurrent.AtomicDouble;
 import edu.wpi.first.wpilibj.SpeedController;
+import org.teamtators.common.hw.Motor;
+import org.teamtators.common.hw.WpiMotor;
 
 public class MotorPowerUpdater implements Updatable {
-    private SpeedController motor;
+    private Motor motor;
     private AtomicDouble power = new AtomicDouble();
 
     public MotorPowerUpdater(SpeedController motor) {
+        this(new WpiMotor(motor));
+    }
+
+    public MotorPowerUpdater(Motor motor) {
         this.motor = motor;
     }
 
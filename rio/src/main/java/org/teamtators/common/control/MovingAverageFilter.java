@@ -0,0 +1,41 @@
+package org.teamtators.common.control;
+
+import org.teamtators.common.util.DoubleRingBuffer;
+
+/**
+ * The mean of the last samples. Delays the signal by half of the window.
+ */
+public class MovingAverageFilter implements SignalFilter {
+    private final DoubleRingBuffer samples;
+    private double sum;
+    private int sinceResum;
+
+    /**
+     * @param window The number of samples to average
+     */
+    public MovingAverageFilter(int window) {
+        samples = new DoubleRingBuffer(window);
+    }
+
+    @Override
+    public double calculate(double input, double delta) {
+        if (samples.isFull()) {
+            sum -= samples.getOldest();
+        }
+        samples.push(input);
+        sum += input;
+        // keep rounding errors in the running sum from building up
+        if (++sinceResum >= samples.getCapacity()) {
+            sum = samples.sum();
+            sinceResum = 0;
+        }
+        return sum / samples.size();
+    }
+
+    @Override
+    public void reset() {
+        samples.clear();
+        sum = 0.0;
+        sinceResum = 0;
+    }
+}
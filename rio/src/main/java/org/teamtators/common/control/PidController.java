@@ -91,7 +91,7 @@ public class PidController extends AbstractController implements Configurable<Pi
     protected double computeOutput(double delta) {
         double error = getError();
         double output = error * kP;
-        if (Math.abs(error) < maxIError && Math.abs(getSetpoint()) >= minISetpoint) {
+        if (Math.abs(error) < maxIError && Math.abs(getStepSetpoint()) >= minISetpoint) {
             totalError += error * delta;
         } else {
             totalError = 0;
@@ -111,7 +111,7 @@ public class PidController extends AbstractController implements Configurable<Pi
     }
 
     protected double computeFeedForward() {
-        return kF * getSetpoint();
+        return kF * getStepSetpoint();
     }
 
     public void resetTotalError() {
@@ -119,8 +119,7 @@ public class PidController extends AbstractController implements Configurable<Pi
     }
 
     @Override
-    public void reset() {
-        super.reset();
+    protected void onReset() {
         lastInput = Double.NaN;
         resetTotalError();
     }
@@ -0,0 +1,53 @@
+package org.teamtators.common.control;
+
+/**
+ * A trapezoidal motion profile with limited jerk, so the acceleration ramps up and down instead of stepping. This
+ * rounds the corners of the trapezoid into an S-curve with up to seven phases, which excites the mechanism much less.
+ */
+public class SCurveProfile extends TrapezoidalProfile {
+    private double maxJerk = Double.POSITIVE_INFINITY; // the max jerk, in in/s^3
+
+    public SCurveProfile() {
+    }
+
+    public SCurveProfile(double distance, double startVelocity, double travelVelocity,
+                         double endVelocity, double maxAcceleration, double maxJerk) {
+        super(distance, startVelocity, travelVelocity, endVelocity, maxAcceleration);
+        this.maxJerk = maxJerk;
+    }
+
+    public SCurveProfile(SCurveProfile other) {
+        super(other);
+        this.maxJerk = other.maxJerk;
+    }
+
+    public double getMaxJerk() {
+        return maxJerk;
+    }
+
+    public void setMaxJerk(double maxJerk) {
+        this.maxJerk = maxJerk;
+    }
+
+    @Override
+    public MotionProfilePlan createPlan() {
+        return new SCurveProfilePlan(this);
+    }
+
+    @Override
+    public SCurveProfile copy() {
+        return new SCurveProfile(this);
+    }
+
+    @Override
+    public String toString() {
+        return "SCurveProfile{" +
+                "distance=" + getDistance() +
+                ", startVelocity=" + getStartVelocity() +
+                ", travelVelocity=" + getTravelVelocity() +
+                ", endVelocity=" + getEndVelocity() +
+                ", maxAcceleration=" + getMaxAcceleration() +
+                ", maxJerk=" + maxJerk +
+                '}';
+    }
+}
@@ -0,0 +1,290 @@
+package org.teamtators.common.control;
+
+/**
+ * The phases of an {@link SCurveProfile}, worked out once so the position, velocity and acceleration at any time are a
+ * few comparisons and multiplications.
+ * <p>
+ * The profile ramps from the start velocity to a cruise velocity, cruises, then ramps to the end velocity. Each ramp
+ * has three phases: the acceleration increases at the max jerk, holds at the max acceleration, then decreases at the
+ * max jerk. If a ramp is too small to reach the max acceleration, its middle phase is empty. If the distance is too
+ * short to reach the travel velocity, the cruise velocity is the highest velocity at which the ramps fit in the
+ * distance, and the cruise phase is empty. Together with the phases before the start and after the end, each of which
+ * has a start time, position, velocity and acceleration and a constant jerk, there are nine phases.
+ * <p>
+ * With infinite jerk, the plan is the same as a {@link TrapezoidalProfilePlan}. Plans are immutable.
+ */
+public final class SCurveProfilePlan implements MotionProfilePlan {
+    private static final int PHASES = 9;
+    private static final int SEARCH_ITERATIONS = 60;
+    private static final double POSITION_TOLERANCE = 1e-12;
+
+    private final double distance;
+    private final double startVelocity;
+    private final double travelVelocity;
+    private final double endVelocity;
+    private final double maxAcceleration;
+    private final double maxJerk;
+    private final double totalTime;
+
+    private final double[] phaseTime = new double[PHASES];
+    private final double[] phasePosition = new double[PHASES];
+    private final double[] phaseVelocity = new double[PHASES];
+    private final double[] phaseAcceleration = new double[PHASES];
+    private final double[] phaseJerk = new double[PHASES];
+
+    // only used while planning. the state at the end of the last phase added, in the direction of travel
+    private int phaseCount;
+    private double time, position, velocity, acceleration;
+
+    /**
+     * Plans a profile without looking in the cache
+     *
+     * @param profile The profile
+     */
+    public SCurveProfilePlan(SCurveProfile profile) {
+        distance = profile.getDistance();
+        startVelocity = profile.getStartVelocity();
+        travelVelocity = profile.getTravelVelocity();
+        endVelocity = profile.getEndVelocity();
+        maxAcceleration = profile.getMaxAcceleration();
+        maxJerk = profile.getMaxJerk();
+
+        // plan as if moving forwards, and flip the phases if not
+        double direction = distance < 0 || (distance == 0 && travelVelocity < 0) ? -1.0 : 1.0;
+        double d = distance * direction;
+        double start_v = startVelocity * direction, end_v = endVelocity * direction;
+        double travel_v = Math.abs(travelVelocity);
+        double max_a = Math.abs(maxAcceleration), max_j = Math.abs(maxJerk);
+
+        double cruise_v = travel_v;
+        double cruise_t = 0.0;
+        double ramps_s = rampDistance(start_v, travel_v, max_a, max_j) + rampDistance(travel_v, end_v, max_a, max_j);
+        if (ramps_s <= d) {
+            cruise_t = travel_v > 0 ? (d - ramps_s) / travel_v : 0.0;
+        } else {
+            // the distance is too short to get up to travel_v, so find the highest velocity that fits. the distance of
+            // the ramps increases with the cruise velocity above both the start and end velocity. if the distance is
+            // too short to even get from the start to the end velocity, it overshoots
+            double low = Math.max(start_v, end_v), high = travel_v;
+            for (int i = 0; i < SEARCH_ITERATIONS && low < high; i++) {
+                double middle = (low + high) / 2;
+                if (rampDistance(start_v, middle, max_a, max_j) + rampDistance(middle, end_v, max_a, max_j) > d) {
+                    high = middle;
+                } else {
+                    low = middle;
+                }
+            }
+            cruise_v = Math.min(low, travel_v);
+        }
+
+        velocity = start_v;
+        addPhase(direction, 0.0, 0.0); // before the start
+        addRamp(direction, start_v, cruise_v, max_a, max_j);
+        addPhase(direction, cruise_t, 0.0);
+        addRamp(direction, cruise_v, end_v, max_a, max_j);
+        totalTime = time;
+        addPhase(direction, 0.0, 0.0); // after the end
+    }
+
+    /**
+     * @return The time to ramp between two velocities with limited acceleration and jerk
+     */
+    private static double rampTime(double deltaVelocity, double maxAcceleration, double maxJerk) {
+        double d_v = Math.abs(deltaVelocity);
+        if (maxAcceleration * maxAcceleration <= d_v * maxJerk) {
+            return d_v / maxAcceleration + maxAcceleration / maxJerk;
+        } else {
+            return 2 * Math.sqrt(d_v / maxJerk);
+        }
+    }
+
+    /**
+     * @return The distance traveled ramping between two velocities. The acceleration is symmetric, so this is the
+     * average of the velocities over the ramp time
+     */
+    private static double rampDistance(double fromVelocity, double toVelocity, double maxAcceleration,
+                                       double maxJerk) {
+        return (fromVelocity + toVelocity) / 2 * rampTime(toVelocity - fromVelocity, maxAcceleration, maxJerk);
+    }
+
+    private void addRamp(double direction, double fromVelocity, double toVelocity, double maxAcceleration,
+                         double maxJerk) {
+        double d_v = toVelocity - fromVelocity;
+        double jerk = Math.copySign(maxJerk, d_v);
+        double peak_a, jerk_t, accel_t;
+        if (maxAcceleration * maxAcceleration <= Math.abs(d_v) * maxJerk) {
+            peak_a = maxAcceleration;
+            jerk_t = maxAcceleration / maxJerk;
+            accel_t = Math.abs(d_v) / maxAcceleration - jerk_t;
+        } else {
+            peak_a = Math.sqrt(Math.abs(d_v) * maxJerk);
+            jerk_t = Math.sqrt(Math.abs(d_v) / maxJerk);
+            accel_t = 0.0;
+        }
+        addPhase(direction, jerk_t, jerk);
+        // with infinite jerk, the acceleration steps to the peak
+        acceleration = Math.copySign(peak_a, d_v);
+        addPhase(direction, accel_t, 0.0);
+        addPhase(direction, jerk_t, -jerk);
+        // don't let rounding error build up between ramps
+        velocity = toVelocity;
+        acceleration = 0.0;
+    }
+
+    private void addPhase(double direction, double duration, double jerk) {
+        if (!(duration > 0)) {
+            // an empty phase, or infinite jerk, which happens over no time
+            duration = 0.0;
+            jerk = 0.0;
+        }
+        int phase = phaseCount++;
+        phaseTime[phase] = time;
+        phasePosition[phase] = position * direction;
+        phaseVelocity[phase] = velocity * direction;
+        phaseAcceleration[phase] = acceleration * direction;
+        phaseJerk[phase] = jerk * direction;
+
+        double t = duration;
+        position += t * (velocity + t * (acceleration / 2 + t * jerk / 6));
+        velocity += t * (acceleration + t * jerk / 2);
+        acceleration += t * jerk;
+        time += t;
+    }
+
+    @Override
+    public boolean matches(TrapezoidalProfile profile) {
+        return profile.getClass() == SCurveProfile.class &&
+                distance == profile.getDistance() && startVelocity == profile.getStartVelocity() &&
+                travelVelocity == profile.getTravelVelocity() && endVelocity == profile.getEndVelocity() &&
+                maxAcceleration == profile.getMaxAcceleration() &&
+                maxJerk == ((SCurveProfile) profile).getMaxJerk();
+    }
+
+    @Override
+    public double getDistance() {
+        return distance;
+    }
+
+    @Override
+    public double getTotalTime() {
+        return totalTime;
+    }
+
+    /**
+     * @return The phase of the profile at a time, which is the last phase starting at or before the time, so empty
+     * phases are skipped
+     */
+    private int getPhase(double time) {
+        for (int phase = PHASES - 1; phase > 0; phase--) {
+            if (time >= phaseTime[phase]) {
+                return phase;
+            }
+        }
+        return 0;
+    }
+
+    private double getPosition(int phase, double time) {
+        double t = time - phaseTime[phase];
+        return phasePosition[phase] +
+                t * (phaseVelocity[phase] + t * (phaseAcceleration[phase] / 2 + t * phaseJerk[phase] / 6));
+    }
+
+    private double getVelocity(int phase, double time) {
+        double t = time - phaseTime[phase];
+        return phaseVelocity[phase] + t * (phaseAcceleration[phase] + t * phaseJerk[phase] / 2);
+    }
+
+    @Override
+    public double getPosition(double time) {
+        return getPosition(getPhase(time), time);
+    }
+
+    @Override
+    public double getVelocity(double time) {
+        return getVelocity(getPhase(time), time);
+    }
+
+    @Override
+    public double getAcceleration(double time) {
+        int phase = getPhase(time);
+        double t = time - phaseTime[phase];
+        return phaseAcceleration[phase] + t * phaseJerk[phase];
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Finds the first phase which the position is between the start and end of, then solves the motion in it with
+     * Newton's method, falling back to bisection.
+     */
+    @Override
+    public double getTimeAtPosition(double position) {
+        double tolerance = POSITION_TOLERANCE * Math.max(1.0, Math.abs(distance));
+        for (int phase = 1; phase < PHASES - 1; phase++) {
+            double duration = phaseTime[phase + 1] - phaseTime[phase];
+            if (!(duration > 0)) {
+                continue;
+            }
+            double startError = phasePosition[phase] - position;
+            double endError = phasePosition[phase + 1] - position;
+            if (Math.abs(startError) <= tolerance) {
+                return phaseTime[phase];
+            } else if (Math.abs(endError) <= tolerance) {
+                return phaseTime[phase + 1];
+            } else if ((startError < 0) != (endError < 0)) {
+                return phaseTime[phase] + solvePhase(phase, position, duration, startError, endError, tolerance);
+            }
+        }
+        if (endVelocity != 0) {
+            double t = (position - distance) / endVelocity;
+            if (t >= 0) {
+                return totalTime + t;
+            }
+        }
+        if (startVelocity != 0) {
+            double t = position / startVelocity;
+            if (t <= 0) {
+                return t;
+            }
+        }
+        return Math.abs(position) <= Math.abs(position - distance) ? 0.0 : totalTime;
+    }
+
+    /**
+     * @return The time in a phase at which it reaches a position, given that the position is between the start and end
+     * of the phase
+     */
+    private double solvePhase(int phase, double position, double duration, double startError, double endError,
+                              double tolerance) {
+        double low = 0.0, high = duration;
+        double t = duration * startError / (startError - endError);
+        for (int i = 0; i < SEARCH_ITERATIONS; i++) {
+            double phaseTime = this.phaseTime[phase] + t;
+            double error = getPosition(phase, phaseTime) - position;
+            if (Math.abs(error) <= tolerance) {
+                break;
+            }
+            if ((error < 0) == (startError < 0)) {
+                low = t;
+            } else {
+                high = t;
+            }
+            double next = t - error / getVelocity(phase, phaseTime);
+            t = next > low && next < high ? next : (low + high) / 2;
+        }
+        return t;
+    }
+
+    @Override
+    public String toString() {
+        return "SCurveProfilePlan{" +
+                "distance=" + distance +
+                ", startVelocity=" + startVelocity +
+                ", travelVelocity=" + travelVelocity +
+                ", endVelocity=" + endVelocity +
+                ", maxAcceleration=" + maxAcceleration +
+                ", maxJerk=" + maxJerk +
+                ", totalTime=" + totalTime +
+                '}';
+    }
+}
@@ -0,0 +1,31 @@
+package org.teamtators.common.control;
+
+import org.teamtators.common.util.DoubleRingBuffer;
+
+/**
+ * The derivative of a signal from a least squares line through its last samples, which is the first order
+ * Savitzky-Golay derivative filter. Much less noisy than the difference of the last two samples, at the cost of
+ * delaying the derivative by half of the window. Assumes samples are evenly spaced, using the latest delta as the
+ * spacing.
+ */
+public class SavitzkyGolayDerivative implements SignalFilter {
+    private final DoubleRingBuffer samples;
+
+    /**
+     * @param window The number of samples to fit, at least 2
+     */
+    public SavitzkyGolayDerivative(int window) {
+        samples = new DoubleRingBuffer(Math.max(2, window));
+    }
+
+    @Override
+    public double calculate(double input, double delta) {
+        samples.push(input);
+        return delta > 0 ? samples.derivative(delta) : 0.0;
+    }
+
+    @Override
+    public void reset() {
+        samples.clear();
+    }
+}
@@ -0,0 +1,237 @@
+package org.teamtators.common.control;
+
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A profiler which records how long each section of a frame took, without allocating.
+ * <p>
+ * Sections are identified by integer IDs from {@link #getSectionId(String)}, which should be looked up once ahead of
+ * time rather than every frame. Timings are recorded in nanoseconds into preallocated ring buffers, and a human
+ * readable report is only built when {@link #report()} or {@link #log(Logger)} is called, which is usually only
+ * when an {@link Updater} overruns.
+ * <p>
+ * Like the slf4j Profiler, {@link #start(int)} stops the current section and starts a new one at the same level.
+ * {@link #push()} makes later sections nested within the current one, until the matching {@link #pop()}.
+ */
+public final class SectionProfiler {
+    /**
+     * A profiler which does nothing, for when profiling is not wanted
+     */
+    public static final SectionProfiler NONE = new SectionProfiler("none", 1, false);
+
+    private static final int DEFAULT_CAPACITY = 256;
+    private static final int MAX_DEPTH = 16;
+
+    private static final Map<String, Integer> sectionIds = new ConcurrentHashMap<>();
+    private static final List<String> sectionNames = new ArrayList<>();
+
+    private final String name;
+    private final boolean enabled;
+    private final int mask;
+    private final int[] sections;
+    private final int[] depths;
+    private final long[] startTimes;
+    private final long[] endTimes;
+    // absolute record number of the open section at each depth, or -1
+    private final long[] open = new long[MAX_DEPTH];
+    private long count;
+    private int depth;
+    private long frameStart;
+    private long frameEnd;
+
+    public SectionProfiler(String name) {
+        this(name, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param name     The name of the profiler, shown in reports
+     * @param capacity The number of sections to keep for each frame. Rounded up to a power of two
+     */
+    public SectionProfiler(String name, int capacity) {
+        this(name, capacity, true);
+    }
+
+    private SectionProfiler(String name, int capacity, boolean enabled) {
+        this.name = name;
+        this.enabled = enabled;
+        int size = Integer.highestOneBit(Math.max(capacity, 1) * 2 - 1);
+        this.mask = size - 1;
+        this.sections = new int[size];
+        this.depths = new int[size];
+        this.startTimes = new long[size];
+        this.endTimes = new long[size];
+        reset();
+    }
+
+    /**
+     * Gets the ID for a section name, registering it if it has not been seen before.
+     * Should be called when setting up, not every frame.
+     *
+     * @param name The name of the section
+     * @return The ID of the section
+     */
+    public static int getSectionId(String name) {
+        Integer id = sectionIds.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (sectionNames) {
+            id = sectionIds.get(name);
+            if (id == null) {
+                id = sectionNames.size();
+                sectionNames.add(name);
+                sectionIds.put(name, id);
+            }
+            return id;
+        }
+    }
+
+    public static String getSectionName(int id) {
+        synchronized (sectionNames) {
+            return id >= 0 && id < sectionNames.size() ? sectionNames.get(id) : "#" + id;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Clears all recorded sections and starts a new frame
+     */
+    public void reset() {
+        if (!enabled) return;
+        count = 0;
+        depth = 0;
+        for (int i = 0; i < MAX_DEPTH; i++) {
+            open[i] = -1;
+        }
+        frameStart = System.nanoTime();
+        frameEnd = 0;
+    }
+
+    /**
+     * Stops the current section at this level (and any nested within it) and starts a new one
+     *
+     * @param section The ID of the section to start
+     */
+    public void start(int section) {
+        if (!enabled) return;
+        long now = System.nanoTime();
+        closeFrom(depth, now);
+        long record = count++;
+        int i = (int) (record & mask);
+        sections[i] = section;
+        depths[i] = depth;
+        startTimes[i] = now;
+        endTimes[i] = 0;
+        open[depth] = record;
+    }
+
+    /**
+     * Makes sections started after this nested within the current section
+     */
+    public void push() {
+        if (!enabled) return;
+        if (depth < MAX_DEPTH - 1) {
+            depth++;
+        }
+    }
+
+    /**
+     * Stops any sections nested within the current section, and returns to the level of the last {@link #push()}
+     */
+    public void pop() {
+        if (!enabled) return;
+        closeFrom(depth, System.nanoTime());
+        if (depth > 0) {
+            depth--;
+        }
+    }
+
+    /**
+     * Stops all sections and ends the frame
+     */
+    public void stop() {
+        if (!enabled) return;
+        long now = System.nanoTime();
+        closeFrom(0, now);
+        depth = 0;
+        frameEnd = now;
+    }
+
+    private void closeFrom(int fromDepth, long now) {
+        for (int d = fromDepth; d < MAX_DEPTH; d++) {
+            long record = open[d];
+            if (record >= 0 && count - record <= sections.length) {
+                endTimes[(int) (record & mask)] = now;
+            }
+            open[d] = -1;
+        }
+    }
+
+    /**
+     * @return The time since the frame was started until it was stopped (or now if it has not been), in nanoseconds
+     */
+    public long getElapsedNanos() {
+        if (!enabled) return 0;
+        return (frameEnd != 0 ? frameEnd : System.nanoTime()) - frameStart;
+    }
+
+    /**
+     * Builds a report of the sections in the last frame. This allocates, so should only be used when needed.
+     *
+     * @return The report
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("+ Profiler [").append(name).append("] ");
+        appendMillis(sb, getElapsedNanos());
+        long first = Math.max(0, count - sections.length);
+        if (first > 0) {
+            sb.append("\n|-- (").append(first).append(" earlier sections not recorded)");
+        }
+        for (long record = first; record < count; record++) {
+            int i = (int) (record & mask);
+            sb.append('\n');
+            for (int d = 0; d < depths[i]; d++) {
+                sb.append("|   ");
+            }
+            sb.append("|-- ").append(getSectionName(sections[i])).append(' ');
+            if (endTimes[i] == 0) {
+                sb.append("(not stopped)");
+            } else {
+                appendMillis(sb, endTimes[i] - startTimes[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendMillis(StringBuilder sb, long nanos) {
+        sb.append(String.format("%.3f ms", nanos / 1e6));
+    }
+
+    /**
+     * Logs a report of the last frame at debug level
+     *
+     * @param logger The logger to log to
+     */
+    public void log(Logger logger) {
+        if (!enabled) return;
+        logger.debug(report());
+    }
+
+    @Override
+    public String toString() {
+        return "SectionProfiler{" + name + "}";
+    }
+}
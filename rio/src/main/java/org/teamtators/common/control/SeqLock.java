@@ -0,0 +1,56 @@
+package org.teamtators.common.control;
+
+/**
+ * A sequence lock, which lets a single writer thread publish a group of volatile fields that other threads can read
+ * as a consistent snapshot without ever blocking the writer.
+ * <p>
+ * The writer wraps its writes in {@link #beginWrite()} and {@link #endWrite()}. Readers take a sequence number from
+ * {@link #beginRead()}, copy the fields, and retry if {@link #retryRead(long)} returns true:
+ * <pre>
+ * long seq;
+ * do {
+ *     seq = lock.beginRead();
+ *     // copy fields
+ * } while (lock.retryRead(seq));
+ * </pre>
+ * Readers must never be called on the writer thread between beginWrite and endWrite, or they will spin forever.
+ */
+public final class SeqLock {
+    private volatile long sequence = 0;
+
+    /**
+     * Starts a write. Must only be called from the single writer thread.
+     */
+    public void beginWrite() {
+        sequence++;
+    }
+
+    /**
+     * Ends a write, publishing all fields written since {@link #beginWrite()}
+     */
+    public void endWrite() {
+        sequence++;
+    }
+
+    /**
+     * Waits until there is no write in progress
+     *
+     * @return The sequence number to pass to {@link #retryRead(long)}
+     */
+    public long beginRead() {
+        long seq;
+        while (((seq = sequence) & 1) != 0) {
+            // a write is in progress, let the writer finish
+            Thread.yield();
+        }
+        return seq;
+    }
+
+    /**
+     * @param seq The sequence number from {@link #beginRead()}
+     * @return Whether a write happened while reading, so the read must be retried
+     */
+    public boolean retryRead(long seq) {
+        return sequence != seq;
+    }
+}
@@ -0,0 +1,32 @@
+package org.teamtators.common.control;
+
+/**
+ * A stage of signal processing on a value sampled once per update, such as smoothing or differentiating it. Filters
+ * keep their state in preallocated fields and arrays, so calculating never allocates.
+ * <p>
+ * Filters compose with {@link #then(SignalFilter)}, and are run on a {@link ControllerInput} by a
+ * {@link VelocityEstimator}.
+ */
+public interface SignalFilter {
+    /**
+     * Adds a sample to the filter
+     *
+     * @param input The sample
+     * @param delta The time since the last sample, in seconds
+     * @return The output of the filter
+     */
+    double calculate(double input, double delta);
+
+    /**
+     * Forgets all previous samples
+     */
+    void reset();
+
+    /**
+     * @param next The filter to run on the output of this one
+     * @return A filter which runs this, then next
+     */
+    default SignalFilter then(SignalFilter next) {
+        return new SignalFilterChain(this, next);
+    }
+}
@@ -0,0 +1,35 @@
+package org.teamtators.common.control;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Runs filters one after the other, each on the output of the one before
+ */
+public class SignalFilterChain implements SignalFilter {
+    private final SignalFilter[] stages;
+
+    public SignalFilterChain(SignalFilter... stages) {
+        checkArgument(stages.length > 0, "a filter chain needs at least one stage");
+        for (SignalFilter stage : stages) {
+            checkNotNull(stage, "filter chain stages cannot be null");
+        }
+        this.stages = stages.clone();
+    }
+
+    @Override
+    public double calculate(double input, double delta) {
+        double value = input;
+        for (SignalFilter stage : stages) {
+            value = stage.calculate(value, delta);
+        }
+        return value;
+    }
+
+    @Override
+    public void reset() {
+        for (SignalFilter stage : stages) {
+            stage.reset();
+        }
+    }
+}
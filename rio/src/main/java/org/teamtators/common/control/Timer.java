@@ -1,9 +1,12 @@
 package org.teamtators.common.control;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 /**
  * A basic timer utility
  */
 public class Timer {
+    private static volatile Clock clock = Clock.FPGA;
     private double startTime;
 
     public Timer() {
@@ -16,7 +19,20 @@ public class Timer {
      * @return Current timestamp
      */
     public static double getTimestamp() {
-        return edu.wpi.first.wpilibj.Timer.getFPGATimestamp();
+        return clock.getTimestamp();
+    }
+
+    public static Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * Sets the clock used by all Timers, such as to a simulated clock
+     *
+     * @param clock The new clock
+     */
+    public static void setClock(Clock clock) {
+        Timer.clock = checkNotNull(clock);
     }
 
     /**
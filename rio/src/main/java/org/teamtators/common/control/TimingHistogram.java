@@ -0,0 +1,114 @@
+package org.teamtators.common.control;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size histogram of durations in microseconds, with log-linear buckets in the style of HdrHistogram.
+ * <p>
+ * Each power of two is split into {@link #SUB_BUCKET_COUNT} linear buckets, so any recorded value is accurate to
+ * within about 3%. Recording never allocates, so it is safe to call from inside of a control loop. Values larger than
+ * {@link #MAX_VALUE} are recorded in the highest bucket (but still counted in {@link #getMax()}).
+ */
+public class TimingHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    public static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /**
+     * The largest value which is bucketed precisely, in microseconds (about 67 seconds)
+     */
+    public static final long MAX_VALUE = (1L << 26) - 1;
+    private static final int BUCKET_COUNT = indexOf(MAX_VALUE) + 1;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+    private long max;
+    private long min = Long.MAX_VALUE;
+    private long sum;
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    private static long highestValueAt(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long mantissa = index - ((long) shift << SUB_BUCKET_BITS);
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    /**
+     * Records a single value
+     *
+     * @param value The value, in microseconds. Negative values are recorded as 0
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        int index = value > MAX_VALUE ? BUCKET_COUNT - 1 : indexOf(value);
+        counts[index]++;
+        totalCount++;
+        sum += value;
+        if (value > max) {
+            max = value;
+        }
+        if (value < min) {
+            min = value;
+        }
+    }
+
+    /**
+     * Gets the value at a percentile of all recorded values
+     *
+     * @param percentile The percentile, from 0 to 100
+     * @return The highest value in the bucket containing that percentile, in microseconds, or 0 if nothing was
+     * recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(Math.min(Math.max(percentile, 0.0), 100.0) / 100.0 * totalCount);
+        if (target < 1) {
+            target = 1;
+        }
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestValueAt(i), max);
+            }
+        }
+        return max;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0.0 : (double) sum / totalCount;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        max = 0;
+        min = Long.MAX_VALUE;
+        sum = 0;
+    }
+}
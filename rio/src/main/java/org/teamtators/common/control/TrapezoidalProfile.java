@@ -76,6 +76,15 @@ public class TrapezoidalProfile {
         return new TrapezoidalProfileCalculator(this);
     }
 
+    /**
+     * Plans this profile without looking in the cache. Use {@link MotionProfilePlan#get} to reuse plans.
+     *
+     * @return The plan
+     */
+    public MotionProfilePlan createPlan() {
+        return new TrapezoidalProfilePlan(this);
+    }
+
     public TrapezoidalProfile copy() {
         return new TrapezoidalProfile(this);
     }
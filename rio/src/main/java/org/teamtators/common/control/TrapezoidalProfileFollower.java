@@ -4,32 +4,50 @@ import org.teamtators.common.config.Configurable;
 import org.teamtators.common.datalogging.DataCollector;
 import org.teamtators.common.datalogging.DataLoggable;
 import org.teamtators.common.datalogging.LogDataProvider;
+import org.teamtators.common.datalogging.LogDataWriter;
+import org.teamtators.common.datalogging.TypedLogDataProvider;
 import org.teamtators.common.math.Epsilon;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
+ * Follows a trapezoidal motion profile using position and velocity feedback. If the config has a finite maxJerk, the
+ * profile is an {@link SCurveProfile} instead.
+ * <p>
+ * New profiles and resets are posted to a mailbox and picked up at the start of the next step, and the state computed
+ * by each step is published through a {@link SeqLock}, so none of the accessors block the step.
+ *
  * @author Alex Mikhalev
  */
 public class TrapezoidalProfileFollower extends AbstractUpdatable implements DataLoggable,
         Configurable<TrapezoidalProfileFollower.Config> {
     private final DataCollector dataCollector = DataCollector.getDataCollector();
     private final LogDataProvider logDataProvider = new TrapezoidalProfileFollower.ControllerLogDataProvider();
-    private final TrapezoidalProfile baseProfile = new TrapezoidalProfile();
+    private TrapezoidalProfile baseProfile = new TrapezoidalProfile();
     private final TrapezoidalProfileCalculator calculator = baseProfile.createCalculator();
+    // mailbox, written by anyone and consumed at the start of each step
+    private final AtomicReference<PendingProfile> pendingProfile = new AtomicReference<>();
+    private final AtomicBoolean resetRequested = new AtomicBoolean();
+    private final AtomicBoolean resyncRequested = new AtomicBoolean();
     // Inputs and outputs
     private ControllerInput positionProvider;
     private ControllerInput velocityProvider;
     private ControllerOutput outputConsumer;
-    private Config config = new Config();
+    private volatile Config config = new Config();
     private volatile double maxOutput = Double.POSITIVE_INFINITY;
     private volatile double minOutput = Double.NEGATIVE_INFINITY;
     private volatile double holdPower = 0.0;
-    // Variable data
+    // Variable data, published by each step
+    private final SeqLock stateLock = new SeqLock();
+    private volatile double targetPosition;
+    private volatile double targetVelocity;
+    private volatile double targetAcceleration;
     private volatile double initialPosition;
     private volatile double initialVelocity;
     private volatile double currentPosition;
@@ -61,16 +79,17 @@ public class TrapezoidalProfileFollower extends AbstractUpdatable implements Dat
         else return value;
     }
 
-    public synchronized void reset() {
-        currentPosition = 0.0;
-        currentVelocity = 0.0;
-        output = 0.0;
-        resetTotalPError();
-        finished = false;
-        onTarget = false;
+    /**
+     * Resets the follower at the start of the next step
+     */
+    public void reset() {
+        resetRequested.set(true);
     }
 
-    public synchronized void resetTotalPError() {
+    /**
+     * Resets the integral of position error. Should only be called from within a step, such as by an output consumer
+     */
+    public void resetTotalPError() {
         totalPError = 0;
     }
 
@@ -106,7 +125,9 @@ public class TrapezoidalProfileFollower extends AbstractUpdatable implements Dat
     }
 
     public void moveDistance(double distance) {
-        initialPosition = positionProvider.getControllerInput();
+        checkNotNull(positionProvider, "positionProvider must be set on a TrapezoidalProfileFollower before using");
+        Config config = this.config;
+        double initialPosition = positionProvider.getControllerInput();
         double endPosition = distance + initialPosition;
         if (endPosition > config.maxPosition) {
             logger.warn(String.format("Attempted to move past maxPosition (%.3f > %.3f)",
@@ -120,21 +141,40 @@ public class TrapezoidalProfileFollower extends AbstractUpdatable implements Dat
         baseProfile.setDistance(distance);
         baseProfile.setTravelVelocity(Math.copySign(baseProfile.getTravelVelocity(), distance));
         logger.trace("Moving based on profile: " + baseProfile);
-        updateProfile();
+        pendingProfile.set(new PendingProfile(baseProfile.copy(), initialPosition));
     }
 
     public TrapezoidalProfile getProfile() {
         return baseProfile;
     }
 
-    public synchronized void updateProfile() {
-        initialPosition = positionProvider.getControllerInput();
+    /**
+     * Starts following the current profile from the current position, and from the velocity at the start of the next
+     * step. If the follower is stopped, the profile is started when the follower is started
+     */
+    public void updateProfile() {
+        checkNotNull(positionProvider, "positionProvider must be set on a TrapezoidalProfileFollower before using");
+        pendingProfile.set(new PendingProfile(baseProfile.copy(), positionProvider.getControllerInput()));
+    }
+
+    /**
+     * Moves the profile to the time at which it reaches the current position at the start of the next step, so a
+     * mechanism which was held back or pushed ahead follows the rest of the profile from where it is instead of
+     * trying to catch up
+     */
+    public void resync() {
+        resyncRequested.set(true);
+    }
+
+    private void applyProfile(PendingProfile pending) {
+        // the position the distance was measured from, so the end position is the one which was asked for
+        initialPosition = pending.initialPosition;
         initialVelocity = velocityProvider.getControllerInput();
-        baseProfile.setStartVelocity(initialVelocity);
-        calculator.updateProfile(baseProfile);
+        pending.profile.setStartVelocity(initialVelocity);
+        calculator.updateProfile(pending.profile);
     }
 
-    public synchronized void setEndVelocity(double endVelocity) {
+    public void setEndVelocity(double endVelocity) {
         baseProfile.setEndVelocity(endVelocity);
     }
 
@@ -142,11 +182,11 @@ public class TrapezoidalProfileFollower extends AbstractUpdatable implements Dat
         setEndVelocity(config.endVelocity);
     }
 
-    public synchronized double getEndVelocity() {
+    public double getEndVelocity() {
         return baseProfile.getEndVelocity();
     }
 
-    public synchronized void setTravelVelocity(double travelVelocity) {
+    public void setTravelVelocity(double travelVelocity) {
         baseProfile.setTravelVelocity(travelVelocity);
     }
 
@@ -154,11 +194,11 @@ public class TrapezoidalProfileFollower extends AbstractUpdatable implements Dat
         setTravelVelocity(config.travelVelocity);
     }
 
-    public synchronized double getTravelVelocity() {
+    public double getTravelVelocity() {
         return baseProfile.getTravelVelocity();
     }
 
-    public synchronized void setMaxAcceleration(double maxAcceleration) {
+    public void setMaxAcceleration(double maxAcceleration) {
         baseProfile.setMaxAcceleration(maxAcceleration);
     }
 
@@ -166,7 +206,7 @@ public class TrapezoidalProfileFollower extends AbstractUpdatable implements Dat
         setMaxAcceleration(config.maxAcceleration);
     }
 
-    public synchronized double getMaxAcceleration() {
+    public double getMaxAcceleration() {
         return baseProfile.getMaxAcceleration();
     }
 
@@ -179,51 +219,78 @@ public class TrapezoidalProfileFollower extends AbstractUpdatable implements Dat
         this.onTargetPredicate = onTargetPredicate;
     }
 
-    public synchronized double getMinOutput() {
+    public double getMinOutput() {
         return minOutput;
     }
 
-    public synchronized void setMinOutput(double minOutput) {
+    public void setMinOutput(double minOutput) {
         this.minOutput = minOutput;
     }
 
-    public synchronized double getMaxOutput() {
+    public double getMaxOutput() {
         return maxOutput;
     }
 
-    public synchronized void setMaxOutput(double maxOutput) {
+    public void setMaxOutput(double maxOutput) {
         this.maxOutput = maxOutput;
     }
 
-    public synchronized double getHoldPower() {
+    public double getHoldPower() {
         return holdPower;
     }
 
-    public synchronized void setHoldPower(double holdPower) {
+    public void setHoldPower(double holdPower) {
         this.holdPower = holdPower;
     }
 
     @Override
-    protected synchronized final void doUpdate(double delta) {
-        checkNotNull(velocityProvider, "currentPosition must be set on a TrapezoidalProfileFollower before using");
-        currentPosition = this.positionProvider.getControllerInput() - initialPosition;
+    protected final void doUpdate(double delta) {
+        checkNotNull(positionProvider, "positionProvider must be set on a TrapezoidalProfileFollower before using");
         checkNotNull(velocityProvider, "velocityProvider must be set on a TrapezoidalProfileFollower before using");
-        currentVelocity = this.velocityProvider.getControllerInput();
+        double computedOutput;
+        stateLock.beginWrite();
+        try {
+            if (resetRequested.getAndSet(false)) {
+                currentPosition = 0.0;
+                currentVelocity = 0.0;
+                output = 0.0;
+                totalPError = 0.0;
+                finished = false;
+                onTarget = false;
+            }
+            PendingProfile pending = pendingProfile.getAndSet(null);
+            if (pending != null) {
+                applyProfile(pending);
+            }
 
-        finished = calculator.update(delta);
-        onTarget = onTargetPredicate.test(this);
+            currentPosition = this.positionProvider.getControllerInput() - initialPosition;
+            currentVelocity = this.velocityProvider.getControllerInput();
+            if (resyncRequested.getAndSet(false)) {
+                calculator.setPosition(currentPosition);
+            }
 
-        if (onTarget) {
-            stop();
-            return;
-        }
+            finished = calculator.update(delta);
+            targetPosition = calculator.getPosition();
+            targetVelocity = calculator.getVelocity();
+            targetAcceleration = calculator.getAcceleration();
+            onTarget = onTargetPredicate.test(this);
 
-        double computedOutput = computeOutput(delta);
-        computedOutput = applyLimits(computedOutput, this.minOutput, this.maxOutput);
+            if (onTarget) {
+                computedOutput = Double.NaN;
+            } else {
+                computedOutput = computeOutput(delta);
+                computedOutput = applyLimits(computedOutput, this.minOutput, this.maxOutput);
+                output = computedOutput;
+            }
+        } finally {
+            stateLock.endWrite();
+        }
 
-        output = computedOutput;
-        if (outputConsumer != null)
-            outputConsumer.controllerWrite(output);
+        if (Double.isNaN(computedOutput)) {
+            stop();
+        } else if (outputConsumer != null) {
+            outputConsumer.controllerWrite(computedOutput);
+        }
     }
 
     protected double computeOutput(double delta) {
@@ -236,13 +303,13 @@ public class TrapezoidalProfileFollower extends AbstractUpdatable implements Dat
             output += config.kMinOutput;
         } else if (Epsilon.isEpsilonNegative(getTargetVelocity())) {
             output -= config.kMinOutput;
-        } else if (Epsilon.isEpsilonZero(calculator.getAcceleration()) &&
+        } else if (Epsilon.isEpsilonZero(getTargetAcceleration()) &&
                 Epsilon.isEpsilonZero(positionError, config.tolerance)) {
             return output;
         }
 
         output += positionError * config.kpP + velocityError * config.kpV +
-                getTargetVelocity() * config.kfV + calculator.getAcceleration() * config.kfA;
+                getTargetVelocity() * config.kfV + getTargetAcceleration() * config.kfA;
 
         double endPositionError = calculator.getProfile().getDistance() - getCurrentPosition();
         if (Math.abs(endPositionError) <= config.maxIError) {
@@ -259,11 +326,15 @@ public class TrapezoidalProfileFollower extends AbstractUpdatable implements Dat
     }
 
     public double getTargetVelocity() {
-        return calculator.getVelocity();
+        return targetVelocity;
     }
 
     public double getTargetPosition() {
-        return calculator.getPosition();
+        return targetPosition;
+    }
+
+    public double getTargetAcceleration() {
+        return targetAcceleration;
     }
 
     public synchronized void start() {
@@ -283,6 +354,7 @@ public class TrapezoidalProfileFollower extends AbstractUpdatable implements Dat
     public synchronized void stop() {
         if (running) {
             running = false;
+            pendingProfile.set(null);
             logger.trace("Stopping trapezoidal follower " + getName() + ".");
             dataCollector.stopProvider(logDataProvider);
             if (outputConsumer != null)
@@ -290,39 +362,73 @@ public class TrapezoidalProfileFollower extends AbstractUpdatable implements Dat
         }
     }
 
-    public synchronized double getInitialPosition() {
+    public double getInitialPosition() {
         return initialPosition;
     }
 
-    public synchronized double getInitialVelocity() {
+    public double getInitialVelocity() {
         return initialVelocity;
     }
 
-    public synchronized double getCurrentPosition() {
+    public double getCurrentPosition() {
         return currentPosition;
     }
 
-    public synchronized double getCurrentVelocity() {
+    public double getCurrentVelocity() {
         return currentVelocity;
     }
 
-    public synchronized double getPositionError() {
+    public double getPositionError() {
         return positionError;
     }
 
-    public synchronized double getVelocityError() {
+    public double getVelocityError() {
         return velocityError;
     }
 
-    public synchronized boolean isFinished() {
-        return this.finished;
-    }
-
-    public synchronized boolean isOnTarget() {
-        return onTarget;
-    }
-
-    public synchronized double getOutput() {
+    /**
+     * @return Whether the last step reached the end of the profile. False while running if a new profile has not been
+     * started yet
+     */
+    public boolean isFinished() {
+        return this.finished && !isProfilePending();
+    }
+
+    /**
+     * @return Whether the last step was on target. False while running if a new profile has not been started yet
+     */
+    public boolean isOnTarget() {
+        return onTarget && !isProfilePending();
+    }
+
+    private boolean isProfilePending() {
+        // a profile posted while stopped is not followed until the follower is started, which posts it again
+        return running && pendingProfile.get() != null;
+    }
+
+    /**
+     * Reads the state published by the last step as a consistent snapshot. Must not be called from within a step.
+     *
+     * @param state The state to read into
+     * @return state
+     */
+    public State getState(State state) {
+        long seq;
+        do {
+            seq = stateLock.beginRead();
+            state.targetPosition = targetPosition;
+            state.targetVelocity = targetVelocity;
+            state.targetAcceleration = targetAcceleration;
+            state.currentPosition = currentPosition;
+            state.currentVelocity = currentVelocity;
+            state.output = output;
+            state.finished = finished;
+            state.onTarget = onTarget;
+        } while (stateLock.retryRead(seq));
+        return state;
+    }
+
+    public double getOutput() {
         return output;
     }
 
@@ -340,43 +446,60 @@ public class TrapezoidalProfileFollower extends AbstractUpdatable implements Dat
     }
 
     @Override
-    public synchronized String toString() {
+    public String toString() {
+        State state = getState(new State());
         return "TrapezoidalProfileFollower{" +
                 "name='" + getName() + '\'' +
-                ", calculator=" + calculator +
-                ", currentPosition=" + currentPosition +
-                ", currentVelocity=" + currentVelocity +
-                ", output=" + output +
-                ", finished=" + finished +
-                ", onTarget=" + onTarget +
+                ", targetPosition=" + state.targetPosition +
+                ", targetVelocity=" + state.targetVelocity +
+                ", currentPosition=" + state.currentPosition +
+                ", currentVelocity=" + state.currentVelocity +
+                ", output=" + state.output +
+                ", finished=" + state.finished +
+                ", onTarget=" + state.onTarget +
                 '}';
     }
 
     @Override
     public void configure(Config config) {
-        synchronized (this) {
-            this.config = config;
+        this.config = config;
 
-            if (!Double.isNaN(config.maxAbsoluteOutput)) {
-                setMaxOutput(config.maxAbsoluteOutput);
-                setMinOutput(-config.maxAbsoluteOutput);
-            } else {
-                setMinOutput(config.minOutput);
-                setMaxOutput(config.maxOutput);
-            }
+        if (!Double.isNaN(config.maxAbsoluteOutput)) {
+            setMaxOutput(config.maxAbsoluteOutput);
+            setMinOutput(-config.maxAbsoluteOutput);
+        } else {
+            setMinOutput(config.minOutput);
+            setMaxOutput(config.maxOutput);
+        }
 
-            setHoldPower(config.kHoldPower);
+        setHoldPower(config.kHoldPower);
 
-            setEndVelocity(config.endVelocity);
-            setTravelVelocity(config.travelVelocity);
-            setMaxAcceleration(config.maxAcceleration);
+        if (Double.isInfinite(config.maxJerk)) {
+            baseProfile = new TrapezoidalProfile();
+        } else {
+            SCurveProfile profile = new SCurveProfile();
+            profile.setMaxJerk(config.maxJerk);
+            baseProfile = profile;
         }
+        setEndVelocity(config.endVelocity);
+        setTravelVelocity(config.travelVelocity);
+        setMaxAcceleration(config.maxAcceleration);
     }
 
     public Config getConfig() {
         return config;
     }
 
+    private static class PendingProfile {
+        private final TrapezoidalProfile profile;
+        private final double initialPosition;
+
+        PendingProfile(TrapezoidalProfile profile, double initialPosition) {
+            this.profile = profile;
+            this.initialPosition = initialPosition;
+        }
+    }
+
     public static class Config {
         public double kpP = 0.0; // position error proportion
         public double kiP = 0.0; // position error integral
@@ -397,11 +520,28 @@ public class TrapezoidalProfileFollower extends AbstractUpdatable implements Dat
         public double endVelocity = 0.0; // default endVelocity for the profile
         public double travelVelocity = 0.0; // default travelVelocity for the profile
         public double maxAcceleration = 0.0; // default maxAcceleration for the profile
+        public double maxJerk = Double.POSITIVE_INFINITY; // maxJerk for the profile, which is an S-curve if finite
 
         public boolean logData = false; // whether datalog is enabled or not
     }
 
-    private class ControllerLogDataProvider implements LogDataProvider {
+    /**
+     * A snapshot of the state of a follower after a step
+     */
+    public static class State {
+        public double targetPosition;
+        public double targetVelocity;
+        public double targetAcceleration;
+        public double currentPosition;
+        public double currentVelocity;
+        public double output;
+        public boolean finished;
+        public boolean onTarget;
+    }
+
+    private class ControllerLogDataProvider implements TypedLogDataProvider {
+        private final State state = new State();
+
         @Override
         public String getName() {
             return TrapezoidalProfileFollower.this.getName();
@@ -414,11 +554,15 @@ public class TrapezoidalProfileFollower extends AbstractUpdatable implements Dat
         }
 
         @Override
-        public List<Object> getValues() {
-            synchronized (TrapezoidalProfileFollower.this) {
-                return Arrays.asList(getTargetPosition(), getTargetVelocity(), calculator.getAcceleration(),
-                        currentPosition, currentVelocity, output, onTarget);
-            }
+        public void writeValues(LogDataWriter writer) {
+            getState(state);
+            writer.putDouble(state.targetPosition);
+            writer.putDouble(state.targetVelocity);
+            writer.putDouble(state.targetAcceleration);
+            writer.putDouble(state.currentPosition);
+            writer.putDouble(state.currentVelocity);
+            writer.putDouble(state.output);
+            writer.putBoolean(state.onTarget);
         }
     }
 }
@@ -0,0 +1,234 @@
+package org.teamtators.common.control;
+
+/**
+ * The phases of a {@link TrapezoidalProfile}, worked out once so the position, velocity and acceleration at any time
+ * are a comparison or two and a few multiplications, and the time at which the profile reaches a position has a closed
+ * form.
+ * <p>
+ * The profile is split into five phases: before the start, accelerating to the travel velocity, traveling, accelerating
+ * to the end velocity, and after the end. Each has a start time, position and velocity and a constant acceleration.
+ * <p>
+ * Plans are immutable.
+ */
+public final class TrapezoidalProfilePlan implements MotionProfilePlan {
+    private static final int BEFORE = 0, START = 1, TRAVEL = 2, END = 3, AFTER = 4;
+    private static final double ROOT_TOLERANCE = 1e-9;
+
+    private final double distance;
+    private final double startVelocity;
+    private final double travelVelocity;
+    private final double endVelocity;
+    private final double maxAcceleration;
+    private final double totalTime;
+
+    private final double[] phaseTime = new double[5];
+    private final double[] phasePosition = new double[5];
+    private final double[] phaseVelocity = new double[5];
+    private final double[] phaseAcceleration = new double[5];
+    private final double[] phaseHalfAcceleration = new double[5];
+
+    /**
+     * Plans a profile without looking in the cache. The jerk of the profile is not limited.
+     *
+     * @param profile The profile
+     */
+    public TrapezoidalProfilePlan(TrapezoidalProfile profile) {
+        distance = profile.getDistance();
+        startVelocity = profile.getStartVelocity();
+        travelVelocity = profile.getTravelVelocity();
+        endVelocity = profile.getEndVelocity();
+        maxAcceleration = profile.getMaxAcceleration();
+        double max_a = maxAcceleration;
+        double start_v = startVelocity, travel_v = travelVelocity, end_v = endVelocity;
+
+        double start_d_v = travel_v - start_v;
+        double start_a = Math.copySign(max_a, start_d_v);
+        double start_d_t = start_d_v / start_a;
+        double start_d_s = start_d_t * (start_v + travel_v) / 2.0;
+
+        double end_d_v = end_v - travel_v;
+        double end_a = Math.copySign(max_a, end_d_v);
+        double end_d_t = end_d_v / end_a;
+        double end_d_s = end_d_t * (travel_v + end_v) / 2.0;
+        // the velocity at the beginning of the end part. this is usually travel_v, but if the distance is so small that
+        // it never gets up to travel_v before the end, it is the maximum velocity that it achieves
+        double end_b = travel_v;
+
+        double travel_d_s = distance - start_d_s - end_d_s;
+        double travel_d_t;
+
+        // if the sign of distance and the sign on travel_d_s do not match, that means that d is so small that it can
+        // not get up to travel speed
+        if (distance * travel_d_s <= 0) {
+            max_a = Math.copySign(max_a, start_d_v);
+            double max_a_2 = max_a * max_a;
+            end_d_t = (Math.sqrt(2) * Math.sqrt(2 * max_a_2 * max_a * distance
+                    + max_a_2 * end_v * end_v + max_a_2 * start_v * start_v) - 2 * max_a * end_v)
+                    / (2 * max_a_2);
+            start_d_t = (end_d_t * max_a + end_v - start_v) / max_a;
+            end_b = start_d_t * max_a + start_v;
+            start_d_v = end_b - start_v;
+            start_d_s = start_d_t * (start_v + .5 * start_d_v);
+            travel_d_t = 0.0;
+            travel_d_s = 0.0;
+        } else {
+            travel_d_t = travel_d_s / travel_v;
+        }
+        totalTime = start_d_t + travel_d_t + end_d_t;
+
+        setPhase(BEFORE, 0.0, 0.0, start_v, 0.0);
+        setPhase(START, 0.0, 0.0, start_v, start_a);
+        setPhase(TRAVEL, start_d_t, start_d_s, travel_v, 0.0);
+        setPhase(END, start_d_t + travel_d_t, start_d_s + travel_d_s, end_b, end_a);
+        setPhase(AFTER, totalTime, distance, end_v, 0.0);
+    }
+
+    private void setPhase(int phase, double time, double position, double velocity, double acceleration) {
+        phaseTime[phase] = time;
+        phasePosition[phase] = position;
+        phaseVelocity[phase] = velocity;
+        phaseAcceleration[phase] = acceleration;
+        phaseHalfAcceleration[phase] = acceleration / 2;
+    }
+
+    @Override
+    public boolean matches(TrapezoidalProfile profile) {
+        return profile.getClass() == TrapezoidalProfile.class &&
+                distance == profile.getDistance() && startVelocity == profile.getStartVelocity() &&
+                travelVelocity == profile.getTravelVelocity() && endVelocity == profile.getEndVelocity() &&
+                maxAcceleration == profile.getMaxAcceleration();
+    }
+
+    @Override
+    public double getDistance() {
+        return distance;
+    }
+
+    @Override
+    public double getTotalTime() {
+        return totalTime;
+    }
+
+    private int getPhase(double time) {
+        if (time < 0) {
+            return BEFORE;
+        } else if (time < phaseTime[TRAVEL]) {
+            return START;
+        } else if (time < phaseTime[END]) {
+            return TRAVEL;
+        } else if (time < totalTime) {
+            return END;
+        } else {
+            return AFTER;
+        }
+    }
+
+    private double getPosition(int phase, double time) {
+        double t = time - phaseTime[phase];
+        return phasePosition[phase] + t * (phaseVelocity[phase] + phaseHalfAcceleration[phase] * t);
+    }
+
+    private double getVelocity(int phase, double time) {
+        return phaseVelocity[phase] + phaseAcceleration[phase] * (time - phaseTime[phase]);
+    }
+
+    private double getAcceleration(int phase) {
+        return phaseAcceleration[phase];
+    }
+
+    @Override
+    public double getPosition(double time) {
+        return getPosition(getPhase(time), time);
+    }
+
+    @Override
+    public double getVelocity(double time) {
+        return getVelocity(getPhase(time), time);
+    }
+
+    @Override
+    public double getAcceleration(double time) {
+        return getAcceleration(getPhase(time));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Solves the motion in each phase in closed form.
+     */
+    @Override
+    public double getTimeAtPosition(double position) {
+        for (int phase = START; phase <= END; phase++) {
+            double duration = phaseTime[phase + 1] - phaseTime[phase];
+            if (!(duration > 0)) {
+                continue;
+            }
+            double t = solvePhase(phase, position, duration);
+            if (!Double.isNaN(t)) {
+                return phaseTime[phase] + t;
+            }
+        }
+        if (endVelocity != 0) {
+            double t = (position - distance) / endVelocity;
+            if (t >= 0) {
+                return totalTime + t;
+            }
+        }
+        if (startVelocity != 0) {
+            double t = position / startVelocity;
+            if (t <= 0) {
+                return t;
+            }
+        }
+        return Math.abs(position) <= Math.abs(position - distance) ? 0.0 : totalTime;
+    }
+
+    /**
+     * @return The earliest time in a phase at which it reaches a position, or NaN if it does not
+     */
+    private double solvePhase(int phase, double position, double duration) {
+        double a = phaseHalfAcceleration[phase];
+        double b = phaseVelocity[phase];
+        double c = phasePosition[phase] - position;
+        double tolerance = ROOT_TOLERANCE * Math.max(1.0, duration);
+        double first, second;
+        if (a == 0) {
+            if (b == 0) {
+                return c == 0 ? 0.0 : Double.NaN;
+            }
+            first = second = -c / b;
+        } else {
+            double discriminant = b * b - 4 * a * c;
+            if (discriminant < 0) {
+                return Double.NaN;
+            }
+            // the numerically stable form of the quadratic formula
+            double q = -0.5 * (b + Math.copySign(Math.sqrt(discriminant), b));
+            first = q / a;
+            second = q == 0 ? first : c / q;
+            if (second < first) {
+                double swap = first;
+                first = second;
+                second = swap;
+            }
+        }
+        if (first >= -tolerance && first <= duration + tolerance) {
+            return Math.max(0.0, Math.min(duration, first));
+        } else if (second >= -tolerance && second <= duration + tolerance) {
+            return Math.max(0.0, Math.min(duration, second));
+        }
+        return Double.NaN;
+    }
+
+    @Override
+    public String toString() {
+        return "TrapezoidalProfilePlan{" +
+                "distance=" + distance +
+                ", startVelocity=" + startVelocity +
+                ", travelVelocity=" + travelVelocity +
+                ", endVelocity=" + endVelocity +
+                ", maxAcceleration=" + maxAcceleration +
+                ", totalTime=" + totalTime +
+                '}';
+    }
+}
@@ -1,7 +1,5 @@
 package org.teamtators.common.control;
 
-import org.slf4j.profiler.Profiler;
-
 /**
  * Represents things that can be updated at a certain period
  *
@@ -20,11 +18,20 @@ public interface Updatable {
         return "Updatable";
     }
 
-    default Profiler getProfiler() {
+    /**
+     * @return The profiler which this item recorded its last update into, or null if it is not profiled
+     */
+    default SectionProfiler getProfiler() {
         return null;
     }
 
-    default void setProfiler(Profiler profiler) {
+    /**
+     * Sets the profiler which this item should record its sections into during its next update. Only called if
+     * {@link #hasProfiler()} returns true. Sections recorded will be nested within the section for this item.
+     *
+     * @param profiler The profiler to use
+     */
+    default void setProfiler(SectionProfiler profiler) {
     }
 
     default boolean hasProfiler() {
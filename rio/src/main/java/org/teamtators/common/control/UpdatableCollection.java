@@ -1,14 +1,17 @@
 package org.teamtators.common.control;
 
-import org.slf4j.profiler.Profiler;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Objects;
 
 public class UpdatableCollection extends ArrayList<Updatable> implements Updatable {
     private final String name;
-    private Profiler profiler;
+    private SectionProfiler profiler = SectionProfiler.NONE;
+    // the profiler section of each updatable, resolved when it is added so update does not look them up
+    private int[] sectionIds = new int[0];
+    private int sectionIdsModCount = 0;
 
     public UpdatableCollection(String name) {
         super();
@@ -30,7 +33,11 @@ public class UpdatableCollection extends ArrayList<Updatable> implements Updatab
         if (c.stream().anyMatch(Objects::isNull)) {
             throw new IllegalArgumentException("UpdatableCollection cannot contain null: " + c);
         }
-        return super.addAll(c);
+        // if modified some other way since the ids were resolved, resolve them all
+        int start = sectionIdsModCount == modCount ? size() : 0;
+        boolean changed = super.addAll(c);
+        resolveSectionIds(start);
+        return changed;
     }
 
     @Override
@@ -38,25 +45,68 @@ public class UpdatableCollection extends ArrayList<Updatable> implements Updatab
         if (updatable == null) {
             throw new IllegalArgumentException("Cannot add null Updatable to UpdatableCollection");
         }
-        return super.add(updatable);
+        // if modified some other way since the ids were resolved, resolve them all
+        int start = sectionIdsModCount == modCount ? size() : 0;
+        boolean changed = super.add(updatable);
+        resolveSectionIds(start);
+        return changed;
+    }
+
+    @Override
+    public Updatable set(int index, Updatable updatable) {
+        if (updatable == null) {
+            throw new IllegalArgumentException("Cannot add null Updatable to UpdatableCollection");
+        }
+        // replacing does not count as a modification, so resolve its id here
+        Updatable previous = super.set(index, updatable);
+        sectionIds[index] = SectionProfiler.getSectionId(updatable.getName());
+        return previous;
+    }
+
+    private void resolveSectionIds(int start) {
+        if (sectionIds.length < size()) {
+            sectionIds = Arrays.copyOf(sectionIds, Math.max(size(), sectionIds.length * 2));
+        }
+        for (int i = start; i < size(); i++) {
+            sectionIds[i] = SectionProfiler.getSectionId(get(i).getName());
+        }
+        sectionIdsModCount = modCount;
     }
 
     @Override
     public void update(double delta) {
-        profiler = new Profiler(name);
-        this.forEach(updatable -> {
+        SectionProfiler profiler = this.profiler;
+        if (sectionIdsModCount != modCount) {
+            // removed or replaced since the ids were resolved, which only happens while configuring
+            resolveSectionIds(0);
+        }
+        int[] sectionIds = this.sectionIds;
+        for (int i = 0; i < size(); i++) {
+            Updatable updatable = get(i);
+            profiler.start(sectionIds[i]);
             if (updatable.hasProfiler()) {
-                updatable.setProfiler(profiler.startNested(updatable.getName()));
+                updatable.setProfiler(profiler);
+                profiler.push();
+                updatable.update(delta);
+                profiler.pop();
             } else {
-                profiler.start(updatable.getName());
+                updatable.update(delta);
             }
-            updatable.update(delta);
-        });
-        profiler.stop();
+        }
     }
 
     @Override
-    public Profiler getProfiler() {
+    public SectionProfiler getProfiler() {
         return profiler;
     }
+
+    @Override
+    public void setProfiler(SectionProfiler profiler) {
+        this.profiler = profiler == null ? SectionProfiler.NONE : profiler;
+    }
+
+    @Override
+    public boolean hasProfiler() {
+        return true;
+    }
 }
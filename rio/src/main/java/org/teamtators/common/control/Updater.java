@@ -5,7 +5,6 @@ import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.hal.NotifierJNI;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.slf4j.profiler.Profiler;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -21,11 +20,14 @@ public class Updater {
     private static final double DEFAULT_PERIOD = 1.0 / 100.0;
     private final Thread m_thread;
     private final ReentrantLock m_processLock = new ReentrantLock();
+    // held for each update, so stop can wait for one in progress
+    private final ReentrantLock m_runLock = new ReentrantLock();
     private final AtomicInteger m_notifier = new AtomicInteger();
     private final AtomicBoolean m_running = new AtomicBoolean(false);
     private double period;
     private double m_expirationTime;
     private final Updatable updatable;
+    private final UpdaterMetrics metrics;
     private long lastStepTime;
 
     public Updater(Updatable updatable) {
@@ -37,6 +39,7 @@ public class Updater {
             throw new NullPointerException("updatable cannot be null");
         this.updatable = updatable;
         this.period = period;
+        this.metrics = new UpdaterMetrics(updatable.getName());
 
         m_notifier.set(NotifierJNI.initializeNotifier());
 
@@ -68,9 +71,15 @@ public class Updater {
         }
     }
 
+    /**
+     * Stops updating. If an update is in progress on the updater thread, waits for it to finish, so the updatable and
+     * anything it uses can be freed once this returns.
+     */
     public void stop() {
         m_running.set(false);
         NotifierJNI.cancelNotifierAlarm(m_notifier.get());
+        m_runLock.lock();
+        m_runLock.unlock();
     }
 
     public boolean isRunning() {
@@ -81,6 +90,13 @@ public class Updater {
         return updatable;
     }
 
+    /**
+     * @return The timing metrics of this updater
+     */
+    public UpdaterMetrics getMetrics() {
+        return metrics;
+    }
+
     private void updaterThread() {
         while (!Thread.interrupted()) {
             int notifier = this.m_notifier.get();
@@ -106,7 +122,17 @@ public class Updater {
     }
 
     private void run() {
-        if (!isRunning()) return;
+        m_runLock.lock();
+        try {
+            if (isRunning()) {
+                update();
+            }
+        } finally {
+            m_runLock.unlock();
+        }
+    }
+
+    private void update() {
         long time = RobotController.getFPGATime();
         long delta = time - lastStepTime;
         double deltaSeconds = delta / 1000000.0;
@@ -114,13 +140,13 @@ public class Updater {
         try {
             updatable.update(deltaSeconds);
             long elapsed = RobotController.getFPGATime() - time;
+            metrics.record((long) (period * 1000000.0), delta, elapsed);
             double elapsedSeconds = elapsed / 1000000.0;
             if (elapsedSeconds > 10 * period) {
                 logger.warn("Updatable " + updatable.getClass().getName() + " exceeded period ({} > {})", elapsedSeconds, period);
-                Profiler profiler = updatable.getProfiler();
+                SectionProfiler profiler = updatable.getProfiler();
                 if (profiler != null) {
-                    profiler.setLogger(logger);
-                    profiler.log();
+                    profiler.log(logger);
                 }
             }
         } catch (Throwable t) {
@@ -128,6 +154,15 @@ public class Updater {
         }
     }
 
+    /**
+     * Sets the priority of the updater thread
+     *
+     * @param priority The priority, between {@link Thread#MIN_PRIORITY} and {@link Thread#MAX_PRIORITY}
+     */
+    public void setThreadPriority(int priority) {
+        m_thread.setPriority(priority);
+    }
+
     public double getPeriod() {
         return period;
     }
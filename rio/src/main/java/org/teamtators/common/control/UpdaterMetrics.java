@@ -0,0 +1,181 @@
+package org.teamtators.common.control;
+
+import org.teamtators.common.datalogging.Dashboard;
+import org.teamtators.common.datalogging.DashboardEntry;
+import org.teamtators.common.datalogging.DashboardUpdatable;
+import org.teamtators.common.scheduler.RobotState;
+
+/**
+ * Timing metrics for an {@link Updater}, kept separately for each robot state.
+ * <p>
+ * For every run of the updater, records the jitter (how far the time since the last run was from the period), the
+ * execution time of the updatable, and whether the execution time overran the period. All recording is done into
+ * preallocated histograms, so it does not allocate.
+ */
+public class UpdaterMetrics implements DashboardUpdatable {
+    private static final double DASHBOARD_DEADBAND = 0.01; // ms
+
+    private final String name;
+    private final StateMetrics[] stateMetrics;
+    private volatile RobotState robotState = RobotState.DISABLED;
+
+    private Dashboard dashboard;
+    private DashboardEntry jitterP50Entry;
+    private DashboardEntry jitterP99Entry;
+    private DashboardEntry jitterMaxEntry;
+    private DashboardEntry execP50Entry;
+    private DashboardEntry execP99Entry;
+    private DashboardEntry execMaxEntry;
+    private DashboardEntry overrunsEntry;
+
+    public UpdaterMetrics(String name) {
+        this.name = name;
+        RobotState[] states = RobotState.values();
+        stateMetrics = new StateMetrics[states.length];
+        for (int i = 0; i < states.length; i++) {
+            stateMetrics[i] = new StateMetrics(states[i]);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RobotState getRobotState() {
+        return robotState;
+    }
+
+    /**
+     * Sets the robot state which future runs are recorded under
+     *
+     * @param robotState The current robot state
+     */
+    public void setRobotState(RobotState robotState) {
+        this.robotState = robotState;
+    }
+
+    /**
+     * Records a single run of an updater
+     *
+     * @param periodMicros  The expected period, in microseconds
+     * @param elapsedMicros The actual time since the last run, in microseconds
+     * @param execMicros    How long the run took, in microseconds
+     */
+    public void record(long periodMicros, long elapsedMicros, long execMicros) {
+        StateMetrics metrics = stateMetrics[robotState.ordinal()];
+        metrics.jitter.record(Math.abs(elapsedMicros - periodMicros));
+        metrics.execTime.record(execMicros);
+        if (execMicros > periodMicros) {
+            metrics.overruns++;
+        }
+    }
+
+    public StateMetrics get(RobotState state) {
+        return stateMetrics[state.ordinal()];
+    }
+
+    public StateMetrics getCurrent() {
+        return get(robotState);
+    }
+
+    public void reset() {
+        for (StateMetrics metrics : stateMetrics) {
+            metrics.reset();
+        }
+    }
+
+    /**
+     * Publishes p50/p99/max jitter and execution time, in milliseconds, and the overrun count for the current state
+     */
+    @Override
+    public void updateDashboard(Dashboard dashboard) {
+        if (dashboard != this.dashboard) {
+            this.dashboard = dashboard;
+            jitterP50Entry = dashboard.getEntry(name + ".jitter.p50", DASHBOARD_DEADBAND);
+            jitterP99Entry = dashboard.getEntry(name + ".jitter.p99", DASHBOARD_DEADBAND);
+            jitterMaxEntry = dashboard.getEntry(name + ".jitter.max", DASHBOARD_DEADBAND);
+            execP50Entry = dashboard.getEntry(name + ".exec.p50", DASHBOARD_DEADBAND);
+            execP99Entry = dashboard.getEntry(name + ".exec.p99", DASHBOARD_DEADBAND);
+            execMaxEntry = dashboard.getEntry(name + ".exec.max", DASHBOARD_DEADBAND);
+            overrunsEntry = dashboard.getEntry(name + ".overruns");
+        }
+        StateMetrics metrics = getCurrent();
+        jitterP50Entry.setNumber(metrics.jitter.getValueAtPercentile(50) / 1000.0);
+        jitterP99Entry.setNumber(metrics.jitter.getValueAtPercentile(99) / 1000.0);
+        jitterMaxEntry.setNumber(metrics.jitter.getMax() / 1000.0);
+        execP50Entry.setNumber(metrics.execTime.getValueAtPercentile(50) / 1000.0);
+        execP99Entry.setNumber(metrics.execTime.getValueAtPercentile(99) / 1000.0);
+        execMaxEntry.setNumber(metrics.execTime.getMax() / 1000.0);
+        overrunsEntry.setNumber(metrics.overruns);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("UpdaterMetrics{" + name);
+        for (StateMetrics metrics : stateMetrics) {
+            if (metrics.getCount() > 0) {
+                sb.append(", ").append(metrics);
+            }
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Timing metrics of an Updater while the robot was in a single state
+     */
+    public static class StateMetrics {
+        private final RobotState state;
+        private final TimingHistogram jitter = new TimingHistogram();
+        private final TimingHistogram execTime = new TimingHistogram();
+        private long overruns;
+
+        private StateMetrics(RobotState state) {
+            this.state = state;
+        }
+
+        public RobotState getState() {
+            return state;
+        }
+
+        /**
+         * @return The histogram of the difference between the actual and expected time between runs, in microseconds
+         */
+        public TimingHistogram getJitter() {
+            return jitter;
+        }
+
+        /**
+         * @return The histogram of the time each run took, in microseconds
+         */
+        public TimingHistogram getExecTime() {
+            return execTime;
+        }
+
+        /**
+         * @return The number of runs which took longer than the period
+         */
+        public long getOverruns() {
+            return overruns;
+        }
+
+        public long getCount() {
+            return execTime.getTotalCount();
+        }
+
+        public void reset() {
+            jitter.reset();
+            execTime.reset();
+            overruns = 0;
+        }
+
+        @Override
+        public String toString() {
+            return state + "{count=" + getCount() +
+                    ", jitter p50/p99/max=" + jitter.getValueAtPercentile(50) + "/" +
+                    jitter.getValueAtPercentile(99) + "/" + jitter.getMax() + "us" +
+                    ", exec p50/p99/max=" + execTime.getValueAtPercentile(50) + "/" +
+                    execTime.getValueAtPercentile(99) + "/" + execTime.getMax() + "us" +
+                    ", overruns=" + overruns + "}";
+        }
+    }
+}
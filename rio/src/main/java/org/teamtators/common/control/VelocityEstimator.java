@@ -0,0 +1,153 @@
+package org.teamtators.common.control;
+
+import org.teamtators.common.config.Configurable;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Estimates a velocity once per update by running a {@link SignalFilter} on a position or a raw rate, so controllers
+ * can use velocity feedback which is much less noisy than an encoder's rate. The rate of an encoder is measured over
+ * a single period between pulses, so at speed it jumps around by several percent every update.
+ * <p>
+ * Must be updated before anything which uses its velocity in the same loop, and only from the control thread.
+ */
+public class VelocityEstimator implements Updatable, ControllerInput, Configurable<VelocityEstimator.Config> {
+    private final String name;
+    private ControllerInput positionProvider;
+    private ControllerInput rateProvider;
+    private ControllerInput input;
+    private SignalFilter filter;
+    private double maxVelocity = Double.POSITIVE_INFINITY;
+    private volatile double velocity;
+
+    public VelocityEstimator(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param positionProvider The position, for modes which differentiate it
+     * @param rateProvider     The raw rate, for modes which smooth it
+     */
+    public VelocityEstimator(String name, ControllerInput positionProvider, ControllerInput rateProvider) {
+        this(name);
+        setPositionProvider(positionProvider);
+        setRateProvider(rateProvider);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public void setPositionProvider(ControllerInput positionProvider) {
+        this.positionProvider = checkNotNull(positionProvider);
+    }
+
+    /**
+     * @param rateProvider The raw rate, which is also the input until the estimator is configured
+     */
+    public synchronized void setRateProvider(ControllerInput rateProvider) {
+        this.rateProvider = checkNotNull(rateProvider);
+        if (input == null) {
+            input = rateProvider;
+        }
+    }
+
+    /**
+     * Sets the filter to run directly, for combinations of filters which are not a {@link Mode}
+     *
+     * @param input  The input to filter
+     * @param filter The filter, which must output a velocity, or null to use the input as it is
+     */
+    public synchronized void setFilter(ControllerInput input, SignalFilter filter) {
+        this.input = checkNotNull(input);
+        this.filter = filter;
+        reset();
+    }
+
+    public SignalFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * @param maxVelocity The maximum absolute velocity to output. Estimates are clamped to this.
+     */
+    public void setMaxVelocity(double maxVelocity) {
+        this.maxVelocity = maxVelocity;
+    }
+
+    public synchronized void reset() {
+        if (filter != null) {
+            filter.reset();
+        }
+        velocity = 0.0;
+    }
+
+    @Override
+    public void update(double delta) {
+        double value = input.getControllerInput();
+        if (filter != null) {
+            value = filter.calculate(value, delta);
+        }
+        velocity = Math.max(-maxVelocity, Math.min(maxVelocity, value));
+    }
+
+    @Override
+    public double getControllerInput() {
+        return velocity;
+    }
+
+    @Override
+    public void configure(Config config) {
+        setMaxVelocity(config.maxVelocity);
+        switch (config.mode) {
+            case RATE:
+                setFilter(rateProvider, null);
+                break;
+            case MOVING_AVERAGE:
+                setFilter(rateProvider, new MovingAverageFilter(config.window));
+                break;
+            case EXPONENTIAL:
+                setFilter(rateProvider, new ExponentialFilter(config.timeConstant));
+                break;
+            case SAVITZKY_GOLAY:
+                setFilter(positionProvider, new SavitzkyGolayDerivative(config.window));
+                break;
+            case ALPHA_BETA:
+                setFilter(positionProvider, new AlphaBetaFilter(config.alpha, config.beta));
+                break;
+        }
+    }
+
+    public enum Mode {
+        /**
+         * The raw rate, unfiltered
+         */
+        RATE,
+        /**
+         * The mean of the raw rate over the window
+         */
+        MOVING_AVERAGE,
+        /**
+         * The raw rate through a low pass filter with the time constant
+         */
+        EXPONENTIAL,
+        /**
+         * The slope of a line through the position over the window
+         */
+        SAVITZKY_GOLAY,
+        /**
+         * The velocity tracked by an alpha-beta filter on the position
+         */
+        ALPHA_BETA
+    }
+
+    public static class Config {
+        public Mode mode = Mode.RATE;
+        public int window = 5; // samples
+        public double timeConstant = 0.02; // seconds
+        public double alpha = 0.5;
+        public double beta = 0.1;
+        public double maxVelocity = Double.POSITIVE_INFINITY;
+    }
+}
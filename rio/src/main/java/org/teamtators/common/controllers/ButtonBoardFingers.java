@@ -46,7 +46,7 @@ public class ButtonBoardFingers
 
     @Override
     public TriggerSource getTriggerSource(org.teamtators.common.controllers.ButtonBoardFingers.Button button) {
-        return () -> isButtonDown(button);
+        return getRawTriggerSource(button.getButtonID());
     }
 
     /**
@@ -10,6 +10,7 @@ import org.teamtators.common.config.Configurable;
 import org.teamtators.common.config.Deconfigurable;
 import org.teamtators.common.control.Timer;
 import org.teamtators.common.control.Updatable;
+import org.teamtators.common.scheduler.BitfieldTriggerSource;
 import org.teamtators.common.scheduler.TriggerSource;
 
 import java.util.ArrayList;
@@ -17,6 +18,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Vector;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
 
 /**
  * @author Alex Mikhalev
@@ -30,6 +32,8 @@ public abstract class ControllerBase<TButton, TAxis, TConfig extends ControllerB
     private DriverStation driverStation = DriverStation.getInstance();
 
     private final AtomicInteger buttonsState = new AtomicInteger(0);
+    // the same instance for every button, so the scheduler reads the buttons once per tick
+    private final IntSupplier buttonsBitfield = buttonsState::get;
     private final AtomicInteger povState = new AtomicInteger(0);
     private final List<AtomicDouble> axisStates;
 
@@ -108,7 +112,7 @@ public abstract class ControllerBase<TButton, TAxis, TConfig extends ControllerB
 
     @Override
     public TriggerSource getRawTriggerSource(int button) {
-        return new ControllerTrigger(button);
+        return new BitfieldTriggerSource(buttonsBitfield, button - 1);
     }
 
     @Override
@@ -215,17 +219,4 @@ public abstract class ControllerBase<TButton, TAxis, TConfig extends ControllerB
     public static class Config {
         public int port;
     }
-
-    public class ControllerTrigger implements TriggerSource {
-        private int button;
-
-        public ControllerTrigger(int button) {
-            this.button = button;
-        }
-
-        @Override
-        public boolean getActive() {
-            return ControllerBase.this.isRawButtonDown(button);
-        }
-    }
 }
@@ -62,7 +62,18 @@ public class LogitechF310
 
     @Override
     public TriggerSource getTriggerSource(Button button) {
-        return () -> isButtonDown(button);
+        switch (button) {
+            case TRIGGER_LEFT:
+            case TRIGGER_RIGHT:
+            case POV_UP:
+            case POV_RIGHT:
+            case POV_DOWN:
+            case POV_LEFT:
+                // not in the buttons bitfield, so these are polled
+                return () -> isButtonDown(button);
+            default:
+                return getRawTriggerSource(button.getButtonID());
+        }
     }
 
     @Override
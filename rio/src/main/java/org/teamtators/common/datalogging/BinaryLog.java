@@ -0,0 +1,203 @@
+package org.teamtators.common.datalogging;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A binary data log for a single {@link TypedLogDataProvider}.
+ * <p>
+ * Rows are written by the control loop into a preallocated off-heap ring buffer, and drained by a single writer
+ * thread into a memory mapped file. If the writer falls behind and the ring fills up, rows are dropped rather than
+ * blocking the control loop.
+ * <p>
+ * The file starts with a header of the magic number, the format version, the number of columns and the name of each
+ * column (as a short length followed by UTF-8 bytes). Each row after that is one big endian double per column, the
+ * first of which is the timestamp. Booleans are written as 1.0 or 0.0.
+ */
+class BinaryLog implements LogDataWriter {
+    static final int MAGIC = 0x544C4F47; // "TLOG"
+    static final int VERSION = 1;
+    static final String EXTENSION = ".tlog";
+    private static final int RING_ROWS = 1024;
+    private static final int MAP_CHUNK_SIZE = 1 << 20;
+
+    private final TypedLogDataProvider provider;
+    private final String fileName;
+    private final String[] columns;
+    private final int rowSize;
+    private final ByteBuffer ring;
+    private final ByteBuffer ringView;
+    private final int rowMask;
+    // rows written into the ring by the control loop, and rows drained from it by the writer
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long droppedRows;
+    private volatile boolean closing;
+
+    // control loop state
+    private int rowOffset;
+    private int column;
+
+    // writer thread state
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private long mappedStart;
+
+    BinaryLog(TypedLogDataProvider provider, String fileName) {
+        this.provider = provider;
+        this.fileName = fileName;
+        List<Object> keys = provider.getKeys();
+        columns = new String[keys.size() + 1];
+        columns[0] = "timestamp";
+        for (int i = 0; i < keys.size(); i++) {
+            columns[i + 1] = String.valueOf(keys.get(i));
+        }
+        rowSize = columns.length * Double.BYTES;
+        ring = ByteBuffer.allocateDirect(RING_ROWS * rowSize);
+        ringView = ring.duplicate();
+        rowMask = RING_ROWS - 1;
+    }
+
+    TypedLogDataProvider getProvider() {
+        return provider;
+    }
+
+    String getFileName() {
+        return fileName;
+    }
+
+    long getDroppedRows() {
+        return droppedRows;
+    }
+
+    /**
+     * Adds a row with the current values of the provider. Only called from the control loop.
+     *
+     * @param timestamp The timestamp of the row
+     */
+    void addRow(double timestamp) {
+        long h = head.get();
+        if (h - tail.get() >= RING_ROWS) {
+            droppedRows++;
+            return;
+        }
+        rowOffset = (int) (h & rowMask) * rowSize;
+        ring.putDouble(rowOffset, timestamp);
+        column = 1;
+        provider.writeValues(this);
+        while (column < columns.length) {
+            putDouble(Double.NaN);
+        }
+        head.lazySet(h + 1);
+    }
+
+    @Override
+    public void putDouble(double value) {
+        if (column < columns.length) {
+            ring.putDouble(rowOffset + column * Double.BYTES, value);
+        }
+        column++;
+    }
+
+    @Override
+    public void putBoolean(boolean value) {
+        putDouble(value ? 1.0 : 0.0);
+    }
+
+    boolean isOpen() {
+        return channel != null;
+    }
+
+    void open() throws IOException {
+        RandomAccessFile file = new RandomAccessFile(fileName, "rw");
+        try {
+            channel = file.getChannel();
+            mappedStart = 0;
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, MAP_CHUNK_SIZE);
+            mapped.putInt(MAGIC);
+            mapped.putInt(VERSION);
+            mapped.putInt(columns.length);
+            for (String column : columns) {
+                byte[] bytes = column.getBytes(StandardCharsets.UTF_8);
+                mapped.putShort((short) bytes.length);
+                mapped.put(bytes);
+            }
+        } catch (IOException | RuntimeException e) {
+            // closing the file closes its channel too
+            channel = null;
+            mapped = null;
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Copies all rows in the ring into the file. Only called from the writer thread.
+     */
+    void drain() throws IOException {
+        long t = tail.get();
+        long h = head.get();
+        while (t < h) {
+            if (mapped.remaining() < rowSize) {
+                mappedStart += mapped.position();
+                mapped = channel.map(FileChannel.MapMode.READ_WRITE, mappedStart, MAP_CHUNK_SIZE);
+            }
+            int offset = (int) (t & rowMask) * rowSize;
+            ringView.limit(offset + rowSize);
+            ringView.position(offset);
+            mapped.put(ringView);
+            t++;
+            tail.lazySet(t);
+        }
+    }
+
+    void requestClose() {
+        closing = true;
+    }
+
+    boolean isClosing() {
+        return closing;
+    }
+
+    /**
+     * Drains any remaining rows, then truncates and closes the file. Only called from the writer thread.
+     */
+    void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            drain();
+            long size = mappedStart + mapped.position();
+            mapped.force();
+            mapped = null;
+            channel.truncate(size);
+        } finally {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Closes the file without draining or truncating it, after writing to it failed. Only called from the writer
+     * thread.
+     */
+    void abort() {
+        if (channel == null) {
+            return;
+        }
+        mapped = null;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // already stopping because of an earlier error, which was logged
+        }
+        channel = null;
+    }
+}
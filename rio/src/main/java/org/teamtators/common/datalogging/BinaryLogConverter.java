@@ -0,0 +1,80 @@
+package org.teamtators.common.datalogging;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts binary data logs written by {@link DataCollector} to CSV files. Meant to be run offline, off of the robot.
+ * <p>
+ * Usage: {@code BinaryLogConverter <log.tlog>...}, which writes a {@code .csv} next to each log.
+ */
+public class BinaryLogConverter {
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: BinaryLogConverter <log" + BinaryLog.EXTENSION + ">...");
+            System.exit(1);
+        }
+        for (String arg : args) {
+            File input = new File(arg);
+            String name = input.getPath();
+            if (name.endsWith(BinaryLog.EXTENSION)) {
+                name = name.substring(0, name.length() - BinaryLog.EXTENSION.length());
+            }
+            File output = new File(name + ".csv");
+            int rows = convert(input, output);
+            System.out.println("Converted " + rows + " rows from " + input + " to " + output);
+        }
+    }
+
+    /**
+     * Converts a binary data log to a CSV file
+     *
+     * @param input  The binary log to read
+     * @param output The CSV file to write
+     * @return The number of rows converted
+     * @throws IOException If the log could not be read or is not a binary data log
+     */
+    public static int convert(File input, File output) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(input)));
+             CSVPrinter printer = new CSVPrinter(new FileWriter(output), CSVFormat.EXCEL)) {
+            int magic = in.readInt();
+            if (magic != BinaryLog.MAGIC) {
+                throw new IOException(input + " is not a binary data log");
+            }
+            int version = in.readInt();
+            if (version != BinaryLog.VERSION) {
+                throw new IOException("Unsupported binary data log version " + version + " in " + input);
+            }
+            int columnCount = in.readInt();
+            String[] columns = new String[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                byte[] bytes = new byte[in.readUnsignedShort()];
+                in.readFully(bytes);
+                columns[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            printer.printRecord((Object[]) columns);
+
+            Object[] row = new Object[columnCount];
+            int rows = 0;
+            while (true) {
+                try {
+                    for (int i = 0; i < columnCount; i++) {
+                        row[i] = in.readDouble();
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+                // a log which was not closed cleanly is padded with zeros, and no real row has a zero timestamp
+                if ((double) row[0] == 0.0) {
+                    break;
+                }
+                printer.printRecord(row);
+                rows++;
+            }
+            return rows;
+        }
+    }
+}
@@ -7,6 +7,25 @@ public interface Dashboard {
 
     void putString(String name, String val);
 
+    /**
+     * Gets a handle to a value on this dashboard, which should be kept and reused instead of putting by name.
+     * There is only one entry for each name, so the deadband is the one given when it was first gotten.
+     *
+     * @param name     The name of the value
+     * @param deadband How much a number has to change by before it is published again
+     * @return The entry
+     */
+    DashboardEntry getEntry(String name, double deadband);
+
+    default DashboardEntry getEntry(String name) {
+        return getEntry(name, 0.0);
+    }
+
+    /**
+     * Publishes all entries which have changed since the last flush
+     */
+    void flush();
+
     enum Type {
         SMART_DASHBOARD,
         TATOR_DASHBOARD,
@@ -0,0 +1,88 @@
+package org.teamtators.common.datalogging;
+
+/**
+ * A handle to a single value on a {@link Dashboard}, resolved once ahead of time.
+ * <p>
+ * Setting a value only marks it to be published if it changed (by more than the deadband for numbers). Changed
+ * values are published together when the dashboard is flushed, at the end of each dashboard update.
+ */
+public abstract class DashboardEntry {
+    private enum Type {
+        NONE, NUMBER, BOOLEAN, STRING
+    }
+
+    private final String name;
+    private final double deadband;
+    private Type type = Type.NONE;
+    private double number;
+    private boolean bool;
+    private String string;
+    private boolean dirty;
+
+    protected DashboardEntry(String name, double deadband) {
+        this.name = name;
+        this.deadband = deadband;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getDeadband() {
+        return deadband;
+    }
+
+    public void setNumber(double value) {
+        if (type == Type.NUMBER && (Math.abs(value - number) <= deadband || Double.compare(value, number) == 0)) {
+            return;
+        }
+        type = Type.NUMBER;
+        number = value;
+        dirty = true;
+    }
+
+    public void setBoolean(boolean value) {
+        if (type == Type.BOOLEAN && value == bool) {
+            return;
+        }
+        type = Type.BOOLEAN;
+        bool = value;
+        dirty = true;
+    }
+
+    public void setString(String value) {
+        if (type == Type.STRING && (value == null ? string == null : value.equals(string))) {
+            return;
+        }
+        type = Type.STRING;
+        string = value;
+        dirty = true;
+    }
+
+    /**
+     * Publishes the value if it has changed since it was last published
+     */
+    public void flush() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        switch (type) {
+            case NUMBER:
+                publishNumber(number);
+                break;
+            case BOOLEAN:
+                publishBoolean(bool);
+                break;
+            case STRING:
+                publishString(string);
+                break;
+        }
+    }
+
+    protected abstract void publishNumber(double value);
+
+    protected abstract void publishBoolean(boolean value);
+
+    protected abstract void publishString(String value);
+}
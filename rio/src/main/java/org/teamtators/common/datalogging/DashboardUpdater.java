@@ -27,6 +27,8 @@ public class DashboardUpdater extends ArrayList<DashboardUpdatable> implements U
             case NONE:
                 current = noopDashboard;
                 break;
+            default:
+                throw new IllegalArgumentException("No dashboard adapter for " + type);
         }
     }
 
@@ -43,9 +45,13 @@ public class DashboardUpdater extends ArrayList<DashboardUpdatable> implements U
 
     @Override
     public void update(double delta) {
+        Dashboard current = this.current;
         if (current == null) {
             return;
         }
-        this.forEach(updatable -> updatable.updateDashboard(current));
+        for (int i = 0; i < size(); i++) {
+            get(i).updateDashboard(current);
+        }
+        current.flush();
     }
 }
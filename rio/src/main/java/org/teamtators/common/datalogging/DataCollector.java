@@ -16,17 +16,44 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * Collects quantitative data from various sources on the robot and logs it to a file
+ * Collects quantitative data from various sources on the robot and logs it to a file.
+ * <p>
+ * {@link TypedLogDataProvider}s are logged to binary files by a single background writer thread, without allocating
+ * on the control loop. Other providers are logged to CSV files, sampled by {@link #getCsvSampler()}, which should be
+ * updated from its own lower priority thread so formatting rows never runs on the control loop.
  */
 
 public class DataCollector implements Updatable {
     public static final DateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH.mm.ss");
+    // only used by startBinaryProvider, which is synchronized
+    private static final DateFormat BINARY_DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH.mm.ss.SSS");
     private static final Logger logger = LoggerFactory.getLogger(DataCollector.class);
     private String outputDir;
     private static DataCollector collector = null;
+    private static final long WRITER_PERIOD_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
     private Set<ProviderUsage> providers = ConcurrentHashMap.newKeySet();
+    // binary logs being added to by the control loop, and binary logs which have not been closed by the writer yet
+    private volatile BinaryLog[] binaryLogs = new BinaryLog[0];
+    private final List<BinaryLog> writerLogs = new CopyOnWriteArrayList<>();
+    private Thread writerThread;
+    private final Updatable csvSampler = new Updatable() {
+        @Override
+        public void update(double delta) {
+            for (ProviderUsage providerUsage : providers) {
+                addRow(providerUsage);
+            }
+        }
+
+        @Override
+        public String getName() {
+            return "DataCollector-csv";
+        }
+    };
 
     private DataCollector() {
         try {
@@ -56,6 +83,10 @@ public class DataCollector implements Updatable {
      */
     public void startProvider(LogDataProvider provider) {
         Preconditions.checkNotNull(provider);
+        if (provider instanceof TypedLogDataProvider) {
+            startBinaryProvider((TypedLogDataProvider) provider);
+            return;
+        }
         if (providers.stream().anyMatch(u -> u.provider == provider))
             return;
         ProviderUsage usage = new ProviderUsage(provider, null, null);
@@ -89,6 +120,63 @@ public class DataCollector implements Updatable {
         }, "startProvider-" + provider.getName()).start();
     }
 
+    private synchronized void startBinaryProvider(TypedLogDataProvider provider) {
+        if (Arrays.stream(binaryLogs).anyMatch(log -> log.getProvider() == provider))
+            return;
+        String timestamp = BINARY_DATE_FORMAT.format(new Date());
+        String fileName = String.format("%s/%s %s%s", outputDir, timestamp, provider.getName(), BinaryLog.EXTENSION);
+        for (int i = 1; new File(fileName).exists(); i++) {
+            // restarted within the same millisecond, don't overwrite the last log
+            fileName = String.format("%s/%s %s-%d%s", outputDir, timestamp, provider.getName(), i, BinaryLog.EXTENSION);
+        }
+        logger.debug("Starting binary data logging for {} to {}", provider.getName(), fileName);
+        BinaryLog log = new BinaryLog(provider, fileName);
+        writerLogs.add(log);
+        BinaryLog[] logs = Arrays.copyOf(binaryLogs, binaryLogs.length + 1);
+        logs[logs.length - 1] = log;
+        binaryLogs = logs;
+        if (writerThread == null) {
+            writerThread = new Thread(this::writerThread, "DataCollector-writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+    }
+
+    private void writerThread() {
+        while (!Thread.interrupted()) {
+            for (BinaryLog log : writerLogs) {
+                try {
+                    if (!log.isOpen()) {
+                        log.open();
+                    }
+                    if (log.isClosing()) {
+                        log.close();
+                        writerLogs.remove(log);
+                        logger.debug("Closed binary data log {}", log.getFileName());
+                        if (log.getDroppedRows() > 0) {
+                            logger.warn("Dropped {} rows from {} because the writer fell behind",
+                                    log.getDroppedRows(), log.getFileName());
+                        }
+                    } else {
+                        log.drain();
+                    }
+                } catch (IOException e) {
+                    logger.error("Error writing binary data log " + log.getFileName() + ", stopping it", e);
+                    removeBinaryLog(log);
+                    writerLogs.remove(log);
+                    log.abort();
+                }
+            }
+            LockSupport.parkNanos(WRITER_PERIOD_NANOS);
+        }
+    }
+
+    private synchronized void removeBinaryLog(BinaryLog log) {
+        binaryLogs = Arrays.stream(binaryLogs)
+                .filter(current -> current != log)
+                .toArray(BinaryLog[]::new);
+    }
+
     /**
      * Retire a data provider
      *
@@ -96,6 +184,13 @@ public class DataCollector implements Updatable {
      */
     public void stopProvider(LogDataProvider provider) {
         Preconditions.checkNotNull(provider);
+        for (BinaryLog log : binaryLogs) {
+            if (log.getProvider().getName().equals(provider.getName())) {
+                removeBinaryLog(log);
+                log.requestClose();
+                return;
+            }
+        }
         Optional<ProviderUsage> providerUsage = providers.stream()
                 .filter(current -> current.provider.getName().equals(provider.getName()))
                 .findFirst();
@@ -132,10 +227,25 @@ public class DataCollector implements Updatable {
         }
     }
 
+    /**
+     * @return The updatable which adds a row to the CSV log of every provider which is not a
+     * {@link TypedLogDataProvider}
+     */
+    public Updatable getCsvSampler() {
+        return csvSampler;
+    }
+
+    /**
+     * Adds a row to the binary log of every {@link TypedLogDataProvider}, without allocating
+     */
     @Override
     public void update(double delta) {
-        for (ProviderUsage providerUsage : providers) {
-            addRow(providerUsage);
+        BinaryLog[] binaryLogs = this.binaryLogs;
+        if (binaryLogs.length > 0) {
+            double timestamp = Timer.getTimestamp();
+            for (BinaryLog log : binaryLogs) {
+                log.addRow(timestamp);
+            }
         }
     }
 
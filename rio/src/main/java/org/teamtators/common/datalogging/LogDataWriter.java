@@ -0,0 +1,10 @@
+package org.teamtators.common.datalogging;
+
+/**
+ * Receives the values of a {@link TypedLogDataProvider}, in the same order as its keys
+ */
+public interface LogDataWriter {
+    void putDouble(double value);
+
+    void putBoolean(boolean value);
+}
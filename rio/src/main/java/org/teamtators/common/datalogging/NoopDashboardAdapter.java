@@ -15,4 +15,26 @@ public class NoopDashboardAdapter implements Dashboard {
     public void putString(String name, String val) {
 
     }
+
+    @Override
+    public DashboardEntry getEntry(String name, double deadband) {
+        return new DashboardEntry(name, deadband) {
+            @Override
+            protected void publishNumber(double value) {
+            }
+
+            @Override
+            protected void publishBoolean(boolean value) {
+            }
+
+            @Override
+            protected void publishString(String value) {
+            }
+        };
+    }
+
+    @Override
+    public void flush() {
+
+    }
 }
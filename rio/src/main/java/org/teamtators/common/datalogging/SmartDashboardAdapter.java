@@ -1,20 +1,85 @@
 package org.teamtators.common.datalogging;
 
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Publishes to the SmartDashboard table. Values only go out when they change, and all changed values are sent
+ * together in {@link #flush()}.
+ * <p>
+ * Entries can be gotten from any thread. Their values are only set and flushed on the dashboard phase, by
+ * {@link DashboardUpdatable}s, so the entries themselves are not synchronized.
+ */
 public class SmartDashboardAdapter implements Dashboard {
+    private final NetworkTableInstance instance;
+    private final NetworkTable table;
+    private final Map<String, DashboardEntry> entriesByName = new ConcurrentHashMap<>();
+    private final List<DashboardEntry> entries = new CopyOnWriteArrayList<>();
+
+    public SmartDashboardAdapter() {
+        instance = NetworkTableInstance.getDefault();
+        table = instance.getTable("SmartDashboard");
+    }
+
     @Override
     public void putBoolean(String name, boolean val) {
-        SmartDashboard.putBoolean(name, val);
+        getEntry(name).setBoolean(val);
     }
 
     @Override
     public void putNumber(String name, double val) {
-        SmartDashboard.putNumber(name, val);
+        getEntry(name).setNumber(val);
     }
 
     @Override
     public void putString(String name, String val) {
-        SmartDashboard.putString(name, val);
+        getEntry(name).setString(val);
+    }
+
+    @Override
+    public DashboardEntry getEntry(String name, double deadband) {
+        return entriesByName.computeIfAbsent(name, n -> {
+            DashboardEntry entry = new NetworkTablesEntry(n, deadband, table.getEntry(n));
+            entries.add(entry);
+            return entry;
+        });
+    }
+
+    @Override
+    public void flush() {
+        for (int i = 0; i < entries.size(); i++) {
+            entries.get(i).flush();
+        }
+        instance.flush();
+    }
+
+    private static class NetworkTablesEntry extends DashboardEntry {
+        private final NetworkTableEntry entry;
+
+        NetworkTablesEntry(String name, double deadband, NetworkTableEntry entry) {
+            super(name, deadband);
+            this.entry = entry;
+        }
+
+        @Override
+        protected void publishNumber(double value) {
+            entry.setDouble(value);
+        }
+
+        @Override
+        protected void publishBoolean(boolean value) {
+            entry.setBoolean(value);
+        }
+
+        @Override
+        protected void publishString(String value) {
+            entry.setString(value);
+        }
     }
 }
@@ -0,0 +1,36 @@
+package org.teamtators.common.datalogging;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Provides data for DataCollector as primitives, without boxing or allocating a list every row.
+ * <p>
+ * Providers of this type are logged to a binary log file, which can be converted to CSV with
+ * {@link BinaryLogConverter}.
+ */
+public interface TypedLogDataProvider extends LogDataProvider {
+    /**
+     * Writes the current value for each key, in the same order as {@link #getKeys()}
+     *
+     * @param writer The writer to write values to
+     */
+    void writeValues(LogDataWriter writer);
+
+    @Override
+    default List<Object> getValues() {
+        List<Object> values = new ArrayList<>();
+        writeValues(new LogDataWriter() {
+            @Override
+            public void putDouble(double value) {
+                values.add(value);
+            }
+
+            @Override
+            public void putBoolean(boolean value) {
+                values.add(value);
+            }
+        });
+        return values;
+    }
+}
@@ -12,12 +12,21 @@ public class ArcSegment extends DriveSegmentBase {
     private Rotation endAngle;
     private double radius;
 
+    // derived from the fields above, and recalculated whenever they change
+    private boolean derivedValid;
+    private Rotation deltaAngle;
+    private Rotation startNormal;
+    private Rotation endNormal;
+    private Pose2d startPose;
+    private Pose2d endPose;
+
     public Translation2d getCenter() {
         return center;
     }
 
     public void setCenter(Translation2d center) {
         this.center = center;
+        derivedValid = false;
     }
 
     public Rotation getStartAngle() {
@@ -26,6 +35,7 @@ public class ArcSegment extends DriveSegmentBase {
 
     public void setStartAngle(Rotation startAngle) {
         this.startAngle = startAngle;
+        derivedValid = false;
     }
 
     public Rotation getEndAngle() {
@@ -34,6 +44,7 @@ public class ArcSegment extends DriveSegmentBase {
 
     public void setEndAngle(Rotation endAngle) {
         this.endAngle = endAngle;
+        derivedValid = false;
     }
 
     public double getRadius() {
@@ -42,10 +53,25 @@ public class ArcSegment extends DriveSegmentBase {
 
     public void setRadius(double radius) {
         this.radius = radius;
+        derivedValid = false;
+    }
+
+    private void updateDerived() {
+        if (derivedValid) {
+            return;
+        }
+        deltaAngle = endAngle.sub(startAngle);
+        // the normals depend on the direction of the arc, so deltaAngle must be usable before they are calculated
+        derivedValid = true;
+        startNormal = headingToNormal(startAngle);
+        endNormal = headingToNormal(endAngle);
+        startPose = new Pose2d(center.add(startNormal.toTranslation(radius)), startAngle);
+        endPose = new Pose2d(center.add(endNormal.toTranslation(radius)), endAngle);
     }
 
     public Rotation getDeltaAngle() {
-        return endAngle.sub(startAngle);
+        updateDerived();
+        return deltaAngle;
     }
 
     public boolean isCounterClockwise() {
@@ -65,21 +91,23 @@ public class ArcSegment extends DriveSegmentBase {
     }
 
     public Rotation getStartNormal() {
-        return headingToNormal(startAngle);
+        updateDerived();
+        return startNormal;
     }
 
     public Rotation getEndNormal() {
-        return headingToNormal(endAngle);
+        updateDerived();
+        return endNormal;
     }
 
     public Pose2d getStartPose() {
-        return new Pose2d(center.add(getStartNormal().toTranslation(radius)),
-                startAngle);
+        updateDerived();
+        return startPose;
     }
 
     public Pose2d getEndPose() {
-        return new Pose2d(center.add(getEndNormal().toTranslation(radius)),
-                endAngle);
+        updateDerived();
+        return endPose;
     }
 
     @Override
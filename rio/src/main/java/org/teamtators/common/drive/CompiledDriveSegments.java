@@ -0,0 +1,512 @@
+package org.teamtators.common.drive;
+
+import org.teamtators.common.math.MutablePose2d;
+import org.teamtators.common.math.MutableRotation;
+import org.teamtators.common.math.MutableTranslation2d;
+import org.teamtators.common.math.Pose2d;
+import org.teamtators.common.math.Rotation;
+
+import java.nio.ByteBuffer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.teamtators.common.math.Epsilon.isEpsilonZero;
+
+/**
+ * An immutable, array-backed form of {@link DriveSegments} for following a path every tick.
+ * <p>
+ * The geometry of every segment is flattened into primitive arrays, along with the cumulative arc length at the start
+ * of each segment, so finding the segment at a distance along the path is a binary search and none of the queries
+ * allocate. A bounding volume hierarchy over the segments lets {@link #getNearestSegment(double, double, int, int)}
+ * find the closest segment without checking every one.
+ * <p>
+ * The lookahead queries reproduce {@link DriveSegmentBase#getLookaheadReport(Pose2d, double)} for a single segment:
+ * nearest points on a straight are projections onto its (unbounded) line, and arcs continue around their circle.
+ * <p>
+ * The per segment tables can be written to and read back from a buffer with {@link #write(ByteBuffer)} and
+ * {@link #read(ByteBuffer)}, so paths can be compiled ahead of time by {@link CompiledPathFile}.
+ */
+public class CompiledDriveSegments {
+    private static final byte STRAIGHT = 0;
+    private static final byte ARC = 1;
+
+    private final int size;
+    private final byte[] type;
+    private final boolean[] reverse;
+    private final double[] startSpeed;
+    private final double[] travelSpeed;
+    private final double[] endSpeed;
+    private final double[] startDistance; // size + 1 entries, the last being the total arc length
+    // start pose of each segment
+    private final double[] startX;
+    private final double[] startY;
+    private final double[] startYaw; // radians
+    // end pose of each segment
+    private final double[] endX;
+    private final double[] endY;
+    private final double[] endYaw; // radians
+    // arcs only
+    private final double[] centerX;
+    private final double[] centerY;
+    private final double[] radius;
+    private final double[] direction; // 1 for counter clockwise, -1 for clockwise
+    private final double[] startNormal; // radians
+    private final double[] endNormal; // radians
+
+    // bounding volume hierarchy, as an implicit binary tree with the root at 1
+    private final int[] nodeLo;
+    private final int[] nodeHi;
+    private final double[] nodeMinX;
+    private final double[] nodeMinY;
+    private final double[] nodeMaxX;
+    private final double[] nodeMaxY;
+
+    CompiledDriveSegments(DriveSegments segments) {
+        this(segments.getSegments().size());
+        for (int i = 0; i < size; i++) {
+            DriveSegment segment = segments.getSegments().get(i);
+            reverse[i] = segment.isReverse();
+            startSpeed[i] = segment.getStartSpeed();
+            travelSpeed[i] = segment.getTravelSpeed();
+            endSpeed[i] = segment.getEndSpeed();
+            Pose2d start = segment.getStartPose();
+            if (segment instanceof ArcSegment) {
+                ArcSegment arc = (ArcSegment) segment;
+                setArc(i, arc.getCenter().getX(), arc.getCenter().getY(), arc.getRadius(),
+                        arc.getStartAngle().toRadians(), arc.getDeltaAngle().toRadians());
+            } else if (segment instanceof StraightSegment) {
+                setStraight(i, start.getX(), start.getY(), start.getYaw().toRadians(), segment.getArcLength());
+            } else {
+                throw new IllegalArgumentException("Unsupported segment type: " + segment.getClass());
+            }
+        }
+        finish();
+    }
+
+    private CompiledDriveSegments(int size) {
+        this.size = size;
+        type = new byte[size];
+        reverse = new boolean[size];
+        startSpeed = new double[size];
+        travelSpeed = new double[size];
+        endSpeed = new double[size];
+        startDistance = new double[size + 1];
+        startX = new double[size];
+        startY = new double[size];
+        startYaw = new double[size];
+        endX = new double[size];
+        endY = new double[size];
+        endYaw = new double[size];
+        centerX = new double[size];
+        centerY = new double[size];
+        radius = new double[size];
+        direction = new double[size];
+        startNormal = new double[size];
+        endNormal = new double[size];
+        int nodes = 2 * Integer.highestOneBit(Math.max(size, 1) * 2);
+        nodeLo = new int[nodes];
+        nodeHi = new int[nodes];
+        nodeMinX = new double[nodes];
+        nodeMinY = new double[nodes];
+        nodeMaxX = new double[nodes];
+        nodeMaxY = new double[nodes];
+    }
+
+    /**
+     * Reads segment tables written by {@link #write(ByteBuffer)}, and rebuilds the bounding volume hierarchy
+     *
+     * @param buffer The buffer to read from, starting at its position. Its position is advanced past the tables.
+     * @return The compiled segments
+     */
+    public static CompiledDriveSegments read(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        checkArgument(size >= 0, "negative segment count");
+        CompiledDriveSegments path = new CompiledDriveSegments(size);
+        buffer.get(path.type);
+        for (int i = 0; i < size; i++) {
+            path.reverse[i] = buffer.get() != 0;
+        }
+        for (double[] table : path.getTables()) {
+            buffer.asDoubleBuffer().get(table);
+            buffer.position(buffer.position() + table.length * Double.BYTES);
+        }
+        if (size > 0) {
+            path.buildNode(1, 0, size);
+        }
+        return path;
+    }
+
+    /**
+     * Writes the per segment tables, which {@link #read(ByteBuffer)} reads back without recomputing any geometry
+     *
+     * @param buffer The buffer to write to, with at least {@link #getSerializedSize()} bytes remaining
+     */
+    public void write(ByteBuffer buffer) {
+        buffer.putInt(size);
+        buffer.put(type);
+        for (int i = 0; i < size; i++) {
+            buffer.put((byte) (reverse[i] ? 1 : 0));
+        }
+        for (double[] table : getTables()) {
+            buffer.asDoubleBuffer().put(table);
+            buffer.position(buffer.position() + table.length * Double.BYTES);
+        }
+    }
+
+    /**
+     * @return The number of bytes {@link #write(ByteBuffer)} writes
+     */
+    public int getSerializedSize() {
+        int bytes = Integer.BYTES + 2 * size;
+        for (double[] table : getTables()) {
+            bytes += table.length * Double.BYTES;
+        }
+        return bytes;
+    }
+
+    private double[][] getTables() {
+        return new double[][]{startSpeed, travelSpeed, endSpeed, startDistance, startX, startY, startYaw,
+                endX, endY, endYaw, centerX, centerY, radius, direction, startNormal, endNormal};
+    }
+
+    private static double wrap(double radians) {
+        return Math.IEEEremainder(radians, 2 * Math.PI);
+    }
+
+    private void setStraight(int i, double x, double y, double yaw, double length) {
+        type[i] = STRAIGHT;
+        startX[i] = x;
+        startY[i] = y;
+        startYaw[i] = yaw;
+        endX[i] = x + Math.cos(yaw) * length;
+        endY[i] = y + Math.sin(yaw) * length;
+        endYaw[i] = yaw;
+        startDistance[i + 1] = length;
+    }
+
+    private void setArc(int i, double cx, double cy, double r, double startAngle, double deltaAngle) {
+        type[i] = ARC;
+        centerX[i] = cx;
+        centerY[i] = cy;
+        radius[i] = r;
+        double dir = deltaAngle > 0 ? 1.0 : -1.0;
+        direction[i] = dir;
+        startNormal[i] = wrap(startAngle - dir * Math.PI / 2);
+        endNormal[i] = wrap(startAngle + deltaAngle - dir * Math.PI / 2);
+        startX[i] = cx + r * Math.cos(startNormal[i]);
+        startY[i] = cy + r * Math.sin(startNormal[i]);
+        startYaw[i] = startAngle;
+        endX[i] = cx + r * Math.cos(endNormal[i]);
+        endY[i] = cy + r * Math.sin(endNormal[i]);
+        endYaw[i] = wrap(startAngle + deltaAngle);
+        startDistance[i + 1] = Math.abs(deltaAngle * r);
+    }
+
+    /**
+     * Turns the per segment lengths in startDistance into prefix sums and builds the bounding volume hierarchy
+     */
+    private void finish() {
+        for (int i = 1; i <= size; i++) {
+            startDistance[i] += startDistance[i - 1];
+        }
+        if (size > 0) {
+            buildNode(1, 0, size);
+        }
+    }
+
+    private void buildNode(int node, int lo, int hi) {
+        nodeLo[node] = lo;
+        nodeHi[node] = hi;
+        if (hi - lo == 1) {
+            if (type[lo] == ARC) {
+                // the box of the whole circle always contains the arc
+                nodeMinX[node] = centerX[lo] - radius[lo];
+                nodeMinY[node] = centerY[lo] - radius[lo];
+                nodeMaxX[node] = centerX[lo] + radius[lo];
+                nodeMaxY[node] = centerY[lo] + radius[lo];
+            } else {
+                nodeMinX[node] = Math.min(startX[lo], endX[lo]);
+                nodeMinY[node] = Math.min(startY[lo], endY[lo]);
+                nodeMaxX[node] = Math.max(startX[lo], endX[lo]);
+                nodeMaxY[node] = Math.max(startY[lo], endY[lo]);
+            }
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        int left = node * 2, right = node * 2 + 1;
+        buildNode(left, lo, mid);
+        buildNode(right, mid, hi);
+        nodeMinX[node] = Math.min(nodeMinX[left], nodeMinX[right]);
+        nodeMinY[node] = Math.min(nodeMinY[left], nodeMinY[right]);
+        nodeMaxX[node] = Math.max(nodeMaxX[left], nodeMaxX[right]);
+        nodeMaxY[node] = Math.max(nodeMaxY[left], nodeMaxY[right]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getArcLength() {
+        return startDistance[size];
+    }
+
+    /**
+     * @return The distance along the path at which a segment starts
+     */
+    public double getStartDistance(int segment) {
+        return startDistance[segment];
+    }
+
+    public double getArcLength(int segment) {
+        return startDistance[segment + 1] - startDistance[segment];
+    }
+
+    public boolean isArc(int segment) {
+        return type[segment] == ARC;
+    }
+
+    public boolean isReverse(int segment) {
+        return reverse[segment];
+    }
+
+    public double getStartSpeed(int segment) {
+        return startSpeed[segment];
+    }
+
+    public double getTravelSpeed(int segment) {
+        return travelSpeed[segment];
+    }
+
+    public double getEndSpeed(int segment) {
+        return endSpeed[segment];
+    }
+
+    /**
+     * @return The radius of an arc segment, or infinity for a straight segment
+     */
+    public double getRadius(int segment) {
+        return type[segment] == ARC ? radius[segment] : Double.POSITIVE_INFINITY;
+    }
+
+    public MutablePose2d getStartPose(int segment, MutablePose2d dest) {
+        dest.getTranslation().set(startX[segment], startY[segment]);
+        dest.getYaw().setRadians(startYaw[segment]);
+        return dest;
+    }
+
+    public MutablePose2d getEndPose(int segment, MutablePose2d dest) {
+        dest.getTranslation().set(endX[segment], endY[segment]);
+        dest.getYaw().setRadians(endYaw[segment]);
+        return dest;
+    }
+
+    /**
+     * Finds the segment which contains a distance along the path. Distances before the start of the path are in the
+     * first segment, and distances past the end are in the last.
+     *
+     * @param distance The distance along the path
+     * @return The index of the segment
+     */
+    public int getSegmentAt(double distance) {
+        checkArgument(size > 0, "path has no segments");
+        int lo = 0, hi = size - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (startDistance[mid] <= distance) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Gets the pose a distance along a segment from its start. Distances past the ends of the segment continue along
+     * its line or circle.
+     *
+     * @param segment  The index of the segment
+     * @param distance The distance from the start of the segment
+     * @param dest     The pose to store the result in
+     * @return dest
+     */
+    public MutablePose2d getPoseAlong(int segment, double distance, MutablePose2d dest) {
+        if (type[segment] == ARC) {
+            return setArcPose(segment, startNormal[segment] + distance / radius[segment] * direction[segment], dest);
+        }
+        double yaw = startYaw[segment];
+        dest.getYaw().setRadians(yaw);
+        dest.getTranslation().set(startX[segment] + Math.cos(yaw) * distance,
+                startY[segment] + Math.sin(yaw) * distance);
+        return dest;
+    }
+
+    /**
+     * Gets the pose at a distance along the whole path
+     *
+     * @param distance The distance from the start of the path
+     * @param dest     The pose to store the result in
+     * @return dest
+     */
+    public MutablePose2d getPoseAt(double distance, MutablePose2d dest) {
+        int segment = getSegmentAt(distance);
+        return getPoseAlong(segment, distance - startDistance[segment], dest);
+    }
+
+    private MutablePose2d setArcPose(int segment, double normal, MutablePose2d dest) {
+        double r = radius[segment];
+        dest.getTranslation().set(centerX[segment] + r * Math.cos(normal), centerY[segment] + r * Math.sin(normal));
+        dest.getYaw().setRadians(normal + direction[segment] * Math.PI / 2);
+        return dest;
+    }
+
+    /**
+     * Calculates the same values as {@link DriveSegmentBase#getLookaheadReport(Pose2d, double)} for one segment,
+     * without allocating
+     *
+     * @param segment           The index of the segment
+     * @param currentPose       The pose of the robot
+     * @param lookaheadDistance How far ahead of the nearest point to look
+     * @param dest              The lookahead to store the result in
+     * @return dest
+     */
+    public Lookahead getLookahead(int segment, MutablePose2d currentPose, double lookaheadDistance,
+                                  Lookahead dest) {
+        double x = currentPose.getX(), y = currentPose.getY();
+        MutablePose2d nearest = dest.nearestPoint;
+        MutablePose2d lookahead = dest.lookaheadPoint;
+        double traveled, lookaheadTraveled;
+        if (type[segment] == ARC) {
+            double r = radius[segment];
+            double dir = direction[segment];
+            double diffX = x - centerX[segment], diffY = y - centerY[segment];
+            double nearestNormal;
+            if (isEpsilonZero(Math.hypot(diffX, diffY))) {
+                getStartPose(segment, nearest);
+                nearestNormal = startNormal[segment];
+            } else {
+                double normal = Math.atan2(diffY, diffX);
+                setArcPose(segment, normal, nearest);
+                if (!isBetween(normal, startNormal[segment], endNormal[segment])) {
+                    double startDist = Math.hypot(x - startX[segment], y - startY[segment]);
+                    double endDist = Math.hypot(x - endX[segment], y - endY[segment]);
+                    if (startDist < endDist) {
+                        nearest.getTranslation().set(startX[segment], startY[segment]);
+                        nearestNormal = startNormal[segment];
+                    } else {
+                        nearest.getTranslation().set(endX[segment], endY[segment]);
+                        nearestNormal = endNormal[segment];
+                    }
+                } else {
+                    nearestNormal = normal;
+                }
+            }
+            double lookaheadNormal = nearestNormal + lookaheadDistance / r * dir;
+            setArcPose(segment, lookaheadNormal, lookahead);
+            traveled = wrap(nearestNormal - startNormal[segment]) * r * dir;
+            lookaheadTraveled = wrap(lookaheadNormal - startNormal[segment]) * r * dir;
+            dest.remainingDistance = -wrap(nearestNormal - endNormal[segment]) * r * dir;
+            dest.lookaheadRemainingDistance = -wrap(lookaheadNormal - endNormal[segment]) * r * dir;
+        } else {
+            double yaw = startYaw[segment];
+            double cos = Math.cos(yaw), sin = Math.sin(yaw);
+            traveled = (x - startX[segment]) * cos + (y - startY[segment]) * sin;
+            lookaheadTraveled = traveled + lookaheadDistance;
+            nearest.getTranslation().set(startX[segment] + cos * traveled, startY[segment] + sin * traveled);
+            nearest.getYaw().set(sin, cos);
+            lookahead.getTranslation().set(startX[segment] + cos * lookaheadTraveled,
+                    startY[segment] + sin * lookaheadTraveled);
+            lookahead.getYaw().set(sin, cos);
+            double length = getArcLength(segment);
+            dest.remainingDistance = length - traveled;
+            dest.lookaheadRemainingDistance = length - lookaheadTraveled;
+        }
+        dest.traveledDistance = traveled;
+        dest.lookaheadTraveledDistance = lookaheadTraveled;
+        dest.trackError = Math.hypot(nearest.getX() - x, nearest.getY() - y);
+        dest.yawError.set(currentPose.getYaw()).sub(nearest.getYaw());
+        return dest;
+    }
+
+    /**
+     * Same as {@link Rotation#isBetween(Rotation, Rotation)}, for angles in radians
+     */
+    private static boolean isBetween(double angle, double start, double end) {
+        double a = wrap(end - start);
+        double b = wrap(angle - start);
+        return a * b > 0 && Math.abs(b) < Math.abs(a);
+    }
+
+    /**
+     * @return The distance from a point to the closest point on a segment, clamped to the ends of the segment
+     */
+    public double getDistanceToSegment(int segment, double x, double y) {
+        if (type[segment] == ARC) {
+            double diffX = x - centerX[segment], diffY = y - centerY[segment];
+            double normal = Math.atan2(diffY, diffX);
+            if (isBetween(normal, startNormal[segment], endNormal[segment])) {
+                return Math.abs(Math.hypot(diffX, diffY) - radius[segment]);
+            }
+            return Math.min(Math.hypot(x - startX[segment], y - startY[segment]),
+                    Math.hypot(x - endX[segment], y - endY[segment]));
+        }
+        double length = getArcLength(segment);
+        double cos = Math.cos(startYaw[segment]), sin = Math.sin(startYaw[segment]);
+        double t = (x - startX[segment]) * cos + (y - startY[segment]) * sin;
+        t = Math.max(0.0, Math.min(length, t));
+        return Math.hypot(x - (startX[segment] + cos * t), y - (startY[segment] + sin * t));
+    }
+
+    /**
+     * Finds the segment closest to a point, only considering a range of segments. Limiting the range matters for
+     * paths which cross over themselves.
+     *
+     * @param x    The x coordinate of the point
+     * @param y    The y coordinate of the point
+     * @param from The first segment to consider, inclusive
+     * @param to   The last segment to consider, exclusive
+     * @return The index of the closest segment, or -1 if the range is empty
+     */
+    public int getNearestSegment(double x, double y, int from, int to) {
+        from = Math.max(from, 0);
+        to = Math.min(to, size);
+        if (from >= to) {
+            return -1;
+        }
+        return findNearest(1, x, y, from, to, -1);
+    }
+
+    public int getNearestSegment(double x, double y) {
+        return getNearestSegment(x, y, 0, size);
+    }
+
+    private int findNearest(int node, double x, double y, int from, int to, int bestIdx) {
+        if (nodeHi[node] <= from || nodeLo[node] >= to) {
+            return bestIdx;
+        }
+        double bestDist = bestIdx < 0 ? Double.POSITIVE_INFINITY : getDistanceToSegment(bestIdx, x, y);
+        double dx = Math.max(0.0, Math.max(nodeMinX[node] - x, x - nodeMaxX[node]));
+        double dy = Math.max(0.0, Math.max(nodeMinY[node] - y, y - nodeMaxY[node]));
+        if (Math.hypot(dx, dy) >= bestDist) {
+            return bestIdx;
+        }
+        if (nodeHi[node] - nodeLo[node] == 1) {
+            return getDistanceToSegment(nodeLo[node], x, y) < bestDist ? nodeLo[node] : bestIdx;
+        }
+        bestIdx = findNearest(node * 2, x, y, from, to, bestIdx);
+        return findNearest(node * 2 + 1, x, y, from, to, bestIdx);
+    }
+
+    /**
+     * The result of {@link #getLookahead(int, MutablePose2d, double, Lookahead)}, meant to be reused every tick
+     */
+    public static class Lookahead {
+        public final MutablePose2d nearestPoint = new MutablePose2d();
+        public final MutablePose2d lookaheadPoint = new MutablePose2d();
+        public final MutableRotation yawError = new MutableRotation();
+        public double traveledDistance;
+        public double remainingDistance;
+        public double lookaheadTraveledDistance;
+        public double lookaheadRemainingDistance;
+        public double trackError;
+    }
+}
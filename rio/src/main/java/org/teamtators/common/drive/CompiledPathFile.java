@@ -0,0 +1,250 @@
+package org.teamtators.common.drive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A file of paths compiled ahead of time, so the robot does not have to build path geometry while it is starting up or
+ * reinitializing.
+ * <p>
+ * Paths are looked up by a key from {@link #getKey(DrivePath, double, double)}, which changes whenever anything which
+ * affects the compiled path does, so a file which is out of date with the config just misses instead of returning the
+ * wrong path.
+ * <p>
+ * The file starts with the magic number, the format version and the number of entries. Each entry is its key, its
+ * name (as a short length followed by UTF-8 bytes), the tables written by {@link CompiledDriveSegments#write}, then the
+ * trajectory period and sample count followed by the samples of its {@link DriveTrajectory}. An entry without a
+ * trajectory has a sample count of zero. Everything is big endian.
+ */
+public class CompiledPathFile {
+    static final int MAGIC = 0x54504154; // "TPAT"
+    static final int VERSION = 1;
+    public static final String FILE_NAME = "Paths.bin";
+    public static final CompiledPathFile EMPTY = new CompiledPathFile(Collections.emptyMap());
+    private static final Logger logger = LoggerFactory.getLogger(CompiledPathFile.class);
+
+    private final Map<Long, Entry> entries;
+
+    private CompiledPathFile(Map<Long, Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * @param path                   The path, with every point fully specified
+     * @param maxAcceleration        The maximum acceleration the trajectory is planned with
+     * @param maxLateralAcceleration The maximum lateral acceleration the trajectory is planned with
+     * @return The key for a path in a compiled path file
+     */
+    public static long getKey(DrivePath path, double maxAcceleration, double maxLateralAcceleration) {
+        return DrivePath.mix(DrivePath.mix(path.getFingerprint(), maxAcceleration), maxLateralAcceleration);
+    }
+
+    /**
+     * Memory maps a compiled path file. Segment tables are copied out of the file, and trajectories are read straight
+     * from the mapping.
+     *
+     * @param file The file to load
+     * @return The paths in the file
+     * @throws IOException If the file could not be read or is not a compiled path file
+     */
+    public static CompiledPathFile load(File file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = new RandomAccessFile(file, "r").getChannel()) {
+            // the mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(file + " is not a compiled path file");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported compiled path file version " + version + " in " + file);
+            }
+            int entryCount = buffer.getInt();
+            Map<Long, Entry> entries = new HashMap<>();
+            for (int i = 0; i < entryCount; i++) {
+                Entry entry = readEntry(buffer);
+                entries.put(entry.key, entry);
+            }
+            return new CompiledPathFile(entries);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt compiled path file " + file, e);
+        }
+    }
+
+    /**
+     * Loads the compiled path file in a directory, if there is one
+     *
+     * @param directory The directory containing {@link #FILE_NAME}
+     * @return The paths in the file, or {@link #EMPTY} if it is missing or could not be read
+     */
+    public static CompiledPathFile loadOrEmpty(File directory) {
+        File file = new File(directory, FILE_NAME);
+        if (!file.exists()) {
+            logger.info("No compiled paths at {}, paths will be built at runtime", file);
+            return EMPTY;
+        }
+        try {
+            CompiledPathFile paths = load(file);
+            logger.debug("Loaded {} compiled paths from {}", paths.size(), file);
+            return paths;
+        } catch (IOException e) {
+            logger.warn("Could not load compiled paths, paths will be built at runtime", e);
+            return EMPTY;
+        }
+    }
+
+    private static Entry readEntry(ByteBuffer buffer) {
+        long key = buffer.getLong();
+        byte[] nameBytes = new byte[buffer.getShort() & 0xffff];
+        buffer.get(nameBytes);
+        String name = new String(nameBytes, StandardCharsets.UTF_8);
+        CompiledDriveSegments path = CompiledDriveSegments.read(buffer);
+        double period = buffer.getDouble();
+        int sampleCount = buffer.getInt();
+        DriveTrajectory trajectory = null;
+        if (sampleCount > 0) {
+            DoubleBuffer samples = buffer.asDoubleBuffer();
+            samples.limit(sampleCount * 3);
+            trajectory = new DriveTrajectory(period, samples);
+            buffer.position(buffer.position() + sampleCount * 3 * Double.BYTES);
+        }
+        return new Entry(key, name, path, trajectory);
+    }
+
+    /**
+     * Writes a compiled path file
+     *
+     * @param file    The file to write
+     * @param entries The compiled paths
+     * @throws IOException If the file could not be written
+     */
+    public static void write(File file, Collection<Entry> entries) throws IOException {
+        int size = 3 * Integer.BYTES;
+        for (Entry entry : entries) {
+            size += entry.getSerializedSize();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(entries.size());
+        for (Entry entry : entries) {
+            entry.write(buffer);
+        }
+        buffer.flip();
+        try (FileChannel channel = new RandomAccessFile(file, "rw").getChannel()) {
+            channel.truncate(0);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * @param key The key from {@link #getKey(DrivePath, double, double)}
+     * @return The compiled path, or null if there is none with that key
+     */
+    public Entry get(long key) {
+        return entries.get(key);
+    }
+
+    public Collection<Entry> getEntries() {
+        return entries.values();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * A single compiled path
+     */
+    public static class Entry {
+        private final long key;
+        private final String name;
+        private final CompiledDriveSegments path;
+        private final DriveTrajectory trajectory;
+
+        /**
+         * @param key        The key from {@link #getKey(DrivePath, double, double)}
+         * @param name       A name for the path, only used for logging
+         * @param path       The compiled segments of the path
+         * @param trajectory The trajectory along the path, or null if there is none
+         */
+        public Entry(long key, String name, CompiledDriveSegments path, DriveTrajectory trajectory) {
+            this.key = key;
+            this.name = name;
+            this.path = path;
+            this.trajectory = trajectory;
+        }
+
+        public long getKey() {
+            return key;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public CompiledDriveSegments getPath() {
+            return path;
+        }
+
+        /**
+         * @return The trajectory along the path, or null if there is none
+         */
+        public DriveTrajectory getTrajectory() {
+            return trajectory;
+        }
+
+        private int getSerializedSize() {
+            int size = Long.BYTES + Short.BYTES + name.getBytes(StandardCharsets.UTF_8).length +
+                    path.getSerializedSize() + Double.BYTES + Integer.BYTES;
+            if (trajectory != null) {
+                size += trajectory.getSampleCount() * 3 * Double.BYTES;
+            }
+            return size;
+        }
+
+        private void write(ByteBuffer buffer) {
+            buffer.putLong(key);
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) nameBytes.length);
+            buffer.put(nameBytes);
+            path.write(buffer);
+            if (trajectory != null) {
+                buffer.putDouble(trajectory.getPeriod());
+                buffer.putInt(trajectory.getSampleCount());
+                buffer.asDoubleBuffer().put(trajectory.getSamples());
+                buffer.position(buffer.position() + trajectory.getSampleCount() * 3 * Double.BYTES);
+            } else {
+                buffer.putDouble(0.0);
+                buffer.putInt(0);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{" +
+                    "name='" + name + '\'' +
+                    ", segments=" + path.size() +
+                    ", arcLength=" + path.getArcLength() +
+                    ", trajectory=" + trajectory +
+                    '}';
+        }
+    }
+}
@@ -23,14 +23,31 @@ public class DriveOutputs {
         return right;
     }
 
+    public DriveOutputs set(double left, double right) {
+        this.left = left;
+        this.right = right;
+        return this;
+    }
+
     public DriveOutputs normalize() {
         return normalize(1.0);
     }
 
     public DriveOutputs normalize(double maxValue) {
+        return normalize(maxValue, new DriveOutputs());
+    }
+
+    /**
+     * Normalizes without allocating
+     *
+     * @param maxValue The maximum absolute value of either side
+     * @param dest     The outputs to store the result in, which may be this
+     * @return dest
+     */
+    public DriveOutputs normalize(double maxValue, DriveOutputs dest) {
         double greatest = Math.max(Math.abs(left), Math.abs(right));
         double scale = maxValue / Math.max(greatest, maxValue);
-        return new DriveOutputs(left * scale, right * scale);
+        return dest.set(left * scale, right * scale);
     }
 
     public DriveOutputs maximize() {
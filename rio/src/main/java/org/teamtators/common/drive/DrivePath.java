@@ -148,6 +148,34 @@ public class DrivePath {
         return points;
     }
 
+    /**
+     * Hashes every field of every point, so two paths with the same fingerprint produce the same segments. Used to
+     * match paths against ones compiled ahead of time.
+     *
+     * @return A 64 bit FNV-1a hash of the points
+     */
+    public long getFingerprint() {
+        long hash = 0xcbf29ce484222325L;
+        for (Point point : points) {
+            hash = mix(hash, point.getX());
+            hash = mix(hash, point.getY());
+            hash = mix(hash, point.radius);
+            hash = mix(hash, point.speed);
+            hash = mix(hash, point.arcSpeed);
+            hash = mix(hash, Boolean.TRUE.equals(point.reverse) ? 1.0 : 0.0);
+        }
+        return hash;
+    }
+
+    static long mix(long hash, double value) {
+        long bits = Double.doubleToLongBits(value);
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash ^= (bits >>> (i * 8)) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
 
     public DriveSegments toSegments() {
         List<DrivePath.Point> points = this.getPoints();
@@ -4,10 +4,10 @@ import org.teamtators.common.math.Pose2d;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class DriveSegments {
     private List<DriveSegment> segments = new ArrayList<>();
+    private CompiledDriveSegments compiled;
 
     public List<DriveSegment> getSegments() {
         return segments;
@@ -15,6 +15,20 @@ public class DriveSegments {
 
     public void addSegment(DriveSegment segment) {
         segments.add(segment);
+        compiled = null;
+    }
+
+    /**
+     * Compiles the segments into a form which can be followed without allocating. The result is cached until another
+     * segment is added, so segments must not be modified after they are added.
+     *
+     * @return The compiled segments
+     */
+    public CompiledDriveSegments compile() {
+        if (compiled == null) {
+            compiled = new CompiledDriveSegments(this);
+        }
+        return compiled;
     }
 
     public Pose2d getStartPose() {
@@ -32,6 +46,6 @@ public class DriveSegments {
     }
 
     public double getArcLength() {
-        return segments.stream().mapToDouble(DriveSegment::getArcLength).sum();
+        return compile().getArcLength();
     }
 }
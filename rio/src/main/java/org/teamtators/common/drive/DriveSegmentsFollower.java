@@ -1,56 +1,78 @@
 package org.teamtators.common.drive;
 
-import org.slf4j.profiler.Profiler;
 import org.teamtators.common.config.Configurable;
 import org.teamtators.common.control.AbstractUpdatable;
-import org.teamtators.common.control.PidController;
+import org.teamtators.common.control.SectionProfiler;
 import org.teamtators.common.control.TrapezoidalProfileFollower;
 import org.teamtators.common.datalogging.DataCollector;
 import org.teamtators.common.datalogging.LogDataProvider;
+import org.teamtators.common.datalogging.LogDataWriter;
+import org.teamtators.common.datalogging.TypedLogDataProvider;
 import org.teamtators.common.math.Epsilon;
 import org.teamtators.common.math.LinearInterpolationFunction;
+import org.teamtators.common.math.MutablePose2d;
+import org.teamtators.common.math.MutableTwist2d;
 import org.teamtators.common.math.Pose2d;
-import org.teamtators.common.math.Twist2d;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.DoubleUnaryOperator;
 
 /**
+ * Follows a path using pure pursuit for steering.
+ * <p>
+ * The speed along the path follows a {@link DriveTrajectory} as a feed forward, with feedback on the distance
+ * traveled, using the gains of the speed follower. If the path was not compiled with a trajectory, a
+ * {@link VelocityPlan} over the whole path is made when the follower is started and followed instead.
+ * <p>
+ * If the robot gets further than the reacquire distance from the current segment, such as after being pushed or
+ * cutting a corner, the closest segment ahead of it is found with {@link CompiledDriveSegments#getNearestSegment}
+ * and followed from instead.
+ *
  * @author Alex Mikhalev
  */
 public class DriveSegmentsFollower extends AbstractUpdatable
         implements Configurable<DriveSegmentsFollower.Config> {
+    private static final int CHECK_FINISHED_SECTION = SectionProfiler.getSectionId("checkFinished");
+    private static final int GET_POSE_SECTION = SectionProfiler.getSectionId("getPose");
+    private static final int UPDATE_PURSUIT_REPORT_SECTION = SectionProfiler.getSectionId("updatePursuitReport");
+    private static final int TWIST_SECTION = SectionProfiler.getSectionId("twist2d");
+    private static final int SPEED_FOLLOWER_SECTION = SectionProfiler.getSectionId("speedFollower");
+    private static final int SET_OUTPUTS_SECTION = SectionProfiler.getSectionId("setOutputs");
+
     private final TankDrive drive;
     private DoubleUnaryOperator lookAheadFunction;
 
     private TrapezoidalProfileFollower speedFollower;
-    private DriveSegments segments = new DriveSegments();
+    private CompiledDriveSegments path = new DriveSegments().compile();
+    private DriveTrajectory trajectory;
+    private VelocityPlan plan;
+    private double maxLateralAcceleration = Double.POSITIVE_INFINITY;
+    private final DriveTrajectory.Sample trajectorySample = new DriveTrajectory.Sample();
+    private double trajectoryTime;
 
     private int currentSegmentIdx;
-    private double previousTraveled;
     private double totalLength;
     private PursuitReport report;
-    private LookaheadReport lookaheadReport;
+    private boolean failed;
+    private final PursuitReport pursuitReport = new PursuitReport();
+    private final CompiledDriveSegments.Lookahead segmentLookahead = new CompiledDriveSegments.Lookahead();
+    private final MutablePose2d segmentPose = new MutablePose2d();
     private double speedPower;
     private LogDataProvider logDataProvider = new LogDataProvder();
-    private Pose2d currentPose;
-    private Twist2d twist = new Twist2d();
-    private DriveOutputs driveOutputs = new DriveOutputs();
+    private final MutablePose2d currentPose = new MutablePose2d();
+    private final MutableTwist2d twist = new MutableTwist2d();
+    private final DriveOutputs driveOutputs = new DriveOutputs();
     private boolean logData;
-    private Profiler profiler;
     private double lookahead;
+    private double reacquireDistance = Double.POSITIVE_INFINITY;
 
     public DriveSegmentsFollower(TankDrive drive) {
         super("DriveSegmentsFollower");
         this.drive = drive;
 
+        // only used for its config, the speed is calculated from the trajectory or plan
         speedFollower = new TrapezoidalProfileFollower("DriveSegmentsFollower.speedFollower");
-        speedFollower.setPositionProvider(this::getTraveledDistance);
-        speedFollower.setVelocityProvider(() ->
-                (report != null && report.isReverse) ? -drive.getCenterRate() : drive.getCenterRate());
-        speedFollower.setOutputConsumer(this::setSpeedPower);
-        speedFollower.setOnTargetPredicate(t -> false);
 
         reset();
     }
@@ -61,20 +83,54 @@ public class DriveSegmentsFollower extends AbstractUpdatable
 
     public void reset() {
         currentSegmentIdx = -1;
-        previousTraveled = 0.0;
-        totalLength = segments.getArcLength();
+        totalLength = path.getArcLength();
         report = null;
-        currentPose = drive.getPose();
-        twist = new Twist2d();
+        failed = false;
+        currentPose.setZero();
+        twist.set(0.0, 0.0);
+        trajectoryTime = 0.0;
         setSpeedPower(0.0);
     }
 
-    public DriveSegments getSegments() {
-        return segments;
+    public CompiledDriveSegments getPath() {
+        return path;
+    }
+
+    /**
+     * @return The trajectory being followed, or null if a velocity plan is being followed instead
+     */
+    public DriveTrajectory getTrajectory() {
+        return trajectory;
+    }
+
+    /**
+     * @return The velocity plan being followed, or null if a trajectory is being followed instead
+     */
+    public VelocityPlan getPlan() {
+        return plan;
     }
 
     public void setSegments(DriveSegments segments) {
-        this.segments = segments;
+        setPath(segments.compile(), null);
+    }
+
+    /**
+     * @param path       The path to follow
+     * @param trajectory The trajectory to follow along the path, or null to plan one when started
+     */
+    public void setPath(CompiledDriveSegments path, DriveTrajectory trajectory) {
+        setPath(path, trajectory, null);
+    }
+
+    /**
+     * @param path       The path to follow
+     * @param trajectory The trajectory to follow along the path, or null to follow a velocity plan
+     * @param plan       The velocity plan to follow if there is no trajectory, or null to plan one when started
+     */
+    public void setPath(CompiledDriveSegments path, DriveTrajectory trajectory, VelocityPlan plan) {
+        this.path = path;
+        this.trajectory = trajectory;
+        this.plan = trajectory == null ? plan : null;
         reset();
     }
 
@@ -86,6 +142,18 @@ public class DriveSegmentsFollower extends AbstractUpdatable
         this.lookAheadFunction = lookAheadFunction;
     }
 
+    public double getReacquireDistance() {
+        return reacquireDistance;
+    }
+
+    /**
+     * @param reacquireDistance How far the robot can be from the current segment before the closest segment ahead of
+     *                          it is followed instead
+     */
+    public void setReacquireDistance(double reacquireDistance) {
+        this.reacquireDistance = reacquireDistance;
+    }
+
     public TrapezoidalProfileFollower getSpeedFollower() {
         return speedFollower;
     }
@@ -94,100 +162,146 @@ public class DriveSegmentsFollower extends AbstractUpdatable
         return speedFollower.getMaxAcceleration();
     }
 
+    /**
+     * Sets the maximum acceleration used to plan the speed along paths without a trajectory. Takes effect the next
+     * time the follower is started.
+     */
     public void setMaxAcceleration(double maxAcceleration) {
         speedFollower.setMaxAcceleration(maxAcceleration);
     }
 
-    private void updateProfile() {
-        if (!hasSegment()) {
-            logger.warn("can not update profile when does not have segment");
-            return;
+    public double getMaxLateralAcceleration() {
+        return maxLateralAcceleration;
+    }
+
+    /**
+     * Sets the maximum lateral acceleration used to plan the speed along paths without a trajectory. Takes effect the
+     * next time the follower is started.
+     */
+    public void setMaxLateralAcceleration(double maxLateralAcceleration) {
+        this.maxLateralAcceleration = maxLateralAcceleration;
+    }
+
+    /**
+     * Calculates the speed along the path from the trajectory or plan, with the gains of the speed follower
+     */
+    private double calculateSpeed(double delta, double centerWheelRate) {
+        if (trajectory == null && plan == null) {
+            return 0.0;
         }
-        DriveSegment seg = getCurrentSegment();
-        speedFollower.setTravelVelocity(seg.getTravelSpeed());
-        speedFollower.setEndVelocity(seg.getEndSpeed());
-        speedFollower.moveDistance(lookaheadReport.remainingDistance);
-        if (!speedFollower.isRunning()) {
-            speedFollower.start();
+        trajectoryTime += delta;
+        DriveTrajectory.Sample sample = trajectory != null ?
+                trajectory.sample(trajectoryTime, trajectorySample) : plan.sample(trajectoryTime, trajectorySample);
+        TrapezoidalProfileFollower.Config config = speedFollower.getConfig();
+        double velocity = report.isReverse ? -centerWheelRate : centerWheelRate;
+        double speed = (sample.distance - report.traveledDistance) * config.kpP +
+                (sample.velocity - velocity) * config.kpV +
+                sample.velocity * config.kfV + sample.acceleration * config.kfA;
+        if (Epsilon.isEpsilonPositive(sample.velocity)) {
+            speed += config.kMinOutput;
         }
-//        logger.trace("driving segment \n{} with profile \n{}", seg, speedFollower.getCalculator().getProfile());
+        return Math.max(speedFollower.getMinOutput(), Math.min(speedFollower.getMaxOutput(), speed));
     }
 
     void updatePursuitReport(Pose2d currentPose, double centerWheelRate) {
+        updatePursuitReport(this.currentPose.set(currentPose), centerWheelRate);
+    }
+
+    void updatePursuitReport(MutablePose2d currentPose, double centerWheelRate) {
         if (isFinished()) {
             return;
         }
-        PursuitReport report = new PursuitReport();
+        PursuitReport report = this.pursuitReport;
+        report.isFinished = false;
+        report.updateProfile = false;
         if (currentSegmentIdx < 0) {
             currentSegmentIdx++;
             report.updateProfile = true;
         }
         if (!hasSegment()) {
             report.isFinished = true;
+            this.report = report;
             return;
         }
         lookahead = lookAheadFunction.applyAsDouble(Math.abs(centerWheelRate));
-        DriveSegment currentSegment = getCurrentSegment();
-        Pose2d pose = currentSegment.isReverse() ? currentPose.invertYaw() : currentPose;
-        lookaheadReport = currentSegment.getLookaheadReport(pose, lookahead);
-        while (Epsilon.isEpsilonNegative(lookaheadReport.remainingDistance)) {
+        updateSegmentLookahead(currentPose);
+        if (Math.abs(segmentLookahead.trackError) > reacquireDistance && hasNextSegment()) {
+            // off of the path, so look for a later segment which is closer. earlier ones are not considered so paths
+            // which cross themselves are not followed backwards
+            int nearestIdx = path.getNearestSegment(currentPose.getX(), currentPose.getY(),
+                    currentSegmentIdx, path.size());
+            if (nearestIdx > currentSegmentIdx) {
+                currentSegmentIdx = nearestIdx;
+                updateSegmentLookahead(currentPose);
+                report.updateProfile = true;
+            }
+        }
+        while (Epsilon.isEpsilonNegative(segmentLookahead.remainingDistance)) {
             currentSegmentIdx++;
             if (!hasSegment()) {
+                currentSegmentIdx--;
                 report.isFinished = true;
                 break;
             } else {
-                previousTraveled += lookaheadReport.traveledDistance;
-                currentSegment = getCurrentSegment();
-                pose = currentSegment.isReverse() ? currentPose.invertYaw() : currentPose;
-                lookaheadReport = currentSegment.getLookaheadReport(pose, lookahead);
+                updateSegmentLookahead(currentPose);
                 report.updateProfile = true;
             }
         }
-        report.traveledDistance = previousTraveled + lookaheadReport.traveledDistance;
+        CompiledDriveSegments.Lookahead segmentLookahead = this.segmentLookahead;
+        report.traveledDistance = path.getStartDistance(currentSegmentIdx) + segmentLookahead.traveledDistance;
         report.remainingDistance = totalLength - report.traveledDistance;
-        report.nearestPoint = lookaheadReport.nearestPoint;
-        report.lookaheadPoint = lookaheadReport.lookaheadPoint;
-        report.trackError = lookaheadReport.trackError;
-        report.yawError = lookaheadReport.yawError;
-        report.isReverse = currentSegment.isReverse();
-        if (lookaheadReport.lookaheadRemainingDistance < 0 && hasNextSegment()) {
-            DriveSegment nextSegment = getNextSegment();
-            double nextLookahead = -lookaheadReport.lookaheadRemainingDistance;
-            report.lookaheadPoint = nextSegment
-                    .getLookAhead(nextSegment.getStartPose(), nextLookahead);
+        report.nearestPoint.set(segmentLookahead.nearestPoint);
+        report.lookaheadPoint.set(segmentLookahead.lookaheadPoint);
+        report.trackError = segmentLookahead.trackError;
+        report.yawError.set(segmentLookahead.yawError);
+        report.isReverse = path.isReverse(currentSegmentIdx);
+        if (segmentLookahead.lookaheadRemainingDistance < 0 && hasNextSegment()) {
+            // the lookahead point is past the end of this segment, so find it on the segment it falls on
+            double lookaheadDistance = path.getStartDistance(currentSegmentIdx + 1)
+                    - segmentLookahead.lookaheadRemainingDistance;
+            int lookaheadIdx = Math.max(path.getSegmentAt(lookaheadDistance), currentSegmentIdx + 1);
+            path.getPoseAlong(lookaheadIdx, lookaheadDistance - path.getStartDistance(lookaheadIdx),
+                    report.lookaheadPoint);
         }
         this.report = report;
     }
 
-    private DriveSegment getNextSegment() {
-        return segments.getSegments().get(currentSegmentIdx + 1);
-    }
-
-    private DriveSegment getCurrentSegment() {
-        return segments.getSegments().get(currentSegmentIdx);
+    private void updateSegmentLookahead(MutablePose2d currentPose) {
+        segmentPose.set(currentPose);
+        if (path.isReverse(currentSegmentIdx)) {
+            segmentPose.invertYaw();
+        }
+        path.getLookahead(currentSegmentIdx, segmentPose, lookahead, segmentLookahead);
     }
 
     private boolean hasSegment() {
-        return currentSegmentIdx < getSegments().getSegments().size();
+        return currentSegmentIdx < path.size();
     }
 
     private boolean hasNextSegment() {
-        return currentSegmentIdx + 1 < getSegments().getSegments().size();
-    }
-
-    private double getTraveledDistance() {
-        if (report == null) {
-            return 0.0;
-        }
-        return report.traveledDistance;
+        return currentSegmentIdx + 1 < path.size();
     }
 
     @Override
     public synchronized void start() {
         if (!running) {
+            if (trajectory == null && plan == null && path.size() > 0) {
+                try {
+                    plan = VelocityPlan.plan(path, getMaxAcceleration(), maxLateralAcceleration);
+                } catch (IllegalArgumentException e) {
+                    // don't throw on the control thread. report the path as finished without following it
+                    logger.error("Could not plan the speed along the path, not following it", e);
+                    reset();
+                    failed = true;
+                    pursuitReport.isFinished = true;
+                    pursuitReport.traveledDistance = 0.0;
+                    pursuitReport.remainingDistance = totalLength;
+                    report = pursuitReport;
+                    return;
+                }
+            }
             running = true;
             reset();
-            speedFollower.reset();
 //            leftController.start();
 //            rightController.start();
             if (logData) {
@@ -199,71 +313,60 @@ public class DriveSegmentsFollower extends AbstractUpdatable
     @Override
     public synchronized void stop() {
         super.stop();
-        speedFollower.stop();
 //        leftController.stop();
 //        rightController.stop();
         DataCollector.getDataCollector().stopProvider(logDataProvider);
     }
 
+    /**
+     * @return Whether the path has been followed to its end, or could not be followed
+     */
     public boolean isFinished() {
         return report != null && report.isFinished;
     }
 
+    /**
+     * @return Whether the follower was last started with a path which it could not plan the speed along, so it
+     * finished without following it
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
     public boolean isOnTarget() {
         return report != null && report.remainingDistance < 0.5;
     }
 
     @Override
     protected void doUpdate(double delta) {
-        if (profiler == null) {
-            profiler = new Profiler(getName());
-        }
-        profiler.start("checkFinished");
+        profiler.start(CHECK_FINISHED_SECTION);
         if (isFinished()) {
             drive.stop();
             stop();
-            profiler.stop();
             return;
         }
-        profiler.start("getPose");
-        currentPose = drive.getPose();
+        profiler.start(GET_POSE_SECTION);
+        drive.getPose(currentPose);
         double centerWheelRate = drive.getCenterRate();
-        profiler.start("updatePursuitReport");
+        profiler.start(UPDATE_PURSUIT_REPORT_SECTION);
         updatePursuitReport(currentPose, centerWheelRate);
-        profiler.start("updateProfile");
-        if (!isFinished() && report.updateProfile) {
-            updateProfile();
-        }
-        profiler.start("twist2d");
-        twist = Twist2d.fromTangentArc(currentPose, report.lookaheadPoint.getTranslation());
+        profiler.start(TWIST_SECTION);
+        MutableTwist2d.fromTangentArc(currentPose, report.lookaheadPoint.getX(), report.lookaheadPoint.getY(), twist);
         if (report.isReverse) {
-            twist = new Twist2d(twist.getDeltaYaw(), -twist.getDeltaX());
+            twist.setDeltaX(-twist.getDeltaX());
         }
-        profiler.start("speedFollower");
-        speedFollower.update(delta);
-        profiler.start("setOutputs");
+        profiler.start(SPEED_FOLLOWER_SECTION);
+        setSpeedPower(calculateSpeed(delta, centerWheelRate));
+        profiler.start(SET_OUTPUTS_SECTION);
 
-        driveOutputs = drive.getTankKinematics().calculateOutputs(twist, speedPower);
+        drive.getTankKinematics().calculateOutputs(twist, speedPower, driveOutputs);
 //        driveOutputs = driveOutputs.normalize();
 //        drive.setPowers(driveOutputs);
-        driveOutputs = driveOutputs.normalize(drive.getMaxSpeed());
+        driveOutputs.normalize(drive.getMaxSpeed(), driveOutputs);
         drive.setSpeeds(driveOutputs);
         if (isOnTarget()) {
             report.isFinished = true;
         }
-        profiler.stop();
-    }
-
-    @Override
-    public Profiler getProfiler() {
-        Profiler profiler = this.profiler;
-        this.profiler = null;
-        return profiler;
-    }
-
-    @Override
-    public void setProfiler(Profiler profiler) {
-        this.profiler = profiler;
     }
 
     @Override
@@ -274,6 +377,7 @@ public class DriveSegmentsFollower extends AbstractUpdatable
     @Override
     public void configure(Config config) {
         setLookAheadFunction(config.lookAhead);
+        setReacquireDistance(config.reacquireDistance);
         speedFollower.configure(config.speedFollower);
         this.logData = config.logData;
     }
@@ -284,11 +388,14 @@ public class DriveSegmentsFollower extends AbstractUpdatable
 
     public static class Config {
         public LinearInterpolationFunction lookAhead;
+        public double reacquireDistance = Double.POSITIVE_INFINITY;
         public TrapezoidalProfileFollower.Config speedFollower;
         public boolean logData = false;
     }
 
-    private class LogDataProvder implements LogDataProvider {
+    private class LogDataProvder implements TypedLogDataProvider {
+        private final PursuitReport emptyReport = new PursuitReport();
+
         @Override
         public String getName() {
             return DriveSegmentsFollower.this.getName();
@@ -301,14 +408,24 @@ public class DriveSegmentsFollower extends AbstractUpdatable
         }
 
         @Override
-        public List<Object> getValues() {
+        public void writeValues(LogDataWriter writer) {
             PursuitReport report = DriveSegmentsFollower.this.report;
             if (report == null) {
-                report = new PursuitReport();
+                report = emptyReport;
             }
-            return Arrays.asList(report.remainingDistance, currentPose.getX(), currentPose.getY(), currentPose.getYaw(), report.nearestPoint.getX(),
-                    report.nearestPoint.getY(), report.nearestPoint.getYaw(), lookahead,
-                    twist.getDeltaX(), twist.getDeltaYaw(), speedPower, driveOutputs.getLeft(), driveOutputs.getRight());
+            writer.putDouble(report.remainingDistance);
+            writer.putDouble(currentPose.getX());
+            writer.putDouble(currentPose.getY());
+            writer.putDouble(currentPose.getYaw().toDegrees());
+            writer.putDouble(report.nearestPoint.getX());
+            writer.putDouble(report.nearestPoint.getY());
+            writer.putDouble(report.nearestPoint.getYaw().toDegrees());
+            writer.putDouble(lookahead);
+            writer.putDouble(twist.getDeltaX());
+            writer.putDouble(Math.toDegrees(twist.getDeltaYaw()));
+            writer.putDouble(speedPower);
+            writer.putDouble(driveOutputs.getLeft());
+            writer.putDouble(driveOutputs.getRight());
         }
     }
 }
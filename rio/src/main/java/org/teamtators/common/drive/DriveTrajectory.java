@@ -0,0 +1,126 @@
+package org.teamtators.common.drive;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The distance, velocity and acceleration along a path, sampled at a fixed period from the start of the path from a
+ * {@link VelocityPlan}. Used by {@link DriveSegmentsFollower} as a feed forward, so the plan does not have to be made
+ * or searched on the robot.
+ * <p>
+ * Samples are stored as (distance, velocity, acceleration) triples in a {@link DoubleBuffer}, which may be a view of a
+ * memory mapped {@link CompiledPathFile}, so looking up a time is an index calculation and does not allocate.
+ */
+public class DriveTrajectory {
+    private static final int SAMPLE_DOUBLES = 3;
+
+    private final double period;
+    private final int sampleCount;
+    private final DoubleBuffer samples;
+
+    /**
+     * @param period  The time between samples, in seconds
+     * @param samples The samples, as (distance, velocity, acceleration) triples
+     */
+    public DriveTrajectory(double period, DoubleBuffer samples) {
+        checkArgument(period > 0, "period must be positive");
+        checkArgument(samples.remaining() >= SAMPLE_DOUBLES && samples.remaining() % SAMPLE_DOUBLES == 0,
+                "samples must contain a whole number of samples");
+        this.period = period;
+        this.samples = samples.slice();
+        this.sampleCount = this.samples.capacity() / SAMPLE_DOUBLES;
+    }
+
+    /**
+     * Generates a trajectory by sampling a velocity plan
+     *
+     * @param plan   The velocity plan along the path
+     * @param period The time between samples, in seconds
+     * @return The trajectory
+     */
+    public static DriveTrajectory generate(VelocityPlan plan, double period) {
+        checkArgument(period > 0, "period must be positive");
+        double duration = plan.getDuration();
+        int sampleCount = (int) Math.ceil(duration / period) + 1;
+        DoubleBuffer samples = ByteBuffer.allocate(sampleCount * SAMPLE_DOUBLES * Double.BYTES).asDoubleBuffer();
+        Sample sample = new Sample();
+        for (int i = 0; i < sampleCount; i++) {
+            plan.sample(Math.min(i * period, duration), sample);
+            samples.put(sample.distance);
+            samples.put(sample.velocity);
+            samples.put(sample.acceleration);
+        }
+        samples.flip();
+        return new DriveTrajectory(period, samples);
+    }
+
+    public double getPeriod() {
+        return period;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * @return The time of the last sample, in seconds
+     */
+    public double getDuration() {
+        return (sampleCount - 1) * period;
+    }
+
+    /**
+     * @return The samples, as (distance, velocity, acceleration) triples
+     */
+    public DoubleBuffer getSamples() {
+        return samples.duplicate();
+    }
+
+    /**
+     * Gets the state of the trajectory at a time, linearly interpolating distance and velocity between samples. Times
+     * before the start or after the end get the first or last sample.
+     *
+     * @param time The time since the start of the trajectory, in seconds
+     * @param dest The sample to store the result in
+     * @return dest
+     */
+    public Sample sample(double time, Sample dest) {
+        double index = Math.max(0.0, time / period);
+        int i = (int) index;
+        if (i >= sampleCount - 1) {
+            i = sampleCount - 1;
+            index = i;
+        }
+        int offset = i * SAMPLE_DOUBLES;
+        dest.distance = samples.get(offset);
+        dest.velocity = samples.get(offset + 1);
+        dest.acceleration = samples.get(offset + 2);
+        double fraction = index - i;
+        if (fraction > 0.0) {
+            int next = offset + SAMPLE_DOUBLES;
+            dest.distance += (samples.get(next) - dest.distance) * fraction;
+            dest.velocity += (samples.get(next + 1) - dest.velocity) * fraction;
+        }
+        return dest;
+    }
+
+    @Override
+    public String toString() {
+        return "DriveTrajectory{" +
+                "period=" + period +
+                ", sampleCount=" + sampleCount +
+                ", duration=" + getDuration() +
+                '}';
+    }
+
+    /**
+     * The state of a trajectory at a point in time, meant to be reused
+     */
+    public static class Sample {
+        public double distance;
+        public double velocity;
+        public double acceleration;
+    }
+}
@@ -1,22 +1,53 @@
 package org.teamtators.common.drive;
 
 import org.teamtators.common.control.AbstractUpdatable;
+import org.teamtators.common.control.SeqLock;
+import org.teamtators.common.control.Timer;
 import org.teamtators.common.drive.TankKinematics;
+import org.teamtators.common.math.MutablePose2d;
+import org.teamtators.common.math.MutableRotation;
 import org.teamtators.common.math.Pose2d;
 import org.teamtators.common.math.Rotation;
+import org.teamtators.common.math.Translation2d;
 import org.teamtators.levitator.subsystems.Drive;
 
 /**
+ * Estimates the pose of the robot from the drive encoders and gyro.
+ * <p>
+ * The pose is integrated in place, then published through a {@link SeqLock} so that other threads can read it without
+ * allocating. {@link #getPose()} and {@link #getLastPose()} build an immutable pose at most once per publish, and return
+ * the same one until the pose changes. Every update is also recorded in a {@link PoseHistory}, so measurements which lag behind odometry, such
+ * as from vision, can be looked up against or corrected at the time they were captured with {@link #getPoseAt} and
+ * {@link #correctPose}. Everything which changes the pose is synchronized, so there is only one writer at a time.
+ * <p>
+ * If the drive has the yaw after each gyro sample ({@link TankDrive#getYawAngleSamples}), the distance driven in an
+ * update is spread evenly over the samples, so the pose follows the heading the gyro measured during the update instead
+ * of a single arc. The gyro must be updated right before this on the same thread, which is how {@link Drive} runs them,
+ * either in the control loop or on a dedicated odometry thread.
+ *
  * @author Alex Mikhalev
  */
 public class PoseEstimator extends AbstractUpdatable {
+    public static final int HISTORY_CAPACITY = 256; // 1 second at 250 Hz
+    private static final int MAX_YAW_SAMPLES = 64;
+
     private final TankDrive drive;
-    private Pose2d pose;
-    private Pose2d lastPose;
+    private final MutablePose2d pose = new MutablePose2d();
+    private final MutablePose2d lastPose = new MutablePose2d();
+    private final MutableRotation endHeading = new MutableRotation();
     private double lastCenterDistance;
     private TankKinematics kinematics;
     private double initialYaw = 90;
 
+    private final SeqLock poseLock = new SeqLock();
+    private final PublishedPose publishedPose = new PublishedPose();
+    private final PublishedPose publishedLastPose = new PublishedPose();
+    private volatile CachedPose cachedPose;
+    private volatile CachedPose cachedLastPose;
+    private final PoseHistory history = new PoseHistory(HISTORY_CAPACITY);
+    private final MutablePose2d correctedPose = new MutablePose2d();
+    private final double[] yawSamples = new double[MAX_YAW_SAMPLES];
+
     public PoseEstimator(TankDrive drive) {
         super("PoseEstimator");
         this.drive = drive;
@@ -26,20 +57,21 @@ public class PoseEstimator extends AbstractUpdatable {
     @Override
     public synchronized void start() {
         super.start();
-        pose = pose.withYaw(getYawRotation());
+        getYawRotation(pose.getYaw());
+        publish();
         lastCenterDistance = drive.getCenterDistance();
     }
 
-    private Rotation gyroToPoseAngle(double gyroAngle) {
-        return Rotation.fromDegrees(initialYaw - gyroAngle);
+    private MutableRotation gyroToPoseAngle(double gyroAngle, MutableRotation dest) {
+        return dest.setDegrees(initialYaw - gyroAngle);
     }
 
     private double poseToGyroAngle(Rotation poseAngle) {
         return initialYaw - poseAngle.toDegrees();
     }
 
-    private Rotation getYawRotation() {
-        return gyroToPoseAngle(drive.getYawAngle());
+    private MutableRotation getYawRotation(MutableRotation dest) {
+        return gyroToPoseAngle(drive.getYawAngle(), dest);
     }
 
     private void setYawRotation(Rotation poseRotation) {
@@ -48,28 +80,120 @@ public class PoseEstimator extends AbstractUpdatable {
     }
 
     public Pose2d getPose() {
-        return pose;
+        CachedPose cached = read(publishedPose, cachedPose);
+        cachedPose = cached;
+        return cached.pose;
     }
 
-    public void setPose(Pose2d pose) {
-        this.lastPose = this.pose = pose;
+    /**
+     * Gets the pose without allocating
+     *
+     * @param dest The pose to store the result in
+     * @return dest
+     */
+    public MutablePose2d getPose(MutablePose2d dest) {
+        long seq;
+        do {
+            seq = poseLock.beginRead();
+            publishedPose.read(dest);
+        } while (poseLock.retryRead(seq));
+        return dest;
+    }
+
+    public synchronized void setPose(Pose2d pose) {
+        this.pose.set(pose);
+        this.lastPose.set(pose);
+        history.clear();
+        publish();
         setYawRotation(pose.getYaw());
     }
 
     public Pose2d getLastPose() {
-        return lastPose;
+        CachedPose cached = read(publishedLastPose, cachedLastPose);
+        cachedLastPose = cached;
+        return cached.pose;
+    }
+
+    /**
+     * Reads a published pose, reusing the cached one if nothing has been published since it was read
+     */
+    private CachedPose read(PublishedPose published, CachedPose cached) {
+        long seq;
+        double x, y, yawSin, yawCos;
+        do {
+            seq = poseLock.beginRead();
+            if (cached != null && cached.seq == seq) {
+                return cached;
+            }
+            x = published.x;
+            y = published.y;
+            yawSin = published.yawSin;
+            yawCos = published.yawCos;
+        } while (poseLock.retryRead(seq));
+        return new CachedPose(seq, new Pose2d(new Translation2d(x, y), new Rotation(yawSin, yawCos)));
     }
 
     @Override
-    protected void doUpdate(double delta) {
-        Rotation endHeading = getYawRotation();
+    protected synchronized void doUpdate(double delta) {
+        int samples = drive.getYawAngleSamples(yawSamples);
         double centerDistance = drive.getCenterDistance();
         double deltaWheel = centerDistance - lastCenterDistance;
-        Pose2d newPose = kinematics.integratePoseChange(pose, endHeading, deltaWheel);
+        lastPose.set(pose);
+        if (samples > 1) {
+            double sampleDistance = deltaWheel / samples;
+            for (int i = 0; i < samples; i++) {
+                gyroToPoseAngle(yawSamples[i], endHeading);
+                kinematics.integratePoseChange(pose, endHeading, sampleDistance);
+            }
+        } else {
+            getYawRotation(endHeading);
+            kinematics.integratePoseChange(pose, endHeading, deltaWheel);
+        }
 
         lastCenterDistance = centerDistance;
-        lastPose = pose;
-        pose = newPose;
+        history.add(Timer.getTimestamp(), pose, deltaWheel);
+        publish();
+    }
+
+    /**
+     * Gets the estimated pose at a time in the recent past, interpolated between updates
+     *
+     * @param timestamp The time, in seconds from {@link Timer#getTimestamp()}
+     * @param dest      The pose to store the result in
+     * @return Whether the time was recent enough to still be in the history
+     */
+    public synchronized boolean getPoseAt(double timestamp, MutablePose2d dest) {
+        return history.getPose(timestamp, dest);
+    }
+
+    /**
+     * Corrects the estimated pose at a time in the recent past, such as with a vision measurement, and replays odometry
+     * since then so the current pose includes the correction
+     *
+     * @param timestamp The time the measurement was captured, in seconds from {@link Timer#getTimestamp()}
+     * @param pose      The measured pose of the robot at that time
+     * @return Whether the time was recent enough to still be in the history, and the correction was applied
+     */
+    public synchronized boolean correctPose(double timestamp, Pose2d pose) {
+        if (!history.correct(timestamp, correctedPose.set(pose), kinematics)) {
+            return false;
+        }
+        history.getNewest(correctedPose);
+        // keep integrating from the corrected yaw
+        initialYaw += correctedPose.getYaw().toDegrees() - this.pose.getYaw().toDegrees();
+        this.pose.set(correctedPose);
+        publish();
+        return true;
+    }
+
+    private void publish() {
+        poseLock.beginWrite();
+        try {
+            publishedPose.write(pose);
+            publishedLastPose.write(lastPose);
+        } finally {
+            poseLock.endWrite();
+        }
     }
 
     public void setKinematics(TankKinematics tankKinematics) {
@@ -79,4 +203,33 @@ public class PoseEstimator extends AbstractUpdatable {
     public TankKinematics getKinematics() {
         return kinematics;
     }
+
+    private static class CachedPose {
+        private final long seq;
+        private final Pose2d pose;
+
+        CachedPose(long seq, Pose2d pose) {
+            this.seq = seq;
+            this.pose = pose;
+        }
+    }
+
+    private static class PublishedPose {
+        private volatile double x;
+        private volatile double y;
+        private volatile double yawSin;
+        private volatile double yawCos = 1.0;
+
+        void write(MutablePose2d pose) {
+            x = pose.getX();
+            y = pose.getY();
+            yawSin = pose.getYaw().sin();
+            yawCos = pose.getYaw().cos();
+        }
+
+        void read(MutablePose2d dest) {
+            dest.getTranslation().set(x, y);
+            dest.getYaw().set(yawSin, yawCos);
+        }
+    }
 }
@@ -0,0 +1,223 @@
+package org.teamtators.common.drive;
+
+import org.teamtators.common.math.MutablePose2d;
+import org.teamtators.common.math.MutableRotation;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A fixed size history of robot poses keyed by timestamp, for fusing measurements which lag behind odometry (such as
+ * from vision) against the pose at the time they were captured.
+ * <p>
+ * Samples are kept in a ring of primitive arrays, so adding one is constant time and never allocates, and once the
+ * ring is full the oldest sample is overwritten. Each sample also keeps the distance the robot traveled since the one
+ * before, so odometry can be replayed forward from a corrected pose with {@link #correct}.
+ * <p>
+ * Lookups interpolate between the samples on either side with the same semantics as
+ * {@link org.teamtators.common.math.Pose2d#interpolate}: the translation linearly, and the yaw the shortest way around.
+ * Not thread safe.
+ */
+public class PoseHistory {
+    private final int capacity;
+    private final int mask;
+    private final double[] timestamp;
+    private final double[] x;
+    private final double[] y;
+    private final double[] yaw; // radians
+    private final double[] deltaWheel; // distance traveled since the sample before
+    // the number of samples ever added, so the newest sample is at (count - 1) & mask
+    private long count;
+    private long oldest;
+
+    private final MutablePose2d replayPose = new MutablePose2d();
+    private final MutableRotation replayHeading = new MutableRotation();
+
+    /**
+     * @param capacity The number of samples to keep, rounded up to a power of two
+     */
+    public PoseHistory(int capacity) {
+        checkArgument(capacity > 0, "capacity must be positive");
+        int rounded = Integer.highestOneBit(capacity);
+        this.capacity = rounded < capacity ? rounded << 1 : rounded;
+        this.mask = this.capacity - 1;
+        timestamp = new double[this.capacity];
+        x = new double[this.capacity];
+        y = new double[this.capacity];
+        yaw = new double[this.capacity];
+        deltaWheel = new double[this.capacity];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return (int) (count - oldest);
+    }
+
+    public boolean isEmpty() {
+        return count == oldest;
+    }
+
+    public void clear() {
+        oldest = count;
+    }
+
+    /**
+     * Adds a sample. Timestamps must be added in increasing order.
+     *
+     * @param timestamp  The time of the sample, in seconds
+     * @param pose       The pose at that time
+     * @param deltaWheel The distance the center of the robot traveled since the last sample
+     */
+    public void add(double timestamp, MutablePose2d pose, double deltaWheel) {
+        checkArgument(isEmpty() || timestamp >= getNewestTimestamp(), "timestamps must increase");
+        int i = (int) (count & mask);
+        this.timestamp[i] = timestamp;
+        this.x[i] = pose.getX();
+        this.y[i] = pose.getY();
+        this.yaw[i] = pose.getYaw().toRadians();
+        this.deltaWheel[i] = deltaWheel;
+        count++;
+        if (count - oldest > capacity) {
+            oldest = count - capacity;
+        }
+    }
+
+    private int index(long sample) {
+        return (int) (sample & mask);
+    }
+
+    public double getOldestTimestamp() {
+        checkArgument(!isEmpty(), "history is empty");
+        return timestamp[index(oldest)];
+    }
+
+    public double getNewestTimestamp() {
+        checkArgument(!isEmpty(), "history is empty");
+        return timestamp[index(count - 1)];
+    }
+
+    /**
+     * @return The last sample at or before a time, or oldest - 1 if the time is before all samples
+     */
+    private long floorSample(double time) {
+        long lo = oldest, hi = count - 1;
+        if (time < timestamp[index(lo)]) {
+            return oldest - 1;
+        }
+        while (lo < hi) {
+            long mid = (lo + hi + 1) >>> 1;
+            if (timestamp[index(mid)] <= time) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    private double fraction(long floor, double time) {
+        if (floor >= count - 1) {
+            return 0.0;
+        }
+        double t0 = timestamp[index(floor)], t1 = timestamp[index(floor + 1)];
+        return t1 > t0 ? (time - t0) / (t1 - t0) : 0.0;
+    }
+
+    private void interpolate(long floor, double fraction, MutablePose2d dest) {
+        int i = index(floor);
+        double px = x[i], py = y[i], pyaw = yaw[i];
+        if (fraction > 0.0) {
+            int j = index(floor + 1);
+            px += (x[j] - px) * fraction;
+            py += (y[j] - py) * fraction;
+            pyaw += Math.IEEEremainder(yaw[j] - pyaw, 2 * Math.PI) * fraction;
+        }
+        dest.getTranslation().set(px, py);
+        dest.getYaw().setRadians(pyaw);
+    }
+
+    /**
+     * Gets the pose at a time, interpolated between the samples around it. Times after the newest sample get the
+     * newest sample.
+     *
+     * @param time The time, in seconds
+     * @param dest The pose to store the result in
+     * @return Whether there was a pose at that time. False if the history is empty or the time is before all samples.
+     */
+    public boolean getPose(double time, MutablePose2d dest) {
+        if (isEmpty()) {
+            return false;
+        }
+        long floor = floorSample(time);
+        if (floor < oldest) {
+            return false;
+        }
+        interpolate(floor, fraction(floor, time), dest);
+        return true;
+    }
+
+    /**
+     * Gets the newest pose
+     *
+     * @param dest The pose to store the result in
+     * @return Whether there was a pose. False if the history is empty.
+     */
+    public boolean getNewest(MutablePose2d dest) {
+        if (isEmpty()) {
+            return false;
+        }
+        interpolate(count - 1, 0.0, dest);
+        return true;
+    }
+
+    /**
+     * Corrects the pose at a past time, then replays odometry forward to correct every sample after it.
+     * <p>
+     * The correction to yaw is applied to every later sample, since the gyro only measures changes in heading. The
+     * translation of later samples is integrated again from the corrected pose with the distance traveled between
+     * samples, so the correction to position is carried along the arcs the robot actually drove.
+     *
+     * @param time          The time of the measurement, in seconds
+     * @param correctedPose The pose of the robot at that time
+     * @param kinematics    The kinematics to integrate with
+     * @return Whether the correction was applied. False if the history is empty or the time is before all samples.
+     */
+    public boolean correct(double time, MutablePose2d correctedPose, TankKinematics kinematics) {
+        if (isEmpty()) {
+            return false;
+        }
+        long floor = floorSample(time);
+        if (floor < oldest) {
+            return false;
+        }
+        double fraction = fraction(floor, time);
+        interpolate(floor, fraction, replayPose);
+        double yawCorrection = correctedPose.getYaw().toRadians() - replayPose.getYaw().toRadians();
+        replayPose.set(correctedPose);
+        if (fraction == 0.0) {
+            // the measurement is exactly at a sample, so it replaces that sample
+            store(floor, replayPose);
+        }
+        for (long sample = floor + 1; sample < count; sample++) {
+            int i = index(sample);
+            double distance = deltaWheel[i];
+            if (sample == floor + 1) {
+                // only the part of the step after the measurement
+                distance *= 1.0 - fraction;
+            }
+            replayHeading.setRadians(yaw[i] + yawCorrection);
+            kinematics.integratePoseChange(replayPose, replayHeading, distance);
+            store(sample, replayPose);
+        }
+        return true;
+    }
+
+    private void store(long sample, MutablePose2d pose) {
+        int i = index(sample);
+        x[i] = pose.getX();
+        y[i] = pose.getY();
+        yaw[i] = pose.getYaw().toRadians();
+    }
+}
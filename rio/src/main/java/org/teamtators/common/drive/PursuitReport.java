@@ -1,16 +1,16 @@
 package org.teamtators.common.drive;
 
-import org.teamtators.common.math.Pose2d;
-import org.teamtators.common.math.Rotation;
+import org.teamtators.common.math.MutablePose2d;
+import org.teamtators.common.math.MutableRotation;
 
 public class PursuitReport {
     public boolean isFinished = false;
     public double traveledDistance;
     public double remainingDistance;
-    public Pose2d nearestPoint = Pose2d.zero();
-    public Pose2d lookaheadPoint = Pose2d.zero();
+    public final MutablePose2d nearestPoint = new MutablePose2d();
+    public final MutablePose2d lookaheadPoint = new MutablePose2d();
     public double trackError;
-    public Rotation yawError = Rotation.identity();
+    public final MutableRotation yawError = new MutableRotation();
     public boolean updateProfile = false;
     public boolean isReverse;
 
@@ -7,6 +7,7 @@ import org.teamtators.common.math.Translation2d;
 public class StraightSegment extends DriveSegmentBase {
     private Pose2d startPose;
     private double length;
+    private Pose2d endPose;
 
     public double getLength() {
         return length;
@@ -14,6 +15,7 @@ public class StraightSegment extends DriveSegmentBase {
 
     public void setLength(double length) {
         this.length = length;
+        endPose = null;
     }
 
     @Override
@@ -27,10 +29,14 @@ public class StraightSegment extends DriveSegmentBase {
 
     public void setStartPose(Pose2d startPose) {
         this.startPose = startPose;
+        endPose = null;
     }
 
     public Pose2d getEndPose() {
-        return startPose.extend(length);
+        if (endPose == null) {
+            endPose = startPose.extend(length);
+        }
+        return endPose;
     }
 
     @Override
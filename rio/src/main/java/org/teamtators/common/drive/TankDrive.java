@@ -1,5 +1,6 @@
 package org.teamtators.common.drive;
 
+import org.teamtators.common.math.MutablePose2d;
 import org.teamtators.common.math.Pose2d;
 import org.teamtators.common.math.Twist2d;
 
@@ -46,7 +47,21 @@ public interface TankDrive {
     }
     double getYawRate();
 
+    /**
+     * Gets the yaw angle after each gyro sample since the gyro was last updated, for gyros which sample faster than
+     * they are updated
+     *
+     * @param dest The array to store the angles in, in degrees, oldest first
+     * @return The number of angles stored, or 0 if the gyro does not have samples
+     */
+    default int getYawAngleSamples(double[] dest) {
+        return 0;
+    }
+
     Pose2d getPose();
+    default MutablePose2d getPose(MutablePose2d dest) {
+        return dest.set(getPose());
+    }
 
     TankKinematics getTankKinematics();
 
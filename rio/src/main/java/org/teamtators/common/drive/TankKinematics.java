@@ -44,11 +44,53 @@ public class TankKinematics {
         return initialPose.chain(poseChange);
     }
 
+    /**
+     * Integrates a pose change in place, without allocating
+     *
+     * @param pose       The pose to update
+     * @param endHeading The heading at the end of the change
+     * @param deltaWheel The distance the center of the robot traveled
+     * @return pose
+     */
+    public MutablePose2d integratePoseChange(MutablePose2d pose, MutableRotation endHeading, double deltaWheel) {
+        MutableRotation yaw = pose.getYaw();
+        double deltaHeadingSin = endHeading.sin() * yaw.cos() - endHeading.cos() * yaw.sin();
+        double deltaHeadingCos = endHeading.cos() * yaw.cos() + endHeading.sin() * yaw.sin();
+        double deltaHeadingRads = Math.atan2(deltaHeadingSin, deltaHeadingCos);
+        double dx, dy;
+        if (Epsilon.isEpsilonZero(deltaHeadingRads)) {
+            dx = deltaWheel;
+            dy = 0.0;
+        } else {
+            double radius = deltaWheel / deltaHeadingRads;
+            dx = radius * deltaHeadingSin;
+            dy = radius * (deltaHeadingCos - 1.0);
+        }
+        pose.getTranslation().add(dx * yaw.cos() - dy * yaw.sin(), dx * yaw.sin() + dy * yaw.cos());
+        yaw.set(endHeading);
+        return pose;
+    }
+
     public DriveOutputs calculateOutputs(Twist2d curvature, double power) {
-        double yawDistance = effectiveTrackWidth * curvature.getDeltaYaw().toRadians() / 2;
-        double deltaX = curvature.getDeltaX();
-        DriveOutputs outputs = new DriveOutputs(deltaX - yawDistance, deltaX + yawDistance);
-        outputs = outputs.scale(power / Math.abs(deltaX));
-        return outputs;
+        return calculateOutputs(curvature.getDeltaYaw().toRadians(), curvature.getDeltaX(), power,
+                new DriveOutputs());
+    }
+
+    /**
+     * Calculates outputs without allocating
+     *
+     * @param curvature The arc to drive along
+     * @param power     The power or speed of the center of the robot
+     * @param dest      The outputs to store the result in
+     * @return dest
+     */
+    public DriveOutputs calculateOutputs(MutableTwist2d curvature, double power, DriveOutputs dest) {
+        return calculateOutputs(curvature.getDeltaYaw(), curvature.getDeltaX(), power, dest);
+    }
+
+    private DriveOutputs calculateOutputs(double deltaYaw, double deltaX, double power, DriveOutputs dest) {
+        double yawDistance = effectiveTrackWidth * deltaYaw / 2;
+        double scale = power / Math.abs(deltaX);
+        return dest.set((deltaX - yawDistance) * scale, (deltaX + yawDistance) * scale);
     }
 }
@@ -0,0 +1,233 @@
+package org.teamtators.common.drive;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A single velocity profile over a whole path, indexed by the distance along it.
+ * <p>
+ * The speed at each boundary between segments is found with a forward pass, limiting how fast the robot can get to
+ * each boundary while accelerating, then a backward pass, limiting how fast it can be going while still being able to
+ * slow down for everything after. Between boundaries, each segment accelerates, cruises at its speed limit and
+ * decelerates. The speed limit of a segment is its travel speed, and on arcs also the speed at which the lateral
+ * acceleration reaches its limit. The speed at a boundary is limited by the end speed of the segment before it and the
+ * speed limits of the segments on both sides, so the robot only slows down where it actually has to, instead of at
+ * every segment.
+ * <p>
+ * The profile is stored as pieces of constant acceleration. Within a piece the square of the velocity is linear in
+ * distance, so both distance and time lookups are a binary search and a closed form.
+ */
+public class VelocityPlan {
+    private static final double MIN_PIECE_LENGTH = 1e-9;
+
+    private final int pieceCount;
+    // pieceCount + 1 entries, the last being the end of the path
+    private final double[] startDistance;
+    private final double[] startTime;
+    private final double[] startVelocity;
+    // pieceCount entries
+    private final double[] acceleration;
+
+    private VelocityPlan(int pieceCount, double[] startDistance, double[] startTime, double[] startVelocity,
+                         double[] acceleration) {
+        this.pieceCount = pieceCount;
+        this.startDistance = startDistance;
+        this.startTime = startTime;
+        this.startVelocity = startVelocity;
+        this.acceleration = acceleration;
+    }
+
+    /**
+     * Plans the velocity along a path, starting from rest
+     *
+     * @param path                   The path
+     * @param maxAcceleration        The maximum acceleration along the path, in inches per second squared
+     * @param maxLateralAcceleration The maximum acceleration towards the center of arcs, in inches per second squared.
+     *                               Infinite to only limit speed on arcs by their travel speed.
+     * @return The plan
+     * @throws IllegalArgumentException If the path is empty, or a segment has no travel speed
+     */
+    public static VelocityPlan plan(CompiledDriveSegments path, double maxAcceleration,
+                                    double maxLateralAcceleration) {
+        int size = path.size();
+        checkArgument(size > 0, "path has no segments");
+        checkArgument(maxAcceleration > 0, "maxAcceleration must be positive");
+        checkArgument(maxLateralAcceleration > 0, "maxLateralAcceleration must be positive");
+
+        double[] limit = new double[size];
+        for (int i = 0; i < size; i++) {
+            limit[i] = path.getTravelSpeed(i);
+            if (path.isArc(i)) {
+                limit[i] = Math.min(limit[i], Math.sqrt(maxLateralAcceleration * path.getRadius(i)));
+            }
+            checkArgument(limit[i] > 0, "segment %s has no travel speed", i);
+        }
+        // speed at the start of each segment, and the end of the path
+        double[] boundary = new double[size + 1];
+        boundary[0] = 0.0;
+        for (int i = 1; i < size; i++) {
+            boundary[i] = Math.min(path.getEndSpeed(i - 1), Math.min(limit[i - 1], limit[i]));
+        }
+        boundary[size] = Math.min(path.getEndSpeed(size - 1), limit[size - 1]);
+        double twoA = 2 * maxAcceleration;
+        for (int i = 0; i < size; i++) {
+            double reachable = Math.sqrt(boundary[i] * boundary[i] + twoA * path.getArcLength(i));
+            boundary[i + 1] = Math.min(boundary[i + 1], reachable);
+        }
+        for (int i = size - 1; i >= 0; i--) {
+            double stoppable = Math.sqrt(boundary[i + 1] * boundary[i + 1] + twoA * path.getArcLength(i));
+            boundary[i] = Math.min(boundary[i], stoppable);
+        }
+
+        Builder builder = new Builder(3 * size);
+        for (int i = 0; i < size; i++) {
+            double start = path.getStartDistance(i);
+            double length = path.getArcLength(i);
+            double v0 = boundary[i], v1 = boundary[i + 1], vMax = limit[i];
+            double accelLength = (vMax * vMax - v0 * v0) / twoA;
+            double decelLength = (vMax * vMax - v1 * v1) / twoA;
+            if (accelLength + decelLength <= length) {
+                builder.add(start, accelLength, v0, maxAcceleration);
+                builder.add(start + accelLength, length - accelLength - decelLength, vMax, 0.0);
+                builder.add(start + length - decelLength, decelLength, vMax, -maxAcceleration);
+            } else {
+                // never gets up to the speed limit, so accelerate until it has to slow down
+                double peakSquared = (twoA * length + v0 * v0 + v1 * v1) / 2;
+                accelLength = Math.max(0.0, Math.min(length, (peakSquared - v0 * v0) / twoA));
+                builder.add(start, accelLength, v0, maxAcceleration);
+                builder.add(start + accelLength, length - accelLength, Math.sqrt(peakSquared), -maxAcceleration);
+            }
+        }
+        return builder.build(path.getArcLength(), boundary[size]);
+    }
+
+    public int getPieceCount() {
+        return pieceCount;
+    }
+
+    public double getArcLength() {
+        return startDistance[pieceCount];
+    }
+
+    /**
+     * @return The time it takes to follow the whole plan, in seconds
+     */
+    public double getDuration() {
+        return startTime[pieceCount];
+    }
+
+    public double getEndVelocity() {
+        return startVelocity[pieceCount];
+    }
+
+    private static int search(double[] starts, int count, double value) {
+        int lo = 0, hi = count - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (starts[mid] <= value) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * @param distance The distance along the path
+     * @return The planned velocity at a distance along the path
+     */
+    public double getVelocity(double distance) {
+        if (pieceCount == 0 || distance >= getArcLength()) {
+            return getEndVelocity();
+        }
+        int piece = search(startDistance, pieceCount, distance);
+        double v0 = startVelocity[piece];
+        double along = Math.max(0.0, distance - startDistance[piece]);
+        return Math.sqrt(Math.max(0.0, v0 * v0 + 2 * acceleration[piece] * along));
+    }
+
+    /**
+     * @param distance The distance along the path
+     * @return The planned acceleration at a distance along the path
+     */
+    public double getAcceleration(double distance) {
+        if (pieceCount == 0 || distance >= getArcLength()) {
+            return 0.0;
+        }
+        return acceleration[search(startDistance, pieceCount, distance)];
+    }
+
+    /**
+     * Gets the state of the plan at a time since the start of the path. Times after the end get the end of the path.
+     *
+     * @param time The time since the start, in seconds
+     * @param dest The sample to store the result in
+     * @return dest
+     */
+    public DriveTrajectory.Sample sample(double time, DriveTrajectory.Sample dest) {
+        if (pieceCount == 0 || time >= getDuration()) {
+            dest.distance = getArcLength();
+            dest.velocity = getEndVelocity();
+            dest.acceleration = 0.0;
+            return dest;
+        }
+        time = Math.max(0.0, time);
+        int piece = search(startTime, pieceCount, time);
+        double dt = time - startTime[piece];
+        double v0 = startVelocity[piece];
+        double a = acceleration[piece];
+        dest.distance = Math.min(startDistance[piece] + v0 * dt + a / 2 * dt * dt, startDistance[piece + 1]);
+        dest.velocity = Math.max(0.0, v0 + a * dt);
+        dest.acceleration = a;
+        return dest;
+    }
+
+    @Override
+    public String toString() {
+        return "VelocityPlan{" +
+                "pieceCount=" + pieceCount +
+                ", arcLength=" + getArcLength() +
+                ", duration=" + getDuration() +
+                '}';
+    }
+
+    private static class Builder {
+        private final double[] startDistance;
+        private final double[] startTime;
+        private final double[] startVelocity;
+        private final double[] acceleration;
+        private int count;
+        private double time;
+
+        Builder(int maxPieces) {
+            startDistance = new double[maxPieces + 1];
+            startTime = new double[maxPieces + 1];
+            startVelocity = new double[maxPieces + 1];
+            acceleration = new double[maxPieces];
+        }
+
+        void add(double start, double length, double velocity, double accel) {
+            if (length < MIN_PIECE_LENGTH) {
+                return;
+            }
+            startDistance[count] = start;
+            startTime[count] = time;
+            startVelocity[count] = velocity;
+            acceleration[count] = accel;
+            double endVelocity = Math.sqrt(Math.max(0.0, velocity * velocity + 2 * accel * length));
+            time += accel == 0.0 ? length / velocity : (endVelocity - velocity) / accel;
+            count++;
+        }
+
+        VelocityPlan build(double arcLength, double endVelocity) {
+            startDistance[count] = arcLength;
+            startTime[count] = time;
+            startVelocity[count] = endVelocity;
+            return new VelocityPlan(count,
+                    Arrays.copyOf(startDistance, count + 1), Arrays.copyOf(startTime, count + 1),
+                    Arrays.copyOf(startVelocity, count + 1), Arrays.copyOf(acceleration, count));
+        }
+    }
+}
@@ -8,9 +8,10 @@ import edu.wpi.first.wpilibj.hal.SPIJNI;
 import edu.wpi.first.wpilibj.smartdashboard.SendableBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.teamtators.common.util.ShortCircularBuffer;
+import org.teamtators.common.math.RunningStatistics;
 
 import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -19,6 +20,12 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 /**
  * A sensor class for using an ADXRS453 gyroscope.
  * Measures angle change on the yaw axis.
+ * <p>
+ * Calibration keeps running statistics of the raw rate over windows of the calibration period, so it takes constant
+ * memory however long it runs. A window where the rate was too noisy for the robot to have been still is thrown away,
+ * so calibration can be left running in the background whenever the robot is disabled. Finishing calibration uses the
+ * last still window and everything since it, and keeps the previous offset if there is not enough of that. The
+ * temperature register can only be read before the auto transfer starts, so drift with temperature is not modeled.
  */
 @SuppressWarnings({"PointlessBitwiseExpression", "unused"})
 public class ADXRS453 extends SensorBase implements PIDSource, Gyro {
@@ -29,32 +36,13 @@ public class ADXRS453 extends SensorBase implements PIDSource, Gyro {
     private static final int DATA_SIZE = 4;
     private static final int SPI_CLOCK_RATE = 3000000;
     private static final double DEGREES_PER_SECOND_PER_LSB = 1 / 80.0;
+    private static final double MAX_CALIBRATION_NOISE = 1.0; // degrees per second, standard deviation
 
     private static final Logger logger = LoggerFactory.getLogger(ADXRS453.class);
     private static final int kSensorData = 1 << 29;
     @SuppressWarnings("NumericOverflow")
     private static final int kRead = 1 << 31;
     private static final int kWrite = 1 << 30;
-    private static final int kP = 1 << 0;
-    private static final int kChk = 1 << 1;
-    private static final int kCst = 1 << 2;
-    private static final int kPwr = 1 << 3;
-    private static final int kPor = 1 << 4;
-    private static final int kNvm = 1 << 5;
-    private static final int kQ = 1 << 6;
-    private static final int kPll = 1 << 7;
-    private static final int kFaultBits = kChk | kCst | kPwr | kPor | kNvm | kQ | kPll;
-    private static final int kDu = 1 << 16;
-    private static final int kRe = 1 << 17;
-    private static final int kSpi = 1 << 18;
-    private static final int kP0 = 1 << 28;
-    private static final int kWriteBit = 1 << 29;
-    private static final int kReadBit = 1 << 30;
-    private static final int kInvalidData = 0b00 << 26;
-    private static final int kValidData = 0b01 << 26;
-    private static final int kTestData = 0b10 << 26;
-    private static final int kReadWrite = 0b11 << 26;
-    private static final int kStatusBits = 0b11 << 26;
 
     private final SPI spi;
     private final SPI.Port port;
@@ -65,20 +53,29 @@ public class ADXRS453 extends SensorBase implements PIDSource, Gyro {
     private final Lock readLock = lock.readLock();
     private final Lock writeLock = lock.writeLock();
     private final ByteBuffer accumulatorBuffer = ByteBuffer.allocateDirect(DATA_SIZE * ACCUMULATOR_DEPTH);
-
-    private int sampleCount;
-    private long rawRateSum;
+    private final IntBuffer accumulatorFrames = accumulatorBuffer.asIntBuffer();
+    private final ByteBuffer sendBuffer = ByteBuffer.allocateDirect(DATA_SIZE);
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(DATA_SIZE);
+    private final ADXRS453Decoder decoder = new ADXRS453Decoder();
+    private final short[] rawRates = new short[ACCUMULATOR_DEPTH];
+
+    // the angle after each sample in the last update, so odometry can follow the heading between updates
+    private final double[] sampleAngles = new double[ACCUMULATOR_DEPTH];
+    private int sampleAngleCount;
     private double rate;
     private double angle;
 
     private boolean isCalibrating;
     private double calibrationOffset;
-    private final ShortCircularBuffer calibrationValues = new ShortCircularBuffer(0);
+    private boolean hasCalibrationOffset;
     private double calibrationPeriod;
+    private int calibrationWindowSize;
+    // raw rate statistics of the window being sampled, and of the last still window before it
+    private final RunningStatistics calibrationWindow = new RunningStatistics();
+    private final RunningStatistics lastCalibrationWindow = new RunningStatistics();
+    private final RunningStatistics calibrationResult = new RunningStatistics();
 
     private PIDSourceType pidSource = PIDSourceType.kDisplacement;
-    private int lastFaults;
-    private int lastStatus;
 
     /**
      * Creates a new ADXRS453
@@ -100,26 +97,6 @@ public class ADXRS453 extends SensorBase implements PIDSource, Gyro {
         fullReset();
     }
 
-    private static int fixParity(int data) {
-        data &= ~kP;
-        return data | (calcParity(data) ? 0 : kP);
-    }
-
-    /**
-     * Find the parity (even/odd) of an int
-     *
-     * @param data Data to find parity of
-     * @return Whether or not the number of ones is odd
-     */
-    private static boolean calcParity(int data) {
-        int parity = 0;
-        while (data != 0) {
-            parity += (data & 1);
-            data >>>= 1;
-        }
-        return (parity % 2) == 1;
-    }
-
     /**
      * Starts the startup process in a separate thread
      */
@@ -143,8 +120,7 @@ public class ADXRS453 extends SensorBase implements PIDSource, Gyro {
         writeLock.lock();
         try {
             this.calibrationPeriod = calibrationPeriod;
-            int capacity = (int) (calibrationPeriod / SAMPLE_PERIOD);
-            calibrationValues.setCapacity(capacity);
+            calibrationWindowSize = Math.max(1, (int) (calibrationPeriod / SAMPLE_PERIOD));
         } finally {
             writeLock.unlock();
         }
@@ -157,22 +133,26 @@ public class ADXRS453 extends SensorBase implements PIDSource, Gyro {
             rate = 0;
             angle = 0;
             calibrationOffset = 0;
+            hasCalibrationOffset = false;
             isCalibrating = false;
-            calibrationValues.clear();
-            lastFaults = 0;
-            lastStatus = 0;
+            calibrationWindow.clear();
+            lastCalibrationWindow.clear();
+            decoder.reset();
         } finally {
             writeLock.unlock();
         }
     }
 
+    /**
+     * Starts calibrating the gyro. The last calibration offset keeps being applied until calibration is finished.
+     */
     @Override
     public void startCalibration() {
         logger.trace("Starting gyro calibration");
         writeLock.lock();
         try {
-            calibrationOffset = 0;
-            calibrationValues.clear();
+            calibrationWindow.clear();
+            lastCalibrationWindow.clear();
             isCalibrating = true;
         } finally {
             writeLock.unlock();
@@ -181,26 +161,47 @@ public class ADXRS453 extends SensorBase implements PIDSource, Gyro {
 
     @Override
     public void finishCalibration() {
-        if (!isCalibrating) {
-            return;
-        }
-        calibrationOffset = calibrationValues.stream()
-                .mapToDouble(rawRate -> rawRate * DEGREES_PER_SECOND_PER_LSB)
-                .average()
-                .orElse(0.0);
         writeLock.lock();
         try {
-            if (!Double.isFinite(calibrationOffset)) {
-                calibrationOffset = 0.0;
+            if (!isCalibrating) {
+                return;
+            }
+            RunningStatistics result = calibrationResult.set(lastCalibrationWindow);
+            if (isStill(calibrationWindow)) {
+                result.merge(calibrationWindow);
+            }
+            double offset = result.getMean() * DEGREES_PER_SECOND_PER_LSB;
+            boolean enoughSamples = result.getCount() >= calibrationWindowSize / 2 ||
+                    (!hasCalibrationOffset && !result.isEmpty());
+            if (enoughSamples && Double.isFinite(offset)) {
+                calibrationOffset = offset;
+                hasCalibrationOffset = true;
+                logger.debug("Finished calibrating gyro. Offset is {} (from {} samples, noise {})", calibrationOffset,
+                        result.getCount(), result.getStandardDeviation() * DEGREES_PER_SECOND_PER_LSB);
+            } else {
+                logger.warn("Not enough still samples to calibrate gyro ({}). Keeping offset {}",
+                        result.getCount(), calibrationOffset);
             }
             angle = 0;
             isCalibrating = false;
-            logger.debug("Finished calibrating gyro. Offset is {}", calibrationOffset);
         } finally {
             writeLock.unlock();
         }
     }
 
+    private static boolean isStill(RunningStatistics window) {
+        return window.getStandardDeviation() * DEGREES_PER_SECOND_PER_LSB <= MAX_CALIBRATION_NOISE;
+    }
+
+    private void finishCalibrationWindow() {
+        if (isStill(calibrationWindow)) {
+            lastCalibrationWindow.set(calibrationWindow);
+        } else {
+            logger.trace("Discarding gyro calibration window, the robot was moving");
+        }
+        calibrationWindow.clear();
+    }
+
     @Override
     public double getCalibrationOffset() {
         readLock.lock();
@@ -241,6 +242,7 @@ public class ADXRS453 extends SensorBase implements PIDSource, Gyro {
      *
      * @param angle The angle in degrees
      */
+    @Override
     public void setAngle(double angle) {
         writeLock.lock();
         try {
@@ -255,6 +257,26 @@ public class ADXRS453 extends SensorBase implements PIDSource, Gyro {
         setAngle(0.0);
     }
 
+    /**
+     * Gets the angle after each sample which was read in the last update, oldest first. The last one is the same as
+     * {@link #getAngle()}. Only valid until the next update, so it should be called from the same thread.
+     *
+     * @param dest The array to store the angles in, in degrees. If there are more samples than fit, only the newest are
+     *             stored.
+     * @return The number of angles stored
+     */
+    @Override
+    public int getSampleAngles(double[] dest) {
+        readLock.lock();
+        try {
+            int count = Math.min(sampleAngleCount, dest.length);
+            System.arraycopy(sampleAngles, sampleAngleCount - count, dest, 0, count);
+            return count;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
     /**
      * Reads a register on the gyro
      *
@@ -264,10 +286,10 @@ public class ADXRS453 extends SensorBase implements PIDSource, Gyro {
     private int readRegister(Register reg) {
         int send, recv;
         send = kRead | (reg.address << 17);
-        send = fixParity(send);
+        send = ADXRS453Decoder.fixParity(send);
         write(send);
         recv = read();
-        if (!checkResponse(recv)) {
+        if (!decoder.checkResponse(recv)) {
             return 0x00;
         }
         return (recv >>> 5) & 0xFFFF;
@@ -283,9 +305,9 @@ public class ADXRS453 extends SensorBase implements PIDSource, Gyro {
     private void writeRegister(Register reg, int value) {
         int send;
         send = kRead | (reg.address << 17) | (value << 1);
-        send = fixParity(send);
+        send = ADXRS453Decoder.fixParity(send);
         write(send);
-        checkResponse(read());
+        decoder.checkResponse(read());
     }
 
     /**
@@ -349,85 +371,6 @@ public class ADXRS453 extends SensorBase implements PIDSource, Gyro {
         startup.interrupt();
     }
 
-    private boolean checkParity(int data) {
-        boolean p1 = calcParity(data);
-        boolean p0 = calcParity(data >>> 16);
-        if (!p1 || !p0) {
-            logger.error(String.format("Parity check failed on response: %#x", data));
-            return false;
-        }
-        return true;
-    }
-
-    private boolean checkFaults(int data) {
-        int faults = data & kFaultBits;
-        boolean hasFaults = faults != 0;
-        StringBuilder logMessage;
-        if (hasFaults) {
-            if (faults == lastFaults) {
-                return false;
-            }
-            lastFaults = faults;
-            logMessage = new StringBuilder("Faults detected:");
-        } else {
-            lastFaults = faults;
-            return true;
-        }
-        if ((data & kChk) != 0) {
-            logMessage.append("\n * Self test enabled");
-            logger.warn(logMessage.toString());
-            return false;
-        }
-        if ((data & kCst) != 0)
-            logMessage.append("\n * Continuous self test fault");
-        if ((data & kPwr) != 0)
-            logMessage.append("\n * Power fault");
-        if ((data & kPor) != 0)
-            logMessage.append("\n * Non-volatile programming fault");
-        if ((data & kNvm) != 0)
-            logMessage.append("\n * Non-volatile checksum fault");
-        if ((data & kQ) != 0)
-            logMessage.append("\n * Quadrature calculation fault");
-        if ((data & kPll) != 0)
-            logMessage.append("\n * Phase locked loop fault");
-        logger.warn(logMessage.toString());
-
-        return false;
-    }
-
-    private boolean checkResponse(int data) {
-        if (!checkParity(data))
-            return false;
-        int status = data & kStatusBits;
-        boolean isSame = status == lastStatus;
-        lastStatus = status;
-        switch (status) {
-            case kInvalidData:
-                if (!isSame) {
-                    logger.warn("Invalid data received");
-                    checkFaults(data);
-                }
-                return false;
-            case kValidData:
-            case kTestData:
-                return checkFaults(data);
-            case kReadWrite:
-                if ((data & (kReadBit | kWriteBit)) != 0)
-                    return true;
-                StringBuilder logMessage = new StringBuilder("Read/Write error: ");
-                if ((data & kSpi) != 0)
-                    logMessage.append("\n * SPI error");
-                if ((data & kRe) != 0)
-                    logMessage.append("\n * Request error");
-                if ((data & kDu) != 0)
-                    logMessage.append("\n * Data unavailable");
-                logger.error(logMessage.toString());
-                checkFaults(data);
-                return false;
-        }
-        return false;
-    }
-
     private boolean checkPartID() {
         int pid = getPartID();
         if ((pid & 0xff00) == 0x5200) {
@@ -443,28 +386,20 @@ public class ADXRS453 extends SensorBase implements PIDSource, Gyro {
         }
     }
 
-    private ByteBuffer dataToBytes(int data) {
-        ByteBuffer bytes = ByteBuffer.allocate(DATA_SIZE);
-        bytes.putInt(data);
-        return bytes;
-    }
-
     private void write(int data) {
-        ByteBuffer send = dataToBytes(data);
-        spi.write(send, send.capacity()); // send it
+        sendBuffer.putInt(0, data);
+        spi.write(sendBuffer, DATA_SIZE); // send it
     }
 
     private int read() {
-        ByteBuffer recv = ByteBuffer.allocate(DATA_SIZE);
-        spi.read(false, recv, recv.capacity()); // read into the buffer
-        return recv.getInt();
+        spi.read(false, receiveBuffer, DATA_SIZE); // read into the buffer
+        return receiveBuffer.getInt(0);
     }
 
     private int transfer(int data) {
-        ByteBuffer send = dataToBytes(data);
-        ByteBuffer recv = ByteBuffer.allocate(DATA_SIZE);
-        spi.transaction(send, recv, send.capacity());
-        return recv.getInt();
+        sendBuffer.putInt(0, data);
+        spi.transaction(sendBuffer, receiveBuffer, DATA_SIZE);
+        return receiveBuffer.getInt(0);
     }
 
     private void startup() {
@@ -477,14 +412,14 @@ public class ADXRS453 extends SensorBase implements PIDSource, Gyro {
     private void doStartup() throws InterruptedException {
         logger.debug("Starting up gyro");
         int send, recv;
-        send = fixParity(kSensorData | kChk);
+        send = ADXRS453Decoder.fixParity(kSensorData | ADXRS453Decoder.kChk);
         write(send);
         Thread.sleep(STARTUP_DELAY_MS); // in the spec
-        send = fixParity(kSensorData);
+        send = ADXRS453Decoder.fixParity(kSensorData);
         write(send);
         Thread.sleep(STARTUP_DELAY_MS);
         recv = transfer(send);
-        if ((recv & kFaultBits) != kFaultBits) { // assert that all faults are set
+        if ((recv & ADXRS453Decoder.kFaultBits) != ADXRS453Decoder.kFaultBits) { // assert that all faults are set
             logger.error(String.format("Startup self test failed: %#x", recv));
             return;
         }
@@ -496,10 +431,10 @@ public class ADXRS453 extends SensorBase implements PIDSource, Gyro {
         }
         write(send);
         Thread.sleep(STARTUP_DELAY_MS);
-        int cmd = fixParity(kSensorData);
+        int cmd = ADXRS453Decoder.fixParity(kSensorData);
         spi.initAuto(DATA_SIZE * ACCUMULATOR_DEPTH);
-        ByteBuffer cmdBytes = dataToBytes(cmd);
-        spi.setAutoTransmitData(cmdBytes.array(), 0);
+        byte[] cmdBytes = ByteBuffer.allocate(DATA_SIZE).putInt(cmd).array();
+        spi.setAutoTransmitData(cmdBytes, 0);
         spi.startAutoRate(SAMPLE_PERIOD);
 
         hasStarted.set(true);
@@ -510,57 +445,56 @@ public class ADXRS453 extends SensorBase implements PIDSource, Gyro {
         if (!hasStarted.get()) {
             return;
         }
+        // only the update thread touches the receive buffer and decoder, so the lock is only held to apply the batch
+        int count = 0;
+        while (count < ACCUMULATOR_DEPTH) {
+            int availableFrames = SPIJNI.spiReadAutoReceivedData(port.value, accumulatorBuffer, 0, 0) / DATA_SIZE;
+            if (availableFrames == 0) {
+                break;
+            }
+            // anything which does not fit is left for the next update
+            int frames = Math.min(availableFrames, ACCUMULATOR_DEPTH - count);
+            SPIJNI.spiReadAutoReceivedData(port.value, accumulatorBuffer, frames * DATA_SIZE, 0);
+            count += decoder.decode(accumulatorFrames, 0, frames, rawRates, count);
+            if (frames == availableFrames) {
+                break;
+            }
+        }
+        applySamples(count);
+    }
+
+    private void applySamples(int count) {
         writeLock.lock();
         try {
-            boolean hasData = true;
-            sampleCount = 0;
-            rawRateSum = 0;
-            while (hasData) {
-                int availableBytes = SPIJNI.spiReadAutoReceivedData(port.value, accumulatorBuffer, 0, 0);
-
-                availableBytes -= availableBytes % DATA_SIZE;
-                if (availableBytes > DATA_SIZE * ACCUMULATOR_DEPTH) {
-                    availableBytes = DATA_SIZE * ACCUMULATOR_DEPTH;
-                    hasData = true;
-                } else if (availableBytes == 0) {
-                    break;
-                } else {
-                    hasData = false;
-                }
-
-                SPIJNI.spiReadAutoReceivedData(port.value, accumulatorBuffer, availableBytes, 0);
-
-                for (int i = 0; i < availableBytes; i += DATA_SIZE) {
-                    int data = accumulatorBuffer.getInt(i);
-                    processSensorData(data);
+            sampleAngleCount = 0;
+            if (count == 0) {
+                rate = 0.0;
+                return;
+            }
+            if (isCalibrating) {
+                for (int i = 0; i < count; i++) {
+                    calibrationWindow.add(rawRates[i]);
+                    if (calibrationWindow.getCount() >= calibrationWindowSize) {
+                        finishCalibrationWindow();
+                    }
                 }
             }
-
-            if (sampleCount > 0) {
-                // apply calibration offset
-                double rateSum = rawRateSum * DEGREES_PER_SECOND_PER_LSB - calibrationOffset * sampleCount;
-                rate = rateSum / sampleCount;
-                angle += rateSum * SAMPLE_PERIOD;
-            } else {
-                rate = 0.0;
+            // apply calibration offset
+            double anglePerLsb = DEGREES_PER_SECOND_PER_LSB * SAMPLE_PERIOD;
+            double offsetPerSample = calibrationOffset * SAMPLE_PERIOD;
+            long rawRateSum = 0;
+            for (int i = 0; i < count; i++) {
+                rawRateSum += rawRates[i];
+                sampleAngles[i] = angle + rawRateSum * anglePerLsb - offsetPerSample * (i + 1);
             }
+            sampleAngleCount = count;
+            rate = (rawRateSum * DEGREES_PER_SECOND_PER_LSB - calibrationOffset * count) / count;
+            angle = sampleAngles[count - 1];
         } finally {
             writeLock.unlock();
         }
     }
 
-    private void processSensorData(int data) {
-        if (!checkResponse(data))
-            return;
-        short rawRate = (short) (data >>> 10);
-        if (isCalibrating) {
-            calibrationValues.push(rawRate);
-        } else {
-            rawRateSum += rawRate;
-        }
-        sampleCount++;
-    }
-
     @Override
     public void initSendable(SendableBuilder builder) {
         builder.setSmartDashboardType("Gyro");
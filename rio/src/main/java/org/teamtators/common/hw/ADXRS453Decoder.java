@@ -0,0 +1,217 @@
+package org.teamtators.common.hw;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.IntBuffer;
+
+/**
+ * Decodes and checks responses from an {@link ADXRS453}.
+ * <p>
+ * Sensor data is decoded in batches straight from the auto receive buffer. A frame with good parity, a valid or test
+ * data status and no faults is decoded with a few bit operations and no method calls. Anything else goes through
+ * {@link #checkResponse(int)}, which logs what is wrong with it, so a healthy gyro never leaves the fast path.
+ */
+@SuppressWarnings({"PointlessBitwiseExpression", "unused"})
+class ADXRS453Decoder {
+    private static final Logger logger = LoggerFactory.getLogger(ADXRS453Decoder.class);
+
+    static final int kP = 1 << 0;
+    static final int kChk = 1 << 1;
+    static final int kCst = 1 << 2;
+    static final int kPwr = 1 << 3;
+    static final int kPor = 1 << 4;
+    static final int kNvm = 1 << 5;
+    static final int kQ = 1 << 6;
+    static final int kPll = 1 << 7;
+    static final int kFaultBits = kChk | kCst | kPwr | kPor | kNvm | kQ | kPll;
+    static final int kDu = 1 << 16;
+    static final int kRe = 1 << 17;
+    static final int kSpi = 1 << 18;
+    static final int kP0 = 1 << 28;
+    static final int kWriteBit = 1 << 29;
+    static final int kReadBit = 1 << 30;
+    static final int kStatusShift = 26;
+    static final int kInvalidData = 0b00 << kStatusShift;
+    static final int kValidData = 0b01 << kStatusShift;
+    static final int kTestData = 0b10 << kStatusShift;
+    static final int kReadWrite = 0b11 << kStatusShift;
+    static final int kStatusBits = 0b11 << kStatusShift;
+    // bit n is set if status n is sensor data (valid or test data)
+    private static final int kSensorDataStatuses = (1 << 0b01) | (1 << 0b10);
+    static final int kRateShift = 10;
+
+    private int lastFaults;
+    private int lastStatus;
+
+    /**
+     * Find the parity (even/odd) of an int
+     *
+     * @param data Data to find parity of
+     * @return Whether or not the number of ones is odd
+     */
+    static boolean calcParity(int data) {
+        return (Integer.bitCount(data) & 1) != 0;
+    }
+
+    /**
+     * Sets the parity bit of a command so the whole command has odd parity
+     *
+     * @param data The command
+     * @return The command with the parity bit set
+     */
+    static int fixParity(int data) {
+        data &= ~kP;
+        return data | (calcParity(data) ? 0 : kP);
+    }
+
+    /**
+     * Responses must have odd parity over the whole response (P1) and over the upper 16 bits (P0)
+     *
+     * @param data The response
+     * @return Whether both parity checks pass
+     */
+    static boolean isParityValid(int data) {
+        return (Integer.bitCount(data) & Integer.bitCount(data >>> 16) & 1) != 0;
+    }
+
+    /**
+     * @param data A sensor data response
+     * @return The raw rate in the response, in LSBs
+     */
+    static short getRawRate(int data) {
+        return (short) (data >>> kRateShift);
+    }
+
+    /**
+     * Builds a sensor data response the same way the gyro does, for simulating it
+     *
+     * @param rawRate The raw rate, in LSBs
+     * @param status  The status bits
+     * @param faults  The fault bits
+     * @return The response, with both parity bits set
+     */
+    static int encodeSensorData(short rawRate, int status, int faults) {
+        int data = status | (rawRate & 0xFFFF) << kRateShift | faults & kFaultBits;
+        if (!calcParity(data >>> 16)) {
+            data |= kP0;
+        }
+        return data | (calcParity(data) ? 0 : kP);
+    }
+
+    void reset() {
+        lastFaults = 0;
+        lastStatus = 0;
+    }
+
+    /**
+     * Decodes the rates from a batch of sensor data responses. Responses which fail their checks are skipped.
+     *
+     * @param frames The responses
+     * @param start  The index of the first response in frames
+     * @param count  The number of responses
+     * @param rates  The array to store the raw rates in
+     * @param offset The index in rates to store the first rate at
+     * @return The number of rates stored
+     */
+    int decode(IntBuffer frames, int start, int count, short[] rates, int offset) {
+        int stored = 0;
+        for (int i = 0; i < count; i++) {
+            int data = frames.get(start + i);
+            int status = data >>> kStatusShift & 0b11;
+            boolean good = isParityValid(data) & (data & kFaultBits) == 0 &
+                    (kSensorDataStatuses >>> status & 1) != 0;
+            if (good) {
+                lastStatus = status << kStatusShift;
+                lastFaults = 0;
+            } else if (!checkResponse(data)) {
+                continue;
+            }
+            rates[offset + stored++] = getRawRate(data);
+        }
+        return stored;
+    }
+
+    private boolean checkParity(int data) {
+        if (!isParityValid(data)) {
+            logger.error(String.format("Parity check failed on response: %#x", data));
+            return false;
+        }
+        return true;
+    }
+
+    private boolean checkFaults(int data) {
+        int faults = data & kFaultBits;
+        boolean hasFaults = faults != 0;
+        StringBuilder logMessage;
+        if (hasFaults) {
+            if (faults == lastFaults) {
+                return false;
+            }
+            lastFaults = faults;
+            logMessage = new StringBuilder("Faults detected:");
+        } else {
+            lastFaults = faults;
+            return true;
+        }
+        if ((data & kChk) != 0) {
+            logMessage.append("\n * Self test enabled");
+            logger.warn(logMessage.toString());
+            return false;
+        }
+        if ((data & kCst) != 0)
+            logMessage.append("\n * Continuous self test fault");
+        if ((data & kPwr) != 0)
+            logMessage.append("\n * Power fault");
+        if ((data & kPor) != 0)
+            logMessage.append("\n * Non-volatile programming fault");
+        if ((data & kNvm) != 0)
+            logMessage.append("\n * Non-volatile checksum fault");
+        if ((data & kQ) != 0)
+            logMessage.append("\n * Quadrature calculation fault");
+        if ((data & kPll) != 0)
+            logMessage.append("\n * Phase locked loop fault");
+        logger.warn(logMessage.toString());
+
+        return false;
+    }
+
+    /**
+     * Checks a response, logging anything wrong with it
+     *
+     * @param data The response
+     * @return Whether the response is good
+     */
+    boolean checkResponse(int data) {
+        if (!checkParity(data))
+            return false;
+        int status = data & kStatusBits;
+        boolean isSame = status == lastStatus;
+        lastStatus = status;
+        switch (status) {
+            case kInvalidData:
+                if (!isSame) {
+                    logger.warn("Invalid data received");
+                    checkFaults(data);
+                }
+                return false;
+            case kValidData:
+            case kTestData:
+                return checkFaults(data);
+            case kReadWrite:
+                if ((data & (kReadBit | kWriteBit)) != 0)
+                    return true;
+                StringBuilder logMessage = new StringBuilder("Read/Write error: ");
+                if ((data & kSpi) != 0)
+                    logMessage.append("\n * SPI error");
+                if ((data & kRe) != 0)
+                    logMessage.append("\n * Request error");
+                if ((data & kDu) != 0)
+                    logMessage.append("\n * Data unavailable");
+                logger.error(logMessage.toString());
+                checkFaults(data);
+                return false;
+        }
+        return false;
+    }
+}
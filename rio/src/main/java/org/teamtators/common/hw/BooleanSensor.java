@@ -0,0 +1,17 @@
+package org.teamtators.common.hw;
+
+/**
+ * Interface for sensors which read a single true or false value, such as limit switches
+ */
+public interface BooleanSensor {
+    /**
+     * @return The value of the sensor
+     */
+    boolean get();
+
+    /**
+     * Frees the hardware behind the sensor, if there is any
+     */
+    default void free() {
+    }
+}
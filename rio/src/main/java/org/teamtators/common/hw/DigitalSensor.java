@@ -9,7 +9,7 @@ import edu.wpi.first.wpilibj.Sendable;
  *
  * Essentially allows for inverting the sensor reading
  */
-public class DigitalSensor extends DigitalInput {
+public class DigitalSensor extends DigitalInput implements BooleanSensor {
     private Type type = Type.PNP;
 
     public DigitalSensor(int channel, Type type) {
@@ -24,6 +24,7 @@ public class DigitalSensor extends DigitalInput {
     /**
      * @return the value from a digital input channel, taking into account the type
      */
+    @Override
     public boolean get() {
         boolean value = getRaw();
         switch (type) {
@@ -26,9 +26,8 @@ public interface Gyro extends Updatable {
     void fullReset();
 
     /**
-     * Starts calibrating the gyro. Resets the calibration value and begins
-     * sampling gyro values to get the average 0 value. Sample time determined
-     * by calibrationTicks
+     * Starts calibrating the gyro. Begins sampling gyro values to get the
+     * average 0 value. Sample time determined by the calibration period
      */
     void startCalibration();
 
@@ -66,8 +65,32 @@ public interface Gyro extends Updatable {
      */
     double getAngle();
 
+    /**
+     * Sets the current angle of the gyro
+     *
+     * @param angle The angle in degrees
+     */
+    void setAngle(double angle);
+
     /**
      * Resets the current angle of the gyro to zero
      */
     void resetAngle();
+
+    /**
+     * Gets the angle after each sample which was read in the last update, for gyros which sample faster than they
+     * are updated
+     *
+     * @param dest The array to store the angles in, in degrees, oldest first
+     * @return The number of angles stored, or 0 if the gyro does not have samples
+     */
+    default int getSampleAngles(double[] dest) {
+        return 0;
+    }
+
+    /**
+     * Frees the hardware behind the gyro, if there is any
+     */
+    default void free() {
+    }
 }
\ No newline at end of file
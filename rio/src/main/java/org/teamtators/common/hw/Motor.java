@@ -0,0 +1,28 @@
+package org.teamtators.common.hw;
+
+/**
+ * Interface for motors which are driven by a power, independent of the hardware behind them
+ */
+public interface Motor {
+    /**
+     * Sets the power of the motor
+     *
+     * @param power The power, from -1 to 1
+     */
+    void set(double power);
+
+    /**
+     * @return The power the motor was last set to
+     */
+    double get();
+
+    default void stopMotor() {
+        set(0.0);
+    }
+
+    /**
+     * Frees the hardware behind the motor, if there is any
+     */
+    default void free() {
+    }
+}
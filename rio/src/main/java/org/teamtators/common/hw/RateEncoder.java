@@ -0,0 +1,27 @@
+package org.teamtators.common.hw;
+
+/**
+ * Sensor interface for encoders which measure distance and rate, independent of the hardware behind them
+ */
+public interface RateEncoder {
+    /**
+     * @return The distance traveled since the last reset, in distance units
+     */
+    double getDistance();
+
+    /**
+     * @return The current rate, in distance units per second
+     */
+    double getRate();
+
+    /**
+     * Resets the distance to zero
+     */
+    void reset();
+
+    /**
+     * Frees the hardware behind the encoder, if there is any
+     */
+    default void free() {
+    }
+}
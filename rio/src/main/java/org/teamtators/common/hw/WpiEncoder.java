@@ -0,0 +1,40 @@
+package org.teamtators.common.hw;
+
+import edu.wpi.first.wpilibj.Encoder;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A RateEncoder backed by a WPILib Encoder
+ */
+public class WpiEncoder implements RateEncoder {
+    private final Encoder encoder;
+
+    public WpiEncoder(Encoder encoder) {
+        this.encoder = checkNotNull(encoder);
+    }
+
+    public Encoder getEncoder() {
+        return encoder;
+    }
+
+    @Override
+    public double getDistance() {
+        return encoder.getDistance();
+    }
+
+    @Override
+    public double getRate() {
+        return encoder.getRate();
+    }
+
+    @Override
+    public void reset() {
+        encoder.reset();
+    }
+
+    @Override
+    public void free() {
+        encoder.free();
+    }
+}
@@ -0,0 +1,41 @@
+package org.teamtators.common.hw;
+
+import edu.wpi.first.wpilibj.SpeedController;
+import org.teamtators.common.config.helpers.SpeedControllerConfig;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A Motor backed by a WPILib SpeedController
+ */
+public class WpiMotor implements Motor {
+    private final SpeedController speedController;
+
+    public WpiMotor(SpeedController speedController) {
+        this.speedController = checkNotNull(speedController);
+    }
+
+    public SpeedController getSpeedController() {
+        return speedController;
+    }
+
+    @Override
+    public void set(double power) {
+        speedController.set(power);
+    }
+
+    @Override
+    public double get() {
+        return speedController.get();
+    }
+
+    @Override
+    public void stopMotor() {
+        speedController.stopMotor();
+    }
+
+    @Override
+    public void free() {
+        SpeedControllerConfig.free(speedController);
+    }
+}
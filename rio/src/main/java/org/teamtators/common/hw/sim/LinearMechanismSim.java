@@ -0,0 +1,126 @@
+package org.teamtators.common.hw.sim;
+
+/**
+ * A physics model of a mechanism which moves in a line, driven by DC motors through a gearbox and a drum or sprocket,
+ * such as an elevator or one side of a drivetrain.
+ * <p>
+ * Motor torque falls off linearly from the stall torque at zero speed to nothing at the free speed. The mechanism
+ * also has coulomb and viscous friction, optional gravity, and hard stops at the ends of its travel. Positions are in
+ * inches and velocities in inches per second, like the rest of the robot code.
+ */
+public class LinearMechanismSim {
+    private static final double METERS_PER_INCH = 0.0254;
+    private static final double GRAVITY = 9.81; // m/s^2
+
+    private final Config config;
+    private final SimMotor motor;
+    private final SimEncoder encoder = new SimEncoder();
+    private final SimDigitalSensor bottomLimit = new SimDigitalSensor();
+    private final SimDigitalSensor topLimit = new SimDigitalSensor();
+    private double position; // m
+    private double velocity; // m/s
+
+    public LinearMechanismSim(Config config, SimMotor motor) {
+        this.config = config;
+        this.motor = motor;
+        this.position = config.startPosition * METERS_PER_INCH;
+        updateSensors();
+    }
+
+    public SimMotor getMotor() {
+        return motor;
+    }
+
+    public SimEncoder getEncoder() {
+        return encoder;
+    }
+
+    public SimDigitalSensor getBottomLimit() {
+        return bottomLimit;
+    }
+
+    public SimDigitalSensor getTopLimit() {
+        return topLimit;
+    }
+
+    /**
+     * @return The position of the mechanism, in inches
+     */
+    public double getPosition() {
+        return position / METERS_PER_INCH;
+    }
+
+    /**
+     * @return The velocity of the mechanism, in inches per second
+     */
+    public double getVelocity() {
+        return velocity / METERS_PER_INCH;
+    }
+
+    /**
+     * @return The force the motors are currently applying to the mechanism, in newtons
+     */
+    public double getMotorForce() {
+        double drumRadius = config.drumRadius * METERS_PER_INCH;
+        double motorSpeed = velocity / drumRadius * config.gearing; // rad/s
+        double torque = config.motorCount * config.stallTorque *
+                (motor.getAppliedPower() - motorSpeed / config.freeSpeed);
+        return torque * config.gearing / drumRadius;
+    }
+
+    /**
+     * Steps the simulation forward using semi-implicit Euler integration
+     *
+     * @param delta The time to step, in seconds
+     */
+    public void update(double delta) {
+        double force = getMotorForce();
+        if (config.vertical) {
+            force -= config.mass * GRAVITY;
+        }
+        force -= config.viscousFriction * velocity;
+        double staticLimit = config.coulombFriction;
+        if (Math.abs(velocity) < 1e-6 && Math.abs(force) <= staticLimit) {
+            // static friction holds the mechanism still
+            force = 0.0;
+            velocity = 0.0;
+        } else {
+            force -= Math.copySign(staticLimit, velocity != 0.0 ? velocity : force);
+        }
+        velocity += force / config.mass * delta;
+        position += velocity * delta;
+
+        double min = config.minPosition * METERS_PER_INCH;
+        double max = config.maxPosition * METERS_PER_INCH;
+        if (position <= min) {
+            position = min;
+            velocity = Math.max(velocity, 0.0);
+        } else if (position >= max) {
+            position = max;
+            velocity = Math.min(velocity, 0.0);
+        }
+        updateSensors();
+    }
+
+    private void updateSensors() {
+        encoder.setState(getPosition(), getVelocity());
+        bottomLimit.set(getPosition() <= config.minPosition + config.limitTolerance);
+        topLimit.set(getPosition() >= config.maxPosition - config.limitTolerance);
+    }
+
+    public static class Config {
+        public double mass = 10.0; // kg moved by the mechanism
+        public double gearing = 10.0; // motor rotations per drum rotation
+        public double drumRadius = 1.0; // in
+        public int motorCount = 1; // number of motors driving the mechanism
+        public double stallTorque = 0.71; // N*m per motor (default is a 775pro)
+        public double freeSpeed = 18730 * 2 * Math.PI / 60; // rad/s per motor (default is a 775pro)
+        public double coulombFriction = 0.0; // N
+        public double viscousFriction = 0.0; // N per m/s
+        public boolean vertical = false; // whether gravity pulls the mechanism towards minPosition
+        public double minPosition = Double.NEGATIVE_INFINITY; // in, hard stop
+        public double maxPosition = Double.POSITIVE_INFINITY; // in, hard stop
+        public double startPosition = 0.0; // in
+        public double limitTolerance = 0.25; // in, how close to a hard stop the limit sensors trigger
+    }
+}
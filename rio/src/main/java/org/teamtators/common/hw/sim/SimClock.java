@@ -0,0 +1,32 @@
+package org.teamtators.common.hw.sim;
+
+import org.teamtators.common.control.Clock;
+
+/**
+ * A clock which only advances when told to, so a simulation can run faster (or slower) than real time
+ */
+public class SimClock implements Clock {
+    private volatile double timestamp;
+
+    public SimClock() {
+        this(0.0);
+    }
+
+    public SimClock(double startTimestamp) {
+        this.timestamp = startTimestamp;
+    }
+
+    @Override
+    public double getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Advances the clock
+     *
+     * @param delta The time to advance by, in seconds
+     */
+    public void advance(double delta) {
+        timestamp += delta;
+    }
+}
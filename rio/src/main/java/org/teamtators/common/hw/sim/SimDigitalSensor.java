@@ -0,0 +1,19 @@
+package org.teamtators.common.hw.sim;
+
+import org.teamtators.common.hw.BooleanSensor;
+
+/**
+ * A simulated digital sensor, whose value is set by a physics model
+ */
+public class SimDigitalSensor implements BooleanSensor {
+    private volatile boolean value;
+
+    @Override
+    public boolean get() {
+        return value;
+    }
+
+    public void set(boolean value) {
+        this.value = value;
+    }
+}
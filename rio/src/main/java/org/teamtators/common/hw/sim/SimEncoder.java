@@ -0,0 +1,50 @@
+package org.teamtators.common.hw.sim;
+
+import org.teamtators.common.hw.RateEncoder;
+
+/**
+ * A simulated encoder, which reports the position and velocity of a physics model
+ */
+public class SimEncoder implements RateEncoder {
+    private double distancePerPulse = 0.0;
+    private volatile double position;
+    private volatile double velocity;
+    private volatile double zero;
+
+    /**
+     * @param distancePerPulse The resolution of the encoder, which readings are rounded to. 0 for no rounding
+     */
+    public void setDistancePerPulse(double distancePerPulse) {
+        this.distancePerPulse = distancePerPulse;
+    }
+
+    /**
+     * Sets the true state of the mechanism the encoder is attached to
+     *
+     * @param position The position of the mechanism
+     * @param velocity The velocity of the mechanism
+     */
+    public void setState(double position, double velocity) {
+        this.position = position;
+        this.velocity = velocity;
+    }
+
+    @Override
+    public double getDistance() {
+        double distance = position - zero;
+        if (distancePerPulse > 0.0) {
+            distance = Math.floor(distance / distancePerPulse) * distancePerPulse;
+        }
+        return distance;
+    }
+
+    @Override
+    public double getRate() {
+        return velocity;
+    }
+
+    @Override
+    public void reset() {
+        zero = position;
+    }
+}
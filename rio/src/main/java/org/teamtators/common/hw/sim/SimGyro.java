@@ -0,0 +1,86 @@
+package org.teamtators.common.hw.sim;
+
+import org.teamtators.common.hw.Gyro;
+
+/**
+ * A simulated gyro, whose angle and rate are set by a physics model. Calibration finishes immediately.
+ */
+public class SimGyro implements Gyro {
+    private double calibrationPeriod = 0.0;
+    private volatile double angle;
+    private volatile double rate;
+    private volatile double zero;
+
+    /**
+     * Sets the true heading of the robot
+     *
+     * @param angle The yaw, in degrees, positive clockwise
+     * @param rate  The yaw rate, in degrees per second, positive clockwise
+     */
+    public void setState(double angle, double rate) {
+        this.angle = angle;
+        this.rate = rate;
+    }
+
+    @Override
+    public double getCalibrationPeriod() {
+        return calibrationPeriod;
+    }
+
+    @Override
+    public void setCalibrationPeriod(double calibrationPeriod) {
+        this.calibrationPeriod = calibrationPeriod;
+    }
+
+    @Override
+    public void fullReset() {
+        resetAngle();
+    }
+
+    @Override
+    public void startCalibration() {
+    }
+
+    @Override
+    public void finishCalibration() {
+    }
+
+    @Override
+    public double getCalibrationOffset() {
+        return 0.0;
+    }
+
+    @Override
+    public boolean isCalibrating() {
+        return false;
+    }
+
+    @Override
+    public double getRate() {
+        return rate;
+    }
+
+    @Override
+    public double getAngle() {
+        return angle - zero;
+    }
+
+    @Override
+    public void setAngle(double angle) {
+        zero = this.angle - angle;
+    }
+
+    @Override
+    public void resetAngle() {
+        zero = angle;
+    }
+
+    @Override
+    public void update(double delta) {
+    }
+
+    @Override
+    public String getName() {
+        return "SimGyro";
+    }
+}
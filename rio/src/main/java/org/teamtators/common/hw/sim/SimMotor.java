@@ -0,0 +1,36 @@
+package org.teamtators.common.hw.sim;
+
+import org.teamtators.common.hw.Motor;
+
+/**
+ * A simulated motor, which just remembers the power it was set to for a physics model to read
+ */
+public class SimMotor implements Motor {
+    private volatile double power;
+    private boolean inverted;
+
+    @Override
+    public void set(double power) {
+        this.power = Math.max(-1.0, Math.min(1.0, power));
+    }
+
+    @Override
+    public double get() {
+        return power;
+    }
+
+    public boolean isInverted() {
+        return inverted;
+    }
+
+    public void setInverted(boolean inverted) {
+        this.inverted = inverted;
+    }
+
+    /**
+     * @return The power actually applied to the mechanism, taking into account inversion
+     */
+    public double getAppliedPower() {
+        return inverted ? -power : power;
+    }
+}
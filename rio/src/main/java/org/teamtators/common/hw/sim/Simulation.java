@@ -0,0 +1,128 @@
+package org.teamtators.common.hw.sim;
+
+import org.teamtators.common.control.Clock;
+import org.teamtators.common.control.TimingHistogram;
+import org.teamtators.common.control.Timer;
+import org.teamtators.common.control.Updatable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Runs robot code against physics models faster than real time.
+ * <p>
+ * Each step advances the models by one period, advances a {@link SimClock} which is installed as the {@link Timer}
+ * clock, then runs the control updatable (usually the robot's {@link org.teamtators.common.control.ControlLoop})
+ * directly instead of through an {@link org.teamtators.common.control.Updater}. The wall time each control update
+ * takes is recorded, in microseconds, so cycle time can be measured off the robot.
+ * <p>
+ * Only code written against the {@link org.teamtators.common.hw.Motor}, {@link org.teamtators.common.hw.RateEncoder},
+ * {@link org.teamtators.common.hw.BooleanSensor} and {@link org.teamtators.common.hw.Gyro} interfaces can be run
+ * against the models. Subsystems which only use those, such as the drive and the lift, take the simulated hardware
+ * through a configure method instead of creating it from their config.
+ */
+public class Simulation {
+    private final Updatable updatable;
+    private final double period;
+    private final SimClock clock = new SimClock();
+    private final List<Updatable> models = new ArrayList<>();
+    private final TimingHistogram cycleTime = new TimingHistogram();
+    private Clock previousClock;
+
+    /**
+     * @param updatable The robot code to run every period
+     * @param period    The period to run at, in seconds
+     */
+    public Simulation(Updatable updatable, double period) {
+        this.updatable = checkNotNull(updatable, "updatable cannot be null");
+        this.period = period;
+    }
+
+    /**
+     * Adds a physics model, which is stepped before the robot code every period
+     *
+     * @param model The model to step, such as {@link LinearMechanismSim#update(double)}
+     */
+    public void addModel(Updatable model) {
+        models.add(checkNotNull(model));
+    }
+
+    public SimClock getClock() {
+        return clock;
+    }
+
+    public double getPeriod() {
+        return period;
+    }
+
+    /**
+     * @return The histogram of the wall time each update of the robot code took, in microseconds
+     */
+    public TimingHistogram getCycleTime() {
+        return cycleTime;
+    }
+
+    /**
+     * Installs the simulated clock as the {@link Timer} clock. Called automatically by {@link #run(double)}.
+     */
+    public void start() {
+        if (previousClock == null) {
+            previousClock = Timer.getClock();
+            Timer.setClock(clock);
+        }
+    }
+
+    /**
+     * Restores the clock which was in use before {@link #start()}
+     */
+    public void stop() {
+        if (previousClock != null) {
+            Timer.setClock(previousClock);
+            previousClock = null;
+        }
+    }
+
+    /**
+     * Runs a single period
+     */
+    public void step() {
+        for (Updatable model : models) {
+            model.update(period);
+        }
+        clock.advance(period);
+        long start = System.nanoTime();
+        updatable.update(period);
+        cycleTime.record((System.nanoTime() - start) / 1000);
+    }
+
+    /**
+     * Runs for a fixed amount of simulated time
+     *
+     * @param duration The simulated time to run for, in seconds
+     */
+    public void run(double duration) {
+        runUntil(() -> false, duration);
+    }
+
+    /**
+     * Runs until a condition is true, or until a timeout is reached
+     *
+     * @param condition The condition to check after every period
+     * @param timeout   The maximum simulated time to run for, in seconds
+     * @return Whether the condition became true before the timeout
+     */
+    public boolean runUntil(BooleanSupplier condition, double timeout) {
+        start();
+        long steps = Math.round(timeout / period);
+        for (long i = 0; i < steps; i++) {
+            step();
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,80 @@
+package org.teamtators.common.hw.sim;
+
+/**
+ * A physics model of a tank drivetrain, made of a {@link LinearMechanismSim} for each side. The heading of the robot
+ * is integrated from the difference in side velocities and fed to a {@link SimGyro}.
+ * <p>
+ * This ignores wheel scrub and the coupling between sides through the robot's rotational inertia, which is close
+ * enough for tuning profiles and measuring cycle time.
+ */
+public class TankDriveSim {
+    private final LinearMechanismSim left;
+    private final LinearMechanismSim right;
+    private final SimGyro gyro = new SimGyro();
+    private final double trackWidth;
+    private double yaw; // rad, positive clockwise
+    private double x; // in
+    private double y; // in
+
+    /**
+     * @param sideConfig The config of each side, with the mass being half the robot's mass
+     * @param trackWidth The distance between the left and right wheels, in inches
+     */
+    public TankDriveSim(LinearMechanismSim.Config sideConfig, double trackWidth) {
+        this.left = new LinearMechanismSim(sideConfig, new SimMotor());
+        this.right = new LinearMechanismSim(sideConfig, new SimMotor());
+        this.trackWidth = trackWidth;
+    }
+
+    public LinearMechanismSim getLeft() {
+        return left;
+    }
+
+    public LinearMechanismSim getRight() {
+        return right;
+    }
+
+    public SimGyro getGyro() {
+        return gyro;
+    }
+
+    /**
+     * @return The true heading of the robot, in degrees, positive clockwise
+     */
+    public double getYaw() {
+        return Math.toDegrees(yaw);
+    }
+
+    /**
+     * @return The true x position of the robot, in inches
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * @return The true y position of the robot, in inches
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Steps the simulation forward
+     *
+     * @param delta The time to step, in seconds
+     */
+    public void update(double delta) {
+        left.update(delta);
+        right.update(delta);
+        double leftVelocity = left.getVelocity();
+        double rightVelocity = right.getVelocity();
+        double yawRate = (leftVelocity - rightVelocity) / trackWidth;
+        double velocity = (leftVelocity + rightVelocity) / 2.0;
+        double midYaw = yaw + yawRate * delta / 2.0;
+        x += velocity * Math.sin(midYaw) * delta;
+        y += velocity * Math.cos(midYaw) * delta;
+        yaw += yawRate * delta;
+        gyro.setState(Math.toDegrees(yaw), Math.toDegrees(yawRate));
+    }
+}
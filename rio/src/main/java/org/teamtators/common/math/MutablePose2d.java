@@ -0,0 +1,114 @@
+package org.teamtators.common.math;
+
+/**
+ * A mutable version of {@link Pose2d}, for math which runs every tick and should not allocate.
+ * <p>
+ * All operations modify this pose in place and return it, so they can be chained. Use {@link #toPose2d()} to get an
+ * immutable copy to hand off to other code.
+ */
+public class MutablePose2d {
+    private final MutableTranslation2d translation = new MutableTranslation2d();
+    private final MutableRotation yaw = new MutableRotation();
+
+    public MutablePose2d() {
+    }
+
+    public MutablePose2d(Pose2d pose) {
+        set(pose);
+    }
+
+    public MutablePose2d set(Pose2d other) {
+        translation.set(other.getTranslation());
+        yaw.set(other.getYaw());
+        return this;
+    }
+
+    public MutablePose2d set(MutablePose2d other) {
+        translation.set(other.translation);
+        yaw.set(other.yaw);
+        return this;
+    }
+
+    public MutablePose2d setZero() {
+        translation.setZero();
+        yaw.setIdentity();
+        return this;
+    }
+
+    /**
+     * @return The translation of this pose, which can be modified in place
+     */
+    public MutableTranslation2d getTranslation() {
+        return translation;
+    }
+
+    /**
+     * @return The yaw of this pose, which can be modified in place
+     */
+    public MutableRotation getYaw() {
+        return yaw;
+    }
+
+    public double getX() {
+        return translation.getX();
+    }
+
+    public double getY() {
+        return translation.getY();
+    }
+
+    public MutablePose2d invertYaw() {
+        yaw.inverse();
+        return this;
+    }
+
+    public MutablePose2d rotateBy(Rotation rotation) {
+        translation.rotateBy(rotation);
+        yaw.add(rotation);
+        return this;
+    }
+
+    /**
+     * Applies a pose change relative to this pose, like {@link Pose2d#chain(Pose2d)}
+     */
+    public MutablePose2d chain(Pose2d other) {
+        Translation2d otherTranslation = other.getTranslation();
+        chainTranslation(otherTranslation.getX(), otherTranslation.getY());
+        yaw.add(other.getYaw());
+        return this;
+    }
+
+    /**
+     * Applies a pose change relative to this pose, like {@link Pose2d#chain(Pose2d)}
+     */
+    public MutablePose2d chain(MutablePose2d other) {
+        chainTranslation(other.getX(), other.getY());
+        yaw.add(other.yaw);
+        return this;
+    }
+
+    private void chainTranslation(double x, double y) {
+        translation.add(x * yaw.cos() - y * yaw.sin(), x * yaw.sin() + y * yaw.cos());
+    }
+
+    public MutablePose2d extend(double distance) {
+        translation.extend(yaw, distance);
+        return this;
+    }
+
+    public Pose2d toPose2d() {
+        return new Pose2d(translation.toTranslation2d(), yaw.toRotation());
+    }
+
+    public boolean epsilonEquals(Pose2d other) {
+        return translation.epsilonEquals(other.getTranslation()) && yaw.epsilonEquals(other.getYaw());
+    }
+
+    @Override
+    public String toString() {
+        return "MutablePose2d{" +
+                "translation=" + translation +
+                ", yaw=" + yaw +
+                '}';
+    }
+}
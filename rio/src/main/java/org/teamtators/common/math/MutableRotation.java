@@ -0,0 +1,153 @@
+package org.teamtators.common.math;
+
+/**
+ * A mutable version of {@link Rotation}, for math which runs every tick and should not allocate.
+ * <p>
+ * All operations modify this rotation in place and return it, so they can be chained. Use {@link #toRotation()} to
+ * get an immutable copy to hand off to other code.
+ */
+public class MutableRotation {
+    private double sin;
+    private double cos;
+
+    public MutableRotation() {
+        setIdentity();
+    }
+
+    public MutableRotation(Rotation rotation) {
+        set(rotation);
+    }
+
+    public MutableRotation setIdentity() {
+        this.sin = 0.0;
+        this.cos = 1.0;
+        return this;
+    }
+
+    /**
+     * Sets this rotation from a sin and cos, which do not have to be normalized
+     */
+    public MutableRotation set(double sin, double cos) {
+        double hyp = Math.sqrt(sin * sin + cos * cos);
+        if (hyp != 0) {
+            this.sin = sin / hyp;
+            this.cos = cos / hyp;
+        } else {
+            this.sin = sin;
+            this.cos = cos;
+        }
+        return this;
+    }
+
+    public MutableRotation set(Rotation other) {
+        this.sin = other.sin();
+        this.cos = other.cos();
+        return this;
+    }
+
+    public MutableRotation set(MutableRotation other) {
+        this.sin = other.sin;
+        this.cos = other.cos;
+        return this;
+    }
+
+    public MutableRotation setRadians(double radians) {
+        this.sin = Math.sin(radians);
+        this.cos = Math.cos(radians);
+        return this;
+    }
+
+    public MutableRotation setDegrees(double degrees) {
+        return setRadians(Math.toRadians(degrees));
+    }
+
+    public double sin() {
+        return sin;
+    }
+
+    public double cos() {
+        return cos;
+    }
+
+    public double tan() {
+        return sin / cos;
+    }
+
+    public double toRadians() {
+        return Math.atan2(sin, cos);
+    }
+
+    public double toDegrees() {
+        return Math.toDegrees(toRadians());
+    }
+
+    public MutableRotation neg() {
+        this.sin = -sin;
+        return this;
+    }
+
+    public MutableRotation add(Rotation other) {
+        return addComponents(other.sin(), other.cos());
+    }
+
+    public MutableRotation add(MutableRotation other) {
+        return addComponents(other.sin, other.cos);
+    }
+
+    public MutableRotation sub(Rotation other) {
+        return addComponents(-other.sin(), other.cos());
+    }
+
+    public MutableRotation sub(MutableRotation other) {
+        return addComponents(-other.sin, other.cos);
+    }
+
+    private MutableRotation addComponents(double otherSin, double otherCos) {
+        double newSin = this.sin * otherCos + this.cos * otherSin;
+        double newCos = this.cos * otherCos - this.sin * otherSin;
+        this.sin = newSin;
+        this.cos = newCos;
+        return this;
+    }
+
+    /**
+     * Rotates by 90 degrees (counter clockwise in mathematical coordinates)
+     */
+    public MutableRotation ccwNormal() {
+        double newSin = this.cos;
+        this.cos = -this.sin;
+        this.sin = newSin;
+        return this;
+    }
+
+    /**
+     * Rotates by -90 degrees (clockwise in mathematical coordinates)
+     */
+    public MutableRotation cwNormal() {
+        double newSin = -this.cos;
+        this.cos = this.sin;
+        this.sin = newSin;
+        return this;
+    }
+
+    public MutableRotation inverse() {
+        this.sin = -sin;
+        this.cos = -cos;
+        return this;
+    }
+
+    public Rotation toRotation() {
+        return new Rotation(sin, cos);
+    }
+
+    public boolean epsilonEquals(Rotation other) {
+        double diffSin = this.sin * other.cos() - this.cos * other.sin();
+        double diffCos = this.cos * other.cos() + this.sin * other.sin();
+        return Epsilon.isEpsilonZero(Math.atan2(diffSin, diffCos));
+    }
+
+    @Override
+    public String toString() {
+        return toDegrees() + "°";
+    }
+}
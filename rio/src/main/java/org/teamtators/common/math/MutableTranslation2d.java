@@ -0,0 +1,136 @@
+package org.teamtators.common.math;
+
+/**
+ * A mutable version of {@link Translation2d}, for math which runs every tick and should not allocate.
+ * <p>
+ * All operations modify this translation in place and return it, so they can be chained. Use
+ * {@link #toTranslation2d()} to get an immutable copy to hand off to other code.
+ */
+public class MutableTranslation2d {
+    private double x;
+    private double y;
+
+    public MutableTranslation2d() {
+    }
+
+    public MutableTranslation2d(double x, double y) {
+        set(x, y);
+    }
+
+    public MutableTranslation2d(Translation2d translation) {
+        set(translation);
+    }
+
+    public MutableTranslation2d set(double x, double y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    public MutableTranslation2d set(Translation2d other) {
+        return set(other.getX(), other.getY());
+    }
+
+    public MutableTranslation2d set(MutableTranslation2d other) {
+        return set(other.x, other.y);
+    }
+
+    public MutableTranslation2d setZero() {
+        return set(0.0, 0.0);
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public boolean isNaN() {
+        return Double.isNaN(x) || Double.isNaN(y);
+    }
+
+    public double getMagnitude() {
+        return Math.hypot(x, y);
+    }
+
+    /**
+     * @param dest The rotation to store the result in
+     * @return dest, set to the direction of this translation
+     */
+    public MutableRotation getDirection(MutableRotation dest) {
+        return dest.set(y, x);
+    }
+
+    public MutableTranslation2d add(double x, double y) {
+        return set(this.x + x, this.y + y);
+    }
+
+    public MutableTranslation2d add(Translation2d other) {
+        return add(other.getX(), other.getY());
+    }
+
+    public MutableTranslation2d add(MutableTranslation2d other) {
+        return add(other.x, other.y);
+    }
+
+    public MutableTranslation2d sub(Translation2d other) {
+        return add(-other.getX(), -other.getY());
+    }
+
+    public MutableTranslation2d sub(MutableTranslation2d other) {
+        return add(-other.x, -other.y);
+    }
+
+    public MutableTranslation2d neg() {
+        return set(-x, -y);
+    }
+
+    public MutableTranslation2d scale(double scalar) {
+        return set(x * scalar, y * scalar);
+    }
+
+    public MutableTranslation2d rotateBy(Rotation rotation) {
+        return rotateBy(rotation.sin(), rotation.cos());
+    }
+
+    public MutableTranslation2d rotateBy(MutableRotation rotation) {
+        return rotateBy(rotation.sin(), rotation.cos());
+    }
+
+    private MutableTranslation2d rotateBy(double sin, double cos) {
+        return set(x * cos - y * sin, x * sin + y * cos);
+    }
+
+    /**
+     * Moves this translation along a direction
+     *
+     * @param direction The direction to move in
+     * @param distance  The distance to move
+     */
+    public MutableTranslation2d extend(MutableRotation direction, double distance) {
+        return add(direction.cos() * distance, direction.sin() * distance);
+    }
+
+    public double dot(MutableTranslation2d other) {
+        return this.x * other.x + this.y * other.y;
+    }
+
+    public double cross(MutableTranslation2d other) {
+        return this.x * other.y - this.y * other.x;
+    }
+
+    public Translation2d toTranslation2d() {
+        return new Translation2d(x, y);
+    }
+
+    public boolean epsilonEquals(Translation2d other) {
+        return Epsilon.isEpsilonEqual(x, other.getX()) && Epsilon.isEpsilonEqual(y, other.getY());
+    }
+
+    @Override
+    public String toString() {
+        return "<" + x + ", " + y + ">";
+    }
+}
@@ -0,0 +1,112 @@
+package org.teamtators.common.math;
+
+import static org.teamtators.common.math.Epsilon.isEpsilonZero;
+
+/**
+ * A mutable version of {@link Twist2d}, for math which runs every tick and should not allocate. The yaw change is
+ * kept in radians.
+ */
+public class MutableTwist2d {
+    private double deltaX;
+    private double deltaYaw;
+
+    public MutableTwist2d() {
+    }
+
+    public MutableTwist2d(double deltaYaw, double deltaX) {
+        set(deltaYaw, deltaX);
+    }
+
+    public MutableTwist2d set(double deltaYaw, double deltaX) {
+        this.deltaYaw = deltaYaw;
+        this.deltaX = deltaX;
+        return this;
+    }
+
+    public MutableTwist2d set(Twist2d other) {
+        return set(other.getDeltaYaw().toRadians(), other.getDeltaX());
+    }
+
+    public double getDeltaX() {
+        return deltaX;
+    }
+
+    public MutableTwist2d setDeltaX(double deltaX) {
+        this.deltaX = deltaX;
+        return this;
+    }
+
+    /**
+     * @return The change in yaw, in radians
+     */
+    public double getDeltaYaw() {
+        return deltaYaw;
+    }
+
+    /**
+     * @param deltaYaw The change in yaw, in radians
+     */
+    public MutableTwist2d setDeltaYaw(double deltaYaw) {
+        this.deltaYaw = deltaYaw;
+        return this;
+    }
+
+    public Twist2d toTwist2d() {
+        return new Twist2d(Rotation.fromRadians(deltaYaw), deltaX);
+    }
+
+    public boolean epsilonEquals(Twist2d other) {
+        return Epsilon.isEpsilonEqual(deltaX, other.getDeltaX()) &&
+                isEpsilonZero(Math.IEEEremainder(deltaYaw - other.getDeltaYaw().toRadians(), 2 * Math.PI));
+    }
+
+    @Override
+    public String toString() {
+        return "MutableTwist2d{" +
+                "deltaX=" + deltaX +
+                ", deltaYaw=" + Math.toDegrees(deltaYaw) + "°" +
+                '}';
+    }
+
+    /**
+     * Calculates the arc which starts tangent to a pose and ends at a point, like
+     * {@link Twist2d#fromTangentArc(Pose2d, Translation2d)} but without allocating.
+     *
+     * @param startPose The pose the arc starts at, tangent to
+     * @param endX      The x coordinate of the end point
+     * @param endY      The y coordinate of the end point
+     * @param dest      The twist to store the result in
+     * @return dest
+     */
+    public static MutableTwist2d fromTangentArc(MutablePose2d startPose, double endX, double endY,
+                                                MutableTwist2d dest) {
+        MutableRotation yaw = startPose.getYaw();
+        return fromTangentArc(startPose.getX(), startPose.getY(), yaw.sin(), yaw.cos(), endX, endY, dest);
+    }
+
+    /**
+     * @see #fromTangentArc(MutablePose2d, double, double, MutableTwist2d)
+     */
+    public static MutableTwist2d fromTangentArc(Pose2d startPose, double endX, double endY, MutableTwist2d dest) {
+        Rotation yaw = startPose.getYaw();
+        return fromTangentArc(startPose.getX(), startPose.getY(), yaw.sin(), yaw.cos(), endX, endY, dest);
+    }
+
+    private static MutableTwist2d fromTangentArc(double startX, double startY, double sin, double cos,
+                                                 double endX, double endY, MutableTwist2d dest) {
+        double diffX = endX - startX;
+        double diffY = endY - startY;
+        // the end point relative to the start pose, with x forward and y to the left
+        double forward = diffX * cos + diffY * sin;
+        double left = diffY * cos - diffX * sin;
+        double chordAngle = Math.atan2(left, forward);
+        if (isEpsilonZero(chordAngle) || isEpsilonZero(Math.PI - Math.abs(chordAngle))) {
+            // the end point is straight ahead of or behind the start pose
+            return dest.set(0.0, Math.hypot(diffX, diffY));
+        }
+        // the heading changes by twice the angle between the start heading and the chord
+        double deltaYaw = Math.IEEEremainder(2 * chordAngle, 2 * Math.PI);
+        double radius = Math.abs((forward * forward + left * left) / (2 * left));
+        return dest.set(deltaYaw, Math.abs(deltaYaw * radius));
+    }
+}
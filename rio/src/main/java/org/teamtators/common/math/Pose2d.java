@@ -8,7 +8,7 @@ import static org.teamtators.common.math.Epsilon.isEpsilonZero;
 /**
  * @author Alex Mikhalev
  */
-public class Pose2d {
+public class Pose2d implements Interpolable<Pose2d> {
     private Translation2d translation;
     private Rotation yaw;
 
@@ -92,6 +92,19 @@ public class Pose2d {
         return new Pose2d(this.translation.add(yaw.toTranslation(distance)), this.yaw);
     }
 
+    /**
+     * Interpolates the translation linearly and the yaw along the shortest way around
+     *
+     * @param other The pose at x = 1
+     * @param x     How far to interpolate, from 0 to 1
+     * @return The interpolated pose
+     */
+    @Override
+    public Pose2d interpolate(Pose2d other, double x) {
+        return new Pose2d(translation.add(other.translation.sub(translation).scale(x)),
+                yaw.add(other.yaw.sub(yaw).mult(x)));
+    }
+
     public Translation2d getIntersection(Pose2d other) {
         if (yaw.isParallel(other.yaw)) {
             return Translation2d.nan();
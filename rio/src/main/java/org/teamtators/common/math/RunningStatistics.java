@@ -0,0 +1,98 @@
+package org.teamtators.common.math;
+
+/**
+ * The mean and variance of a stream of values, updated in constant time and memory per value with Welford's algorithm,
+ * which does not lose precision the way summing values and their squares does.
+ * <p>
+ * Two sets of statistics can be combined with {@link #merge}, so statistics over consecutive blocks of values can be
+ * kept separately and combined later. Not thread safe.
+ */
+public class RunningStatistics {
+    private long count;
+    private double mean;
+    // sum of squared differences from the mean
+    private double m2;
+
+    public RunningStatistics() {
+    }
+
+    public RunningStatistics(RunningStatistics other) {
+        set(other);
+    }
+
+    public RunningStatistics set(RunningStatistics other) {
+        this.count = other.count;
+        this.mean = other.mean;
+        this.m2 = other.m2;
+        return this;
+    }
+
+    public void clear() {
+        count = 0;
+        mean = 0.0;
+        m2 = 0.0;
+    }
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    /**
+     * Combines the statistics of another set of values into this one, as if they had all been added to this
+     *
+     * @param other The other statistics
+     * @return this
+     */
+    public RunningStatistics merge(RunningStatistics other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            return set(other);
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * @return The mean of the values, or 0 if there are none
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return The sample variance of the values, or 0 if there are less than 2
+     */
+    public double getVariance() {
+        return count > 1 ? m2 / (count - 1) : 0.0;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    @Override
+    public String toString() {
+        return "RunningStatistics{" +
+                "count=" + count +
+                ", mean=" + mean +
+                ", standardDeviation=" + getStandardDeviation() +
+                '}';
+    }
+}
@@ -0,0 +1,54 @@
+package org.teamtators.common.scheduler;
+
+import java.util.function.IntSupplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A trigger source which is one bit of a packed bitfield of states, such as the buttons of a controller.
+ * <p>
+ * The scheduler reads each bitfield once per tick and compares it to the last tick, so only the sources whose bits
+ * changed are processed, instead of checking every source. Sources are grouped into bitfields by the identity of the
+ * bitfield supplier, so all sources for the same bitfield must use the same supplier instance.
+ */
+public final class BitfieldTriggerSource implements TriggerSource {
+    private final IntSupplier bitfield;
+    private final int bit;
+
+    /**
+     * @param bitfield The supplier of the bitfield, which should be cheap and not block
+     * @param bit      The index of the bit which is set while the trigger is active, from 0 to 31
+     */
+    public BitfieldTriggerSource(IntSupplier bitfield, int bit) {
+        checkArgument(bit >= 0 && bit < Integer.SIZE, "Bit %s is outside of a bitfield", bit);
+        this.bitfield = checkNotNull(bitfield);
+        this.bit = bit;
+    }
+
+    public IntSupplier getBitfield() {
+        return bitfield;
+    }
+
+    public int getBit() {
+        return bit;
+    }
+
+    @Override
+    public boolean getActive() {
+        return (bitfield.getAsInt() & (1 << bit)) != 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BitfieldTriggerSource that = (BitfieldTriggerSource) o;
+        return bitfield == that.bitfield && bit == that.bit;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(bitfield) + bit;
+    }
+}
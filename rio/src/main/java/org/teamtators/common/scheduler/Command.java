@@ -12,7 +12,14 @@ public abstract class Command implements CommandRunContext {
     private String name;
     private CommandRunContext context = null;
     private Set<Subsystem> requirements = null;
+    // the bits of the requirements in the scheduler they are registered with, and whether any requirement does not
+    // have a bit there and must be checked by itself
+    private Scheduler maskScheduler = null;
+    private long requirementsMask = 0L;
+    private boolean unmaskedRequirements = false;
     private EnumSet<RobotState> validStates = EnumSet.of(RobotState.AUTONOMOUS, RobotState.TELEOP);
+    // the slot of this command in the scheduler, so it does not need to be looked up by name
+    int schedulerSlot = -1;
 
     public Command(String name) {
         checkNotNull(name);
@@ -83,6 +90,7 @@ public abstract class Command implements CommandRunContext {
             requirements = new HashSet<>();
         }
         requirements.add(subsystem);
+        addToMask(subsystem);
     }
 
     protected void requiresAll(Collection<Subsystem> subsystems) {
@@ -91,18 +99,82 @@ public abstract class Command implements CommandRunContext {
             requirements = new HashSet<>();
         }
         requirements.addAll(subsystems);
+        for (Subsystem subsystem : subsystems) {
+            addToMask(subsystem);
+        }
     }
 
+    private void addToMask(Subsystem subsystem) {
+        long mask = subsystem.getMask();
+        if (mask != 0 && (maskScheduler == null || maskScheduler == subsystem.getScheduler())) {
+            maskScheduler = subsystem.getScheduler();
+            requirementsMask |= mask;
+        } else {
+            unmaskedRequirements = true;
+        }
+    }
+
+    /**
+     * @return The requirements. Must not be modified except through {@link #requires} and {@link #requiresAll}
+     */
     public Set<Subsystem> getRequirements() {
         return requirements;
     }
 
     protected void setRequirements(Set<Subsystem> requirements) {
         this.requirements = requirements;
+        maskScheduler = null;
+        requirementsMask = 0L;
+        unmaskedRequirements = false;
+        if (requirements != null) {
+            for (Subsystem subsystem : requirements) {
+                addToMask(subsystem);
+            }
+        }
+    }
+
+    /**
+     * @return The bits of the requirements which have them, all in the same scheduler. See {@link Subsystem#getMask()}
+     */
+    public long getRequirementsMask() {
+        return requirementsMask;
+    }
+
+    /**
+     * @return Whether this and another command require any of the same subsystems
+     */
+    public boolean conflictsWith(Command other) {
+        boolean sameScheduler = maskScheduler == other.maskScheduler;
+        if (sameScheduler && (requirementsMask & other.requirementsMask) != 0) {
+            return true;
+        }
+        if (sameScheduler && !unmaskedRequirements && !other.unmaskedRequirements) {
+            return false;
+        }
+        if (requirements == null || other.requirements == null) {
+            return false;
+        }
+        for (Subsystem subsystem : requirements) {
+            if (other.requirements.contains(subsystem)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public boolean doesRequire(Subsystem subsystem) {
-        return requirements != null && requirements.contains(subsystem);
+        if (subsystem.getScheduler() == maskScheduler && (requirementsMask & subsystem.getMask()) != 0) {
+            return true;
+        }
+        return unmaskedRequirements && requirements.contains(subsystem);
+    }
+
+    /**
+     * @return The commands this runs as part of itself, which it may take the requirements of in
+     * {@link #updateRequirements()}
+     */
+    public Collection<Command> getChildCommands() {
+        return Collections.emptyList();
     }
 
     public void updateRequirements() {
@@ -133,6 +205,11 @@ public abstract class Command implements CommandRunContext {
     }
 
     public boolean checkRequirements() {
+        if (!unmaskedRequirements &&
+                (maskScheduler == null || (requirementsMask & maskScheduler.getRequiredMask()) == 0)) {
+            // none of the requirements are required by anything
+            return true;
+        }
         return checkRequirements(getRequirements());
     }
 
@@ -1,12 +1,24 @@
 package org.teamtators.common.scheduler;
 
+import org.teamtators.common.control.SectionProfiler;
+
 class CommandRun {
+    // the states of a run in the scheduler
+    static final int IDLE = 0;
+    static final int STARTING = 1; // started since the last tick
+    static final int RUNNING = 2;
+
     Command command;
+    int section;
     boolean initialized = false;
     boolean cancel = false;
     CommandRunContext context = null;
+    // only used by the scheduler, which reuses the same run every time a command runs
+    int slot = -1;
+    int state = IDLE;
 
     CommandRun(Command command) {
         this.command = command;
+        this.section = SectionProfiler.getSectionId(command.getName());
     }
 }
@@ -3,6 +3,7 @@ package org.teamtators.common.scheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -10,23 +11,60 @@ public class CommandStore {
     protected final Logger logger = LoggerFactory.getLogger(this.getClass());
     private Map<String, Command> commands = new HashMap<>();
 
+    /**
+     * @return The commands which have been created. Subclasses may create more commands when they are first looked up.
+     */
     public Map<String, Command> getCommands() {
         return commands;
     }
 
-    public void putCommand(String name, Command command) {
+    public synchronized void putCommand(String name, Command command) {
         command.setName(name);
         commands.put(name, command);
     }
 
-    public Command getCommand(String name) {
+    public synchronized Command getCommand(String name) {
         Command command = commands.get(name);
+        if (command == null) {
+            command = createCommand(name);
+        }
         if (command == null)
             throw new IllegalArgumentException("No command with name \"" + name + "\" created");
         return command;
     }
 
-    public void clearCommands() {
+    /**
+     * Creates a command which has not been created yet when it is first looked up. The command must be put in the
+     * store before it is configured, so commands which refer back to it find it.
+     *
+     * @param name The name of the command
+     * @return The command, or null if there is no command with the name
+     */
+    protected Command createCommand(String name) {
+        return null;
+    }
+
+    /**
+     * Looks up commands ahead of time, so any which are created on first lookup are not created when they are needed.
+     * Commands which can not be created are logged and skipped, and fail again when they are looked up.
+     *
+     * @param names The names of the commands
+     * @return Whether all of the commands were created
+     */
+    public boolean warmUp(Collection<String> names) {
+        boolean success = true;
+        for (String name : names) {
+            try {
+                getCommand(name);
+            } catch (RuntimeException e) {
+                logger.error("Could not create command " + name, e);
+                success = false;
+            }
+        }
+        return success;
+    }
+
+    public synchronized void clearCommands() {
         commands.clear();
     }
 }
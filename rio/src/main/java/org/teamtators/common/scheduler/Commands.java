@@ -1,5 +1,6 @@
 package org.teamtators.common.scheduler;
 
+import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.*;
 
@@ -65,8 +66,59 @@ public class Commands {
         return new SequentialCommand(sequence);
     }
 
+    public static Command parallel(Command... commands) {
+        return new ParallelCommand(commands);
+    }
+
+    public static Command race(Command... commands) {
+        return new RaceCommand(commands);
+    }
+
+    public static Command deadline(Command deadline, Command... commands) {
+        return new DeadlineCommand(deadline, commands);
+    }
+
     public static Command log(String message) {
         return new LogCommand("LogCommand" + nextLogCommandNumber.getAndIncrement(), message);
     }
 
+    /**
+     * Propagates requirements from child commands to the commands which run them, by calling
+     * {@link Command#updateRequirements()} on each command after all of its children. If children are nested in a
+     * cycle, this repeats until no requirements change.
+     *
+     * @param commands The commands to update
+     */
+    public static void updateRequirements(Collection<Command> commands) {
+        List<Command> order = new ArrayList<>(commands.size());
+        Set<Command> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Command command : commands) {
+            addChildrenFirst(command, visited, order);
+        }
+        // requirements only grow, so this settles within one pass per command
+        boolean changed = true;
+        for (int pass = 0; changed && pass <= order.size(); pass++) {
+            changed = false;
+            for (Command command : order) {
+                long mask = command.getRequirementsMask();
+                int count = command.getRequirements() == null ? 0 : command.getRequirements().size();
+                command.updateRequirements();
+                if (command.getRequirementsMask() != mask ||
+                        (command.getRequirements() == null ? 0 : command.getRequirements().size()) != count) {
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    private static void addChildrenFirst(Command command, Set<Command> visited, List<Command> order) {
+        if (!visited.add(command)) {
+            return;
+        }
+        for (Command child : command.getChildCommands()) {
+            addChildrenFirst(child, visited, order);
+        }
+        order.add(command);
+    }
+
 }
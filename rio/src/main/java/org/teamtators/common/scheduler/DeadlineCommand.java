@@ -0,0 +1,39 @@
+package org.teamtators.common.scheduler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Runs commands at the same time like a {@link ParallelCommand}, but finishes when the first command, the deadline,
+ * finishes, interrupting the rest. The other commands may finish before the deadline.
+ */
+public class DeadlineCommand extends ParallelCommand {
+    /**
+     * @param commands The commands, the first of which is the deadline
+     */
+    public DeadlineCommand(String name, Collection<Command> commands) {
+        super(name, commands);
+    }
+
+    public DeadlineCommand(String name, Command deadline, Command... commands) {
+        this(name, withDeadline(deadline, commands));
+    }
+
+    public DeadlineCommand(Command deadline, Command... commands) {
+        this("DeadlineCommand", withDeadline(deadline, commands));
+    }
+
+    private static List<Command> withDeadline(Command deadline, Command... commands) {
+        List<Command> list = new ArrayList<>(commands.length + 1);
+        list.add(deadline);
+        list.addAll(Arrays.asList(commands));
+        return list;
+    }
+
+    @Override
+    protected boolean isFinished(int index, int remaining) {
+        return index == 0;
+    }
+}
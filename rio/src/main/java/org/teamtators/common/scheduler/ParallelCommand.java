@@ -0,0 +1,213 @@
+package org.teamtators.common.scheduler;
+
+import java.util.*;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Runs commands at the same time, stepping each of them once per step, and finishes when all of them have finished.
+ * <p>
+ * The commands must not require any of the same subsystems. The group requires all of their requirements, so it
+ * holds every subsystem until the group finishes, and starting it cancels anything else using them. If a command in
+ * the group is cancelled, the whole group is cancelled.
+ *
+ * @see RaceCommand
+ * @see DeadlineCommand
+ */
+public class ParallelCommand extends Command {
+    private ParallelCommandRun[] runs;
+    private int remaining;
+
+    public ParallelCommand(String name, Collection<Command> commands) {
+        super(name);
+        setCommands(commands);
+    }
+
+    public ParallelCommand(String name, Command... commands) {
+        this(name, Arrays.asList(commands));
+    }
+
+    public ParallelCommand(Collection<Command> commands) {
+        this("ParallelCommand", commands);
+    }
+
+    public ParallelCommand(Command... commands) {
+        this("ParallelCommand", Arrays.asList(commands));
+    }
+
+    protected void setCommands(Collection<Command> commands) {
+        checkNotNull(commands);
+        ParallelCommandRun[] runs = new ParallelCommandRun[commands.size()];
+        int i = 0;
+        for (Command command : commands) {
+            checkNotNull(command);
+            for (int j = 0; j < i; j++) {
+                checkArgument(runs[j].command != command, "Command %s is in %s more than once",
+                        command.getName(), getName());
+                checkArgument(!runs[j].command.conflictsWith(command), "Commands %s and %s in %s require the same " +
+                        "subsystem", runs[j].command.getName(), command.getName(), getName());
+            }
+            runs[i++] = new ParallelCommandRun(command);
+        }
+        this.runs = runs;
+
+        updateValidStates();
+        updateRequirements();
+    }
+
+    private void updateValidStates() {
+        // like a sequential command, a parallel command can only run in states all of its commands can run in
+        EnumSet<RobotState> validStates = EnumSet.allOf(RobotState.class);
+        for (ParallelCommandRun run : runs) {
+            validStates.retainAll(run.command.getValidStates());
+        }
+        setValidStates(validStates);
+    }
+
+    public int size() {
+        return runs.length;
+    }
+
+    /**
+     * @return Whether a command in the group has finished since the group started
+     */
+    public boolean hasFinished(Command command) {
+        ParallelCommandRun run = findRun(command);
+        return run != null && run.finished;
+    }
+
+    @Override
+    public Collection<Command> getChildCommands() {
+        List<Command> commands = new ArrayList<>(runs.length);
+        for (ParallelCommandRun run : runs) {
+            commands.add(run.command);
+        }
+        return commands;
+    }
+
+    @Override
+    public void updateRequirements() {
+        // unlike a sequential command, all of the requirements are needed for the whole time the group runs
+        for (ParallelCommandRun run : runs) {
+            if (run.command.getRequirements() != null) {
+                requiresAll(run.command.getRequirements());
+            }
+        }
+    }
+
+    /**
+     * Decides whether the group finishes when one of its commands finishes. Commands which have not finished when the
+     * group finishes are interrupted.
+     *
+     * @param index     The index of the command which finished
+     * @param remaining How many commands have not finished yet
+     * @return Whether the group is finished
+     */
+    protected boolean isFinished(int index, int remaining) {
+        return remaining == 0;
+    }
+
+    @Override
+    protected void initialize() {
+        super.initialize();
+        for (ParallelCommandRun run : runs) {
+            run.initialized = false;
+            run.cancel = false;
+            run.finished = false;
+        }
+        remaining = runs.length;
+    }
+
+    @Override
+    public boolean step() {
+        if (runs.length == 0) return true;
+        for (int i = 0; i < runs.length; i++) {
+            ParallelCommandRun run = runs[i];
+            if (run.finished) {
+                continue;
+            }
+            if (run.cancel) {
+                cancelRun(run);
+                return true;
+            }
+            if (!run.initialized) {
+                if (run.command.isRunning()) {
+                    if (run.command.getContext() == this) {
+                        run.initialized = true;
+                    } else {
+                        logger.trace("Command was already running with other parent, cancelling: {}",
+                                run.command.getName());
+                        run.command.cancel();
+                        continue;
+                    }
+                } else if (run.command.startRun(this)) {
+                    run.initialized = true;
+                } else {
+                    logger.trace("Command could not be initialized at this time: {}", run.command.getName());
+                    continue;
+                }
+            }
+            boolean finished = run.command.step();
+            if (run.cancel) {
+                cancelRun(run);
+                return true;
+            }
+            if (finished) {
+                run.command.finishRun(false);
+                run.finished = true;
+                remaining--;
+                if (isFinished(i, remaining)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void cancelRun(ParallelCommandRun run) {
+        if (run.initialized) {
+            run.command.finishRun(true);
+        }
+        run.finished = true;
+        cancelCommand(this);
+    }
+
+    @Override
+    protected void finish(boolean interrupted) {
+        super.finish(interrupted);
+        for (ParallelCommandRun run : runs) {
+            if (run.initialized && !run.finished && run.command.getContext() == this) {
+                run.command.finishRun(true);
+            }
+        }
+    }
+
+    @Override
+    public void cancelCommand(Command command) {
+        checkNotNull(command);
+        ParallelCommandRun run = findRun(command);
+        if (run != null) {
+            run.cancel = true;
+        } else {
+            super.cancelCommand(command);
+        }
+    }
+
+    private ParallelCommandRun findRun(Command command) {
+        for (ParallelCommandRun run : runs) {
+            if (run.command == command) {
+                return run;
+            }
+        }
+        return null;
+    }
+
+    private static class ParallelCommandRun extends CommandRun {
+        boolean finished = false;
+
+        ParallelCommandRun(Command command) {
+            super(command);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.teamtators.common.scheduler;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Runs commands at the same time like a {@link ParallelCommand}, but finishes as soon as any of them finishes,
+ * interrupting the rest.
+ */
+public class RaceCommand extends ParallelCommand {
+    public RaceCommand(String name, Collection<Command> commands) {
+        super(name, commands);
+    }
+
+    public RaceCommand(String name, Command... commands) {
+        this(name, Arrays.asList(commands));
+    }
+
+    public RaceCommand(Collection<Command> commands) {
+        this("RaceCommand", commands);
+    }
+
+    public RaceCommand(Command... commands) {
+        this("RaceCommand", Arrays.asList(commands));
+    }
+
+    @Override
+    protected boolean isFinished(int index, int remaining) {
+        return true;
+    }
+}
@@ -3,41 +3,207 @@ package org.teamtators.common.scheduler;
 import com.google.common.base.Preconditions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.slf4j.profiler.Profiler;
+import org.teamtators.common.control.SectionProfiler;
 import org.teamtators.common.util.FMSData;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+/**
+ * Runs commands and triggers once per tick of the main loop.
+ * <p>
+ * Every command name gets a slot the first time the command is registered or started, with a {@link CommandRun} which
+ * is reused every time it runs, and every trigger source gets a slot when a trigger is added, so a tick only walks flat
+ * arrays and does not allocate. Commands may be started and cancelled from any thread, but commands started since the
+ * last tick only join the running commands at the start of the next tick, after the triggers are processed.
+ * <p>
+ * Edge triggered {@link TriggerScheduler}s are only processed when their source changes. Sources which are bits of a
+ * {@link BitfieldTriggerSource} bitfield, like controller buttons, are found to have changed by comparing the whole
+ * bitfield to the last tick, and any other sources are polled every tick. The schedulers which are processed in a tick
+ * are always processed in the order they were added, whether they are edge or level triggered.
+ */
 public final class Scheduler implements CommandRunContext, RobotStateListener, FMSDataListener {
     private static Logger logger = LoggerFactory.getLogger(Scheduler.class);
-
-    private Map<TriggerSource, List<TriggerScheduler>> triggerSchedulers = new HashMap<>();
-    private Map<String, CommandRun> runningCommands = new ConcurrentHashMap<>();
-    private Set<Command> defaultCommands = new HashSet<>();
+    private static final int TRIGGERS_SECTION = SectionProfiler.getSectionId("triggers");
+    private static final int DEFAULT_COMMANDS_SECTION = SectionProfiler.getSectionId("defaultCommands");
+    private static final int INITIAL_CAPACITY = 16;
+
+    // only used when adding triggers
+    private Map<TriggerSource, Integer> triggerSourceSlots = new HashMap<>();
+    private Map<IntSupplier, Integer> bitfieldSlots = new IdentityHashMap<>();
+    // the state of each trigger source as of this tick, and whether it changed this tick
+    private boolean[] triggerSourcesActive = new boolean[INITIAL_CAPACITY];
+    private boolean[] triggerSourcesChanged = new boolean[INITIAL_CAPACITY];
+    private int triggerSourceCount;
+    private int[] changedSourceSlots = new int[INITIAL_CAPACITY];
+    private int changedSourceCount;
+    // sources which are not part of a bitfield, so are checked every tick
+    private TriggerSource[] polledSources = new TriggerSource[INITIAL_CAPACITY];
+    private int[] polledSourceSlots = new int[INITIAL_CAPACITY];
+    private int polledSourceCount;
+    // the state of each bitfield as of the last tick, the bits which are sources, and the slot of the source for each
+    private IntSupplier[] bitfields = new IntSupplier[INITIAL_CAPACITY];
+    private int[] bitfieldStates = new int[INITIAL_CAPACITY];
+    private int[] bitfieldMasks = new int[INITIAL_CAPACITY];
+    private int[][] bitfieldSourceSlots = new int[INITIAL_CAPACITY][];
+    private int bitfieldCount;
+    // every scheduler in the order it was added, the slot of the source for each, and whether it is edge triggered
+    private TriggerScheduler[] triggerSchedulers = new TriggerScheduler[INITIAL_CAPACITY];
+    private int[] triggerSchedulerSources = new int[INITIAL_CAPACITY];
+    private boolean[] triggerSchedulersEdge = new boolean[INITIAL_CAPACITY];
+    private int triggerSchedulerCount;
+    private int levelSchedulerCount;
+
+    // guards the command slots and the state of their runs
+    private final Object slotLock = new Object();
+    private Map<String, Integer> commandSlots = new HashMap<>();
+    private CommandRun[] runs = new CommandRun[INITIAL_CAPACITY];
+    private int slotCount;
+    // slots of the commands started since the last tick
+    private int[] startingSlots = new int[INITIAL_CAPACITY];
+    private int startingCount;
+    // slots of the running commands, in the order they were started. only used by execute
+    private int[] runningSlots = new int[INITIAL_CAPACITY];
+    private int runningCount;
+
+    private Command[] defaultCommands = new Command[INITIAL_CAPACITY];
+    private int defaultCommandCount;
+
+    // the registered subsystems by id, and the bits of those which are required by a command
+    private final Subsystem[] subsystems = new Subsystem[Subsystem.MAX_MASKED_SUBSYSTEMS];
+    private int subsystemCount;
+    private final AtomicLong requiredMask = new AtomicLong();
 
     private Set<RobotStateListener> stateListeners = new HashSet<>();
     private Set<FMSDataListener> dataListeners = new HashSet<>();
 
     private RobotState robotState = RobotState.DISABLED;
     private FMSData fmsData;
-    private Profiler profiler;
+    private SectionProfiler profiler = SectionProfiler.NONE;
 
     public Scheduler() {
     }
 
     public void registerDefaultCommand(Command defaultCommand) {
-        defaultCommands.add(defaultCommand);
+        checkNotNull(defaultCommand);
+        for (int i = 0; i < defaultCommandCount; i++) {
+            if (defaultCommands[i] == defaultCommand) {
+                return;
+            }
+        }
+        registerCommand(defaultCommand);
+        if (defaultCommandCount == defaultCommands.length) {
+            defaultCommands = Arrays.copyOf(defaultCommands, defaultCommandCount * 2);
+        }
+        defaultCommands[defaultCommandCount++] = defaultCommand;
     }
 
     public void registerDefaultCommands(Collection<Command> defaultCommands) {
-        this.defaultCommands.addAll(defaultCommands);
+        for (Command defaultCommand : defaultCommands) {
+            registerDefaultCommand(defaultCommand);
+        }
     }
 
     public void clearDefaultCommands() {
-        defaultCommands.clear();
+        Arrays.fill(defaultCommands, 0, defaultCommandCount, null);
+        defaultCommandCount = 0;
+    }
+
+    /**
+     * Gives a command its slot ahead of time, so starting it does not allocate
+     *
+     * @param command The command
+     */
+    public void registerCommand(Command command) {
+        checkNotNull(command);
+        synchronized (slotLock) {
+            getRun(command);
+        }
+    }
+
+    /**
+     * Gets the run for the slot of a command, giving it a slot if it does not have one. Must hold slotLock.
+     *
+     * @return The run, or null if a different command with the same name is running in the slot
+     */
+    private CommandRun getRun(Command command) {
+        int slot = command.schedulerSlot;
+        if (slot >= 0 && slot < slotCount && runs[slot].command == command) {
+            return runs[slot];
+        }
+        Integer existingSlot = commandSlots.get(command.getName());
+        if (existingSlot != null) {
+            CommandRun run = runs[existingSlot];
+            if (run.command != command) {
+                if (run.state != CommandRun.IDLE) {
+                    return null;
+                }
+                run.command = command;
+            }
+            command.schedulerSlot = existingSlot;
+            return run;
+        }
+        if (slotCount == runs.length) {
+            runs = Arrays.copyOf(runs, slotCount * 2);
+            startingSlots = Arrays.copyOf(startingSlots, slotCount * 2);
+        }
+        CommandRun run = new CommandRun(command);
+        run.slot = slotCount;
+        runs[slotCount] = run;
+        commandSlots.put(command.getName(), slotCount);
+        command.schedulerSlot = slotCount;
+        slotCount++;
+        return run;
+    }
+
+    /**
+     * Finds the run for the slot of a command by name, without giving it a slot. Must hold slotLock.
+     */
+    private CommandRun findRun(String name) {
+        Integer slot = commandSlots.get(name);
+        return slot == null ? null : runs[slot];
+    }
+
+    /**
+     * Registers a subsystem to be updated on RobotState change and FMS data, and gives it an id in this scheduler
+     * if it does not have one yet. Subsystems should be registered before commands which require them are created,
+     * so the commands can check their requirements by bits.
+     *
+     * @param subsystem The subsystem
+     */
+    public void registerSubsystem(Subsystem subsystem) {
+        checkNotNull(subsystem);
+        Preconditions.checkArgument(subsystem.getScheduler() == null || subsystem.getScheduler() == this,
+                "Subsystem %s is registered with another scheduler", subsystem.getName());
+        if (subsystem.getScheduler() == null) {
+            if (subsystemCount < subsystems.length) {
+                subsystems[subsystemCount] = subsystem;
+                subsystem.setId(this, subsystemCount++);
+            } else {
+                logger.warn("More than {} subsystems, {} will not have a bit in requirement masks",
+                        Subsystem.MAX_MASKED_SUBSYSTEMS, subsystem.getName());
+                subsystem.setId(this, -1);
+            }
+        }
+        registerStateListener(subsystem);
+        registerFMSDataListener(subsystem);
+    }
+
+    /**
+     * @return The bits of the subsystems registered with this scheduler which are required by a command
+     */
+    long getRequiredMask() {
+        return requiredMask.get();
+    }
+
+    void setRequired(long mask, boolean required) {
+        long current;
+        do {
+            current = requiredMask.get();
+        } while (!requiredMask.compareAndSet(current, required ? current | mask : current & ~mask));
     }
 
     /**
@@ -72,12 +238,75 @@ public final class Scheduler implements CommandRunContext, RobotStateListener, F
     }
 
     public void addTrigger(TriggerSource source, TriggerScheduler scheduler) {
-        List<TriggerScheduler> schedulers = triggerSchedulers.get(source);
-        if (schedulers == null) {
-            triggerSchedulers.put(source, new ArrayList<>(Collections.singletonList(scheduler)));
+        checkNotNull(source);
+        checkNotNull(scheduler);
+        int sourceSlot = getTriggerSourceSlot(source);
+        if (triggerSchedulerCount == triggerSchedulers.length) {
+            triggerSchedulers = Arrays.copyOf(triggerSchedulers, triggerSchedulerCount * 2);
+            triggerSchedulerSources = Arrays.copyOf(triggerSchedulerSources, triggerSchedulerCount * 2);
+            triggerSchedulersEdge = Arrays.copyOf(triggerSchedulersEdge, triggerSchedulerCount * 2);
+        }
+        boolean edge = scheduler.isEdgeTriggered();
+        triggerSchedulers[triggerSchedulerCount] = scheduler;
+        triggerSchedulerSources[triggerSchedulerCount] = sourceSlot;
+        triggerSchedulersEdge[triggerSchedulerCount] = edge;
+        triggerSchedulerCount++;
+        if (!edge) {
+            levelSchedulerCount++;
+        }
+    }
+
+    /**
+     * Gets the slot of a trigger source, giving it a slot if it does not have one. Sources which are bits of a
+     * bitfield are added to the bitfield, and all others are polled.
+     */
+    private int getTriggerSourceSlot(TriggerSource source) {
+        Integer existingSlot = triggerSourceSlots.get(source);
+        if (existingSlot != null) {
+            return existingSlot;
+        }
+        if (triggerSourceCount == triggerSourcesActive.length) {
+            triggerSourcesActive = Arrays.copyOf(triggerSourcesActive, triggerSourceCount * 2);
+            triggerSourcesChanged = Arrays.copyOf(triggerSourcesChanged, triggerSourceCount * 2);
+            changedSourceSlots = Arrays.copyOf(changedSourceSlots, triggerSourceCount * 2);
+        }
+        int sourceSlot = triggerSourceCount++;
+        triggerSourcesActive[sourceSlot] = false;
+        triggerSourcesChanged[sourceSlot] = false;
+        triggerSourceSlots.put(source, sourceSlot);
+
+        if (source instanceof BitfieldTriggerSource) {
+            BitfieldTriggerSource bitSource = (BitfieldTriggerSource) source;
+            Integer bitfieldSlot = bitfieldSlots.get(bitSource.getBitfield());
+            if (bitfieldSlot == null) {
+                if (bitfieldCount == bitfields.length) {
+                    bitfields = Arrays.copyOf(bitfields, bitfieldCount * 2);
+                    bitfieldStates = Arrays.copyOf(bitfieldStates, bitfieldCount * 2);
+                    bitfieldMasks = Arrays.copyOf(bitfieldMasks, bitfieldCount * 2);
+                    bitfieldSourceSlots = Arrays.copyOf(bitfieldSourceSlots, bitfieldCount * 2);
+                }
+                bitfieldSlot = bitfieldCount++;
+                bitfields[bitfieldSlot] = bitSource.getBitfield();
+                bitfieldStates[bitfieldSlot] = 0;
+                bitfieldMasks[bitfieldSlot] = 0;
+                bitfieldSourceSlots[bitfieldSlot] = new int[Integer.SIZE];
+                bitfieldSlots.put(bitSource.getBitfield(), bitfieldSlot);
+            }
+            int bit = 1 << bitSource.getBit();
+            bitfieldMasks[bitfieldSlot] |= bit;
+            // the new source starts inactive, so if its bit is already set it changes next tick
+            bitfieldStates[bitfieldSlot] &= ~bit;
+            bitfieldSourceSlots[bitfieldSlot][bitSource.getBit()] = sourceSlot;
         } else {
-            schedulers.add(scheduler);
+            if (polledSourceCount == polledSources.length) {
+                polledSources = Arrays.copyOf(polledSources, polledSourceCount * 2);
+                polledSourceSlots = Arrays.copyOf(polledSourceSlots, polledSourceCount * 2);
+            }
+            polledSources[polledSourceCount] = source;
+            polledSourceSlots[polledSourceCount] = sourceSlot;
+            polledSourceCount++;
         }
+        return sourceSlot;
     }
 
     public TriggerAdder onTrigger(TriggerSource triggerSource) {
@@ -85,60 +314,140 @@ public final class Scheduler implements CommandRunContext, RobotStateListener, F
     }
 
     public void clearTriggers() {
-        triggerSchedulers.clear();
+        triggerSourceSlots.clear();
+        bitfieldSlots.clear();
+        triggerSourceCount = 0;
+        Arrays.fill(polledSources, 0, polledSourceCount, null);
+        polledSourceCount = 0;
+        Arrays.fill(bitfields, 0, bitfieldCount, null);
+        Arrays.fill(bitfieldSourceSlots, 0, bitfieldCount, null);
+        bitfieldCount = 0;
+        Arrays.fill(triggerSchedulers, 0, triggerSchedulerCount, null);
+        triggerSchedulerCount = 0;
+        levelSchedulerCount = 0;
+        changedSourceCount = 0;
     }
 
     public void execute() {
-//        logger.trace("Scheduler in state {}, {} triggers, {} commands", robotState, triggerSchedulers.size(),
-//                runningCommands.size());
-        profiler.start("triggers");
-        for (Map.Entry<TriggerSource, List<TriggerScheduler>> entry : triggerSchedulers.entrySet()) {
-            TriggerSource triggerSource = entry.getKey();
-            boolean active = triggerSource.getActive();
-            for (TriggerScheduler scheduler : entry.getValue()) {
-                scheduler.processTrigger(active);
+//        logger.trace("Scheduler in state {}, {} triggers, {} commands", robotState, triggerSchedulerCount,
+//                runningCount);
+        profiler.start(TRIGGERS_SECTION);
+        // each bitfield is read once, and only the sources whose bits changed are processed
+        for (int i = 0; i < bitfieldCount; i++) {
+            int state = bitfields[i].getAsInt();
+            int changed = (state ^ bitfieldStates[i]) & bitfieldMasks[i];
+            bitfieldStates[i] = state;
+            while (changed != 0) {
+                int bit = Integer.numberOfTrailingZeros(changed);
+                changed &= changed - 1;
+                setTriggerSourceActive(bitfieldSourceSlots[i][bit], (state & (1 << bit)) != 0);
             }
         }
-        for (CommandRun run : runningCommands.values()) {
-            profiler.start(run.command.getName());
-            if (run.cancel) {
-//                logger.trace("Cancelling command {} by request", run.command.getName());
-                finishRun(run, true);
-                continue;
-            } else if (!run.command.isValidInState(robotState)) {
-//                logger.trace("Cancelling command {} because of state conflict in {}", run.command.getName(),
-//                        robotState);
-                finishRun(run, true);
-                continue;
-            } else if (!run.initialized) {
-                if (!run.command.startRun(run.context)) {
-//                    logger.trace("Command {} not ready to run yet because of requirements", run.command.getName());
-                    continue;
-                } else {
-//                    logger.trace("Initialized command {}", run.command.getName());
+        // each other source is only checked once, however many triggers it has
+        for (int i = 0; i < polledSourceCount; i++) {
+            int slot = polledSourceSlots[i];
+            boolean active = polledSources[i].getActive();
+            if (active != triggerSourcesActive[slot]) {
+                setTriggerSourceActive(slot, active);
+            }
+        }
+        if (changedSourceCount > 0 || levelSchedulerCount > 0) {
+            for (int i = 0; i < triggerSchedulerCount; i++) {
+                int slot = triggerSchedulerSources[i];
+                if (!triggerSchedulersEdge[i] || triggerSourcesChanged[slot]) {
+                    triggerSchedulers[i].processTrigger(triggerSourcesActive[slot]);
                 }
-                run.initialized = true;
             }
-            boolean finished = run.command.step();
-            if (finished || run.cancel) {
-//                logger.trace("Command {} finished, it was cancelled?: {}", run.command.getName(), run.cancel);
-                finishRun(run, run.cancel);
+            for (int i = 0; i < changedSourceCount; i++) {
+                triggerSourcesChanged[changedSourceSlots[i]] = false;
             }
+            changedSourceCount = 0;
         }
-        profiler.start("defaultCommands");
-        for (Command command : defaultCommands) {
-            if (command.checkRequirements()
+        CommandRun[] runs = addStartingRuns();
+        int remaining = 0;
+        for (int i = 0; i < runningCount; i++) {
+            int slot = runningSlots[i];
+            if (!stepRun(runs[slot])) {
+                runningSlots[remaining++] = slot;
+            }
+        }
+        runningCount = remaining;
+        profiler.start(DEFAULT_COMMANDS_SECTION);
+        for (int i = 0; i < defaultCommandCount; i++) {
+            Command command = defaultCommands[i];
+            if (!command.isRunning()
                     && command.isValidInState(robotState)
-                    && !command.isRunning()) {
+                    && command.checkRequirements()) {
                 startCommand(command);
             }
         }
-        profiler.stop();
+    }
+
+    private void setTriggerSourceActive(int slot, boolean active) {
+        triggerSourcesActive[slot] = active;
+        triggerSourcesChanged[slot] = true;
+        changedSourceSlots[changedSourceCount++] = slot;
+    }
+
+    /**
+     * Adds the commands started since the last tick to the end of the running commands
+     *
+     * @return The runs for each slot
+     */
+    private CommandRun[] addStartingRuns() {
+        synchronized (slotLock) {
+            if (runningSlots.length < slotCount) {
+                runningSlots = Arrays.copyOf(runningSlots, runs.length);
+            }
+            for (int i = 0; i < startingCount; i++) {
+                int slot = startingSlots[i];
+                runs[slot].state = CommandRun.RUNNING;
+                runningSlots[runningCount++] = slot;
+            }
+            startingCount = 0;
+            return runs;
+        }
+    }
+
+    /**
+     * Steps a running command
+     *
+     * @return Whether the command finished or was cancelled
+     */
+    private boolean stepRun(CommandRun run) {
+        profiler.start(run.section);
+        if (run.cancel) {
+//            logger.trace("Cancelling command {} by request", run.command.getName());
+            finishRun(run, true);
+            return true;
+        } else if (!run.command.isValidInState(robotState)) {
+//            logger.trace("Cancelling command {} because of state conflict in {}", run.command.getName(),
+//                    robotState);
+            finishRun(run, true);
+            return true;
+        } else if (!run.initialized) {
+            if (!run.command.startRun(run.context)) {
+//                logger.trace("Command {} not ready to run yet because of requirements", run.command.getName());
+                return false;
+            }
+//            logger.trace("Initialized command {}", run.command.getName());
+            run.initialized = true;
+        }
+        boolean finished = run.command.step();
+        if (finished || run.cancel) {
+//            logger.trace("Command {} finished, it was cancelled?: {}", run.command.getName(), run.cancel);
+            finishRun(run, run.cancel);
+            return true;
+        }
+        return false;
     }
 
     private void finishRun(CommandRun run, boolean cancelled) {
         run.command.finishRun(cancelled);
-        runningCommands.remove(run.command.getName());
+        synchronized (slotLock) {
+            run.state = CommandRun.IDLE;
+            run.context = null;
+        }
     }
 
     /**
@@ -148,7 +457,10 @@ public final class Scheduler implements CommandRunContext, RobotStateListener, F
      * @return Whether the named command is running or queued
      */
     public boolean containsCommand(String name) {
-        return runningCommands.containsKey(name);
+        synchronized (slotLock) {
+            CommandRun run = findRun(name);
+            return run != null && run.state != CommandRun.IDLE;
+        }
     }
 
     @Override
@@ -164,24 +476,30 @@ public final class Scheduler implements CommandRunContext, RobotStateListener, F
     @Override
     public void startWithContext(Command command, CommandRunContext context) throws CommandException {
         checkNotNull(command);
-        CommandRun run = runningCommands.get(command.getName());
-        if (run != null || !command.isValidInState(robotState))
-            return;
-        if (command.getContext() != null) {
-            command.cancel();
+        synchronized (slotLock) {
+            CommandRun run = getRun(command);
+            if (run == null || run.state != CommandRun.IDLE || !command.isValidInState(robotState))
+                return;
+            if (command.getContext() != null) {
+                command.cancel();
+            }
+            run.context = context;
+            run.initialized = false;
+            run.cancel = false;
+            run.state = CommandRun.STARTING;
+            startingSlots[startingCount++] = run.slot;
         }
-        CommandRun commandRun = new CommandRun(command);
-        commandRun.context = context;
-        runningCommands.put(command.getName(), commandRun);
     }
 
     public void cancelCommand(String commandName) {
         checkNotNull(commandName);
-        CommandRun run = runningCommands.get(commandName);
-        if (run == null)
-            logger.debug("Attempted to cancel not command that was not running: {}", commandName);
-        else
-            run.cancel = true;
+        synchronized (slotLock) {
+            CommandRun run = findRun(commandName);
+            if (run == null || run.state == CommandRun.IDLE)
+                logger.debug("Attempted to cancel not command that was not running: {}", commandName);
+            else
+                run.cancel = true;
+        }
     }
 
     @Override
@@ -210,11 +528,11 @@ public final class Scheduler implements CommandRunContext, RobotStateListener, F
         }
     }
 
-    public void setProfiler(Profiler profiler) {
-        this.profiler = profiler;
+    public void setProfiler(SectionProfiler profiler) {
+        this.profiler = profiler == null ? SectionProfiler.NONE : profiler;
     }
 
-    public Profiler getProfiler() {
+    public SectionProfiler getProfiler() {
         return profiler;
     }
 }
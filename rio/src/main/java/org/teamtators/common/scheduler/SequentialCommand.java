@@ -75,6 +75,15 @@ public class SequentialCommand extends Command implements CommandRunContext {
         setValidStates(validStates);
     }
 
+    @Override
+    public Collection<Command> getChildCommands() {
+        List<Command> commands = new ArrayList<>(sequence.size());
+        for (SequentialCommandRun run : sequence) {
+            commands.add(run.command);
+        }
+        return commands;
+    }
+
     @Override
     public void updateRequirements() {
         // A sequential command requires all subsystems required by all child commands
@@ -15,8 +15,17 @@ import java.util.List;
 
 public abstract class Subsystem implements Updatable, RobotStateListener, ManualTestable, AutomatedTestable, FMSDataListener,
         Deconfigurable {
+    /**
+     * The number of subsystems which can have a bit in a requirement mask
+     */
+    public static final int MAX_MASKED_SUBSYSTEMS = Long.SIZE;
+
     protected final Logger logger = LoggerFactory.getLogger(this.getClass());
     private final String name;
+    // given by the scheduler the subsystem is registered with
+    private Scheduler scheduler;
+    private int id = -1;
+    private long mask = 0L;
 
     private Command requiringCommand = null;
 
@@ -28,12 +37,43 @@ public abstract class Subsystem implements Updatable, RobotStateListener, Manual
         return name;
     }
 
+    /**
+     * @return The scheduler this subsystem is registered with, or null if it has not been registered
+     */
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * @return The id of this subsystem in its scheduler, which is its bit in requirement masks, or -1 if it has not
+     * been registered with a scheduler or there were already {@link #MAX_MASKED_SUBSYSTEMS} subsystems registered
+     */
+    public int getId() {
+        return id;
+    }
+
+    void setId(Scheduler scheduler, int id) {
+        this.scheduler = scheduler;
+        this.id = id;
+        this.mask = id >= 0 ? 1L << id : 0L;
+    }
+
+    /**
+     * @return The bit for this subsystem in requirement masks, or 0 if it does not have one
+     */
+    public long getMask() {
+        return mask;
+    }
+
     Command getRequiringCommand() {
         return requiringCommand;
     }
 
     void setRequiringCommand(Command requiringCommand) {
         this.requiringCommand = requiringCommand;
+        if (mask != 0) {
+            scheduler.setRequired(mask, requiringCommand != null);
+        }
     }
 
     @Override
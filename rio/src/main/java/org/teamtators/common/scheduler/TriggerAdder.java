@@ -16,14 +16,17 @@ public class TriggerAdder {
     }
 
     public TriggerBinder start(Command command) {
+        scheduler.registerCommand(command);
         return new TriggerBinder(() -> scheduler.startCommand(command));
     }
 
     public TriggerBinder cancel(Command command) {
+        scheduler.registerCommand(command);
         return new TriggerBinder(() -> scheduler.cancelCommand(command));
     }
 
     public TriggerBinder toggle(Command command) {
+        scheduler.registerCommand(command);
         return new TriggerBinder(() -> {
             if (command.isRunning()) {
                 scheduler.cancelCommand(command);
@@ -34,6 +37,7 @@ public class TriggerAdder {
     }
 
     public void whilePressed(Command command) {
+        scheduler.registerCommand(command);
         scheduler.addTrigger(triggerSource, new WhilePressedScheduler(command));
     }
 
@@ -95,5 +99,10 @@ public class TriggerAdder {
             }
             wasActive = active;
         }
+
+        @Override
+        public boolean isEdgeTriggered() {
+            return true;
+        }
     }
 }
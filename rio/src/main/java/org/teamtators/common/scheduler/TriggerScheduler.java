@@ -2,4 +2,14 @@ package org.teamtators.common.scheduler;
 
 public interface TriggerScheduler {
     void processTrigger(boolean active);
+
+    /**
+     * Whether this only acts when its trigger changes between active and inactive. If so, the scheduler only calls
+     * {@link #processTrigger(boolean)} when the trigger changes, instead of every tick.
+     *
+     * @return Whether this is edge triggered
+     */
+    default boolean isEdgeTriggered() {
+        return false;
+    }
 }
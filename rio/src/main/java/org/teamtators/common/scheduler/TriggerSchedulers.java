@@ -9,6 +9,11 @@ public class TriggerSchedulers {
             protected boolean shouldRun(boolean active, boolean lastActive) {
                 return active && !lastActive;
             }
+
+            @Override
+            public boolean isEdgeTriggered() {
+                return true;
+            }
         };
     }
 
@@ -18,6 +23,11 @@ public class TriggerSchedulers {
             protected boolean shouldRun(boolean active, boolean lastActive) {
                 return !active && lastActive;
             }
+
+            @Override
+            public boolean isEdgeTriggered() {
+                return true;
+            }
         };
     }
 
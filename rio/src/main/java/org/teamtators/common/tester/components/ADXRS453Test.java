@@ -1,13 +1,13 @@
 package org.teamtators.common.tester.components;
 
-import org.teamtators.common.hw.ADXRS453;
+import org.teamtators.common.hw.Gyro;
 import org.teamtators.common.controllers.LogitechF310;
 import org.teamtators.common.tester.ManualTest;
 
 public class ADXRS453Test extends ManualTest {
-    private ADXRS453 gyro;
+    private Gyro gyro;
 
-    public ADXRS453Test(String name, ADXRS453 gyro) {
+    public ADXRS453Test(String name, Gyro gyro) {
         super(name);
         this.gyro = gyro;
     }
@@ -1,14 +1,15 @@
 package org.teamtators.common.tester.components;
 
+import org.teamtators.common.hw.BooleanSensor;
 import org.teamtators.common.hw.DigitalSensor;
 import org.teamtators.common.controllers.LogitechF310;
 import org.teamtators.common.tester.ManualTest;
 
 public class DigitalSensorTest extends ManualTest {
 
-    private DigitalSensor digitalSensor;
+    private BooleanSensor digitalSensor;
 
-    public DigitalSensorTest(String name, DigitalSensor digitalSensor) {
+    public DigitalSensorTest(String name, BooleanSensor digitalSensor) {
         super(name);
         this.digitalSensor = digitalSensor;
     }
@@ -21,7 +22,12 @@ public class DigitalSensorTest extends ManualTest {
     @Override
     public void onButtonDown(LogitechF310.Button button) {
         if (button == LogitechF310.Button.A) {
-            printTestInfo("Digital sensor value {} (type {})", digitalSensor.get(), digitalSensor.getType());
+            if (digitalSensor instanceof DigitalSensor) {
+                printTestInfo("Digital sensor value {} (type {})", digitalSensor.get(),
+                        ((DigitalSensor) digitalSensor).getType());
+            } else {
+                printTestInfo("Digital sensor value {}", digitalSensor.get());
+            }
         }
     }
 }
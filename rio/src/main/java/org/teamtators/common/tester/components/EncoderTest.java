@@ -1,14 +1,15 @@
 package org.teamtators.common.tester.components;
 
-import edu.wpi.first.wpilibj.Encoder;
 import org.teamtators.common.controllers.LogitechF310;
+import org.teamtators.common.hw.RateEncoder;
+import org.teamtators.common.hw.WpiEncoder;
 import org.teamtators.common.tester.ManualTest;
 
 public class EncoderTest extends ManualTest {
 
-    private Encoder encoder;
+    private RateEncoder encoder;
 
-    public EncoderTest(String name, Encoder encoder) {
+    public EncoderTest(String name, RateEncoder encoder) {
         super(name);
         this.encoder = encoder;
     }
@@ -24,8 +25,12 @@ public class EncoderTest extends ManualTest {
             encoder.reset();
             printTestInfo("Encoder reset");
         } else if (button == LogitechF310.Button.A) {
-            printTestInfo(String.format("Distance: %.3f (ticks: %d), Rate: %.3f",
-                    encoder.getDistance(), encoder.get(), encoder.getRate()));
+            if (encoder instanceof WpiEncoder) {
+                printTestInfo(String.format("Distance: %.3f (ticks: %d), Rate: %.3f",
+                        encoder.getDistance(), ((WpiEncoder) encoder).getEncoder().get(), encoder.getRate()));
+            } else {
+                printTestInfo(String.format("Distance: %.3f, Rate: %.3f", encoder.getDistance(), encoder.getRate()));
+            }
         }
     }
 }
@@ -5,6 +5,8 @@ import org.teamtators.common.control.ControllerOutput;
 import org.teamtators.common.control.TrapezoidalProfileFollower;
 import org.teamtators.common.datalogging.DataCollector;
 import org.teamtators.common.datalogging.LogDataProvider;
+import org.teamtators.common.datalogging.LogDataWriter;
+import org.teamtators.common.datalogging.TypedLogDataProvider;
 import org.teamtators.common.controllers.LogitechF310;
 import org.teamtators.common.tester.ManualTest;
 
@@ -29,7 +31,7 @@ public class MotionCalibrationTest extends ManualTest {
     private double acclerationPower;
 
     private final DataCollector dataCollector;
-    private LogDataProvider logDataProvider = new LogDataProvider() {
+    private LogDataProvider logDataProvider = new TypedLogDataProvider() {
         @Override
         public String getName() {
             return MotionCalibrationTest.this.getName();
@@ -41,8 +43,13 @@ public class MotionCalibrationTest extends ManualTest {
         }
 
         @Override
-        public List<Object> getValues() {
-            return Arrays.asList(power, position, velocity, velocityPower, acceleration, acclerationPower);
+        public void writeValues(LogDataWriter writer) {
+            writer.putDouble(power);
+            writer.putDouble(position);
+            writer.putDouble(velocity);
+            writer.putDouble(velocityPower);
+            writer.putDouble(acceleration);
+            writer.putDouble(acclerationPower);
         }
     };
 
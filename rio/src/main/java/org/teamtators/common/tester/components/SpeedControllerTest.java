@@ -4,28 +4,55 @@ import edu.wpi.first.wpilibj.PowerDistributionPanel;
 import edu.wpi.first.wpilibj.SpeedController;
 import org.teamtators.common.config.helpers.SpeedControllerConfig;
 import org.teamtators.common.controllers.LogitechF310;
+import org.teamtators.common.hw.Motor;
+import org.teamtators.common.hw.SpeedControllerGroup;
+import org.teamtators.common.hw.WpiMotor;
 import org.teamtators.common.tester.ManualTest;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class SpeedControllerTest extends ManualTest {
 
-    private SpeedController motor;
+    private Motor motor;
     private int fullspeed;
     private double axisValue;
     private PowerDistributionPanel pdp;
     private SpeedControllerConfig motorConfig;
 
-    public SpeedControllerTest(String name, SpeedController motor) {
+    public SpeedControllerTest(String name, Motor motor) {
         super(name);
         this.motor = motor;
     }
 
-    public SpeedControllerTest(String name, SpeedController motor, PowerDistributionPanel pdp,
+    public SpeedControllerTest(String name, SpeedController motor) {
+        this(name, new WpiMotor(motor));
+    }
+
+    public SpeedControllerTest(String name, Motor motor, PowerDistributionPanel pdp,
                                SpeedControllerConfig motorConfig) {
         this(name, motor);
         this.pdp = pdp;
         this.motorConfig = motorConfig;
     }
 
+    /**
+     * Creates a test for each speed controller of a motor backed by a {@link SpeedControllerGroup}
+     *
+     * @return The tests, or an empty list if the motor is not backed by a group
+     */
+    public static List<ManualTest> createGroupTests(String name, Motor motor) {
+        List<ManualTest> tests = new ArrayList<>();
+        SpeedController group = motor instanceof WpiMotor ? ((WpiMotor) motor).getSpeedController() : null;
+        if (group instanceof SpeedControllerGroup) {
+            SpeedController[] speedControllers = ((SpeedControllerGroup) group).getSpeedControllers();
+            for (int i = 0; i < speedControllers.length; i++) {
+                tests.add(new SpeedControllerTest(name + "(" + i + ")", speedControllers[i]));
+            }
+        }
+        return tests;
+    }
+
     @Override
     public void start() {
         printTestInstructions("Push joystick in direction to move (forward +, backward -), back/start to drive +/- at full speed");
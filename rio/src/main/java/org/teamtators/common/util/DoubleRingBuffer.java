@@ -0,0 +1,170 @@
+package org.teamtators.common.util;
+
+/**
+ * A ring buffer of doubles. See {@link RingBuffer} for how it works as a history or a concurrent queue.
+ * <p>
+ * The bulk operations look at every value in the buffer, oldest first. When concurrent, only the consumer may use
+ * them.
+ */
+public class DoubleRingBuffer extends RingBuffer {
+    private final double[] buffer;
+
+    /**
+     * Creates a history, which overwrites the oldest value when full
+     *
+     * @param capacity The maximum number of values
+     */
+    public DoubleRingBuffer(int capacity) {
+        this(capacity, false);
+    }
+
+    /**
+     * @param capacity   The maximum number of values
+     * @param concurrent Whether this is a single producer, single consumer queue
+     */
+    public DoubleRingBuffer(int capacity, boolean concurrent) {
+        super(capacity, concurrent);
+        buffer = new double[getArrayLength()];
+    }
+
+    /**
+     * Adds a value to the end of the buffer
+     *
+     * @param value The value
+     * @return false if the buffer was full, so a history overwrote its oldest value or a queue did not add the value
+     */
+    public boolean push(double value) {
+        boolean full = isFull();
+        int i = beginPush();
+        if (i < 0) {
+            return false;
+        }
+        buffer[i] = value;
+        endPush();
+        return !full;
+    }
+
+    /**
+     * Removes the oldest value
+     *
+     * @return The value
+     * @throws java.util.NoSuchElementException If the buffer is empty
+     */
+    public double pop() {
+        double value = buffer[beginPop()];
+        endPop();
+        return value;
+    }
+
+    /**
+     * Removes values into an array, oldest first
+     *
+     * @param dest The array to store the values in
+     * @return The number of values removed
+     */
+    public int drainTo(double[] dest) {
+        int count = copyTo(dest, 0);
+        skip(count);
+        return count;
+    }
+
+    /**
+     * @param i The index of the value, 0 being the oldest
+     * @return The value
+     */
+    public double get(int i) {
+        return buffer[arrayIndex(i)];
+    }
+
+    public double getOldest() {
+        return get(0);
+    }
+
+    public double getNewest() {
+        return get(size() - 1);
+    }
+
+    /**
+     * Copies values into an array, oldest first
+     *
+     * @param dest   The array to store the values in
+     * @param offset The index in dest of the first value
+     * @return The number of values copied, which is less than the size if they do not all fit
+     */
+    public int copyTo(double[] dest, int offset) {
+        long head = head();
+        int count = Math.min((int) (tail() - head), dest.length - offset);
+        int start = index(head);
+        int first = Math.min(count, buffer.length - start);
+        System.arraycopy(buffer, start, dest, offset, first);
+        System.arraycopy(buffer, 0, dest, offset + first, count - first);
+        return count;
+    }
+
+    public double sum() {
+        long head = head();
+        int size = (int) (tail() - head);
+        double sum = 0.0;
+        for (int i = 0; i < size; i++) {
+            sum += buffer[index(head + i)];
+        }
+        return sum;
+    }
+
+    /**
+     * @return The mean of the values, or 0 if there are none
+     */
+    public double mean() {
+        int size = size();
+        return size == 0 ? 0.0 : sum() / size;
+    }
+
+    /**
+     * @throws java.util.NoSuchElementException If the buffer is empty
+     */
+    public double min() {
+        long head = head();
+        int size = (int) (tail() - head);
+        checkNotEmpty(size);
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, buffer[index(head + i)]);
+        }
+        return min;
+    }
+
+    /**
+     * @throws java.util.NoSuchElementException If the buffer is empty
+     */
+    public double max() {
+        long head = head();
+        int size = (int) (tail() - head);
+        checkNotEmpty(size);
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, buffer[index(head + i)]);
+        }
+        return max;
+    }
+
+    /**
+     * Estimates the derivative of values sampled at a fixed period with a least squares line through all of them,
+     * which is much less noisy than the difference of the last two
+     *
+     * @param period The time between values
+     * @return The slope of the values per unit of time, or 0 if there are less than 2
+     */
+    public double derivative(double period) {
+        long head = head();
+        int size = (int) (tail() - head);
+        if (size < 2) {
+            return 0.0;
+        }
+        double middle = (size - 1) / 2.0;
+        double centeredSum = 0.0;
+        for (int i = 0; i < size; i++) {
+            centeredSum += (i - middle) * buffer[index(head + i)];
+        }
+        return slope(centeredSum, size) / period;
+    }
+}
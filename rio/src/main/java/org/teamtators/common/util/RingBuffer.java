@@ -0,0 +1,185 @@
+package org.teamtators.common.util;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+/**
+ * The indexing for ring buffers which store values in a primitive array, such as {@link DoubleRingBuffer}, so nothing
+ * is ever boxed. A buffer for another primitive type only needs its array and the accessors which use it.
+ * <p>
+ * The array is a power of two long, so indices wrap with a mask instead of a division, and the head and tail are
+ * counts of values ever removed and added, so they never wrap themselves.
+ * <p>
+ * A ring buffer is either a history or a queue. A history is only used from one thread, and pushing to a full history
+ * overwrites the oldest value. A concurrent ring buffer is a lock-free single producer, single consumer queue for
+ * handing samples from one thread to another: one thread pushes, another pops and reads, and pushing to a full queue
+ * fails instead of overwriting.
+ */
+public abstract class RingBuffer {
+    protected final int capacity;
+    protected final int mask;
+    private final boolean concurrent;
+    private long head;
+    private long tail;
+    // only used when concurrent
+    private final AtomicLong sharedHead;
+    private final AtomicLong sharedTail;
+
+    protected RingBuffer(int capacity, boolean concurrent) {
+        checkArgument(capacity > 0, "capacity must be positive");
+        checkArgument(capacity <= 1 << 30, "capacity is too large");
+        this.capacity = capacity;
+        int length = Integer.highestOneBit(capacity);
+        if (length < capacity) {
+            length <<= 1;
+        }
+        this.mask = length - 1;
+        this.concurrent = concurrent;
+        this.sharedHead = concurrent ? new AtomicLong() : null;
+        this.sharedTail = concurrent ? new AtomicLong() : null;
+    }
+
+    /**
+     * @return The length of the array to store values in
+     */
+    protected final int getArrayLength() {
+        return mask + 1;
+    }
+
+    protected final int index(long sequence) {
+        return (int) sequence & mask;
+    }
+
+    protected final long head() {
+        return concurrent ? sharedHead.get() : head;
+    }
+
+    protected final long tail() {
+        return concurrent ? sharedTail.get() : tail;
+    }
+
+    private void setHead(long head) {
+        if (concurrent) {
+            sharedHead.lazySet(head);
+        } else {
+            this.head = head;
+        }
+    }
+
+    private void setTail(long tail) {
+        if (concurrent) {
+            sharedTail.lazySet(tail);
+        } else {
+            this.tail = tail;
+        }
+    }
+
+    /**
+     * Makes room for a pushed value. Overwrites the oldest value if this is a full history.
+     *
+     * @return The index in the array to store the value at, or -1 if this is a full queue
+     */
+    protected final int beginPush() {
+        long tail = tail();
+        if (tail - head() >= capacity) {
+            if (concurrent) {
+                return -1;
+            }
+            setHead(tail - capacity + 1);
+        }
+        return index(tail);
+    }
+
+    /**
+     * Publishes a value stored at the index returned by {@link #beginPush()}
+     */
+    protected final void endPush() {
+        setTail(tail() + 1);
+    }
+
+    /**
+     * @return The index in the array of the oldest value
+     * @throws NoSuchElementException If the buffer is empty
+     */
+    protected final int beginPop() {
+        long head = head();
+        if (tail() == head) {
+            throw new NoSuchElementException("ring buffer is empty");
+        }
+        return index(head);
+    }
+
+    /**
+     * Removes the value at the index returned by {@link #beginPop()}
+     */
+    protected final void endPop() {
+        setHead(head() + 1);
+    }
+
+    /**
+     * Removes values from the front of the buffer
+     *
+     * @param count The number of values to remove
+     */
+    protected final void skip(int count) {
+        setHead(head() + count);
+    }
+
+    /**
+     * @param i The index of a value, 0 being the oldest
+     * @return The index of the value in the array
+     * @throws IndexOutOfBoundsException If there is no value at i
+     */
+    protected final int arrayIndex(int i) {
+        long head = head();
+        checkElementIndex(i, (int) (tail() - head));
+        return index(head + i);
+    }
+
+    protected final void checkNotEmpty(int size) {
+        if (size == 0) {
+            throw new NoSuchElementException("ring buffer is empty");
+        }
+    }
+
+    /**
+     * The least squares slope of evenly spaced values, given the sum of each value weighted by its distance from the
+     * middle of the window
+     */
+    protected static double slope(double centeredSum, int size) {
+        // sum of (i - mean(i))^2 for i in 0 until size
+        double variance = (double) size * ((double) size * size - 1) / 12.0;
+        return centeredSum / variance;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
+    public int size() {
+        long head = head();
+        return (int) (tail() - head);
+    }
+
+    public boolean isEmpty() {
+        return tail() == head();
+    }
+
+    public boolean isFull() {
+        return size() >= capacity;
+    }
+
+    /**
+     * Removes every value. When concurrent, must only be called by the consumer.
+     */
+    public void clear() {
+        setHead(tail());
+    }
+}
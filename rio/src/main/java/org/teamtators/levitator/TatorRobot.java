@@ -8,12 +8,14 @@ import edu.wpi.first.wpilibj.CameraServer;
 import org.teamtators.common.SubsystemsBase;
 import org.teamtators.common.TatorRobotBase;
 import org.teamtators.common.config.ConfigCommandStore;
+import org.teamtators.common.control.Updater;
 import org.teamtators.common.controllers.LogitechF310;
 import org.teamtators.common.scheduler.Command;
 import org.teamtators.levitator.commands.CommandRegistrar;
 import org.teamtators.levitator.subsystems.Subsystems;
 
 import java.util.Arrays;
+import java.util.Collection;
 
 public class TatorRobot extends TatorRobotBase {
     private final CommandRegistrar registrar = new CommandRegistrar(this);
@@ -46,11 +48,48 @@ public class TatorRobot extends TatorRobotBase {
         registrar.register(commandStore);
     }
 
+    @Override
+    protected void configureSubsystems() {
+        super.configureSubsystems();
+        Updater odometryUpdater = subsystems.getDrive().getOdometryUpdater();
+        if (odometryUpdater != null) {
+            addSmartDashboardUpdatable(odometryUpdater.getMetrics());
+        }
+        addSmartDashboardUpdatable(subsystems.getLift().getDashboardUpdatable());
+    }
+
+    @Override
+    protected void deconfigureSubsystems() {
+        removeSmartDashboardUpdatable(subsystems.getLift().getDashboardUpdatable());
+        Updater odometryUpdater = subsystems.getDrive().getOdometryUpdater();
+        if (odometryUpdater != null) {
+            removeSmartDashboardUpdatable(odometryUpdater.getMetrics());
+        }
+        super.deconfigureSubsystems();
+    }
+
+    @Override
+    protected void configureCommands() {
+        super.configureCommands();
+        // looked up now so it isn't created on a state change
+        try {
+            subsystems.getClimber().setHomeCommand(getCommandStore().getCommand("ClimberHome"));
+        } catch (IllegalArgumentException e) {
+            logger.warn("No ClimberHome command, the climber will not be homed");
+            subsystems.getClimber().setHomeCommand(null);
+        }
+    }
+
     @Override
     protected Command getAutoCommand() {
         return getSubsystems().getAuto().getSelectedCommand();
     }
 
+    @Override
+    protected Collection<String> getWarmUpCommands() {
+        return getSubsystems().getAuto().getAutoChoices();
+    }
+
     @Override
     public String getName() {
         return "LeviTator";
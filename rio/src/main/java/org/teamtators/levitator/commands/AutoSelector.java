@@ -1,6 +1,7 @@
 package org.teamtators.levitator.commands;
 
 import org.teamtators.common.config.ConfigCommandStore;
+import org.teamtators.common.config.ConfigException;
 import org.teamtators.common.config.Configurable;
 import org.teamtators.common.control.Timer;
 import org.teamtators.common.scheduler.Command;
@@ -11,7 +12,10 @@ import org.teamtators.levitator.TatorRobot;
 import org.teamtators.levitator.subsystems.Auto;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -24,6 +28,8 @@ public class AutoSelector extends Command implements Configurable<AutoSelector.C
     private Command selected;
     private boolean hasStarted;
     private ConfigCommandStore commandStore;
+    // the commands which can be chosen, by name, looked up when configured
+    private final Map<String, Command> choices = new LinkedHashMap<>();
     private boolean initialized;
     private boolean cancel;
 
@@ -39,37 +45,19 @@ public class AutoSelector extends Command implements Configurable<AutoSelector.C
     protected void initialize() {
         hasStarted = false;
 
-        String toStart = "NoAuto";
+        String toStart;
         if (type == SelectorType.FIELD_CONFIGURATION) {
-            FieldSide side = auto.getFieldConfiguration(config.object);
-            switch (side) {
-                case LEFT:
-                    toStart = config.L;
-                    break;
-                case RIGHT:
-                    toStart = config.R;
-                    break;
-            }
-        } else if (type == SelectorType.STARTING_POSITION) {
-            String startedAt = auto.getStartingPosition().toLowerCase();
-            if (startedAt.equals("left")) {
-                toStart = config.left;
-            }
-            if (startedAt.equals("center")) {
-                toStart = config.center;
-            }
-            if (startedAt.equals("right")) {
-                toStart = config.right;
-            }
+            toStart = getChoice(config, auto.getFieldConfiguration(config.object));
+        } else {
+            toStart = getChoice(config, auto.getStartingPosition());
         }
         initialized = false;
         cancel = false;
-        try {
-            selected = commandStore.getCommand(toStart);
+        selected = choices.get(toStart);
+        if (selected != null) {
             logger.info("Running chosen command: {}", selected.getName());
-        } catch (IllegalArgumentException e) {
-            logger.warn("Chosen command not found", e);
-            selected = null;
+        } else {
+            logger.warn("Chosen command not found: {}", toStart);
         }
     }
 
@@ -135,38 +123,86 @@ public class AutoSelector extends Command implements Configurable<AutoSelector.C
 
     @Override
     public void configure(Config config) {
+        if (config.type == null) {
+            throw new ConfigException("AutoSelector must have a type");
+        }
         this.type = config.type;
         this.config = config;
+        // look up the choices now, so they are not created on the control thread when auto starts
+        choices.clear();
+        for (String commandName : getChoiceNames(config)) {
+            if (commandName == null || choices.containsKey(commandName)) {
+                continue;
+            }
+            try {
+                choices.put(commandName, commandStore.getCommand(commandName));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Command {} for {} not found", commandName, getName());
+            }
+        }
         updateRequirements();
     }
 
-    @Override
-    public void updateRequirements() {
-        if (config == null) {
-            return;
+    /**
+     * @return The name of the command to start for a field configuration selector, or NoAuto if there is none
+     */
+    static String getChoice(Config config, FieldSide side) {
+        String choice = null;
+        if (side == FieldSide.LEFT) {
+            choice = config.L;
+        } else if (side == FieldSide.RIGHT) {
+            choice = config.R;
         }
+        return choice == null ? "NoAuto" : choice;
+    }
+
+    /**
+     * @return The name of the command to start for a starting position selector, or NoAuto if there is none
+     */
+    static String getChoice(Config config, String startingPosition) {
+        String choice = null;
+        String startedAt = startingPosition == null ? "" : startingPosition.toLowerCase();
+        if (startedAt.equals("left")) {
+            choice = config.left;
+        } else if (startedAt.equals("center")) {
+            choice = config.center;
+        } else if (startedAt.equals("right")) {
+            choice = config.right;
+        }
+        return choice == null ? "NoAuto" : choice;
+    }
+
+    /**
+     * @return The names of all of the commands a selector can start
+     */
+    static List<String> getChoiceNames(Config config) {
         List<String> commandNames = new ArrayList<>();
         if (config.type == SelectorType.FIELD_CONFIGURATION) {
-            commandNames.add(config.left);
-            commandNames.add(config.right);
-            commandNames.add(config.center);
-        } else if (config.type == SelectorType.STARTING_POSITION) {
             commandNames.add(config.L);
             commandNames.add(config.R);
-        } else {
-            logger.error("Invalid selector type: " + config.type);
+        } else if (config.type == SelectorType.STARTING_POSITION) {
+            commandNames.add(config.left);
+            commandNames.add(config.center);
+            commandNames.add(config.right);
         }
-        for (String commandName : commandNames) {
-            Command command;
-            try {
-                command = commandStore.getCommand(commandName);
-            } catch (IllegalArgumentException e) {
-                continue;
+        commandNames.add("NoAuto");
+        return commandNames;
+    }
+
+    @Override
+    public void updateRequirements() {
+        for (Command command : getChildCommands()) {
+            if (command.getRequirements() != null) {
+                requiresAll(command.getRequirements());
             }
-            requiresAll(command.getRequirements());
         }
     }
 
+    @Override
+    public Collection<Command> getChildCommands() {
+        return new ArrayList<>(choices.values());
+    }
+
     public enum SelectorType {
         STARTING_POSITION,
         FIELD_CONFIGURATION
@@ -66,7 +66,7 @@ public class DriveArc extends Command implements Configurable<DriveArc.Config> {
     @Override
     protected void finish(boolean interrupted) {
         double distance = drive.getStraightMotionFollower().getCurrentPosition();
-        double targetDistance = drive.getStraightMotionFollower().getCalculator().getPosition();
+        double targetDistance = drive.getStraightMotionFollower().getTargetPosition();
         double angle = drive.getYawAngle();
         String logString = String.format(" at distance %s (target %s), angle %s (target %s)",
                 distance, targetDistance, angle, config.angle);
@@ -1,8 +1,11 @@
 package org.teamtators.levitator.commands;
 
 import org.teamtators.common.config.Configurable;
+import org.teamtators.common.drive.CompiledDriveSegments;
+import org.teamtators.common.drive.CompiledPathFile;
 import org.teamtators.common.drive.DrivePath;
-import org.teamtators.common.drive.DriveSegments;
+import org.teamtators.common.drive.DriveTrajectory;
+import org.teamtators.common.drive.VelocityPlan;
 import org.teamtators.common.scheduler.Command;
 import org.teamtators.levitator.TatorRobot;
 import org.teamtators.levitator.subsystems.Drive;
@@ -10,42 +13,39 @@ import org.teamtators.levitator.subsystems.Drive;
 import java.util.List;
 
 /**
+ * Drives along a path of points.
+ * <p>
+ * If the path was compiled ahead of time by {@link DrivePathCompiler}, the compiled segments and trajectory are used.
+ * Otherwise, the path is built and the speed along it is planned when the command is configured. If the speed can not
+ * be planned, the error is logged and the command cancels itself, and whatever it is part of, when it is started.
+ *
  * @author Alex Mikhalev
  */
 public class DrivePathCommand extends Command implements Configurable<DrivePathCommand.Config> {
     private final Drive drive;
+    private final TatorRobot robot;
     private DrivePath drivePath;
-    private DriveSegments driveSegments;
+    private CompiledDriveSegments path;
+    private DriveTrajectory trajectory;
+    private VelocityPlan plan;
+    private boolean planned;
     private Config config;
 
     public DrivePathCommand(TatorRobot robot) {
         super("DrivePath");
+        this.robot = robot;
         this.drive = robot.getSubsystems().getDrive();
         requires(drive);
     }
 
-    @Override
-    protected void initialize() {
-        logger.info("Starting driving path at " + drive.getPose());
-        drive.getDriveSegmentsFollower().setMaxAcceleration(config.maxAcceleration);
-        drive.driveSegments(driveSegments);
-    }
-
-    @Override
-    public boolean step() {
-        return drive.isDriveSegmentsFollowerFinished();
-    }
-
-    @Override
-    protected void finish(boolean interrupted) {
-        logger.info((interrupted ? "Interrupted" : "Finished") + " driving path at " + drive.getPose());
-        drive.stop();
-    }
-
-    @Override
-    public void configure(Config config) {
-        this.config = config;
-        this.drivePath = new DrivePath();
+    /**
+     * Builds the path for a config, filling in everything not set on each point from the config
+     *
+     * @param config The config of a DrivePathCommand
+     * @return The path
+     */
+    public static DrivePath toDrivePath(Config config) {
+        DrivePath drivePath = new DrivePath();
         for (int i = 0; i < config.path.size(); i++) {
             DrivePath.Point point = config.path.get(i);
             boolean isLast = i == config.path.size() - 1;
@@ -71,14 +71,73 @@ public class DrivePathCommand extends Command implements Configurable<DrivePathC
             }
             drivePath.addPoint(point);
         }
-        this.driveSegments = drivePath.toSegments();
-        logger.trace("segments: " + driveSegments);
+        return drivePath;
+    }
+
+    @Override
+    protected void initialize() {
+        if (!planned) {
+            logger.error("Not driving path, the speed along it could not be planned");
+            return;
+        }
+        logger.info("Starting driving path at " + drive.getPose());
+        drive.getDriveSegmentsFollower().setMaxAcceleration(config.maxAcceleration);
+        drive.getDriveSegmentsFollower().setMaxLateralAcceleration(config.maxLateralAcceleration);
+        drive.drivePath(path, trajectory, plan);
+    }
+
+    @Override
+    public boolean step() {
+        if (!planned) {
+            cancel();
+            return true;
+        }
+        return drive.isDriveSegmentsFollowerFinished();
+    }
+
+    @Override
+    protected void finish(boolean interrupted) {
+        logger.info((interrupted ? "Interrupted" : "Finished") + " driving path at " + drive.getPose());
+        drive.stop();
+    }
+
+    @Override
+    public void configure(Config config) {
+        this.config = config;
+        this.drivePath = toDrivePath(config);
+        long key = CompiledPathFile.getKey(drivePath, config.maxAcceleration, config.maxLateralAcceleration);
+        CompiledPathFile.Entry compiled = robot.getCompiledPaths().get(key);
+        if (compiled != null) {
+            this.path = compiled.getPath();
+            this.trajectory = compiled.getTrajectory();
+            this.plan = null;
+            logger.trace("using compiled path: " + compiled);
+        } else {
+            if (robot.getCompiledPaths().size() > 0) {
+                logger.warn("Path is not compiled, or compiled paths are out of date. Run compilePaths to update them");
+            }
+            this.path = drivePath.toSegments().compile();
+            this.trajectory = null;
+            this.plan = null;
+            logger.trace("segments: " + path.size());
+        }
+        this.planned = true;
+        if (trajectory == null && path.size() > 0) {
+            // plan here rather than on the control thread, so a path which can't be followed is found early
+            try {
+                this.plan = VelocityPlan.plan(path, config.maxAcceleration, config.maxLateralAcceleration);
+            } catch (IllegalArgumentException e) {
+                logger.error("Could not plan the speed along the path", e);
+                this.planned = false;
+            }
+        }
     }
 
     public static class Config {
         public double speed;
         public double arcSpeed;
         public double maxAcceleration;
+        public double maxLateralAcceleration = Double.POSITIVE_INFINITY;
         public double radius;
         public boolean reverse = false;
         public List<DrivePath.Point> path;
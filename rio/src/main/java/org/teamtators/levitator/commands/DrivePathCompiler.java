@@ -0,0 +1,122 @@
+package org.teamtators.levitator.commands;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.teamtators.common.TatorRobotBase;
+import org.teamtators.common.config.ConfigCommandStore;
+import org.teamtators.common.config.ConfigException;
+import org.teamtators.common.drive.CompiledDriveSegments;
+import org.teamtators.common.drive.CompiledPathFile;
+import org.teamtators.common.drive.DrivePath;
+import org.teamtators.common.drive.DriveTrajectory;
+import org.teamtators.common.drive.VelocityPlan;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compiles every {@link DrivePathCommand} in a commands config into a {@link CompiledPathFile}, which is deployed with
+ * the config so the robot does not have to build paths itself. Meant to be run offline, off of the robot, and run by
+ * the {@code compilePaths} gradle task before every deploy.
+ * <p>
+ * Usage: {@code DrivePathCompiler <Commands.yaml> <Paths.bin>}
+ */
+public class DrivePathCompiler {
+    private static final String CLASS_NAME = "DrivePath";
+
+    private final ObjectMapper mapper;
+    private final Map<Long, CompiledPathFile.Entry> entries = new LinkedHashMap<>();
+    private JsonNode defaults;
+
+    public DrivePathCompiler() {
+        mapper = new ObjectMapper(new YAMLFactory());
+        mapper.configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: DrivePathCompiler <Commands.yaml> <" + CompiledPathFile.FILE_NAME + ">");
+            System.exit(1);
+        }
+        DrivePathCompiler compiler = new DrivePathCompiler();
+        compiler.compileCommands((ObjectNode) compiler.mapper.readTree(new File(args[0])));
+        File output = new File(args[1]);
+        compiler.write(output);
+        System.out.println("Compiled " + compiler.entries.size() + " paths from " + args[0] + " to " + output);
+    }
+
+    /**
+     * Compiles every DrivePath command in a commands config, finding them the same way {@link ConfigCommandStore}
+     * and sequential commands do
+     *
+     * @param commands The commands config
+     */
+    public void compileCommands(ObjectNode commands) {
+        defaults = commands.get("^" + CLASS_NAME);
+        Iterator<Map.Entry<String, JsonNode>> it = commands.fields();
+        while (it.hasNext()) {
+            Map.Entry<String, JsonNode> field = it.next();
+            String name = field.getKey();
+            JsonNode config = field.getValue();
+            char prefix = name.charAt(0);
+            if (prefix == '$' && config.isArray()) {
+                int index = 1;
+                for (JsonNode node : config) {
+                    if (node.isObject() && CLASS_NAME.equals(node.path("class").asText())) {
+                        compileCommand(CLASS_NAME + "<" + name + ">" + index++, (ObjectNode) node);
+                    }
+                }
+            } else if (prefix != '^' && config.isObject() &&
+                    CLASS_NAME.equals(config.path("class").asText(name))) {
+                compileCommand(name, (ObjectNode) config);
+            }
+        }
+    }
+
+    private void compileCommand(String name, ObjectNode node) {
+        ObjectNode config = node.deepCopy();
+        config.remove("class");
+        config.remove("name");
+        config.remove("parallel");
+        if (defaults != null && defaults.isObject()) {
+            config = ConfigCommandStore.applyDefaults(config, (ObjectNode) defaults);
+        }
+        DrivePathCommand.Config pathConfig;
+        try {
+            pathConfig = mapper.treeToValue(config, DrivePathCommand.Config.class);
+        } catch (JsonProcessingException e) {
+            throw new ConfigException("Error reading config of " + name, e);
+        }
+        DrivePath drivePath = DrivePathCommand.toDrivePath(pathConfig);
+        long key = CompiledPathFile.getKey(drivePath, pathConfig.maxAcceleration,
+                pathConfig.maxLateralAcceleration);
+        if (entries.containsKey(key)) {
+            return;
+        }
+        CompiledDriveSegments path = drivePath.toSegments().compile();
+        DriveTrajectory trajectory = null;
+        if (path.size() > 0 && pathConfig.maxAcceleration > 0) {
+            try {
+                VelocityPlan plan = VelocityPlan.plan(path, pathConfig.maxAcceleration,
+                        pathConfig.maxLateralAcceleration);
+                trajectory = DriveTrajectory.generate(plan, TatorRobotBase.CONTROL_LOOP_PERIOD);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Not generating a trajectory for " + name + ": " + e.getMessage());
+            }
+        }
+        CompiledPathFile.Entry entry = new CompiledPathFile.Entry(key, name, path, trajectory);
+        entries.put(key, entry);
+        System.out.println(entry);
+    }
+
+    public void write(File output) throws IOException {
+        CompiledPathFile.write(output, entries.values());
+    }
+}
@@ -11,8 +11,12 @@ public class DriveStraight extends Command implements Configurable<DriveStraight
     private Config config;
 
     public DriveStraight(TatorRobot robot) {
+        this(robot.getSubsystems().getDrive());
+    }
+
+    public DriveStraight(Drive drive) {
         super("DriveStraight");
-        drive = robot.getSubsystems().getDrive();
+        this.drive = drive;
         requires(drive);
     }
 
@@ -9,6 +9,11 @@ import org.teamtators.common.util.FMSData;
 import org.teamtators.common.util.FieldSide;
 import org.teamtators.levitator.TatorRobot;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 public class Auto extends Subsystem implements Configurable<Auto.Config> {
 
     private SendableChooser<String> autoChoices = new SendableChooser<>();
@@ -58,6 +63,22 @@ public class Auto extends Subsystem implements Configurable<Auto.Config> {
         SmartDashboard.putData(autoChoices);
     }
 
+    /**
+     * @return The names of all of the auto commands which can be chosen
+     */
+    public Collection<String> getAutoChoices() {
+        Set<String> choices = new LinkedHashSet<>();
+        if (config != null) {
+            if (config.autoChoices != null) {
+                choices.addAll(Arrays.asList(config.autoChoices));
+            }
+            if (config.defaultChoice != null) {
+                choices.add(config.defaultChoice);
+            }
+        }
+        return choices;
+    }
+
     public FieldSide getFieldConfiguration(int object) {
         return data.elementSides[object];
     }
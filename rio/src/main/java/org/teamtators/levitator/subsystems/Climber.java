@@ -10,12 +10,14 @@ import edu.wpi.first.wpilibj.smartdashboard.SendableBuilder;
 import org.teamtators.common.config.Configurable;
 import org.teamtators.common.config.helpers.DigitalSensorConfig;
 import org.teamtators.common.config.helpers.SolenoidConfig;
-import org.teamtators.common.config.helpers.SpeedControllerConfig;
 import org.teamtators.common.config.helpers.SpeedControllerGroupConfig;
 import org.teamtators.common.control.MotorPowerUpdater;
 import org.teamtators.common.controllers.LogitechF310;
+import org.teamtators.common.hw.BooleanSensor;
 import org.teamtators.common.hw.DigitalSensor;
+import org.teamtators.common.hw.Motor;
 import org.teamtators.common.hw.SpeedControllerGroup;
+import org.teamtators.common.hw.WpiMotor;
 import org.teamtators.common.scheduler.Command;
 import org.teamtators.common.scheduler.RobotState;
 import org.teamtators.common.scheduler.Subsystem;
@@ -32,14 +34,15 @@ import java.util.List;
 public class Climber extends Subsystem implements Configurable<Climber.Config> {
     public static final double CYCLES_PER_REV = 4096.0;
     private final TatorRobot robot;
-    private SpeedControllerGroup climberMotor;
+    private Motor climberMotor;
     private WPI_TalonSRX masterMotor;
 //    private MotorPowerUpdater climberMotorUpdater;
-    private DigitalSensor topLimit;
-    private DigitalSensor bottomLimit;
+    private BooleanSensor topLimit;
+    private BooleanSensor bottomLimit;
     private Solenoid releaser;
     private Config config;
     private boolean homed;
+    private Command homeCommand;
     private EncoderSendable encoderSendable;
 
     public Climber(TatorRobot robot) {
@@ -55,6 +58,14 @@ public class Climber extends Subsystem implements Configurable<Climber.Config> {
         return homed;
     }
 
+    /**
+     * @param homeCommand The command started when the robot changes state if the climber has not been homed, or
+     *                    null to not home it
+     */
+    public void setHomeCommand(Command homeCommand) {
+        this.homeCommand = homeCommand;
+    }
+
     public void setPower(double power, boolean force) {
         double pow = power;
         if (!force) {
@@ -105,7 +116,7 @@ public class Climber extends Subsystem implements Configurable<Climber.Config> {
     @Override
     public void onEnterRobotState(RobotState state) {
         if (!homed) {
-            Command homeCommand = robot.getCommandStore().getCommand("ClimberHome");
+            Command homeCommand = this.homeCommand;
             if (homeCommand != null && !homeCommand.isRunning()) {
                 robot.getScheduler().startCommand(homeCommand);
             }
@@ -115,10 +126,10 @@ public class Climber extends Subsystem implements Configurable<Climber.Config> {
     @Override
     public void configure(Config config) {
         this.config = config;
-        climberMotor = config.climberMotor.create();
+        SpeedControllerGroup climberMotor = config.climberMotor.create();
         masterMotor = (WPI_TalonSRX) climberMotor.getSpeedControllers()[0];
-        topLimit = config.topLimit.create();
-        bottomLimit = config.bottomLimit.create();
+        DigitalSensor topLimit = config.topLimit.create();
+        DigitalSensor bottomLimit = config.bottomLimit.create();
         releaser = config.releaser.create();
 //        climberMotorUpdater = new MotorPowerUpdater(climberMotor);
 
@@ -131,6 +142,10 @@ public class Climber extends Subsystem implements Configurable<Climber.Config> {
         bottomLimit.setName("Climber", "bottomLimit");
         releaser.setName("Climber", "releaser");
 
+        this.climberMotor = new WpiMotor(climberMotor);
+        this.topLimit = topLimit;
+        this.bottomLimit = bottomLimit;
+
         encoderSendable = new EncoderSendable();
         encoderSendable.setName("Climber", "encoder");
 
@@ -139,7 +154,7 @@ public class Climber extends Subsystem implements Configurable<Climber.Config> {
 
     @Override
     public void deconfigure() {
-        SpeedControllerConfig.free(climberMotor);
+        climberMotor.free();
         topLimit.free();
         bottomLimit.free();
         releaser.free();
@@ -150,10 +165,7 @@ public class Climber extends Subsystem implements Configurable<Climber.Config> {
         ManualTestGroup group = super.createManualTests();
         group.addTest(new ClimberEncoderTest());
         group.addTest(new SpeedControllerTest("climberMotor", climberMotor));
-        for (int i = 0; i < climberMotor.getSpeedControllers().length; i++) {
-            SpeedController speedController = climberMotor.getSpeedControllers()[i];
-            group.addTest(new SpeedControllerTest("climberMotor(" + i + ")", speedController));
-        }
+        group.addTests(SpeedControllerTest.createGroupTests("climberMotor", climberMotor));
         group.addTest(new DigitalSensorTest("topLimit", topLimit));
         group.addTest(new DigitalSensorTest("bottomLimit", bottomLimit));
         group.addTest(new SolenoidTest("releaser", releaser));
@@ -6,12 +6,11 @@ import edu.wpi.first.wpilibj.Sendable;
 import edu.wpi.first.wpilibj.SpeedController;
 import org.teamtators.common.config.Configurable;
 import org.teamtators.common.config.helpers.EncoderConfig;
-import org.teamtators.common.config.helpers.SpeedControllerConfig;
 import org.teamtators.common.config.helpers.SpeedControllerGroupConfig;
 import org.teamtators.common.control.*;
 import org.teamtators.common.drive.*;
-import org.teamtators.common.hw.ADXRS453;
-import org.teamtators.common.hw.SpeedControllerGroup;
+import org.teamtators.common.hw.*;
+import org.teamtators.common.math.MutablePose2d;
 import org.teamtators.common.math.Pose2d;
 import org.teamtators.common.math.Rotation;
 import org.teamtators.common.math.Translation2d;
@@ -20,7 +19,7 @@ import org.teamtators.common.scheduler.Subsystem;
 import org.teamtators.common.tester.ManualTestGroup;
 import org.teamtators.common.tester.components.*;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Predicate;
 
@@ -31,11 +30,11 @@ import java.util.function.Predicate;
 public class Drive extends Subsystem implements Configurable<Drive.Config>, TankDrive {
 
     public static final Predicate<TrapezoidalProfileFollower> DEFAULT_PREDICATE = ControllerPredicates.finished();
-    private SpeedControllerGroup leftMotor;
-    private SpeedControllerGroup rightMotor;
-    private Encoder rightEncoder;
-    private Encoder leftEncoder;
-    private ADXRS453 gyro;
+    private Motor leftMotor;
+    private Motor rightMotor;
+    private RateEncoder rightEncoder;
+    private RateEncoder leftEncoder;
+    private Gyro gyro;
     private PidController rotationController = new PidController("Drive.rotationController");
 
     private TrapezoidalProfileFollower straightMotionFollower = new TrapezoidalProfileFollower("Drive.straightMotionFollower");
@@ -49,6 +48,8 @@ public class Drive extends Subsystem implements Configurable<Drive.Config>, Tank
 
     private TankKinematics tankKinematics;
     private PoseEstimator poseEstimator = new PoseEstimator(this);
+    private UpdatableCollection odometry = new UpdatableCollection("Drive.odometry");
+    private Updater odometryUpdater;
     private DriveSegmentsFollower driveSegmentsFollower = new DriveSegmentsFollower(this);
 
     private Config config;
@@ -182,8 +183,16 @@ public class Drive extends Subsystem implements Configurable<Drive.Config>, Tank
     }
 
     public void driveSegments(DriveSegments segments) {
+        drivePath(segments.compile(), null);
+    }
+
+    public void drivePath(CompiledDriveSegments path, DriveTrajectory trajectory) {
+        drivePath(path, trajectory, null);
+    }
+
+    public void drivePath(CompiledDriveSegments path, DriveTrajectory trajectory, VelocityPlan plan) {
         setDriveMode(DriveMode.Segments);
-        driveSegmentsFollower.setSegments(segments);
+        driveSegmentsFollower.setPath(path, trajectory, plan);
         driveSegmentsFollower.start();
         leftController.start();
         rightController.start();
@@ -336,18 +345,50 @@ public class Drive extends Subsystem implements Configurable<Drive.Config>, Tank
         return poseEstimator.getPose();
     }
 
+    @Override
+    public MutablePose2d getPose(MutablePose2d dest) {
+        return poseEstimator.getPose(dest);
+    }
+
+    @Override
+    public int getYawAngleSamples(double[] dest) {
+        return gyro.getSampleAngles(dest);
+    }
+
     @Override
     public double getMaxSpeed() {
         return config.maxSpeed;
     }
 
     public List<Updatable> getUpdatables() {
-        return Arrays.asList(
-                gyro, poseEstimator, rotationController, yawAngleController,
-                straightMotionFollower, driveSegmentsFollower, yawAngleController, leftController, rightController,
-                rotationMotionFollower,
-                outputController
-                );
+        List<Updatable> updatables = new ArrayList<>();
+        if (!isOdometryThreaded()) {
+            updatables.add(odometry);
+        }
+        updatables.add(rotationController);
+        updatables.add(yawAngleController);
+        updatables.add(straightMotionFollower);
+        updatables.add(driveSegmentsFollower);
+        updatables.add(yawAngleController);
+        updatables.add(leftController);
+        updatables.add(rightController);
+        updatables.add(rotationMotionFollower);
+        updatables.add(outputController);
+        return updatables;
+    }
+
+    /**
+     * @return Whether the gyro and pose estimator are updated on their own thread instead of in the control loop
+     */
+    public boolean isOdometryThreaded() {
+        return config != null && config.odometryPeriod > 0;
+    }
+
+    /**
+     * @return The updater of the odometry thread, or null if odometry is updated in the control loop
+     */
+    public Updater getOdometryUpdater() {
+        return isOdometryThreaded() ? odometryUpdater : null;
     }
 
     @Override
@@ -362,15 +403,8 @@ public class Drive extends Subsystem implements Configurable<Drive.Config>, Tank
         tests.addTests(new ADXRS453Test("gyro", gyro));
 
         // TODO: make a SpeedControllerGroup tests so we no longer need this
-        for (int i = 0; i < leftMotor.getSpeedControllers().length; i++) {
-            SpeedController speedController = leftMotor.getSpeedControllers()[i];
-            tests.addTest(new SpeedControllerTest("leftMotor(" + i + ")", speedController));
-        }
-
-        for (int i = 0; i < rightMotor.getSpeedControllers().length; i++) {
-            SpeedController speedController = rightMotor.getSpeedControllers()[i];
-            tests.addTest(new SpeedControllerTest("rightMotor(" + i + ")", speedController));
-        }
+        tests.addTests(SpeedControllerTest.createGroupTests("leftMotor", leftMotor));
+        tests.addTests(SpeedControllerTest.createGroupTests("rightMotor", rightMotor));
         tests.addTests(new ControllerTest(rotationController, 180));
         tests.addTests(new ControllerTest(leftController, config.maxSpeed));
         tests.addTests(new ControllerTest(rightController, config.maxSpeed));
@@ -395,6 +429,10 @@ public class Drive extends Subsystem implements Configurable<Drive.Config>, Tank
     @Override
     public void onEnterRobotState(RobotState state) {
         stop();
+        if (state == RobotState.DISABLED) {
+            // recalibrate in the background between matches, windows where the robot is moved are thrown away
+            gyro.startCalibration();
+        }
         if (state == RobotState.TELEOP || state == RobotState.AUTONOMOUS || state == RobotState.TEST) {
             gyro.finishCalibration();
         }
@@ -407,25 +445,12 @@ public class Drive extends Subsystem implements Configurable<Drive.Config>, Tank
 
     @Override
     public void configure(Config config) {
-        super.configure();
-        this.config = config;
-        this.tankKinematics = config.tankKinematics;
-        poseEstimator.setKinematics(tankKinematics);
-        this.leftMotor = config.leftMotor.create();
-        this.rightMotor = config.rightMotor.create();
-        this.leftEncoder = config.leftEncoder.create();
-        this.rightEncoder = config.rightEncoder.create();
-        this.straightMotionFollower.configure(config.straightMotionFollower);
-        this.yawAngleController.configure(config.yawAngleController);
-        this.leftController.configure(config.speedController);
-        this.rightController.configure(config.speedController);
-        this.rotationMotionFollower.configure(config.rotationMotionFollower);
-        this.driveSegmentsFollower.configure(config.driveSegmentsFollower);
-
-        gyro = new ADXRS453(SPI.Port.kOnboardCS0);
-        this.rotationController.configure(config.rotationController);
+        SpeedControllerGroup leftMotor = config.leftMotor.create();
+        SpeedControllerGroup rightMotor = config.rightMotor.create();
+        Encoder leftEncoder = config.leftEncoder.create();
+        Encoder rightEncoder = config.rightEncoder.create();
+        ADXRS453 gyro = new ADXRS453(SPI.Port.kOnboardCS0);
         gyro.start();
-        gyro.startCalibration();
 
         ((Sendable) leftMotor).setName("Drive", "leftMotor");
         for (int i = 0; i < leftMotor.getSpeedControllers().length; i++) {
@@ -441,15 +466,59 @@ public class Drive extends Subsystem implements Configurable<Drive.Config>, Tank
         rightEncoder.setName("Drive", "rightEncoder");
         gyro.setName("Drive", "gyro");
 
+        configure(config, new WpiMotor(leftMotor), new WpiMotor(rightMotor), new WpiEncoder(leftEncoder),
+                new WpiEncoder(rightEncoder), gyro);
+    }
+
+    /**
+     * Configures the drive with hardware which was already created, such as simulated hardware, instead of creating
+     * it from the config
+     */
+    public void configure(Config config, Motor leftMotor, Motor rightMotor, RateEncoder leftEncoder,
+                          RateEncoder rightEncoder, Gyro gyro) {
+        super.configure();
+        this.config = config;
+        this.tankKinematics = config.tankKinematics;
+        poseEstimator.setKinematics(tankKinematics);
+        this.leftMotor = leftMotor;
+        this.rightMotor = rightMotor;
+        this.leftEncoder = leftEncoder;
+        this.rightEncoder = rightEncoder;
+        this.gyro = gyro;
+        this.straightMotionFollower.configure(config.straightMotionFollower);
+        this.yawAngleController.configure(config.yawAngleController);
+        this.leftController.configure(config.speedController);
+        this.rightController.configure(config.speedController);
+        this.rotationMotionFollower.configure(config.rotationMotionFollower);
+        this.driveSegmentsFollower.configure(config.driveSegmentsFollower);
+
+        this.rotationController.configure(config.rotationController);
+        gyro.startCalibration();
+
         poseEstimator.start();
+        odometry.clear();
+        odometry.add(gyro);
+        odometry.add(poseEstimator);
+        if (isOdometryThreaded()) {
+            if (odometryUpdater == null) {
+                odometryUpdater = new Updater(odometry, config.odometryPeriod);
+            }
+            odometryUpdater.setPeriod(config.odometryPeriod);
+            odometryUpdater.start();
+        }
     }
 
     @Override
     public void deconfigure() {
         super.deconfigure();
+        if (odometryUpdater != null) {
+            // waits for an odometry update in progress, so the gyro and encoders aren't freed while it uses them
+            odometryUpdater.stop();
+        }
+        odometry.clear();
         this.config = null;
-        SpeedControllerConfig.free(leftMotor);
-        SpeedControllerConfig.free(rightMotor);
+        if (leftMotor != null) leftMotor.free();
+        if (rightMotor != null) rightMotor.free();
         if (leftEncoder != null) leftEncoder.free();
         if (rightEncoder != null) rightEncoder.free();
         if (gyro != null) gyro.free();
@@ -479,6 +548,11 @@ public class Drive extends Subsystem implements Configurable<Drive.Config>, Tank
         public TankKinematics tankKinematics;
         public DriveSegmentsFollower.Config driveSegmentsFollower;
         public double maxSpeed;
+        /**
+         * The period to update the gyro and pose estimator at on their own thread, in seconds. 0 to update them in the
+         * control loop.
+         */
+        public double odometryPeriod = 0.0;
     }
 
     private class OutputController extends AbstractUpdatable {
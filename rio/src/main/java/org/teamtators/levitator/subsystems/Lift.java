@@ -1,13 +1,14 @@
 package org.teamtators.levitator.subsystems;
 
-import edu.wpi.first.wpilibj.Encoder;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj.Sendable;
 import org.teamtators.common.config.Configurable;
 import org.teamtators.common.config.helpers.*;
 import org.teamtators.common.control.*;
 import org.teamtators.common.controllers.LogitechF310;
-import org.teamtators.common.hw.DigitalSensor;
-import org.teamtators.common.hw.SpeedControllerGroup;
+import org.teamtators.common.datalogging.Dashboard;
+import org.teamtators.common.datalogging.DashboardEntry;
+import org.teamtators.common.datalogging.DashboardUpdatable;
+import org.teamtators.common.hw.*;
 import org.teamtators.common.math.Epsilon;
 import org.teamtators.common.scheduler.RobotState;
 import org.teamtators.common.scheduler.Subsystem;
@@ -23,19 +24,20 @@ public class Lift extends Subsystem implements Configurable<Lift.Config> {
     private static final boolean ENABLE_HOME = false;
     private Pivot pivot;
 
-    private SpeedControllerGroup liftMotor;
+    private Motor liftMotor;
     private MotorPowerUpdater liftMotorUpdater;
-    private Encoder liftEncoder;
-    private DigitalSensor limitSensorTop;
-    private DigitalSensor limitSensorBottom;
+    private RateEncoder liftEncoder;
+    private BooleanSensor limitSensorTop;
+    private BooleanSensor limitSensorBottom;
 
     private double desiredHeight;
     private double targetHeight;
     private double lastAttemptedHeight;
 
     private TrapezoidalProfileFollower liftController;
+    private VelocityEstimator liftVelocity;
     private PreUpdatable preUpdatable;
-    private NetworkTablesUpdater networkTablesUpdater;
+    private LiftDashboardUpdatable dashboardUpdatable;
 
     private Config config;
 
@@ -49,6 +51,8 @@ public class Lift extends Subsystem implements Configurable<Lift.Config> {
     public Lift() {
         super("Lift");
 
+        liftVelocity = new VelocityEstimator("Lift.liftVelocity", this::getCurrentHeight, this::getLiftRate);
+
         liftController = new TrapezoidalProfileFollower("liftController");
         liftController.setPositionProvider(this::getCurrentHeight);
         liftController.setVelocityProvider(this::getLiftVelocity);
@@ -56,7 +60,7 @@ public class Lift extends Subsystem implements Configurable<Lift.Config> {
         liftController.setOnTargetPredicate(ControllerPredicates.alwaysFalse());
 
         preUpdatable = new PreUpdatable();
-        networkTablesUpdater = new NetworkTablesUpdater();
+        dashboardUpdatable = new LiftDashboardUpdatable();
     }
 
     public Pivot getPivot() {
@@ -80,9 +84,16 @@ public class Lift extends Subsystem implements Configurable<Lift.Config> {
     }
 
     /**
-     * @return velocity in inches per second
+     * @return filtered velocity in inches per second
      */
     public double getLiftVelocity() {
+        return liftVelocity.getControllerInput();
+    }
+
+    /**
+     * @return unfiltered velocity from the encoder in inches per second
+     */
+    public double getLiftRate() {
         return liftEncoder.getRate();
     }
 
@@ -185,11 +196,18 @@ public class Lift extends Subsystem implements Configurable<Lift.Config> {
 
     public void setLiftPower(double liftPower) {
         //limit to max zero if max height is triggered
+        boolean held = false;
         if (isAtTopLimit() && liftPower > 0.0) {
             liftPower = 0.0;
+            held = true;
         }
         if (isAtBottomLimit() && liftPower < 0.0) {
             liftPower = 0.0;
+            held = true;
+        }
+        if (held && liftController.isRunning()) {
+            // keep the profile where the lift is, so it doesn't jump ahead once it comes off the limit
+            liftController.resync();
         }
         liftMotorUpdater.set(liftPower);
     }
@@ -212,7 +230,14 @@ public class Lift extends Subsystem implements Configurable<Lift.Config> {
     }
 
     public List<Updatable> getUpdatables() {
-        return Arrays.asList(preUpdatable, liftController, networkTablesUpdater);
+        return Arrays.asList(liftVelocity, preUpdatable, liftController);
+    }
+
+    /**
+     * @return Publishes the target height and whether it is forced, for the driver station
+     */
+    public DashboardUpdatable getDashboardUpdatable() {
+        return dashboardUpdatable;
     }
 
     public void clearForceHeightFlag() {
@@ -331,20 +356,35 @@ public class Lift extends Subsystem implements Configurable<Lift.Config> {
 
     @Override
     public void configure(Config config) {
+        WpiMotor liftMotor = config.liftMotor.createMotor();
+        WpiEncoder liftEncoder = config.liftEncoder.createRateEncoder();
+        DigitalSensor limitSensorTop = config.limitSensorTop.create();
+        DigitalSensor limitSensorBottom = config.limitSensorBottom.create();
+
+        ((Sendable) liftMotor.getSpeedController()).setName("Lift", "liftMotor");
+        liftEncoder.getEncoder().setName("Lift", "liftEncoder");
+        limitSensorTop.setName("Lift", "limitSensorTop");
+        limitSensorBottom.setName("Lift", "limitSensorBottom");
+
+        configure(config, liftMotor, liftEncoder, limitSensorTop, limitSensorBottom);
+    }
+
+    /**
+     * Configures the lift with hardware which was already created, such as simulated hardware, instead of creating
+     * it from the config
+     */
+    public void configure(Config config, Motor liftMotor, RateEncoder liftEncoder, BooleanSensor limitSensorTop,
+                          BooleanSensor limitSensorBottom) {
         super.configure();
         this.config = config;
 
-        this.liftMotor = config.liftMotor.create();
-        this.liftEncoder = config.liftEncoder.create();
-        this.limitSensorTop = config.limitSensorTop.create();
-        this.limitSensorBottom = config.limitSensorBottom.create();
+        this.liftMotor = liftMotor;
+        this.liftEncoder = liftEncoder;
+        this.limitSensorTop = limitSensorTop;
+        this.limitSensorBottom = limitSensorBottom;
 
         this.liftController.configure(config.heightController);
-
-        liftMotor.setName("Lift", "liftMotor");
-        liftEncoder.setName("Lift", "liftEncoder");
-        limitSensorTop.setName("Lift", "limitSensorTop");
-        limitSensorBottom.setName("Lift", "limitSensorBottom");
+        this.liftVelocity.configure(config.velocityEstimator);
 
         liftMotorUpdater = new MotorPowerUpdater(liftMotor);
 
@@ -356,7 +396,7 @@ public class Lift extends Subsystem implements Configurable<Lift.Config> {
     public void deconfigure() {
         super.deconfigure();
 
-        SpeedControllerConfig.free(liftMotor);
+        liftMotor.free();
         liftEncoder.free();
         limitSensorTop.free();
         limitSensorBottom.free();
@@ -398,6 +438,7 @@ public class Lift extends Subsystem implements Configurable<Lift.Config> {
         public DigitalSensorConfig limitSensorBottom;
 
         public TrapezoidalProfileFollower.Config heightController;
+        public VelocityEstimator.Config velocityEstimator = new VelocityEstimator.Config();
 
         public Map<HeightPreset, Double> heightPresets;
 
@@ -437,6 +478,7 @@ public class Lift extends Subsystem implements Configurable<Lift.Config> {
             }
             logger.info("Lift homed");
             liftEncoder.reset();
+            liftVelocity.reset();
             enableLiftController();
             homed = true;
         } else {
@@ -511,16 +553,20 @@ public class Lift extends Subsystem implements Configurable<Lift.Config> {
         }
     }
 
-    private class NetworkTablesUpdater implements Updatable {
-        @Override
-        public String getName() {
-            return "Lift.networkTablesUpdater";
-        }
+    private class LiftDashboardUpdatable implements DashboardUpdatable {
+        private Dashboard dashboard;
+        private DashboardEntry liftTargetEntry;
+        private DashboardEntry moveEntry;
 
         @Override
-        public void update(double delta) {
-            SmartDashboard.putNumber("liftTarget", Lift.this.getTargetHeight());
-            SmartDashboard.putBoolean("move", Lift.this.isHeightForced());
+        public void updateDashboard(Dashboard dashboard) {
+            if (dashboard != this.dashboard) {
+                this.dashboard = dashboard;
+                liftTargetEntry = dashboard.getEntry("liftTarget");
+                moveEntry = dashboard.getEntry("move");
+            }
+            liftTargetEntry.setNumber(Lift.this.getTargetHeight());
+            moveEntry.setBoolean(Lift.this.isHeightForced());
         }
     }
 }
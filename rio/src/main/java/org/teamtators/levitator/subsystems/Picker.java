@@ -2,14 +2,16 @@ package org.teamtators.levitator.subsystems;
 
 import edu.wpi.first.wpilibj.Sendable;
 import edu.wpi.first.wpilibj.Solenoid;
-import edu.wpi.first.wpilibj.SpeedController;
 import org.teamtators.common.config.Configurable;
 import org.teamtators.common.config.helpers.DigitalSensorConfig;
 import org.teamtators.common.config.helpers.SolenoidConfig;
 import org.teamtators.common.config.helpers.SpeedControllerConfig;
 import org.teamtators.common.control.MotorPowerUpdater;
 import org.teamtators.common.control.Updatable;
+import org.teamtators.common.hw.BooleanSensor;
 import org.teamtators.common.hw.DigitalSensor;
+import org.teamtators.common.hw.Motor;
+import org.teamtators.common.hw.WpiMotor;
 import org.teamtators.common.scheduler.RobotState;
 import org.teamtators.common.scheduler.Subsystem;
 import org.teamtators.common.tester.ManualTestGroup;
@@ -21,14 +23,14 @@ import java.util.Arrays;
 import java.util.List;
 
 public class Picker extends Subsystem implements Configurable<Picker.Config> {
-    private SpeedController leftMotor;
+    private Motor leftMotor;
     private MotorPowerUpdater leftMotorUpdater;
-    private SpeedController rightMotor;
+    private Motor rightMotor;
     private MotorPowerUpdater rightMotorUpdater;
     private Solenoid extensionSolenoid;
-    private DigitalSensor cubeDetectSensor;
-    private DigitalSensor upperCubeSensor;
-    private DigitalSensor lowerCubeSensor;
+    private BooleanSensor cubeDetectSensor;
+    private BooleanSensor upperCubeSensor;
+    private BooleanSensor lowerCubeSensor;
     private Solenoid armLock;
 
     private boolean defaultExtended = false;
@@ -155,22 +157,28 @@ public class Picker extends Subsystem implements Configurable<Picker.Config> {
     @Override
     public void configure(Config config) {
         super.configure();
-        this.leftMotor = config.leftMotor.create();
-        this.rightMotor = config.rightMotor.create();
+        WpiMotor leftMotor = config.leftMotor.createMotor();
+        WpiMotor rightMotor = config.rightMotor.createMotor();
         this.extensionSolenoid = config.extensionSolenoid.create();
-        this.cubeDetectSensor = config.cubeDetectSensor.create();
-        this.upperCubeSensor = config.upperCubeSensor.create();
-        this.lowerCubeSensor = config.lowerCubeSensor.create();
+        DigitalSensor cubeDetectSensor = config.cubeDetectSensor.create();
+        DigitalSensor upperCubeSensor = config.upperCubeSensor.create();
+        DigitalSensor lowerCubeSensor = config.lowerCubeSensor.create();
         this.armLock = config.armLock.create();
 
-        ((Sendable) leftMotor).setName("Picker", "leftMotor");
-        ((Sendable) rightMotor).setName("Picker", "rightMotor");
+        ((Sendable) leftMotor.getSpeedController()).setName("Picker", "leftMotor");
+        ((Sendable) rightMotor.getSpeedController()).setName("Picker", "rightMotor");
         extensionSolenoid.setName("Picker", "extensionSolenoid");
         cubeDetectSensor.setName("Picker", "cubeDetectSensor");
         upperCubeSensor.setName("Picker", "upperCubeSensor");
         lowerCubeSensor.setName("Picker", "lowerCubeSensor");
         armLock.setName("Picker", "armLock");
 
+        this.leftMotor = leftMotor;
+        this.rightMotor = rightMotor;
+        this.cubeDetectSensor = cubeDetectSensor;
+        this.upperCubeSensor = upperCubeSensor;
+        this.lowerCubeSensor = lowerCubeSensor;
+
         leftMotorUpdater = new MotorPowerUpdater(leftMotor);
         rightMotorUpdater = new MotorPowerUpdater(rightMotor);
     }
@@ -185,8 +193,8 @@ public class Picker extends Subsystem implements Configurable<Picker.Config> {
     @Override
     public void deconfigure() {
         super.deconfigure();
-        SpeedControllerConfig.free(leftMotor);
-        SpeedControllerConfig.free(rightMotor);
+        leftMotor.free();
+        rightMotor.free();
         extensionSolenoid.free();
         cubeDetectSensor.free();
         upperCubeSensor.free();
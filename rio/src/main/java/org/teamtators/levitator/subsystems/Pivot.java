@@ -7,7 +7,12 @@ import org.teamtators.common.control.*;
 import org.teamtators.common.control.Timer;
 import org.teamtators.common.controllers.LogitechF310;
 import org.teamtators.common.hw.AnalogPotentiometer;
+import org.teamtators.common.hw.BooleanSensor;
 import org.teamtators.common.hw.DigitalSensor;
+import org.teamtators.common.hw.Motor;
+import org.teamtators.common.hw.RateEncoder;
+import org.teamtators.common.hw.WpiEncoder;
+import org.teamtators.common.hw.WpiMotor;
 import org.teamtators.common.math.Epsilon;
 import org.teamtators.common.scheduler.RobotState;
 import org.teamtators.common.scheduler.Subsystem;
@@ -22,16 +27,17 @@ import java.util.Map;
 public class Pivot extends Subsystem implements Configurable<Pivot.Config> {
     private Lift lift;
 
-    private SpeedController pivotMotor;
+    private Motor pivotMotor;
     private MotorPowerUpdater pivotMotorUpdater;
     private AbstractUpdatable pivotUpdatable;
     private DigitalInput pivotEncoderA;
     private DigitalInput pivotEncoderB;
-    private Encoder pivotEncoder;
+    private RateEncoder pivotEncoder;
     private Solenoid pivotLockSolenoid;
-    private DigitalSensor pivotLockSensor;
+    private BooleanSensor pivotLockSensor;
 
     private TrapezoidalProfileFollower pivotController;
+    private VelocityEstimator pivotVelocity;
     private BooleanSampler locked = new BooleanSampler(this::isPivotLockedRaw);
 
     private boolean homed = false;
@@ -52,6 +58,9 @@ public class Pivot extends Subsystem implements Configurable<Pivot.Config> {
     public Pivot() {
         super("Pivot");
 
+        pivotVelocity = new VelocityEstimator("Pivot.pivotVelocity", this::getCurrentPivotAngle,
+                () -> pivotEncoder.getRate());
+
         pivotController = new TrapezoidalProfileFollower("pivotController");
         pivotController.setPositionProvider(this::getCurrentPivotAngle);
         pivotController.setVelocityProvider(() -> pivotController.getTargetVelocity());
@@ -89,17 +98,12 @@ public class Pivot extends Subsystem implements Configurable<Pivot.Config> {
     private void resetPivotAngle() {
         logger.debug("Reset pivot angle");
         pivotEncoder.reset();
+        pivotVelocity.reset();
         targetAngle = Double.NaN;
     }
 
     public double getCurrentPivotVelocity() {
-        double rate = pivotEncoder.getRate();
-        if (rate > 300.0) {
-            rate = 300;
-        } else if (rate < -300) {
-            rate = -300;
-        }
-        return rate;
+        return pivotVelocity.getControllerInput();
     }
 
     public double getDesiredPivotAngle() {
@@ -152,7 +156,7 @@ public class Pivot extends Subsystem implements Configurable<Pivot.Config> {
                 angle, distance));
         targetAngle = angle;
         pivotController.moveToPosition(angle);
-        logger.trace("Profile: {}", pivotController.getCalculator().getProfile());
+        logger.trace("Profile: {}", pivotController.getProfile());
         pivotController.setHoldPower(Math.signum(angle) * config.pivotHoldPower);
     }
 
@@ -200,6 +204,10 @@ public class Pivot extends Subsystem implements Configurable<Pivot.Config> {
         } else {
             /*pivotMotorUpdater*/
             pivotMotor.set(0);
+            if (pivotController.isRunning()) {
+                // held by the lock, so follow the rest of the profile from here once it is unlocked
+                pivotController.resync();
+            }
         }
     }
 
@@ -209,7 +217,7 @@ public class Pivot extends Subsystem implements Configurable<Pivot.Config> {
     }
 
     public List<Updatable> getUpdatables() {
-        return Arrays.asList(pivotUpdatable, pivotController);
+        return Arrays.asList(pivotVelocity, pivotUpdatable, pivotController);
     }
 
     public boolean isPivotLockedRaw() {
@@ -306,22 +314,23 @@ public class Pivot extends Subsystem implements Configurable<Pivot.Config> {
         super.configure();
         this.config = config;
 
-        this.pivotMotor = config.pivotMotor.create();
+        WpiMotor pivotMotor = config.pivotMotor.createMotor();
         this.pivotAnalog = config.pivotAnalog.create();
-//        this.pivotEncoder = config.pivotEncoder.create();
+//        this.pivotEncoder = config.pivotEncoder.createRateEncoder();
         this.pivotEncoderA = new DigitalInput(config.pivotEncoder.getaChannel());
         this.pivotEncoderB = new DigitalInput(config.pivotEncoder.getbChannel());
-        this.pivotEncoder = new Encoder(pivotEncoderA, pivotEncoderB, config.pivotEncoder.isReverse(),
+        Encoder pivotEncoder = new Encoder(pivotEncoderA, pivotEncoderB, config.pivotEncoder.isReverse(),
                 config.pivotEncoder.getEncodingType());
-        this.pivotEncoder.setDistancePerPulse(config.pivotEncoder.getDistancePerPulse());
+        pivotEncoder.setDistancePerPulse(config.pivotEncoder.getDistancePerPulse());
         this.pivotLockSolenoid = config.pivotLockSolenoid.create();
-        this.pivotLockSensor = config.pivotLockSensor.create();
+        DigitalSensor pivotLockSensor = config.pivotLockSensor.create();
 
         this.pivotController.configure(config.pivotController);
+        this.pivotVelocity.configure(config.velocityEstimator);
 
         locked.setPeriod(config.lockedPeriod);
 
-        ((Sendable) pivotMotor).setName("Pivot", "pivotMotor");
+        ((Sendable) pivotMotor.getSpeedController()).setName("Pivot", "pivotMotor");
         pivotEncoder.setName("Pivot", "pivotEncoder");
         pivotAnalog.setName("Pivot", "pivotAnalog");
         pivotEncoderA.setName("Pivot", "pivotEncoderA");
@@ -329,6 +338,10 @@ public class Pivot extends Subsystem implements Configurable<Pivot.Config> {
         pivotLockSolenoid.setName("Pivot", "pivotLockSolenoid");
         pivotLockSensor.setName("Pivot", "pivotLockSensor");
 
+        this.pivotMotor = pivotMotor;
+        this.pivotEncoder = new WpiEncoder(pivotEncoder);
+        this.pivotLockSensor = pivotLockSensor;
+
         pivotMotorUpdater = new MotorPowerUpdater(pivotMotor);
 
         homed = false;
@@ -338,7 +351,7 @@ public class Pivot extends Subsystem implements Configurable<Pivot.Config> {
     public void deconfigure() {
         super.deconfigure();
 
-        SpeedControllerConfig.free(pivotMotor);
+        pivotMotor.free();
         pivotEncoder.free();
         pivotAnalog.free();
         pivotEncoderA.free();
@@ -368,6 +381,7 @@ public class Pivot extends Subsystem implements Configurable<Pivot.Config> {
         public DigitalSensorConfig pivotLockSensor;
 
         public TrapezoidalProfileFollower.Config pivotController;
+        public VelocityEstimator.Config velocityEstimator = new VelocityEstimator.Config();
         public double pivotHoldPower;
 
         public Map<AnglePreset, Double> anglePresets;
@@ -0,0 +1,101 @@
+package org.teamtators.common.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.teamtators.common.scheduler.Command;
+import org.teamtators.common.scheduler.SequentialCommand;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.testng.Assert.*;
+
+public class ConfigCommandStoreTest {
+    private static final String CONFIG = "{" +
+            "\"First\": { \"class\": \"Test\" }," +
+            "\"Second\": { \"class\": \"Test\" }," +
+            "\"$Both\": [ \"First\", { \"class\": \"Test\" } ]," +
+            "\"$Outer\": [ \"$Both\", \"Second\" ]," +
+            "\"Bad\": { \"class\": \"Broken\" }" +
+            "}";
+
+    private static class TestCommand extends Command {
+        TestCommand() {
+            super("TestCommand");
+        }
+
+        @Override
+        public boolean step() {
+            return true;
+        }
+    }
+
+    private static ConfigCommandStore createStore(int[] constructed) throws IOException {
+        ConfigCommandStore store = new ConfigCommandStore();
+        store.registerCommand("Test", () -> {
+            constructed[0]++;
+            return new TestCommand();
+        });
+        store.registerCommand("Broken", () -> {
+            throw new IllegalStateException("broken");
+        });
+        store.createCommandsFromConfig((ObjectNode) new ObjectMapper().readTree(CONFIG));
+        return store;
+    }
+
+    @Test
+    public void testCreatedOnFirstLookup() throws IOException {
+        int[] constructed = new int[1];
+        ConfigCommandStore store = createStore(constructed);
+        assertEquals(constructed[0], 0);
+        assertTrue(store.getCommands().isEmpty());
+
+        Command both = store.getCommand("$Both");
+        assertTrue(both instanceof SequentialCommand);
+        assertEquals(((SequentialCommand) both).sequenceLength(), 2);
+        // First and the command defined in the sequence
+        assertEquals(constructed[0], 2);
+        assertSame(both.getChildCommands().iterator().next(), store.getCommand("First"));
+        assertSame(store.getCommand("$Both"), both);
+        assertFalse(store.getCommands().containsKey("Second"));
+        assertEquals(constructed[0], 2);
+    }
+
+    @Test
+    public void testFailureRepeats() throws IOException {
+        ConfigCommandStore store = createStore(new int[1]);
+        for (int i = 0; i < 2; i++) {
+            try {
+                store.getCommand("Bad");
+                fail("Created a command which can not be constructed");
+            } catch (ConfigException e) {
+                assertEquals(e.getMessage(), "Exception thrown while constructing Command Bad");
+            }
+        }
+        assertFalse(store.getCommands().containsKey("Bad"));
+    }
+
+    @Test
+    public void testWarmUp() throws IOException {
+        int[] constructed = new int[1];
+        ConfigCommandStore store = createStore(constructed);
+        assertFalse(store.warmUp(Arrays.asList("Bad", "Second")));
+        assertTrue(store.getCommands().containsKey("Second"));
+        assertEquals(constructed[0], 1);
+    }
+
+    @Test
+    public void testWarmUpCreatesNestedCommands() throws IOException {
+        int[] constructed = new int[1];
+        ConfigCommandStore store = createStore(constructed);
+        assertTrue(store.warmUp(Arrays.asList("$Outer")));
+        // everything an auto runs is created by warming it up, not when it first runs
+        assertTrue(store.getCommands().keySet().containsAll(Arrays.asList("$Outer", "$Both", "First", "Second")));
+        assertEquals(constructed[0], 3);
+        int created = store.getCommands().size();
+        store.getCommand("$Outer").getChildCommands();
+        assertEquals(store.getCommands().size(), created);
+        assertEquals(constructed[0], 3);
+    }
+}
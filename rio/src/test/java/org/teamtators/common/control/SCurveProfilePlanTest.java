@@ -0,0 +1,65 @@
+package org.teamtators.common.control;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public class SCurveProfilePlanTest {
+    private static final double DELTA = 1e-6;
+
+    private static void assertContinuous(MotionProfilePlan plan, double maxAcceleration, double maxJerk) {
+        double totalTime = plan.getTotalTime();
+        double step = totalTime / 1000;
+        double lastAcceleration = 0.0;
+        for (int i = 0; i <= 1000; i++) {
+            double time = step * i;
+            double acceleration = plan.getAcceleration(time);
+            assertTrue(Math.abs(acceleration) <= maxAcceleration + DELTA, "acceleration at time " + time);
+            assertTrue(Math.abs(acceleration - lastAcceleration) <= maxJerk * step + DELTA, "jerk at time " + time);
+            lastAcceleration = acceleration;
+            assertEquals(plan.getTimeAtPosition(plan.getPosition(time)), time, DELTA, "inverse at time " + time);
+        }
+    }
+
+    @Test
+    public void testSevenPhases() {
+        SCurveProfilePlan plan = new SCurveProfilePlan(new SCurveProfile(60.0, 0.0, 40.0, 0.0, 80.0, 800.0));
+        // each ramp takes 0.6s instead of 0.5s, so the trapezoid takes 0.1s longer
+        assertEquals(plan.getTotalTime(), 2.1, DELTA);
+        assertEquals(plan.getAcceleration(0.05), 40.0, DELTA);
+        assertEquals(plan.getVelocity(1.0), 40.0, DELTA);
+        assertEquals(plan.getPosition(1.05), 30.0, DELTA);
+        assertEquals(plan.getPosition(2.1), 60.0, DELTA);
+        assertEquals(plan.getVelocity(2.1), 0.0, DELTA);
+        assertContinuous(plan, 80.0, 800.0);
+    }
+
+    @Test
+    public void testShortDistance() {
+        SCurveProfilePlan plan = new SCurveProfilePlan(new SCurveProfile(-2.0, 0.0, -40.0, 0.0, 80.0, 800.0));
+        assertEquals(plan.getPosition(plan.getTotalTime()), -2.0, DELTA);
+        assertEquals(plan.getVelocity(plan.getTotalTime()), 0.0, DELTA);
+        assertContinuous(plan, 80.0, 800.0);
+    }
+
+    @Test
+    public void testInfiniteJerkIsTrapezoid() {
+        TrapezoidalProfile[] profiles = {
+                new TrapezoidalProfile(60.0, 0.0, 40.0, 0.0, 80.0),
+                new TrapezoidalProfile(-4.0, 0.0, -40.0, 0.0, 16.0),
+                new TrapezoidalProfile(30.0, 10.0, 40.0, 5.0, 80.0),
+        };
+        for (TrapezoidalProfile profile : profiles) {
+            TrapezoidalProfilePlan trapezoid = new TrapezoidalProfilePlan(profile);
+            SCurveProfilePlan sCurve = new SCurveProfilePlan(new SCurveProfile(profile.getDistance(),
+                    profile.getStartVelocity(), profile.getTravelVelocity(), profile.getEndVelocity(),
+                    profile.getMaxAcceleration(), Double.POSITIVE_INFINITY));
+            assertEquals(sCurve.getTotalTime(), trapezoid.getTotalTime(), DELTA);
+            for (int i = 0; i <= 100; i++) {
+                double time = trapezoid.getTotalTime() * i / 100;
+                assertEquals(sCurve.getPosition(time), trapezoid.getPosition(time), DELTA);
+                assertEquals(sCurve.getVelocity(time), trapezoid.getVelocity(time), DELTA);
+            }
+        }
+    }
+}
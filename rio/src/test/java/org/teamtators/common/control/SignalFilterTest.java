@@ -0,0 +1,94 @@
+package org.teamtators.common.control;
+
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static org.testng.Assert.*;
+
+public class SignalFilterTest {
+    private static final double DELTA = 1e-6;
+    private static final double PERIOD = 0.01;
+
+    @Test
+    public void testMovingAverage() {
+        MovingAverageFilter filter = new MovingAverageFilter(4);
+        assertEquals(filter.calculate(4.0, PERIOD), 4.0, DELTA);
+        assertEquals(filter.calculate(8.0, PERIOD), 6.0, DELTA);
+        for (int i = 0; i < 100; i++) {
+            filter.calculate(i % 2 == 0 ? 1.0 : 3.0, PERIOD);
+        }
+        assertEquals(filter.calculate(1.0, PERIOD), 2.0, DELTA);
+        filter.reset();
+        assertEquals(filter.calculate(10.0, PERIOD), 10.0, DELTA);
+    }
+
+    @Test
+    public void testExponential() {
+        ExponentialFilter filter = new ExponentialFilter(0.1);
+        assertEquals(filter.calculate(0.0, PERIOD), 0.0, DELTA);
+        double output = 0.0;
+        for (int i = 0; i < 10; i++) {
+            output = filter.calculate(1.0, PERIOD);
+        }
+        // about 1 - 1/e after one time constant
+        assertEquals(output, 1 - Math.exp(-1), 0.02);
+    }
+
+    @Test
+    public void testDerivativesOfRamp() {
+        SignalFilter savitzkyGolay = new SavitzkyGolayDerivative(5);
+        AlphaBetaFilter alphaBeta = new AlphaBetaFilter(0.5, 0.1);
+        double sgVelocity = 0.0, abVelocity = 0.0;
+        for (int i = 0; i < 500; i++) {
+            double position = 20.0 * i * PERIOD;
+            sgVelocity = savitzkyGolay.calculate(position, PERIOD);
+            abVelocity = alphaBeta.calculate(position, PERIOD);
+        }
+        assertEquals(sgVelocity, 20.0, DELTA);
+        assertEquals(abVelocity, 20.0, 0.01);
+    }
+
+    @Test
+    public void testNoiseReduction() {
+        // a raw rate measured over a single period between pulses is noisy
+        Random random = new Random(18);
+        SignalFilter savitzkyGolay = new SavitzkyGolayDerivative(10);
+        double position = 0.0, lastPosition = 0.0;
+        double rawError = 0.0, filteredError = 0.0;
+        for (int i = 0; i < 1000; i++) {
+            position += 30.0 * PERIOD;
+            double measured = position + random.nextGaussian() * 0.05;
+            double raw = (measured - lastPosition) / PERIOD;
+            double filtered = savitzkyGolay.calculate(measured, PERIOD);
+            lastPosition = measured;
+            if (i > 10) {
+                rawError += (raw - 30.0) * (raw - 30.0);
+                filteredError += (filtered - 30.0) * (filtered - 30.0);
+            }
+        }
+        assertTrue(filteredError < rawError / 10, filteredError + " vs " + rawError);
+    }
+
+    @Test
+    public void testChainAndEstimator() {
+        double[] position = {0.0};
+        VelocityEstimator estimator = new VelocityEstimator("test", () -> position[0], () -> 50.0);
+        estimator.update(PERIOD);
+        assertEquals(estimator.getControllerInput(), 50.0, DELTA);
+
+        estimator.setMaxVelocity(40.0);
+        estimator.setFilter(() -> position[0],
+                new SavitzkyGolayDerivative(3).then(new MovingAverageFilter(2)));
+        for (int i = 0; i < 10; i++) {
+            position[0] += 0.3;
+            estimator.update(PERIOD);
+        }
+        assertEquals(estimator.getControllerInput(), 30.0, DELTA);
+        for (int i = 0; i < 10; i++) {
+            position[0] += 1.0;
+            estimator.update(PERIOD);
+        }
+        assertEquals(estimator.getControllerInput(), 40.0, DELTA);
+    }
+}
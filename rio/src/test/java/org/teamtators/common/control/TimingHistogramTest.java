@@ -0,0 +1,55 @@
+package org.teamtators.common.control;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public class TimingHistogramTest {
+    @Test
+    public void testPercentiles() throws Exception {
+        TimingHistogram histogram = new TimingHistogram();
+        for (int i = 1; i <= 10000; i++) {
+            histogram.record(i);
+        }
+        assertEquals(histogram.getTotalCount(), 10000);
+        assertEquals(histogram.getMin(), 1);
+        assertEquals(histogram.getMax(), 10000);
+        assertEquals(histogram.getMean(), 5000.5, 1e-9);
+        assertEquals(histogram.getValueAtPercentile(50), 5000, 5000 * 0.04, "p50 should be within bucket precision");
+        assertEquals(histogram.getValueAtPercentile(99), 9900, 9900 * 0.04, "p99 should be within bucket precision");
+        assertEquals(histogram.getValueAtPercentile(100), 10000);
+    }
+
+    @Test
+    public void testSmallValuesExact() throws Exception {
+        TimingHistogram histogram = new TimingHistogram();
+        for (int i = 0; i < TimingHistogram.SUB_BUCKET_COUNT; i++) {
+            histogram.record(i);
+        }
+        for (int i = 0; i < TimingHistogram.SUB_BUCKET_COUNT; i++) {
+            double percentile = (i + 1) * 100.0 / TimingHistogram.SUB_BUCKET_COUNT;
+            assertEquals(histogram.getValueAtPercentile(percentile), i);
+        }
+    }
+
+    @Test
+    public void testOutOfRange() throws Exception {
+        TimingHistogram histogram = new TimingHistogram();
+        histogram.record(-5);
+        histogram.record(TimingHistogram.MAX_VALUE * 4);
+        assertEquals(histogram.getMin(), 0);
+        assertEquals(histogram.getMax(), TimingHistogram.MAX_VALUE * 4);
+        assertEquals(histogram.getValueAtPercentile(50), 0);
+        assertTrue(histogram.getValueAtPercentile(100) >= TimingHistogram.MAX_VALUE / 2);
+    }
+
+    @Test
+    public void testReset() throws Exception {
+        TimingHistogram histogram = new TimingHistogram();
+        histogram.record(100);
+        histogram.reset();
+        assertEquals(histogram.getTotalCount(), 0);
+        assertEquals(histogram.getMax(), 0);
+        assertEquals(histogram.getValueAtPercentile(99), 0);
+    }
+}
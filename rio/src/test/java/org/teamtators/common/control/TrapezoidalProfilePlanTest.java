@@ -0,0 +1,70 @@
+package org.teamtators.common.control;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public class TrapezoidalProfilePlanTest {
+    private static final double DELTA = 1e-6;
+
+    private static void assertInverse(TrapezoidalProfilePlan plan) {
+        double totalTime = plan.getTotalTime();
+        for (int i = 0; i <= 100; i++) {
+            double time = totalTime * i / 100;
+            double position = plan.getPosition(time);
+            assertEquals(plan.getTimeAtPosition(position), time, DELTA, "at time " + time);
+        }
+    }
+
+    @Test
+    public void testTrapezoid() {
+        TrapezoidalProfilePlan plan = new TrapezoidalProfilePlan(new TrapezoidalProfile(60.0, 0.0, 40.0, 0.0, 80.0));
+        // 0.5s accelerating and decelerating covering 10 each, 1s traveling
+        assertEquals(plan.getTotalTime(), 2.0, DELTA);
+        assertEquals(plan.getPosition(0.5), 10.0, DELTA);
+        assertEquals(plan.getVelocity(1.0), 40.0, DELTA);
+        assertEquals(plan.getAcceleration(1.75), -80.0, DELTA);
+        assertEquals(plan.getPosition(2.0), 60.0, DELTA);
+        assertInverse(plan);
+    }
+
+    @Test
+    public void testTriangle() {
+        TrapezoidalProfilePlan plan = new TrapezoidalProfilePlan(new TrapezoidalProfile(-4.0, 0.0, -40.0, 0.0, 16.0));
+        // never gets up to travel velocity, peaks at -8 halfway
+        assertEquals(plan.getTotalTime(), 1.0, DELTA);
+        assertEquals(plan.getVelocity(0.5), -8.0, DELTA);
+        assertEquals(plan.getPosition(1.0), -4.0, DELTA);
+        assertInverse(plan);
+    }
+
+    @Test
+    public void testOutsideProfile() {
+        TrapezoidalProfilePlan plan = new TrapezoidalProfilePlan(new TrapezoidalProfile(60.0, 0.0, 40.0, 10.0, 80.0));
+        double totalTime = plan.getTotalTime();
+        assertEquals(plan.getTimeAtPosition(70.0), totalTime + 1.0, DELTA);
+        // starts from rest, so it never reaches positions behind the start
+        assertEquals(plan.getTimeAtPosition(-5.0), 0.0, DELTA);
+    }
+
+    @Test
+    public void testCache() {
+        TrapezoidalProfile profile = new TrapezoidalProfile(12.5, 0.0, 40.0, 0.0, 80.0);
+        MotionProfilePlan plan = MotionProfilePlan.get(profile);
+        assertSame(MotionProfilePlan.get(profile.copy()), plan);
+        profile.setStartVelocity(1.0);
+        assertNotSame(MotionProfilePlan.get(profile), plan);
+        SCurveProfile sCurveProfile = new SCurveProfile(12.5, 0.0, 40.0, 0.0, 80.0, 800.0);
+        assertTrue(MotionProfilePlan.get(sCurveProfile) instanceof SCurveProfilePlan);
+    }
+
+    @Test
+    public void testCalculatorSetPosition() {
+        TrapezoidalProfileCalculator calculator = new TrapezoidalProfile(60.0, 0.0, 40.0, 0.0, 80.0)
+                .createCalculator();
+        calculator.setPosition(30.0);
+        assertEquals(calculator.getTime(), 1.0, DELTA);
+        assertEquals(calculator.getPosition(), 30.0, DELTA);
+        assertEquals(calculator.getVelocity(), 40.0, DELTA);
+    }
+}
@@ -0,0 +1,98 @@
+package org.teamtators.common.control;
+
+import org.teamtators.common.datalogging.Dashboard;
+import org.teamtators.common.datalogging.DashboardEntry;
+import org.teamtators.common.scheduler.RobotState;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+public class UpdaterMetricsTest {
+    @Test
+    public void testRecordPerState() throws Exception {
+        UpdaterMetrics metrics = new UpdaterMetrics("updater");
+        metrics.record(10000, 10100, 2000);
+        metrics.setRobotState(RobotState.AUTONOMOUS);
+        metrics.record(10000, 9900, 12000);
+        metrics.record(10000, 10000, 3000);
+
+        assertEquals(metrics.get(RobotState.DISABLED).getCount(), 1);
+        assertEquals(metrics.get(RobotState.DISABLED).getOverruns(), 0);
+        assertEquals(metrics.getCurrent().getCount(), 2);
+        assertEquals(metrics.getCurrent().getOverruns(), 1);
+        assertEquals(metrics.getCurrent().getJitter().getMax(), 100);
+        assertEquals(metrics.getCurrent().getExecTime().getMax(), 12000);
+    }
+
+    @Test
+    public void testUpdateDashboard() throws Exception {
+        UpdaterMetrics metrics = new UpdaterMetrics("updater");
+        metrics.record(10000, 10500, 2000);
+        metrics.record(10000, 10000, 12000);
+        RecordingDashboard dashboard = new RecordingDashboard();
+
+        metrics.updateDashboard(dashboard);
+        assertTrue(dashboard.published.isEmpty(), "nothing should be published until flushed");
+        dashboard.flush();
+        assertEquals(dashboard.published.get("updater.jitter.max"), 0.5, 1e-9);
+        assertEquals(dashboard.published.get("updater.exec.max"), 12.0, 1e-9);
+        assertEquals(dashboard.published.get("updater.overruns"), 1.0, 1e-9);
+
+        dashboard.published.clear();
+        metrics.updateDashboard(dashboard);
+        dashboard.flush();
+        assertTrue(dashboard.published.isEmpty(), "unchanged values should not be published again");
+
+        metrics.record(10000, 10000, 15000);
+        metrics.updateDashboard(dashboard);
+        dashboard.flush();
+        assertEquals(dashboard.published.get("updater.exec.max"), 15.0, 1e-9);
+        assertEquals(dashboard.published.get("updater.overruns"), 2.0, 1e-9);
+    }
+
+    private static class RecordingDashboard implements Dashboard {
+        private final Map<String, DashboardEntry> entries = new HashMap<>();
+        private final Map<String, Double> published = new HashMap<>();
+
+        @Override
+        public void putBoolean(String name, boolean val) {
+            getEntry(name).setBoolean(val);
+        }
+
+        @Override
+        public void putNumber(String name, double val) {
+            getEntry(name).setNumber(val);
+        }
+
+        @Override
+        public void putString(String name, String val) {
+            getEntry(name).setString(val);
+        }
+
+        @Override
+        public DashboardEntry getEntry(String name, double deadband) {
+            return entries.computeIfAbsent(name, n -> new DashboardEntry(n, deadband) {
+                @Override
+                protected void publishNumber(double value) {
+                    published.put(getName(), value);
+                }
+
+                @Override
+                protected void publishBoolean(boolean value) {
+                }
+
+                @Override
+                protected void publishString(String value) {
+                }
+            });
+        }
+
+        @Override
+        public void flush() {
+            entries.values().forEach(DashboardEntry::flush);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.teamtators.common.drive;
+
+import org.teamtators.common.math.MutablePose2d;
+import org.teamtators.common.math.Pose2d;
+import org.teamtators.common.math.Rotation;
+import org.teamtators.common.math.Translation2d;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static org.testng.Assert.*;
+
+public class CompiledDriveSegmentsTest {
+    private static final double DELTA = 1e-6;
+
+    private static double angleDifference(double a, double b) {
+        return Math.IEEEremainder(a - b, 2 * Math.PI);
+    }
+
+    @Test
+    public void testMatchesSegments() throws Exception {
+        DriveSegments segments = DrivePathTest.getTestPath().toSegments();
+        CompiledDriveSegments compiled = segments.compile();
+        assertEquals(compiled.size(), segments.getSegments().size());
+        Random random = new Random(2122);
+        CompiledDriveSegments.Lookahead lookahead = new CompiledDriveSegments.Lookahead();
+        MutablePose2d pose = new MutablePose2d();
+        double length = 0.0;
+        for (int i = 0; i < compiled.size(); i++) {
+            DriveSegment segment = segments.getSegments().get(i);
+            assertEquals(compiled.getStartDistance(i), length, DELTA);
+            length += segment.getArcLength();
+            assertTrue(compiled.getStartPose(i, pose).epsilonEquals(segment.getStartPose()));
+            assertTrue(compiled.getEndPose(i, pose).epsilonEquals(segment.getEndPose()));
+            for (int j = 0; j < 100; j++) {
+                Pose2d currentPose = new Pose2d(
+                        new Translation2d(random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 10),
+                        Rotation.fromDegrees(random.nextDouble() * 360));
+                double distance = random.nextDouble() * 20;
+                LookaheadReport expected = segment.getLookaheadReport(currentPose, distance);
+                compiled.getLookahead(i, pose.set(currentPose), distance, lookahead);
+                String message = segment + " from " + currentPose;
+                assertEquals(lookahead.nearestPoint.getX(), expected.nearestPoint.getX(), DELTA, message);
+                assertEquals(lookahead.nearestPoint.getY(), expected.nearestPoint.getY(), DELTA, message);
+                assertEquals(lookahead.lookaheadPoint.getX(), expected.lookaheadPoint.getX(), DELTA, message);
+                assertEquals(lookahead.lookaheadPoint.getY(), expected.lookaheadPoint.getY(), DELTA, message);
+                assertEquals(angleDifference(lookahead.lookaheadPoint.getYaw().toRadians(),
+                        expected.lookaheadPoint.getYaw().toRadians()), 0.0, DELTA, message);
+                assertEquals(angleDifference(lookahead.yawError.toRadians(), expected.yawError.toRadians()),
+                        0.0, DELTA, message);
+                assertEquals(lookahead.trackError, expected.trackError, DELTA, message);
+                assertEquals(lookahead.traveledDistance, expected.traveledDistance, DELTA, message);
+                assertEquals(lookahead.remainingDistance, expected.remainingDistance, DELTA, message);
+                assertEquals(lookahead.lookaheadRemainingDistance, expected.lookaheadRemainingDistance, DELTA,
+                        message);
+            }
+        }
+        assertEquals(compiled.getArcLength(), length, DELTA);
+    }
+
+    @Test
+    public void testSegmentAt() throws Exception {
+        CompiledDriveSegments compiled = DrivePathTest.getTestPath().toSegments().compile();
+        assertEquals(compiled.getSegmentAt(-1.0), 0);
+        assertEquals(compiled.getSegmentAt(compiled.getArcLength() + 1.0), compiled.size() - 1);
+        MutablePose2d pose = new MutablePose2d();
+        for (int i = 0; i < compiled.size(); i++) {
+            double middle = compiled.getStartDistance(i) + compiled.getArcLength(i) / 2;
+            assertEquals(compiled.getSegmentAt(middle), i);
+            compiled.getPoseAt(middle, pose);
+            assertEquals(compiled.getNearestSegment(pose.getX(), pose.getY(), i, i + 1), i);
+            assertEquals(compiled.getDistanceToSegment(i, pose.getX(), pose.getY()), 0.0, DELTA);
+        }
+    }
+
+    @Test
+    public void testNearestSegment() throws Exception {
+        CompiledDriveSegments compiled = DrivePathTest.getTestPath().toSegments().compile();
+        Random random = new Random(2122);
+        for (int i = 0; i < 1000; i++) {
+            double x = random.nextDouble() * 100 - 50, y = random.nextDouble() * 100 - 10;
+            int from = random.nextInt(compiled.size());
+            int to = from + 1 + random.nextInt(compiled.size() - from);
+            double best = Double.POSITIVE_INFINITY;
+            for (int j = from; j < to; j++) {
+                best = Math.min(best, compiled.getDistanceToSegment(j, x, y));
+            }
+            int nearest = compiled.getNearestSegment(x, y, from, to);
+            assertTrue(nearest >= from && nearest < to);
+            assertEquals(compiled.getDistanceToSegment(nearest, x, y), best, 1e-9);
+        }
+    }
+}
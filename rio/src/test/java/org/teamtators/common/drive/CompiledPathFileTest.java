@@ -0,0 +1,69 @@
+package org.teamtators.common.drive;
+
+import org.teamtators.common.math.MutablePose2d;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.Collections;
+
+import static org.testng.Assert.*;
+
+public class CompiledPathFileTest {
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        DrivePath drivePath = DrivePathTest.getTestPath();
+        CompiledDriveSegments path = drivePath.toSegments().compile();
+        VelocityPlan plan = VelocityPlan.plan(path, 100.0, Double.POSITIVE_INFINITY);
+        DriveTrajectory trajectory = DriveTrajectory.generate(plan, 0.01);
+        long key = CompiledPathFile.getKey(drivePath, 100.0, Double.POSITIVE_INFINITY);
+        File file = File.createTempFile("paths", ".bin");
+        file.deleteOnExit();
+        CompiledPathFile.write(file, Collections.singletonList(
+                new CompiledPathFile.Entry(key, "test", path, trajectory)));
+
+        CompiledPathFile loaded = CompiledPathFile.load(file);
+        assertNull(loaded.get(CompiledPathFile.getKey(drivePath, 90.0, Double.POSITIVE_INFINITY)));
+        CompiledPathFile.Entry entry = loaded.get(key);
+        assertNotNull(entry);
+        assertEquals(entry.getName(), "test");
+        CompiledDriveSegments loadedPath = entry.getPath();
+        assertEquals(loadedPath.size(), path.size());
+        assertEquals(loadedPath.getArcLength(), path.getArcLength(), DELTA);
+        MutablePose2d expected = new MutablePose2d(), actual = new MutablePose2d();
+        for (double distance = 0; distance < path.getArcLength(); distance += 5.0) {
+            path.getPoseAt(distance, expected);
+            assertTrue(loadedPath.getPoseAt(distance, actual).epsilonEquals(expected.toPose2d()));
+        }
+        assertEquals(loadedPath.getNearestSegment(10.0, 40.0), path.getNearestSegment(10.0, 40.0));
+
+        DriveTrajectory loadedTrajectory = entry.getTrajectory();
+        assertEquals(loadedTrajectory.getSampleCount(), trajectory.getSampleCount());
+        DriveTrajectory.Sample a = new DriveTrajectory.Sample(), b = new DriveTrajectory.Sample();
+        for (double time = 0; time < trajectory.getDuration(); time += 0.037) {
+            trajectory.sample(time, a);
+            loadedTrajectory.sample(time, b);
+            assertEquals(b.distance, a.distance, DELTA);
+            assertEquals(b.velocity, a.velocity, DELTA);
+        }
+    }
+
+    @Test
+    public void testTrajectoryCoversPath() {
+        CompiledDriveSegments path = DrivePathTest.getTestPath().toSegments().compile();
+        VelocityPlan plan = VelocityPlan.plan(path, 100.0, Double.POSITIVE_INFINITY);
+        DriveTrajectory trajectory = DriveTrajectory.generate(plan, 0.01);
+        DriveTrajectory.Sample sample = new DriveTrajectory.Sample();
+        double lastDistance = 0.0;
+        for (int i = 0; i < trajectory.getSampleCount(); i++) {
+            trajectory.sample(i * trajectory.getPeriod(), sample);
+            assertTrue(sample.distance >= lastDistance - 1e-6, "distance went backwards at " + i);
+            assertTrue(Math.abs(sample.acceleration) <= 100.0 + 1e-6);
+            lastDistance = sample.distance;
+        }
+        trajectory.sample(trajectory.getDuration() + 1.0, sample);
+        assertEquals(sample.distance, path.getArcLength(), 1e-6);
+        assertEquals(sample.velocity, 0.0, 1e-6);
+    }
+}
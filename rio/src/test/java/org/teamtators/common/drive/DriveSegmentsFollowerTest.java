@@ -31,7 +31,7 @@ public class DriveSegmentsFollowerTest {
             if (report.isFinished) {
                 break;
             }
-            currentPose = report.lookaheadPoint;
+            currentPose = report.lookaheadPoint.toPose2d();
             if (!isEpsilonZero(report.trackError)) {
                 Assert.fail("trackError not zero: " + report.trackError);
             }
@@ -41,6 +41,43 @@ public class DriveSegmentsFollowerTest {
         }
     }
 
+    @Test
+    public void testReacquireSegment() throws Exception {
+        DriveSegmentsFollower follower = new DriveSegmentsFollower(null);
+        follower.setSegments(DrivePathTest.getTestPath().toSegments());
+        follower.setLookAheadFunction(operand -> 1);
+        follower.setReacquireDistance(24.0);
+
+        // far from the first segment, on the one going from (30, 30) to (30, 70)
+        follower.updatePursuitReport(new Pose2d(new Translation2d(30, 50), Rotation.fromDegrees(90)), 0.0);
+        PursuitReport report = follower.getReport();
+        Assert.assertFalse(report.isFinished);
+        Assert.assertTrue(report.updateProfile);
+        Assert.assertEquals(report.trackError, 0.0, 1e-9);
+        Assert.assertEquals(report.nearestPoint.getX(), 30.0, 1e-9);
+        Assert.assertEquals(report.nearestPoint.getY(), 50.0, 1e-9);
+    }
+
+    @Test
+    public void testStartWithUnplannablePath() throws Exception {
+        DriveSegmentsFollower follower = new DriveSegmentsFollower(null);
+        follower.setSegments(DrivePathTest.getTestPath().toSegments());
+        // no acceleration, so the speed can't be planned
+        follower.setMaxAcceleration(0.0);
+        follower.start();
+        Assert.assertFalse(follower.isRunning());
+        Assert.assertTrue(follower.isFailed());
+        Assert.assertTrue(follower.isFinished());
+        Assert.assertEquals(follower.getReport().remainingDistance, follower.getPath().getArcLength(), 1e-9);
+
+        follower.setMaxAcceleration(100.0);
+        follower.start();
+        Assert.assertTrue(follower.isRunning());
+        Assert.assertFalse(follower.isFailed());
+        Assert.assertFalse(follower.isFinished());
+        follower.stop();
+    }
+
     static class TwistTestCase {
         public Pose2d pose;
         public Translation2d point;
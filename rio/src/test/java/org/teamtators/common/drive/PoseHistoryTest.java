@@ -0,0 +1,88 @@
+package org.teamtators.common.drive;
+
+import org.teamtators.common.math.MutablePose2d;
+import org.teamtators.common.math.Pose2d;
+import org.teamtators.common.math.Rotation;
+import org.teamtators.common.math.Translation2d;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public class PoseHistoryTest {
+    private static final double DELTA = 1e-6;
+
+    private static MutablePose2d pose(double x, double y, double yawDegrees) {
+        return new MutablePose2d(new Pose2d(new Translation2d(x, y), Rotation.fromDegrees(yawDegrees)));
+    }
+
+    @Test
+    public void testInterpolation() {
+        PoseHistory history = new PoseHistory(8);
+        MutablePose2d result = new MutablePose2d();
+        assertFalse(history.getPose(0.0, result));
+
+        history.add(1.0, pose(0, 0, 170), 0.0);
+        history.add(2.0, pose(10, 20, -170), 0.0);
+        assertFalse(history.getPose(0.5, result));
+
+        assertTrue(history.getPose(1.25, result));
+        assertEquals(result.getX(), 2.5, DELTA);
+        assertEquals(result.getY(), 5.0, DELTA);
+        // the short way around, through 180
+        assertEquals(Math.abs(result.getYaw().toDegrees()), 175.0, DELTA);
+
+        assertTrue(history.getPose(5.0, result));
+        assertEquals(result.getX(), 10.0, DELTA);
+        assertEquals(result.getYaw().toDegrees(), -170.0, DELTA);
+    }
+
+    @Test
+    public void testWraparound() {
+        PoseHistory history = new PoseHistory(5);
+        assertEquals(history.getCapacity(), 8);
+        for (int i = 0; i < 20; i++) {
+            history.add(i, pose(i, 0, 0), 1.0);
+        }
+        assertEquals(history.size(), 8);
+        assertEquals(history.getOldestTimestamp(), 12.0, DELTA);
+        assertEquals(history.getNewestTimestamp(), 19.0, DELTA);
+
+        MutablePose2d result = new MutablePose2d();
+        assertFalse(history.getPose(11.5, result));
+        assertTrue(history.getPose(15.5, result));
+        assertEquals(result.getX(), 15.5, DELTA);
+
+        history.clear();
+        assertTrue(history.isEmpty());
+        assertFalse(history.getNewest(result));
+    }
+
+    @Test
+    public void testCorrect() {
+        TankKinematics kinematics = new TankKinematics();
+        PoseHistory history = new PoseHistory(16);
+        // driving straight along x at 1 inch per sample
+        for (int i = 0; i <= 10; i++) {
+            history.add(i, pose(i, 0, 0), i == 0 ? 0.0 : 1.0);
+        }
+        MutablePose2d result = new MutablePose2d();
+
+        // measured 2 inches to the side at time 4
+        assertTrue(history.correct(4.0, pose(4, 2, 0), kinematics));
+        assertTrue(history.getNewest(result));
+        assertEquals(result.getX(), 10.0, DELTA);
+        assertEquals(result.getY(), 2.0, DELTA);
+        // samples before the measurement are unchanged
+        assertTrue(history.getPose(3.0, result));
+        assertEquals(result.getY(), 0.0, DELTA);
+
+        // measured facing 90 degrees left half way between samples, so the rest is driven along y
+        assertTrue(history.correct(5.5, pose(5.5, 2, 90), kinematics));
+        assertTrue(history.getNewest(result));
+        assertEquals(result.getX(), 5.5, DELTA);
+        assertEquals(result.getY(), 6.5, DELTA);
+        assertEquals(result.getYaw().toDegrees(), 90.0, DELTA);
+
+        assertFalse(history.correct(-1.0, pose(0, 0, 0), kinematics));
+    }
+}
@@ -0,0 +1,74 @@
+package org.teamtators.common.drive;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public class VelocityPlanTest {
+    private static final double DELTA = 1e-6;
+
+    @Test
+    public void testLimits() {
+        CompiledDriveSegments path = DrivePathTest.getTestPath().toSegments().compile();
+        double maxAcceleration = 100.0;
+        VelocityPlan plan = VelocityPlan.plan(path, maxAcceleration, Double.POSITIVE_INFINITY);
+        assertEquals(plan.getArcLength(), path.getArcLength(), DELTA);
+        assertEquals(plan.getVelocity(0.0), 0.0, DELTA);
+        assertEquals(plan.getEndVelocity(), 0.0, DELTA);
+        double lastVelocity = 0.0;
+        for (double distance = 0.0; distance <= path.getArcLength(); distance += 0.1) {
+            int segment = path.getSegmentAt(distance);
+            double velocity = plan.getVelocity(distance);
+            assertTrue(velocity <= path.getTravelSpeed(segment) + DELTA, "too fast at " + distance);
+            // v^2 can change by at most 2 * a * ds
+            assertTrue(Math.abs(velocity * velocity - lastVelocity * lastVelocity) <=
+                    2 * maxAcceleration * 0.1 + DELTA, "accelerates too fast at " + distance);
+            lastVelocity = velocity;
+        }
+    }
+
+    @Test
+    public void testNoDipAtBoundaries() {
+        CompiledDriveSegments path = DrivePathTest.getTestPath().toSegments().compile();
+        VelocityPlan plan = VelocityPlan.plan(path, 1000.0, Double.POSITIVE_INFINITY);
+        // every boundary but the last is from a straight into an arc or back, at the arc speed
+        for (int i = 1; i < path.size(); i++) {
+            double boundary = path.getStartDistance(i);
+            double expected = Math.min(path.getEndSpeed(i - 1),
+                    Math.min(path.getTravelSpeed(i - 1), path.getTravelSpeed(i)));
+            assertEquals(plan.getVelocity(boundary), expected, DELTA, "boundary " + i);
+            assertTrue(plan.getVelocity(boundary - 1e-3) >= expected - DELTA, "dips before boundary " + i);
+            assertTrue(plan.getVelocity(boundary + 1e-3) >= expected - DELTA, "dips after boundary " + i);
+        }
+    }
+
+    @Test
+    public void testLateralAcceleration() {
+        CompiledDriveSegments path = DrivePathTest.getTestPath().toSegments().compile();
+        double maxLateralAcceleration = 12.0;
+        VelocityPlan plan = VelocityPlan.plan(path, 100.0, maxLateralAcceleration);
+        for (int i = 0; i < path.size(); i++) {
+            if (path.isArc(i)) {
+                double middle = path.getStartDistance(i) + path.getArcLength(i) / 2;
+                double velocity = plan.getVelocity(middle);
+                assertTrue(velocity * velocity / path.getRadius(i) <= maxLateralAcceleration + DELTA);
+            }
+        }
+    }
+
+    @Test
+    public void testSampleMatchesDistance() {
+        CompiledDriveSegments path = DrivePathTest.getTestPath().toSegments().compile();
+        VelocityPlan plan = VelocityPlan.plan(path, 100.0, Double.POSITIVE_INFINITY);
+        DriveTrajectory.Sample sample = new DriveTrajectory.Sample();
+        double lastDistance = 0.0;
+        for (double time = 0.0; time < plan.getDuration(); time += 0.01) {
+            plan.sample(time, sample);
+            assertTrue(sample.distance >= lastDistance - DELTA);
+            assertEquals(sample.velocity, plan.getVelocity(sample.distance), 1e-3, "at " + time);
+            lastDistance = sample.distance;
+        }
+        plan.sample(plan.getDuration(), sample);
+        assertEquals(sample.distance, path.getArcLength(), DELTA);
+    }
+}
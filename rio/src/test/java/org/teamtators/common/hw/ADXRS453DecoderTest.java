@@ -0,0 +1,52 @@
+package org.teamtators.common.hw;
+
+import org.testng.annotations.Test;
+
+import java.nio.IntBuffer;
+
+import static org.testng.Assert.*;
+
+public class ADXRS453DecoderTest {
+    private static boolean slowParity(int data) {
+        int parity = 0;
+        while (data != 0) {
+            parity += (data & 1);
+            data >>>= 1;
+        }
+        return (parity % 2) == 1;
+    }
+
+    @Test
+    public void testParity() {
+        for (int data : new int[]{0, 1, 0x2000_0000, 0xdead_beef, 0x1234_5678, -1}) {
+            assertEquals(ADXRS453Decoder.calcParity(data), slowParity(data), Integer.toHexString(data));
+            assertTrue(slowParity(ADXRS453Decoder.fixParity(data)));
+        }
+        for (short rate = -2000; rate <= 2000; rate += 7) {
+            int data = ADXRS453Decoder.encodeSensorData(rate, ADXRS453Decoder.kValidData, 0);
+            assertTrue(slowParity(data) && slowParity(data >>> 16));
+            assertTrue(ADXRS453Decoder.isParityValid(data));
+            assertFalse(ADXRS453Decoder.isParityValid(data ^ (1 << 12)));
+            assertEquals(ADXRS453Decoder.getRawRate(data), rate);
+        }
+    }
+
+    @Test
+    public void testDecode() {
+        ADXRS453Decoder decoder = new ADXRS453Decoder();
+        int[] frames = {
+                ADXRS453Decoder.encodeSensorData((short) 100, ADXRS453Decoder.kValidData, 0),
+                ADXRS453Decoder.encodeSensorData((short) -200, ADXRS453Decoder.kTestData, 0),
+                // bad parity
+                ADXRS453Decoder.encodeSensorData((short) 300, ADXRS453Decoder.kValidData, 0) ^ (1 << 12),
+                ADXRS453Decoder.encodeSensorData((short) 400, ADXRS453Decoder.kInvalidData, 0),
+                ADXRS453Decoder.encodeSensorData((short) 500, ADXRS453Decoder.kValidData, ADXRS453Decoder.kPwr),
+                ADXRS453Decoder.encodeSensorData((short) -600, ADXRS453Decoder.kValidData, 0),
+        };
+        short[] rates = new short[8];
+        int stored = decoder.decode(IntBuffer.wrap(frames), 1, frames.length - 1, rates, 2);
+        assertEquals(stored, 2);
+        assertEquals(rates[2], -200);
+        assertEquals(rates[3], -600);
+    }
+}
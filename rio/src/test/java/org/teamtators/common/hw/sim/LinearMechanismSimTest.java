@@ -0,0 +1,49 @@
+package org.teamtators.common.hw.sim;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public class LinearMechanismSimTest {
+    private static LinearMechanismSim.Config elevatorConfig() {
+        LinearMechanismSim.Config config = new LinearMechanismSim.Config();
+        config.mass = 5.0;
+        config.gearing = 20.0;
+        config.motorCount = 2;
+        config.vertical = true;
+        config.minPosition = 0.0;
+        config.maxPosition = 60.0;
+        return config;
+    }
+
+    @Test
+    public void testFallsToBottomWithoutPower() throws Exception {
+        LinearMechanismSim.Config config = elevatorConfig();
+        config.startPosition = 30.0;
+        LinearMechanismSim sim = new LinearMechanismSim(config, new SimMotor());
+        for (int i = 0; i < 1500; i++) {
+            sim.update(0.01);
+        }
+        assertEquals(sim.getPosition(), 0.0, 1e-9);
+        assertEquals(sim.getVelocity(), 0.0, 1e-9);
+        assertTrue(sim.getBottomLimit().get());
+        assertFalse(sim.getTopLimit().get());
+    }
+
+    @Test
+    public void testReachesSteadyStateSpeed() throws Exception {
+        LinearMechanismSim.Config config = elevatorConfig();
+        config.vertical = false;
+        config.maxPosition = Double.POSITIVE_INFINITY;
+        SimMotor motor = new SimMotor();
+        LinearMechanismSim sim = new LinearMechanismSim(config, motor);
+        motor.set(1.0);
+        for (int i = 0; i < 1000; i++) {
+            sim.update(0.005);
+        }
+        double freeSpeed = config.freeSpeed / config.gearing * config.drumRadius; // in/s
+        assertEquals(sim.getVelocity(), freeSpeed, freeSpeed * 0.01);
+        assertEquals(sim.getEncoder().getRate(), sim.getVelocity(), 1e-9);
+        assertEquals(sim.getEncoder().getDistance(), sim.getPosition(), 1e-9);
+    }
+}
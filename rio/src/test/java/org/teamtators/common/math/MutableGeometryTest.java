@@ -0,0 +1,64 @@
+package org.teamtators.common.math;
+
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static org.testng.Assert.*;
+
+/**
+ * Checks that the mutable geometry types give the same results as the immutable ones
+ */
+public class MutableGeometryTest {
+    private static final int ITERATIONS = 1000;
+
+    private static Pose2d randomPose(Random random) {
+        return new Pose2d(new Translation2d(random.nextDouble() * 200 - 100, random.nextDouble() * 200 - 100),
+                Rotation.fromDegrees(random.nextDouble() * 360 - 180));
+    }
+
+    @Test
+    public void testChain() throws Exception {
+        Random random = new Random(2122);
+        MutablePose2d mutable = new MutablePose2d();
+        for (int i = 0; i < ITERATIONS; i++) {
+            Pose2d pose = randomPose(random);
+            Pose2d change = randomPose(random);
+            mutable.set(pose).chain(change);
+            assertTrue(mutable.epsilonEquals(pose.chain(change)), mutable + " != " + pose.chain(change));
+        }
+    }
+
+    @Test
+    public void testRotation() throws Exception {
+        Random random = new Random(2122);
+        MutableRotation mutable = new MutableRotation();
+        for (int i = 0; i < ITERATIONS; i++) {
+            Rotation a = Rotation.fromDegrees(random.nextDouble() * 720 - 360);
+            Rotation b = Rotation.fromDegrees(random.nextDouble() * 720 - 360);
+            assertTrue(mutable.set(a).add(b).epsilonEquals(a.add(b)));
+            assertTrue(mutable.set(a).sub(b).epsilonEquals(a.sub(b)));
+            assertTrue(mutable.set(a).ccwNormal().epsilonEquals(a.ccwNormal()));
+            assertTrue(mutable.set(a).cwNormal().epsilonEquals(a.cwNormal()));
+            assertTrue(mutable.set(a).inverse().epsilonEquals(a.inverse()));
+        }
+    }
+
+    @Test
+    public void testFromTangentArc() throws Exception {
+        Random random = new Random(2122);
+        MutableTwist2d mutable = new MutableTwist2d();
+        for (int i = 0; i < ITERATIONS; i++) {
+            Pose2d pose = randomPose(random);
+            Translation2d point = randomPose(random).getTranslation();
+            Twist2d expected = Twist2d.fromTangentArc(pose, point);
+            MutableTwist2d.fromTangentArc(pose, point.getX(), point.getY(), mutable);
+            assertEquals(mutable.getDeltaX(), expected.getDeltaX(), 1e-6 * Math.max(1.0, expected.getDeltaX()));
+            assertEquals(mutable.getDeltaYaw(), expected.getDeltaYaw().toRadians(), 1e-6);
+        }
+        Pose2d pose = new Pose2d(Translation2d.zero(), Rotation.fromDegrees(90));
+        MutableTwist2d.fromTangentArc(pose, 0.0, 10.0, mutable);
+        assertEquals(mutable.getDeltaYaw(), 0.0);
+        assertEquals(mutable.getDeltaX(), 10.0, 1e-9);
+    }
+}
@@ -0,0 +1,50 @@
+package org.teamtators.common.math;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public class RunningStatisticsTest {
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void testMeanAndVariance() {
+        RunningStatistics stats = new RunningStatistics();
+        assertTrue(stats.isEmpty());
+        assertEquals(stats.getVariance(), 0.0);
+        for (double value : new double[]{2, 4, 4, 4, 5, 5, 7, 9}) {
+            stats.add(value);
+        }
+        assertEquals(stats.getCount(), 8);
+        assertEquals(stats.getMean(), 5.0, DELTA);
+        assertEquals(stats.getVariance(), 32.0 / 7.0, DELTA);
+    }
+
+    @Test
+    public void testLargeOffset() {
+        // summing squares would lose all precision here
+        RunningStatistics stats = new RunningStatistics();
+        for (int i = 0; i < 1000; i++) {
+            stats.add(1e9 + (i % 2 == 0 ? -1 : 1));
+        }
+        assertEquals(stats.getMean(), 1e9, 1e-6);
+        assertEquals(stats.getVariance(), 1000.0 / 999.0, 1e-6);
+    }
+
+    @Test
+    public void testMerge() {
+        RunningStatistics all = new RunningStatistics();
+        RunningStatistics first = new RunningStatistics();
+        RunningStatistics second = new RunningStatistics();
+        for (int i = 0; i < 100; i++) {
+            double value = Math.sin(i) * 10 + i * 0.1;
+            all.add(value);
+            (i < 30 ? first : second).add(value);
+        }
+        RunningStatistics merged = new RunningStatistics(first).merge(second);
+        assertEquals(merged.getCount(), all.getCount());
+        assertEquals(merged.getMean(), all.getMean(), DELTA);
+        assertEquals(merged.getVariance(), all.getVariance(), DELTA);
+        assertEquals(new RunningStatistics().merge(first).getMean(), first.getMean(), DELTA);
+    }
+}
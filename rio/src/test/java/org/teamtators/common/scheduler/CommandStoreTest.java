@@ -0,0 +1,43 @@
+package org.teamtators.common.scheduler;
+
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+import static org.testng.Assert.*;
+
+public class CommandStoreTest {
+    private static class LazyCommandStore extends CommandStore {
+        int created;
+
+        @Override
+        protected Command createCommand(String name) {
+            if (!name.startsWith("lazy")) {
+                return null;
+            }
+            created++;
+            Command command = Commands.stateless(() -> true);
+            putCommand(name, command);
+            return command;
+        }
+    }
+
+    @Test
+    public void testCreatedOnFirstLookup() {
+        LazyCommandStore store = new LazyCommandStore();
+        assertTrue(store.getCommands().isEmpty());
+        Command command = store.getCommand("lazy1");
+        assertEquals(command.getName(), "lazy1");
+        assertSame(store.getCommand("lazy1"), command);
+        assertEquals(store.created, 1);
+
+        store.warmUp(Arrays.asList("lazy1", "lazy2"));
+        assertEquals(store.created, 2);
+        assertTrue(store.getCommands().containsKey("lazy2"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMissing() {
+        new LazyCommandStore().getCommand("missing");
+    }
+}
@@ -0,0 +1,400 @@
+package org.teamtators.common.scheduler;
+
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+import static org.testng.Assert.*;
+
+public class SchedulerTest {
+    private static class CountingCommand extends Command {
+        int steps;
+        int stepsToFinish;
+        int initializations;
+        int interruptions;
+        Command toStart;
+
+        CountingCommand(String name, int stepsToFinish) {
+            super(name);
+            this.stepsToFinish = stepsToFinish;
+        }
+
+        @Override
+        protected void initialize() {
+            initializations++;
+            steps = 0;
+        }
+
+        @Override
+        public boolean step() {
+            steps++;
+            if (toStart != null) {
+                startWithContext(toStart, getRootContext());
+            }
+            return steps >= stepsToFinish;
+        }
+
+        @Override
+        protected void finish(boolean interrupted) {
+            if (interrupted) {
+                interruptions++;
+            }
+        }
+    }
+
+    private static Scheduler createScheduler() {
+        Scheduler scheduler = new Scheduler();
+        scheduler.onEnterRobotState(RobotState.TELEOP);
+        return scheduler;
+    }
+
+    @Test
+    public void testRunsToCompletionAndRestarts() {
+        Scheduler scheduler = createScheduler();
+        CountingCommand command = new CountingCommand("command", 2);
+        scheduler.startCommand(command);
+        int slot = command.schedulerSlot;
+        assertTrue(scheduler.containsCommand("command"));
+        scheduler.execute();
+        assertTrue(command.isRunning());
+        scheduler.execute();
+        assertFalse(command.isRunning());
+        assertFalse(scheduler.containsCommand("command"));
+        assertEquals(command.steps, 2);
+
+        scheduler.startCommand(command);
+        scheduler.execute();
+        assertEquals(command.initializations, 2);
+        assertEquals(command.schedulerSlot, slot);
+    }
+
+    @Test
+    public void testCancel() {
+        Scheduler scheduler = createScheduler();
+        CountingCommand command = new CountingCommand("command", Integer.MAX_VALUE);
+        scheduler.startCommand(command);
+        scheduler.execute();
+        scheduler.cancelCommand(command);
+        scheduler.execute();
+        assertFalse(command.isRunning());
+        assertEquals(command.interruptions, 1);
+        assertEquals(command.steps, 1);
+    }
+
+    @Test
+    public void testNotValidInState() {
+        Scheduler scheduler = createScheduler();
+        CountingCommand command = new CountingCommand("command", Integer.MAX_VALUE);
+        scheduler.startCommand(command);
+        scheduler.execute();
+        scheduler.onEnterRobotState(RobotState.DISABLED);
+        scheduler.execute();
+        assertFalse(command.isRunning());
+        scheduler.startCommand(command);
+        assertFalse(scheduler.containsCommand("command"));
+    }
+
+    @Test
+    public void testStartedDuringTickRunsNextTick() {
+        Scheduler scheduler = createScheduler();
+        CountingCommand parent = new CountingCommand("parent", Integer.MAX_VALUE);
+        CountingCommand child = new CountingCommand("child", Integer.MAX_VALUE);
+        parent.toStart = child;
+        scheduler.startCommand(parent);
+        scheduler.execute();
+        assertTrue(scheduler.containsCommand("child"));
+        assertEquals(child.steps, 0);
+        scheduler.execute();
+        assertEquals(child.steps, 1);
+        assertEquals(parent.steps, 2);
+    }
+
+    @Test
+    public void testTriggers() {
+        Scheduler scheduler = createScheduler();
+        int[] checks = new int[1];
+        boolean[] pressed = new boolean[1];
+        TriggerSource source = () -> {
+            checks[0]++;
+            return pressed[0];
+        };
+        CountingCommand command = new CountingCommand("command", Integer.MAX_VALUE);
+        scheduler.onTrigger(source).start(command).whenPressed();
+        scheduler.onTrigger(source).cancel(command).whenReleased();
+        scheduler.execute();
+        assertEquals(checks[0], 1);
+        assertFalse(command.isRunning());
+
+        pressed[0] = true;
+        scheduler.execute();
+        // started by the trigger in the same tick
+        assertEquals(command.steps, 1);
+        pressed[0] = false;
+        scheduler.execute();
+        scheduler.execute();
+        assertFalse(command.isRunning());
+        assertEquals(checks[0], 4);
+    }
+
+    @Test
+    public void testBitfieldTriggers() {
+        Scheduler scheduler = createScheduler();
+        int[] reads = new int[1];
+        int[] buttons = new int[1];
+        IntSupplier bitfield = () -> {
+            reads[0]++;
+            return buttons[0];
+        };
+        int[] pressed = new int[2];
+        int[] held = new int[1];
+        scheduler.onTrigger(new BitfieldTriggerSource(bitfield, 0)).run(() -> pressed[0]++).whenPressed();
+        scheduler.onTrigger(new BitfieldTriggerSource(bitfield, 3)).run(() -> pressed[1]++).whenPressed();
+        scheduler.onTrigger(new BitfieldTriggerSource(bitfield, 3)).run(() -> held[0]++).whilePressed();
+        scheduler.execute();
+        assertEquals(reads[0], 1);
+
+        buttons[0] = 0b1000;
+        scheduler.execute();
+        scheduler.execute();
+        assertEquals(pressed[0], 0);
+        assertEquals(pressed[1], 1);
+        assertEquals(held[0], 2);
+        assertEquals(reads[0], 3);
+
+        buttons[0] = 0b0001;
+        scheduler.execute();
+        assertEquals(pressed[0], 1);
+        assertEquals(pressed[1], 1);
+        assertEquals(held[0], 2);
+    }
+
+    @Test
+    public void testTriggerOrder() {
+        Scheduler scheduler = createScheduler();
+        int[] buttons = new int[1];
+        boolean[] polled = new boolean[1];
+        StringBuilder order = new StringBuilder();
+        // level and edge triggered, on bitfield and polled sources, all processed in the order they were added
+        scheduler.onTrigger(new BitfieldTriggerSource(() -> buttons[0], 3)).run(() -> order.append('a')).whilePressed();
+        scheduler.onTrigger(() -> polled[0]).run(() -> order.append('b')).whenPressed();
+        scheduler.onTrigger(new BitfieldTriggerSource(() -> buttons[0], 0)).run(() -> order.append('c')).whenPressed();
+        scheduler.onTrigger(new BitfieldTriggerSource(() -> buttons[0], 3)).run(() -> order.append('d')).whenPressed();
+        scheduler.execute();
+        assertEquals(order.toString(), "");
+
+        buttons[0] = 0b1001;
+        polled[0] = true;
+        scheduler.execute();
+        assertEquals(order.toString(), "abcd");
+        scheduler.execute();
+        assertEquals(order.toString(), "abcda");
+    }
+
+    @Test
+    public void testDefaultCommand() {
+        Scheduler scheduler = createScheduler();
+        CountingCommand command = new CountingCommand("default", 1);
+        scheduler.registerDefaultCommand(command);
+        scheduler.registerDefaultCommand(command);
+        scheduler.execute();
+        assertEquals(command.steps, 0);
+        scheduler.execute();
+        assertEquals(command.initializations, 1);
+        // restarted as soon as it finishes
+        scheduler.execute();
+        assertEquals(command.initializations, 2);
+    }
+
+    private static class TestSubsystem extends Subsystem {
+        TestSubsystem(String name) {
+            super(name);
+        }
+    }
+
+    private static class ParentCommand extends CountingCommand {
+        final List<Command> children;
+
+        ParentCommand(String name, Command... children) {
+            super(name, 1);
+            this.children = Arrays.asList(children);
+        }
+
+        @Override
+        public Collection<Command> getChildCommands() {
+            return children;
+        }
+
+        @Override
+        public void updateRequirements() {
+            for (Command child : children) {
+                if (child.getRequirements() != null) {
+                    requiresAll(child.getRequirements());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRequirements() {
+        Scheduler scheduler = createScheduler();
+        Subsystem lift = new TestSubsystem("lift");
+        Subsystem pivot = new TestSubsystem("pivot");
+        scheduler.registerSubsystem(lift);
+        scheduler.registerSubsystem(pivot);
+        CountingCommand moveLift = new CountingCommand("moveLift", Integer.MAX_VALUE);
+        moveLift.requires(lift);
+        CountingCommand moveBoth = new CountingCommand("moveBoth", Integer.MAX_VALUE);
+        moveBoth.requiresAll(Arrays.asList(lift, pivot));
+        CountingCommand movePivot = new CountingCommand("movePivot", Integer.MAX_VALUE);
+        movePivot.requires(pivot);
+        assertEquals(moveBoth.getRequirementsMask(), lift.getMask() | pivot.getMask());
+        assertTrue(moveLift.conflictsWith(moveBoth));
+        assertFalse(moveLift.conflictsWith(movePivot));
+        assertTrue(moveBoth.doesRequire(pivot));
+        assertFalse(moveLift.doesRequire(pivot));
+
+        scheduler.startCommand(moveLift);
+        scheduler.execute();
+        assertTrue(movePivot.checkRequirements());
+        assertFalse(moveBoth.checkRequirements());
+        // takes the lift from moveLift, which is cancelled
+        scheduler.startCommand(moveBoth);
+        scheduler.execute();
+        scheduler.execute();
+        assertFalse(moveLift.isRunning());
+        assertTrue(moveBoth.isRunning());
+        scheduler.cancelCommand(moveBoth);
+        scheduler.execute();
+        assertTrue(moveLift.checkRequirements());
+    }
+
+    @Test
+    public void testUpdateRequirements() {
+        Scheduler scheduler = createScheduler();
+        Subsystem lift = new TestSubsystem("lift");
+        Subsystem pivot = new TestSubsystem("pivot");
+        scheduler.registerSubsystem(lift);
+        scheduler.registerSubsystem(pivot);
+        CountingCommand moveLift = new CountingCommand("moveLift", 1);
+        moveLift.requires(lift);
+        CountingCommand movePivot = new CountingCommand("movePivot", 1);
+        movePivot.requires(pivot);
+        ParentCommand inner = new ParentCommand("inner", movePivot);
+        ParentCommand outer = new ParentCommand("outer", inner, moveLift);
+        // parents first, so requirements could only propagate one level per pass without ordering
+        Commands.updateRequirements(Arrays.asList(outer, inner, moveLift, movePivot));
+        assertEquals(outer.getRequirementsMask(), lift.getMask() | pivot.getMask());
+        assertEquals(inner.getRequirementsMask(), pivot.getMask());
+    }
+
+    @Test
+    public void testSubsystemIds() {
+        // ids are given by each scheduler, so creating more than fit in a mask over many robots or tests is fine
+        for (int i = 0; i < 3; i++) {
+            Scheduler scheduler = createScheduler();
+            for (int j = 0; j < Subsystem.MAX_MASKED_SUBSYSTEMS; j++) {
+                Subsystem subsystem = new TestSubsystem("subsystem" + j);
+                scheduler.registerSubsystem(subsystem);
+                assertEquals(subsystem.getId(), j);
+                assertSame(subsystem.getScheduler(), scheduler);
+            }
+            Subsystem extra = new TestSubsystem("extra");
+            scheduler.registerSubsystem(extra);
+            assertEquals(extra.getId(), -1);
+            assertEquals(extra.getMask(), 0L);
+        }
+
+        Scheduler scheduler = createScheduler();
+        Subsystem lift = new TestSubsystem("lift");
+        CountingCommand before = new CountingCommand("before", 1);
+        before.requires(lift);
+        scheduler.registerSubsystem(lift);
+        int id = lift.getId();
+        scheduler.registerSubsystem(lift);
+        assertEquals(lift.getId(), id, "registering again keeps the id");
+        CountingCommand after = new CountingCommand("after", 1);
+        after.requires(lift);
+        assertTrue(before.conflictsWith(after), "requirements from before the id was given still conflict");
+        assertTrue(after.conflictsWith(before));
+        assertTrue(before.doesRequire(lift));
+    }
+
+    @Test
+    public void testParallel() {
+        Scheduler scheduler = createScheduler();
+        Subsystem lift = new TestSubsystem("lift");
+        CountingCommand moveLift = new CountingCommand("moveLift", 3);
+        moveLift.requires(lift);
+        CountingCommand drive = new CountingCommand("drive", 1);
+        ParallelCommand group = new ParallelCommand("group", moveLift, drive);
+        assertTrue(group.doesRequire(lift));
+        scheduler.startCommand(group);
+        scheduler.execute();
+        // both step in the same tick
+        assertEquals(moveLift.steps, 1);
+        assertEquals(drive.steps, 1);
+        assertTrue(group.hasFinished(drive));
+        scheduler.execute();
+        scheduler.execute();
+        assertEquals(drive.steps, 1);
+        assertFalse(group.isRunning());
+        assertEquals(moveLift.interruptions, 0);
+        assertNull(lift.getRequiringCommand());
+    }
+
+    @Test
+    public void testRaceAndDeadline() {
+        Scheduler scheduler = createScheduler();
+        CountingCommand slow = new CountingCommand("slow", 3);
+        CountingCommand fast = new CountingCommand("fast", 1);
+        scheduler.startCommand(new RaceCommand("race", slow, fast));
+        scheduler.execute();
+        assertFalse(slow.isRunning());
+        assertEquals(slow.interruptions, 1);
+
+        // the deadline finishes before the other command is started
+        scheduler.startCommand(new DeadlineCommand("deadline", fast, slow));
+        scheduler.execute();
+        assertFalse(slow.isRunning());
+        assertEquals(slow.initializations, 1);
+
+        DeadlineCommand deadline = new DeadlineCommand("deadline2", slow, fast);
+        scheduler.startCommand(deadline);
+        scheduler.execute();
+        assertTrue(deadline.isRunning());
+        scheduler.execute();
+        scheduler.execute();
+        assertFalse(deadline.isRunning());
+        assertEquals(slow.interruptions, 1);
+        assertEquals(fast.steps, 1);
+    }
+
+    @Test
+    public void testParallelChildCancelled() {
+        Scheduler scheduler = createScheduler();
+        CountingCommand first = new CountingCommand("first", Integer.MAX_VALUE);
+        CountingCommand second = new CountingCommand("second", Integer.MAX_VALUE);
+        ParallelCommand group = new ParallelCommand("group", first, second);
+        scheduler.startCommand(group);
+        scheduler.execute();
+        first.cancel();
+        scheduler.execute();
+        scheduler.execute();
+        assertFalse(group.isRunning());
+        assertEquals(first.interruptions, 1);
+        assertEquals(second.interruptions, 1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testParallelConflict() {
+        Subsystem lift = new TestSubsystem("lift");
+        CountingCommand first = new CountingCommand("first", 1);
+        first.requires(lift);
+        CountingCommand second = new CountingCommand("second", 1);
+        second.requires(lift);
+        new ParallelCommand("group", first, second);
+    }
+}
@@ -0,0 +1,90 @@
+package org.teamtators.common.util;
+
+import org.testng.annotations.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.testng.Assert.*;
+
+public class RingBufferTest {
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void testHistory() {
+        DoubleRingBuffer buf = new DoubleRingBuffer(5);
+        assertEquals(buf.getCapacity(), 5);
+        assertTrue(buf.isEmpty());
+        for (int i = 0; i < 5; i++) {
+            assertTrue(buf.push(i));
+        }
+        assertTrue(buf.isFull());
+        // overwrites the oldest, and wraps around the 8 long array
+        for (int i = 5; i < 13; i++) {
+            assertFalse(buf.push(i));
+        }
+        assertEquals(buf.size(), 5);
+        assertEquals(buf.getOldest(), 8.0);
+        assertEquals(buf.getNewest(), 12.0);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(buf.get(i), 8.0 + i);
+        }
+        double[] copy = new double[7];
+        assertEquals(buf.copyTo(copy, 2), 5);
+        assertEquals(copy, new double[]{0, 0, 8, 9, 10, 11, 12});
+
+        assertEquals(buf.pop(), 8.0);
+        assertEquals(buf.size(), 4);
+        buf.clear();
+        assertTrue(buf.isEmpty());
+        assertThrows(NoSuchElementException.class, buf::pop);
+        assertThrows(IndexOutOfBoundsException.class, () -> buf.get(0));
+    }
+
+    @Test
+    public void testStatistics() {
+        DoubleRingBuffer doubles = new DoubleRingBuffer(4);
+        for (int i = 0; i < 10; i++) {
+            doubles.push(i * 0.5 + (i % 2 == 0 ? 0.1 : -0.1));
+        }
+        assertEquals(doubles.sum(), 3.0 + 3.5 + 4.0 + 4.5, DELTA);
+        assertEquals(doubles.mean(), 3.75, DELTA);
+        assertEquals(doubles.min(), 3.1, DELTA);
+        assertEquals(doubles.max(), 4.4, DELTA);
+
+        DoubleRingBuffer ramp = new DoubleRingBuffer(4);
+        for (int i = 0; i < 10; i++) {
+            ramp.push(i * 1000);
+        }
+        // 1000 per sample, sampled every 10 ms
+        assertEquals(ramp.derivative(0.01), 100000.0, DELTA);
+
+        DoubleRingBuffer empty = new DoubleRingBuffer(3);
+        assertEquals(empty.mean(), 0.0);
+        assertEquals(empty.derivative(1.0), 0.0);
+        assertThrows(NoSuchElementException.class, empty::max);
+    }
+
+    @Test
+    public void testConcurrentQueue() throws InterruptedException {
+        int count = 100000;
+        DoubleRingBuffer queue = new DoubleRingBuffer(64, true);
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                while (!queue.push(i)) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+        double[] drained = new double[64];
+        int expected = 0;
+        while (expected < count) {
+            int n = queue.drainTo(drained);
+            for (int i = 0; i < n; i++) {
+                assertEquals(drained[i], (double) expected++);
+            }
+        }
+        producer.join();
+        assertTrue(queue.isEmpty());
+    }
+}
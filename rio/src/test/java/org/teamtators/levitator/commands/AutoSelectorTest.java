@@ -0,0 +1,38 @@
+package org.teamtators.levitator.commands;
+
+import org.teamtators.common.util.FieldSide;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+import static org.testng.Assert.*;
+
+public class AutoSelectorTest {
+    @Test
+    public void testFieldConfiguration() {
+        AutoSelector.Config config = new AutoSelector.Config();
+        config.type = AutoSelector.SelectorType.FIELD_CONFIGURATION;
+        config.object = 1;
+        config.L = "ScaleLeft";
+        config.R = "ScaleRight";
+
+        assertEquals(AutoSelector.getChoiceNames(config), Arrays.asList("ScaleLeft", "ScaleRight", "NoAuto"));
+        assertEquals(AutoSelector.getChoice(config, FieldSide.LEFT), "ScaleLeft");
+        assertEquals(AutoSelector.getChoice(config, FieldSide.RIGHT), "ScaleRight");
+        assertEquals(AutoSelector.getChoice(config, FieldSide.UNKNOWN), "NoAuto");
+    }
+
+    @Test
+    public void testStartingPosition() {
+        AutoSelector.Config config = new AutoSelector.Config();
+        config.type = AutoSelector.SelectorType.STARTING_POSITION;
+        config.left = "StartLeft";
+        config.right = "StartRight";
+
+        assertEquals(AutoSelector.getChoiceNames(config), Arrays.asList("StartLeft", null, "StartRight", "NoAuto"));
+        assertEquals(AutoSelector.getChoice(config, "Left"), "StartLeft");
+        assertEquals(AutoSelector.getChoice(config, "Right"), "StartRight");
+        assertEquals(AutoSelector.getChoice(config, "Center"), "NoAuto");
+        assertEquals(AutoSelector.getChoice(config, "!!!unselected_start_pos!!!"), "NoAuto");
+    }
+}
@@ -0,0 +1,86 @@
+package org.teamtators.levitator.commands;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.teamtators.common.TatorRobotBase;
+import org.teamtators.common.config.ConfigCommandStore;
+import org.teamtators.common.config.ConfigLoader;
+import org.teamtators.common.control.UpdatableCollection;
+import org.teamtators.common.hw.sim.LinearMechanismSim;
+import org.teamtators.common.hw.sim.Simulation;
+import org.teamtators.common.hw.sim.TankDriveSim;
+import org.teamtators.common.scheduler.Command;
+import org.teamtators.common.scheduler.RobotState;
+import org.teamtators.common.scheduler.Scheduler;
+import org.teamtators.levitator.subsystems.Drive;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+import static org.testng.Assert.*;
+
+/**
+ * Runs the line cross auto from the robot's config against a simulated drivetrain
+ */
+public class LineCrossAutoTest {
+    private static final String CONFIG_DIR = System.getProperty("configDir", "../config");
+    private static final double PERIOD = TatorRobotBase.CONTROL_LOOP_PERIOD;
+
+    // each side has 2 CIMs driving 6in wheels, geared for the drive's maxSpeed of 136 in/s
+    private static LinearMechanismSim.Config sideConfig() {
+        LinearMechanismSim.Config config = new LinearMechanismSim.Config();
+        config.mass = 30.0;
+        config.gearing = 12.3;
+        config.drumRadius = 3.0;
+        config.motorCount = 2;
+        config.stallTorque = 2.42;
+        config.freeSpeed = 5330 * 2 * Math.PI / 60;
+        config.coulombFriction = 20.0;
+        config.viscousFriction = 10.0;
+        return config;
+    }
+
+    @Test
+    public void testLineCrossAuto() throws Exception {
+        ConfigLoader configLoader = new ConfigLoader(CONFIG_DIR, TatorRobotBase.configMapper);
+
+        ObjectNode driveConfigNode = (ObjectNode) configLoader.load("Subsystems.yaml").get("drive");
+        // the hardware is replaced by the simulation, and odometry is updated in the control loop
+        driveConfigNode.remove(Arrays.asList("leftMotor", "rightMotor", "leftEncoder", "rightEncoder"));
+        driveConfigNode.put("odometryPeriod", 0.0);
+        Drive.Config driveConfig = TatorRobotBase.configMapper.treeToValue(driveConfigNode, Drive.Config.class);
+
+        TankDriveSim driveSim = new TankDriveSim(sideConfig(), driveConfig.tankKinematics.getEffectiveTrackWidth());
+        Drive drive = new Drive();
+        drive.configure(driveConfig, driveSim.getLeft().getMotor(), driveSim.getRight().getMotor(),
+                driveSim.getLeft().getEncoder(), driveSim.getRight().getEncoder(), driveSim.getGyro());
+
+        ObjectNode commandsConfig = (ObjectNode) configLoader.load("Commands.yaml");
+        double distance = commandsConfig.get("LineCrossAuto").get("distance").asDouble();
+        ConfigCommandStore commandStore = new ConfigCommandStore();
+        commandStore.registerCommand("DriveStraight", () -> new DriveStraight(drive));
+        commandStore.createCommandsFromConfig(commandsConfig);
+        Command auto = commandStore.getCommand("LineCrossAuto");
+
+        Scheduler scheduler = new Scheduler();
+        scheduler.registerSubsystem(drive);
+        UpdatableCollection controlLoop = new UpdatableCollection("controlLoop");
+        controlLoop.add(delta -> scheduler.execute());
+        controlLoop.addAll(drive.getUpdatables());
+
+        Simulation simulation = new Simulation(controlLoop, PERIOD);
+        simulation.addModel(driveSim::update);
+        try {
+            simulation.start();
+            scheduler.onEnterRobotState(RobotState.AUTONOMOUS);
+            scheduler.startCommand(auto);
+            assertTrue(simulation.runUntil(() -> !auto.isRunning(), 5.0), "LineCrossAuto did not finish");
+        } finally {
+            simulation.stop();
+        }
+
+        assertEquals(driveSim.getY(), distance, 3.0);
+        assertEquals(driveSim.getX(), 0.0, 3.0);
+        assertEquals(driveSim.getYaw(), 0.0, 2.0);
+        assertEquals((drive.getLeftDistance() + drive.getRightDistance()) / 2, distance, 3.0);
+    }
+}